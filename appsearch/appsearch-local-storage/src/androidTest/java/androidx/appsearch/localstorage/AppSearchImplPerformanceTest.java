@@ -0,0 +1,482 @@
+/*
+ * Copyright 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.appsearch.localstorage;
+
+import static androidx.appsearch.localstorage.util.PrefixUtil.addPrefixToDocument;
+import static androidx.appsearch.localstorage.util.PrefixUtil.createPrefix;
+import static androidx.appsearch.localstorage.util.PrefixUtil.removePrefixesFromDocument;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.appsearch.app.AppSearchBatchResult;
+import androidx.appsearch.app.AppSearchSchema;
+import androidx.appsearch.app.GenericDocument;
+import androidx.appsearch.app.InternalSetSchemaResponse;
+import androidx.appsearch.app.SearchResult;
+import androidx.appsearch.app.SearchResultPage;
+import androidx.appsearch.app.SearchSpec;
+import androidx.appsearch.localstorage.util.PrefixUtil;
+
+import com.google.android.icing.proto.DocumentProto;
+import com.google.android.icing.proto.PropertyProto;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Compares the time taken by different ways of using {@link AppSearchImpl} on the same data.
+ * The results are checked, the times are only logged.
+ */
+public class AppSearchImplPerformanceTest {
+    private static final String TAG = "AppSearchImplPerfTest";
+
+    @Rule
+    public TemporaryFolder mTemporaryFolder = new TemporaryFolder();
+
+    private AppSearchImpl mAppSearchImpl;
+
+    @Before
+    public void setUp() throws Exception {
+        mAppSearchImpl = AppSearchImpl.create(
+                mTemporaryFolder.newFolder(),
+                new UnlimitedLimitConfig(),
+                /*initStatsBuilder=*/ null,
+                optimizeInfo -> false,
+                /*visibilityChecker=*/ null);
+    }
+
+    @After
+    public void tearDown() {
+        mAppSearchImpl.close();
+    }
+
+    private void setMessageSchema(String databaseName) throws Exception {
+        List<AppSearchSchema> schemas = Collections.singletonList(
+                new AppSearchSchema.Builder("Message")
+                        .addProperty(new AppSearchSchema.StringPropertyConfig.Builder("subject")
+                                .setCardinality(AppSearchSchema.PropertyConfig.CARDINALITY_OPTIONAL)
+                                .setIndexingType(
+                                        AppSearchSchema.StringPropertyConfig
+                                                .INDEXING_TYPE_PREFIXES)
+                                .setTokenizerType(
+                                        AppSearchSchema.StringPropertyConfig.TOKENIZER_TYPE_PLAIN)
+                                .build())
+                        .addProperty(new AppSearchSchema.StringPropertyConfig.Builder("body")
+                                .setCardinality(AppSearchSchema.PropertyConfig.CARDINALITY_OPTIONAL)
+                                .setIndexingType(
+                                        AppSearchSchema.StringPropertyConfig
+                                                .INDEXING_TYPE_PREFIXES)
+                                .setTokenizerType(
+                                        AppSearchSchema.StringPropertyConfig.TOKENIZER_TYPE_PLAIN)
+                                .build())
+                        .addProperty(new AppSearchSchema.LongPropertyConfig.Builder("timestamp")
+                                .setCardinality(AppSearchSchema.PropertyConfig.CARDINALITY_OPTIONAL)
+                                .build())
+                        .build());
+        InternalSetSchemaResponse internalSetSchemaResponse = mAppSearchImpl.setSchema(
+                "package",
+                databaseName,
+                schemas,
+                /*visibilityDocuments=*/ Collections.emptyList(),
+                /*forceOverride=*/ false,
+                /*version=*/ 0,
+                /* setSchemaStatsBuilder= */ null);
+        assertThat(internalSetSchemaResponse.isSuccess()).isTrue();
+    }
+
+    private static List<GenericDocument> createMessages(int count) {
+        List<GenericDocument> documents = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            documents.add(new GenericDocument.Builder<>("namespace", "id" + i, "Message")
+                    .setPropertyString("subject", "subject of message " + i)
+                    .setPropertyString("body", "body of message " + i + " with a few more words")
+                    .setPropertyLong("timestamp", i)
+                    .build());
+        }
+        return documents;
+    }
+
+    private void assertAllPut(String databaseName, List<GenericDocument> documents)
+            throws Exception {
+        GenericDocument last = documents.get(documents.size() - 1);
+        assertThat(mAppSearchImpl.getDocument("package", databaseName, last.getNamespace(),
+                last.getId(), Collections.emptyMap())).isEqualTo(last);
+        assertThat(mAppSearchImpl.getStorageInfoForDatabase("package", databaseName)
+                .getAliveDocumentsCount()).isEqualTo(documents.size());
+    }
+
+    @Test
+    public void testBatchPutDocuments_vsPutDocument() throws Exception {
+        setMessageSchema("single");
+        setMessageSchema("batch");
+        int count = 2000;
+        List<GenericDocument> documents = createMessages(count);
+
+        long start = SystemClock.elapsedRealtime();
+        for (int i = 0; i < count; i++) {
+            mAppSearchImpl.putDocument(
+                    "package",
+                    "single",
+                    documents.get(i),
+                    /*sendChangeNotifications=*/ false,
+                    /*logger=*/ null);
+        }
+        long singleMillis = SystemClock.elapsedRealtime() - start;
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        AppSearchBatchResult<String, Void> result;
+        start = SystemClock.elapsedRealtime();
+        try {
+            result = mAppSearchImpl.batchPutDocuments(
+                    "package",
+                    "batch",
+                    documents,
+                    /*sendChangeNotifications=*/ false,
+                    executor,
+                    /*logger=*/ null);
+        } finally {
+            executor.shutdown();
+        }
+        long batchMillis = SystemClock.elapsedRealtime() - start;
+
+        assertThat(result.isSuccess()).isTrue();
+        assertAllPut("single", documents);
+        assertAllPut("batch", documents);
+        Log.i(TAG, count + " documents: putDocument " + singleMillis
+                + " ms, batchPutDocuments " + batchMillis + " ms");
+    }
+
+    /**
+     * Pages through the results of a query reading one property of each document, and reading
+     * one property after decoding every property of each document, as results used to be.
+     */
+    @Test
+    public void testQuery_readOnePropertyVsDecodeAll() throws Exception {
+        int documentCount = 500;
+        int propertyCount = 30;
+        AppSearchSchema.Builder schemaBuilder = new AppSearchSchema.Builder("Wide");
+        for (int i = 0; i < propertyCount; i++) {
+            schemaBuilder.addProperty(new AppSearchSchema.StringPropertyConfig.Builder("s" + i)
+                    .setCardinality(AppSearchSchema.PropertyConfig.CARDINALITY_REPEATED)
+                    .build());
+            schemaBuilder.addProperty(new AppSearchSchema.LongPropertyConfig.Builder("l" + i)
+                    .setCardinality(AppSearchSchema.PropertyConfig.CARDINALITY_REPEATED)
+                    .build());
+        }
+        InternalSetSchemaResponse internalSetSchemaResponse = mAppSearchImpl.setSchema(
+                "package",
+                "database",
+                Collections.singletonList(schemaBuilder.build()),
+                /*visibilityDocuments=*/ Collections.emptyList(),
+                /*forceOverride=*/ false,
+                /*version=*/ 0,
+                /* setSchemaStatsBuilder= */ null);
+        assertThat(internalSetSchemaResponse.isSuccess()).isTrue();
+        for (int i = 0; i < documentCount; i++) {
+            GenericDocument.Builder<?> builder =
+                    new GenericDocument.Builder<>("namespace", "id" + i, "Wide");
+            for (int j = 0; j < propertyCount; j++) {
+                builder.setPropertyString("s" + j, "value " + j, "other value " + j);
+                builder.setPropertyLong("l" + j, i, j);
+            }
+            mAppSearchImpl.putDocument("package", "database", builder.build(),
+                    /*sendChangeNotifications=*/ false, /*logger=*/ null);
+        }
+
+        // Warm up both paths before timing them.
+        readAllPages(documentCount, /*decodeAll=*/ false);
+        readAllPages(documentCount, /*decodeAll=*/ true);
+
+        long start = SystemClock.elapsedRealtime();
+        readAllPages(documentCount, /*decodeAll=*/ true);
+        long decodeAllMillis = SystemClock.elapsedRealtime() - start;
+        start = SystemClock.elapsedRealtime();
+        readAllPages(documentCount, /*decodeAll=*/ false);
+        long lazyMillis = SystemClock.elapsedRealtime() - start;
+        Log.i(TAG, "Read 1 of " + (propertyCount * 2) + " properties of " + documentCount
+                + " results: decoding all " + decodeAllMillis + " ms, lazily " + lazyMillis
+                + " ms");
+    }
+
+    private void readAllPages(int documentCount, boolean decodeAll) throws Exception {
+        SearchSpec searchSpec = new SearchSpec.Builder()
+                .setTermMatch(SearchSpec.TERM_MATCH_PREFIX)
+                .setResultCountPerPage(100)
+                .build();
+        SearchResultPage page = mAppSearchImpl.query("package", "database", "", searchSpec,
+                /*logger=*/ null);
+        int count = 0;
+        while (!page.getResults().isEmpty()) {
+            for (SearchResult result : page.getResults()) {
+                GenericDocument document = result.getGenericDocument();
+                if (decodeAll) {
+                    document.getBundle();
+                }
+                assertThat(document.getPropertyString("s0")).isEqualTo("value 0");
+                count++;
+            }
+            page = mAppSearchImpl.getNextPage("package", page.getNextPageToken(),
+                    /*statsBuilder=*/ null);
+        }
+        assertThat(count).isEqualTo(documentCount);
+    }
+
+    /**
+     * Puts documents from several threads, each thread into its own database, then every thread
+     * into one shared database. Writers to different databases only share the read side of the
+     * global lock, while writers to the same database wait for each other.
+     */
+    @Test
+    public void testConcurrentPuts_separateVsSharedDatabase() throws Exception {
+        int threadCount = 4;
+        int countPerThread = 300;
+        for (int i = 0; i < threadCount; i++) {
+            setMessageSchema("database" + i);
+        }
+        setMessageSchema("shared");
+
+        // Each thread uses its own namespace so their documents don't replace each other.
+        long separateMillis = putConcurrently(threadCount, countPerThread, /*shared=*/ false);
+        long sharedMillis = putConcurrently(threadCount, countPerThread, /*shared=*/ true);
+
+        for (int i = 0; i < threadCount; i++) {
+            assertThat(mAppSearchImpl.getStorageInfoForDatabase("package", "database" + i)
+                    .getAliveDocumentsCount()).isEqualTo(countPerThread);
+        }
+        assertThat(mAppSearchImpl.getStorageInfoForDatabase("package", "shared")
+                .getAliveDocumentsCount()).isEqualTo(threadCount * countPerThread);
+        Log.i(TAG, threadCount + " threads putting " + countPerThread + " documents each: "
+                + "separate databases " + separateMillis + " ms, shared database "
+                + sharedMillis + " ms");
+    }
+
+    private long putConcurrently(int threadCount, int countPerThread, boolean shared)
+            throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        List<Future<?>> futures = new ArrayList<>(threadCount);
+        long start = SystemClock.elapsedRealtime();
+        try {
+            for (int i = 0; i < threadCount; i++) {
+                String databaseName = shared ? "shared" : "database" + i;
+                String namespace = "namespace" + i;
+                futures.add(executor.submit(() -> {
+                    for (int j = 0; j < countPerThread; j++) {
+                        mAppSearchImpl.putDocument(
+                                "package",
+                                databaseName,
+                                new GenericDocument.Builder<>(namespace, "id" + j, "Message")
+                                        .setPropertyString("subject", "subject of message " + j)
+                                        .setPropertyLong("timestamp", j)
+                                        .build(),
+                                /*sendChangeNotifications=*/ false,
+                                /*logger=*/ null);
+                    }
+                    return null;
+                }));
+            }
+            for (int i = 0; i < futures.size(); i++) {
+                futures.get(i).get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        return SystemClock.elapsedRealtime() - start;
+    }
+
+    /**
+     * Reads every page of a query through {@link SearchResultsImpl}, with pages fetched on
+     * demand and with two pages prefetched, while the caller spends some time on each page.
+     */
+    @Test
+    public void testSearchResults_prefetchVsOnDemand() throws Exception {
+        setMessageSchema("database");
+        List<GenericDocument> documents = createMessages(1000);
+        for (int i = 0; i < documents.size(); i++) {
+            mAppSearchImpl.putDocument("package", "database", documents.get(i),
+                    /*sendChangeNotifications=*/ false, /*logger=*/ null);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            // Warm up both paths before timing them.
+            consumeAllPages(executor, /*prefetchPageCount=*/ 0, documents.size());
+            consumeAllPages(executor, /*prefetchPageCount=*/ 2, documents.size());
+
+            long start = SystemClock.elapsedRealtime();
+            consumeAllPages(executor, /*prefetchPageCount=*/ 0, documents.size());
+            long onDemandMillis = SystemClock.elapsedRealtime() - start;
+            start = SystemClock.elapsedRealtime();
+            consumeAllPages(executor, /*prefetchPageCount=*/ 2, documents.size());
+            long prefetchMillis = SystemClock.elapsedRealtime() - start;
+            Log.i(TAG, "Read " + documents.size() + " results in pages of 20: on demand "
+                    + onDemandMillis + " ms, prefetching 2 pages " + prefetchMillis + " ms");
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private void consumeAllPages(ExecutorService executor, int prefetchPageCount,
+            int documentCount) throws Exception {
+        SearchSpec searchSpec = new SearchSpec.Builder()
+                .setTermMatch(SearchSpec.TERM_MATCH_PREFIX)
+                .setResultCountPerPage(20)
+                .build();
+        SearchResultsImpl searchResults = new SearchResultsImpl(
+                mAppSearchImpl,
+                executor,
+                "package",
+                "database",
+                "",
+                searchSpec,
+                /*logger=*/ null,
+                prefetchPageCount);
+        int count = 0;
+        List<SearchResult> results = searchResults.getNextPageAsync().get();
+        while (!results.isEmpty()) {
+            for (int i = 0; i < results.size(); i++) {
+                GenericDocument document = results.get(i).getGenericDocument();
+                assertThat(document.getPropertyString("subject"))
+                        .isEqualTo("subject of message " + document.getPropertyLong("timestamp"));
+                count++;
+            }
+            // Stand-in for the caller binding the page to its UI.
+            SystemClock.sleep(2);
+            results = searchResults.getNextPageAsync().get();
+        }
+        searchResults.close();
+        assertThat(count).isEqualTo(documentCount);
+    }
+
+    /**
+     * Rewrites the prefixes of documents holding nested documents, as puts and queries do, with
+     * {@link PrefixUtil} and with plain string concatenation and substrings.
+     */
+    @Test
+    public void testRewriteNestedDocumentPrefixes_vsPlainRewrite() throws Exception {
+        String prefix = createPrefix("package", "databaseName");
+        List<DocumentProto> documents = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            PropertyProto.Builder nestedProperty = PropertyProto.newBuilder().setName("nested");
+            for (int j = 0; j < 10; j++) {
+                DocumentProto innerDocument = DocumentProto.newBuilder()
+                        .setUri("inner-id" + j)
+                        .setSchema("InnerType")
+                        .setNamespace("namespace")
+                        .build();
+                nestedProperty.addDocumentValues(DocumentProto.newBuilder()
+                        .setUri("nested-id" + j)
+                        .setSchema("NestedType")
+                        .setNamespace("namespace")
+                        .addProperties(PropertyProto.newBuilder()
+                                .setName("inner")
+                                .addDocumentValues(innerDocument)));
+            }
+            documents.add(DocumentProto.newBuilder()
+                    .setUri("id" + i)
+                    .setSchema("Type")
+                    .setNamespace("namespace")
+                    .addProperties(nestedProperty)
+                    .build());
+        }
+
+        // Warm up both paths before timing them.
+        rewriteAll(documents, prefix, /*plain=*/ false);
+        rewriteAll(documents, prefix, /*plain=*/ true);
+
+        long start = SystemClock.elapsedRealtime();
+        for (int i = 0; i < 10; i++) {
+            rewriteAll(documents, prefix, /*plain=*/ true);
+        }
+        long plainMillis = SystemClock.elapsedRealtime() - start;
+        start = SystemClock.elapsedRealtime();
+        for (int i = 0; i < 10; i++) {
+            rewriteAll(documents, prefix, /*plain=*/ false);
+        }
+        long prefixUtilMillis = SystemClock.elapsedRealtime() - start;
+        Log.i(TAG, "Rewrote 10x " + documents.size() + " documents with 20 nested documents: "
+                + "plain " + plainMillis + " ms, PrefixUtil " + prefixUtilMillis + " ms");
+    }
+
+    private static void rewriteAll(List<DocumentProto> documents, String prefix, boolean plain)
+            throws Exception {
+        for (int i = 0; i < documents.size(); i++) {
+            DocumentProto.Builder documentBuilder = documents.get(i).toBuilder();
+            if (plain) {
+                plainAddPrefix(documentBuilder, prefix);
+            } else {
+                addPrefixToDocument(documentBuilder, prefix);
+            }
+            assertThat(documentBuilder.getProperties(0).getDocumentValues(9)
+                    .getProperties(0).getDocumentValues(0).getSchema())
+                    .isEqualTo(prefix + "InnerType");
+            if (plain) {
+                plainRemovePrefix(documentBuilder, prefix);
+            } else {
+                assertThat(removePrefixesFromDocument(documentBuilder)).isEqualTo(prefix);
+            }
+            assertThat(documentBuilder.build()).isEqualTo(documents.get(i));
+        }
+    }
+
+    /** Prepends {@code prefix} to every type and namespace, allocating each string anew. */
+    private static void plainAddPrefix(DocumentProto.Builder documentBuilder, String prefix) {
+        documentBuilder.setSchema(prefix + documentBuilder.getSchema());
+        documentBuilder.setNamespace(prefix + documentBuilder.getNamespace());
+        for (int i = 0; i < documentBuilder.getPropertiesCount(); i++) {
+            PropertyProto.Builder propertyBuilder = documentBuilder.getProperties(i).toBuilder();
+            for (int j = 0; j < propertyBuilder.getDocumentValuesCount(); j++) {
+                DocumentProto.Builder nestedBuilder =
+                        propertyBuilder.getDocumentValues(j).toBuilder();
+                plainAddPrefix(nestedBuilder, prefix);
+                propertyBuilder.setDocumentValues(j, nestedBuilder);
+            }
+            documentBuilder.setProperties(i, propertyBuilder);
+        }
+    }
+
+    /** Removes {@code prefix} from every type and namespace, allocating each string anew. */
+    private static void plainRemovePrefix(DocumentProto.Builder documentBuilder, String prefix)
+            throws Exception {
+        assertThat(PrefixUtil.getPrefix(documentBuilder.getSchema())).isEqualTo(prefix);
+        assertThat(PrefixUtil.getPrefix(documentBuilder.getNamespace())).isEqualTo(prefix);
+        documentBuilder.setSchema(PrefixUtil.removePrefix(documentBuilder.getSchema()));
+        documentBuilder.setNamespace(PrefixUtil.removePrefix(documentBuilder.getNamespace()));
+        for (int i = 0; i < documentBuilder.getPropertiesCount(); i++) {
+            PropertyProto.Builder propertyBuilder = documentBuilder.getProperties(i).toBuilder();
+            for (int j = 0; j < propertyBuilder.getDocumentValuesCount(); j++) {
+                DocumentProto.Builder nestedBuilder =
+                        propertyBuilder.getDocumentValues(j).toBuilder();
+                plainRemovePrefix(nestedBuilder, prefix);
+                propertyBuilder.setDocumentValues(j, nestedBuilder);
+            }
+            documentBuilder.setProperties(i, propertyBuilder);
+        }
+    }
+}
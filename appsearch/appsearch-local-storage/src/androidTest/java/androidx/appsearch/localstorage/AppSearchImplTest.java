@@ -27,6 +27,7 @@ import static org.junit.Assert.assertThrows;
 
 import android.content.Context;
 
+import androidx.appsearch.app.AppSearchBatchResult;
 import androidx.appsearch.app.AppSearchResult;
 import androidx.appsearch.app.AppSearchSchema;
 import androidx.appsearch.app.GenericDocument;
@@ -89,6 +90,12 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
 
 @SuppressWarnings("GuardedBy")
 public class AppSearchImplTest {
@@ -384,6 +391,69 @@ public class AppSearchImplTest {
         assertThat(e).hasMessageThat().contains("Found unexpected multiple prefix names");
     }
 
+    @Test
+    public void testCreatePrefix_interned() throws Exception {
+        String prefix = createPrefix("package", "databaseName");
+        assertThat(prefix).isEqualTo("package$databaseName/");
+        assertThat(createPrefix("package", "databaseName")).isSameInstanceAs(prefix);
+
+        // A prefix read back from a document maps to the same interned prefix.
+        String rebuiltPrefix = new StringBuilder("package$").append("databaseName/").toString();
+        DocumentProto.Builder documentBuilder = DocumentProto.newBuilder()
+                .setUri("id")
+                .setSchema(rebuiltPrefix + "type")
+                .setNamespace(rebuiltPrefix + "namespace");
+        assertThat(removePrefixesFromDocument(documentBuilder)).isSameInstanceAs(prefix);
+        assertThat(PrefixUtil.getPackageName(rebuiltPrefix)).isEqualTo("package");
+        assertThat(PrefixUtil.getDatabaseName(rebuiltPrefix)).isEqualTo("databaseName");
+    }
+
+    @Test
+    public void testRewriteNestedDocumentPrefixes() throws Exception {
+        String prefix = createPrefix("package", "databaseName");
+        List<DocumentProto> documents = new ArrayList<>();
+        // Use more distinct schema types than each prefix caches, so some are evicted.
+        for (int i = 0; i < 300; i++) {
+            DocumentProto innerDocument = DocumentProto.newBuilder()
+                    .setUri("inner-id" + i)
+                    .setSchema("InnerType" + i)
+                    .setNamespace("namespace")
+                    .build();
+            DocumentProto nestedDocument = DocumentProto.newBuilder()
+                    .setUri("nested-id" + i)
+                    .setSchema("NestedType")
+                    .setNamespace("namespace")
+                    .addProperties(PropertyProto.newBuilder()
+                            .setName("inner")
+                            .addDocumentValues(innerDocument))
+                    .build();
+            documents.add(DocumentProto.newBuilder()
+                    .setUri("id" + i)
+                    .setSchema("Type")
+                    .setNamespace("namespace")
+                    .addProperties(PropertyProto.newBuilder()
+                            .setName("nested")
+                            .addDocumentValues(nestedDocument))
+                    .build());
+        }
+
+        // Rewrite every document twice, the second round reads from the per-prefix caches.
+        for (int round = 0; round < 2; round++) {
+            for (int i = 0; i < documents.size(); i++) {
+                DocumentProto.Builder documentBuilder = documents.get(i).toBuilder();
+                addPrefixToDocument(documentBuilder, prefix);
+                DocumentProto prefixedDocument = documentBuilder.build();
+                assertThat(prefixedDocument.getSchema()).isEqualTo(prefix + "Type");
+                assertThat(prefixedDocument.getProperties(0).getDocumentValues(0)
+                        .getProperties(0).getDocumentValues(0).getSchema())
+                        .isEqualTo(prefix + "InnerType" + i);
+
+                assertThat(removePrefixesFromDocument(documentBuilder)).isSameInstanceAs(prefix);
+                assertThat(documentBuilder.build()).isEqualTo(documents.get(i));
+            }
+        }
+    }
+
     @Test
     public void testTriggerCheckOptimizeByMutationSize() throws Exception {
         // Insert schema
@@ -2457,6 +2527,405 @@ public class AppSearchImplTest {
                 PersistType.Code.FULL));
     }
 
+    @Test
+    public void testBatchPutDocuments() throws Exception {
+        List<AppSearchSchema> schemas = Collections.singletonList(
+                new AppSearchSchema.Builder("type")
+                        .addProperty(new AppSearchSchema.StringPropertyConfig.Builder("subject")
+                                .setCardinality(AppSearchSchema.PropertyConfig.CARDINALITY_OPTIONAL)
+                                .setIndexingType(
+                                        AppSearchSchema.StringPropertyConfig
+                                                .INDEXING_TYPE_PREFIXES)
+                                .setTokenizerType(
+                                        AppSearchSchema.StringPropertyConfig.TOKENIZER_TYPE_PLAIN)
+                                .build())
+                        .build());
+        InternalSetSchemaResponse internalSetSchemaResponse = mAppSearchImpl.setSchema(
+                "package",
+                "database",
+                schemas,
+                /*visibilityDocuments=*/ Collections.emptyList(),
+                /*forceOverride=*/ false,
+                /*version=*/ 0,
+                /* setSchemaStatsBuilder= */ null);
+        assertThat(internalSetSchemaResponse.isSuccess()).isTrue();
+
+        // Enough documents to be converted by several tasks, one of them can't be indexed
+        int count = 3 * AppSearchImpl.BATCH_PUT_CONVERSION_CHUNK_SIZE + 1;
+        List<GenericDocument> documents = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            documents.add(new GenericDocument.Builder<>("namespace", "id" + i, "type")
+                    .setPropertyString(i == 100 ? "nonExist" : "subject", "subject " + i)
+                    .build());
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        AppSearchBatchResult<String, Void> result;
+        try {
+            result = mAppSearchImpl.batchPutDocuments(
+                    "package",
+                    "database",
+                    documents,
+                    /*sendChangeNotifications=*/ false,
+                    executor,
+                    /*logger=*/ null);
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat(result.getSuccesses()).hasSize(count - 1);
+        assertThat(result.getFailures().keySet()).containsExactly("id100");
+        assertThat(result.getFailures().get("id100").getResultCode())
+                .isEqualTo(AppSearchResult.RESULT_NOT_FOUND);
+        for (int i : new int[]{0, 99, 101, count - 1}) {
+            GenericDocument getResult = mAppSearchImpl.getDocument("package", "database",
+                    "namespace", "id" + i, Collections.emptyMap());
+            assertThat(getResult).isEqualTo(documents.get(i));
+        }
+        assertThat(mAppSearchImpl.getNamespaces("package", "database"))
+                .containsExactly("namespace");
+    }
+
+    @Test
+    public void testBatchPutDocuments_busyExecutor() throws Exception {
+        List<AppSearchSchema> schemas =
+                Collections.singletonList(new AppSearchSchema.Builder("type").build());
+        InternalSetSchemaResponse internalSetSchemaResponse = mAppSearchImpl.setSchema(
+                "package",
+                "database",
+                schemas,
+                /*visibilityDocuments=*/ Collections.emptyList(),
+                /*forceOverride=*/ false,
+                /*version=*/ 0,
+                /* setSchemaStatsBuilder= */ null);
+        assertThat(internalSetSchemaResponse.isSuccess()).isTrue();
+
+        List<GenericDocument> documents = new ArrayList<>();
+        for (int i = 0; i < 4 * AppSearchImpl.BATCH_PUT_CONVERSION_CHUNK_SIZE; i++) {
+            documents.add(new GenericDocument.Builder<>("namespace", "id" + i, "type").build());
+        }
+
+        // The only thread of the executor is blocked, the calling thread must convert the whole
+        // batch instead of waiting for the queued tasks.
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        CountDownLatch blocked = new CountDownLatch(1);
+        executor.execute(() -> {
+            try {
+                blocked.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        try {
+            AppSearchBatchResult<String, Void> result = mAppSearchImpl.batchPutDocuments(
+                    "package",
+                    "database",
+                    documents,
+                    /*sendChangeNotifications=*/ false,
+                    executor,
+                    /*logger=*/ null);
+            assertThat(result.isSuccess()).isTrue();
+            assertThat(result.getSuccesses()).hasSize(documents.size());
+        } finally {
+            blocked.countDown();
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testBatchPutDocuments_limitConfig() throws Exception {
+        // Create a new mAppSearchImpl with a lower limit
+        mAppSearchImpl.close();
+        mAppSearchImpl = AppSearchImpl.create(
+                mTemporaryFolder.newFolder(),
+                new LimitConfig() {
+                    @Override
+                    public int getMaxDocumentSizeBytes() {
+                        return Integer.MAX_VALUE;
+                    }
+
+                    @Override
+                    public int getMaxDocumentCount() {
+                        return 2;
+                    }
+
+                    @Override
+                    public int getMaxSuggestionCount() {
+                        return Integer.MAX_VALUE;
+                    }
+                },
+                /*initStatsBuilder=*/ null, ALWAYS_OPTIMIZE,
+                /*visibilityChecker=*/null);
+
+        List<AppSearchSchema> schemas =
+                Collections.singletonList(new AppSearchSchema.Builder("type").build());
+        InternalSetSchemaResponse internalSetSchemaResponse = mAppSearchImpl.setSchema(
+                "package",
+                "database",
+                schemas,
+                /*visibilityDocuments=*/ Collections.emptyList(),
+                /*forceOverride=*/ false,
+                /*version=*/ 0,
+                /* setSchemaStatsBuilder= */ null);
+        assertThat(internalSetSchemaResponse.isSuccess()).isTrue();
+
+        List<GenericDocument> documents = ImmutableList.of(
+                new GenericDocument.Builder<>("namespace", "id1", "type").build(),
+                new GenericDocument.Builder<>("namespace", "id2", "type").build(),
+                new GenericDocument.Builder<>("namespace", "id3", "type").build());
+        AppSearchBatchResult<String, Void> result = mAppSearchImpl.batchPutDocuments(
+                "package",
+                "database",
+                documents,
+                /*sendChangeNotifications=*/ false,
+                /*conversionExecutor=*/ null,
+                /*logger=*/ null);
+
+        assertThat(result.getSuccesses().keySet()).containsExactly("id1", "id2");
+        assertThat(result.getFailures().get("id3").getResultCode())
+                .isEqualTo(AppSearchResult.RESULT_OUT_OF_SPACE);
+        assertThat(result.getFailures().get("id3").getErrorMessage())
+                .contains("Package \"package\" exceeded limit of 2 documents");
+    }
+
+    @Test
+    public void testPutDocument_concurrentDatabases_limitConfig() throws Exception {
+        // Create a new mAppSearchImpl with a lower limit
+        mAppSearchImpl.close();
+        mAppSearchImpl = AppSearchImpl.create(
+                mTemporaryFolder.newFolder(),
+                new LimitConfig() {
+                    @Override
+                    public int getMaxDocumentSizeBytes() {
+                        return Integer.MAX_VALUE;
+                    }
+
+                    @Override
+                    public int getMaxDocumentCount() {
+                        return 20;
+                    }
+
+                    @Override
+                    public int getMaxSuggestionCount() {
+                        return Integer.MAX_VALUE;
+                    }
+                },
+                /*initStatsBuilder=*/ null, ALWAYS_OPTIMIZE,
+                /*visibilityChecker=*/null);
+
+        int databaseCount = 4;
+        List<AppSearchSchema> schemas =
+                Collections.singletonList(new AppSearchSchema.Builder("type").build());
+        for (int i = 0; i < databaseCount; i++) {
+            InternalSetSchemaResponse internalSetSchemaResponse = mAppSearchImpl.setSchema(
+                    "package",
+                    "database" + i,
+                    schemas,
+                    /*visibilityDocuments=*/ Collections.emptyList(),
+                    /*forceOverride=*/ false,
+                    /*version=*/ 0,
+                    /* setSchemaStatsBuilder= */ null);
+            assertThat(internalSetSchemaResponse.isSuccess()).isTrue();
+        }
+
+        // Each database puts more documents than the whole package is allowed to hold, so the
+        // databases race for the remaining space.
+        ExecutorService executor = Executors.newFixedThreadPool(databaseCount);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> successCounts = new ArrayList<>();
+        try {
+            for (int i = 0; i < databaseCount; i++) {
+                String database = "database" + i;
+                successCounts.add(executor.submit(() -> {
+                    start.await();
+                    int successCount = 0;
+                    for (int j = 0; j < 10; j++) {
+                        try {
+                            mAppSearchImpl.putDocument(
+                                    "package",
+                                    database,
+                                    new GenericDocument.Builder<>("namespace", "id" + j, "type")
+                                            .build(),
+                                    /*sendChangeNotifications=*/ false,
+                                    /*logger=*/ null);
+                            successCount++;
+                        } catch (AppSearchException e) {
+                            assertThat(e.getResultCode())
+                                    .isEqualTo(AppSearchResult.RESULT_OUT_OF_SPACE);
+                        }
+                    }
+                    return successCount;
+                }));
+            }
+            start.countDown();
+            int totalSuccessCount = 0;
+            for (int i = 0; i < databaseCount; i++) {
+                totalSuccessCount += successCounts.get(i).get();
+            }
+            assertThat(totalSuccessCount).isEqualTo(20);
+        } finally {
+            executor.shutdown();
+        }
+
+        StorageInfo storageInfo = mAppSearchImpl.getStorageInfoForPackage("package");
+        assertThat(storageInfo.getAliveDocumentsCount()).isEqualTo(20);
+    }
+
+    @Test
+    public void testPutDocument_concurrentDatabases_rebuildCountAtLimit() throws Exception {
+        // Create a new mAppSearchImpl with a lower limit
+        mAppSearchImpl.close();
+        mAppSearchImpl = AppSearchImpl.create(
+                mTemporaryFolder.newFolder(),
+                new LimitConfig() {
+                    @Override
+                    public int getMaxDocumentSizeBytes() {
+                        return Integer.MAX_VALUE;
+                    }
+
+                    @Override
+                    public int getMaxDocumentCount() {
+                        return 20;
+                    }
+
+                    @Override
+                    public int getMaxSuggestionCount() {
+                        return Integer.MAX_VALUE;
+                    }
+                },
+                /*initStatsBuilder=*/ null, ALWAYS_OPTIMIZE,
+                /*visibilityChecker=*/null);
+
+        int databaseCount = 4;
+        List<AppSearchSchema> schemas =
+                Collections.singletonList(new AppSearchSchema.Builder("type").build());
+        for (int i = 0; i < databaseCount; i++) {
+            InternalSetSchemaResponse internalSetSchemaResponse = mAppSearchImpl.setSchema(
+                    "package",
+                    "database" + i,
+                    schemas,
+                    /*visibilityDocuments=*/ Collections.emptyList(),
+                    /*forceOverride=*/ false,
+                    /*version=*/ 0,
+                    /* setSchemaStatsBuilder= */ null);
+            assertThat(internalSetSchemaResponse.isSuccess()).isTrue();
+        }
+
+        // Replace the same document over and over. The document count doesn't know about
+        // replacements, so it overcounts and has to be rebuilt while the puts below race for the
+        // remaining space.
+        for (int i = 0; i < 10; i++) {
+            mAppSearchImpl.putDocument(
+                    "package",
+                    "database0",
+                    new GenericDocument.Builder<>("namespace", "replaced", "type").build(),
+                    /*sendChangeNotifications=*/ false,
+                    /*logger=*/ null);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(databaseCount);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> successCounts = new ArrayList<>();
+        try {
+            for (int i = 0; i < databaseCount; i++) {
+                String database = "database" + i;
+                successCounts.add(executor.submit(() -> {
+                    start.await();
+                    int successCount = 0;
+                    for (int j = 0; j < 10; j++) {
+                        try {
+                            mAppSearchImpl.putDocument(
+                                    "package",
+                                    database,
+                                    new GenericDocument.Builder<>("namespace", "id" + j, "type")
+                                            .build(),
+                                    /*sendChangeNotifications=*/ false,
+                                    /*logger=*/ null);
+                            successCount++;
+                        } catch (AppSearchException e) {
+                            assertThat(e.getResultCode())
+                                    .isEqualTo(AppSearchResult.RESULT_OUT_OF_SPACE);
+                        }
+                    }
+                    return successCount;
+                }));
+            }
+            start.countDown();
+            int totalSuccessCount = 0;
+            for (int i = 0; i < databaseCount; i++) {
+                totalSuccessCount += successCounts.get(i).get();
+            }
+            // A put in flight while the count is rebuilt must be counted exactly once, so every
+            // remaining slot is used.
+            assertThat(totalSuccessCount).isEqualTo(19);
+        } finally {
+            executor.shutdown();
+        }
+
+        StorageInfo storageInfo = mAppSearchImpl.getStorageInfoForPackage("package");
+        assertThat(storageInfo.getAliveDocumentsCount()).isEqualTo(20);
+    }
+
+    @Test
+    public void testQuery_notBlockedByWriteToOtherDatabase() throws Exception {
+        List<AppSearchSchema> schemas =
+                Collections.singletonList(new AppSearchSchema.Builder("type").build());
+        for (String database : new String[]{"database1", "database2"}) {
+            InternalSetSchemaResponse internalSetSchemaResponse = mAppSearchImpl.setSchema(
+                    "package",
+                    database,
+                    schemas,
+                    /*visibilityDocuments=*/ Collections.emptyList(),
+                    /*forceOverride=*/ false,
+                    /*version=*/ 0,
+                    /* setSchemaStatsBuilder= */ null);
+            assertThat(internalSetSchemaResponse.isSuccess()).isTrue();
+            mAppSearchImpl.putDocument(
+                    "package",
+                    database,
+                    new GenericDocument.Builder<>("namespace", "id1", "type").build(),
+                    /*sendChangeNotifications=*/ false,
+                    /*logger=*/ null);
+        }
+        SearchSpec searchSpec =
+                new SearchSpec.Builder().setTermMatch(TermMatchType.Code.PREFIX_VALUE).build();
+
+        // Hold the lock of database1 the way a write to it does, until the end of the test.
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            Future<?> writer = executor.submit(() -> {
+                Lock databaseLock = mAppSearchImpl.getDatabaseLock(
+                        createPrefix("package", "database1")).writeLock();
+                databaseLock.lock();
+                try {
+                    locked.countDown();
+                    release.await();
+                } finally {
+                    databaseLock.unlock();
+                }
+                return null;
+            });
+            locked.await();
+
+            Future<SearchResultPage> blockedQuery = executor.submit(() -> mAppSearchImpl.query(
+                    "package", "database1", "", searchSpec, /*logger=*/ null));
+            SearchResultPage searchResultPage = executor.submit(() -> mAppSearchImpl.query(
+                    "package", "database2", "", searchSpec, /*logger=*/ null))
+                    .get(10, TimeUnit.SECONDS);
+            assertThat(searchResultPage.getResults()).hasSize(1);
+            assertThat(blockedQuery.isDone()).isFalse();
+
+            release.countDown();
+            writer.get();
+            assertThat(blockedQuery.get().getResults()).hasSize(1);
+        } finally {
+            release.countDown();
+            executor.shutdown();
+        }
+    }
+
     @Test
     public void testPutPersistsWithLiteFlush() throws Exception {
         List<AppSearchSchema> schemas =
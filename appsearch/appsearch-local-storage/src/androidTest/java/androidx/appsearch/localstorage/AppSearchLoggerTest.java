@@ -582,6 +582,73 @@ public class AppSearchLoggerTest {
         assertThat(pStats.getStatusCode()).isEqualTo(AppSearchResult.RESULT_NOT_FOUND);
     }
 
+    @Test
+    public void testLoggingStats_batchPutDocuments() throws Exception {
+        // Insert schema
+        final String testPackageName = "testPackage";
+        final String testDatabase = "testDatabase";
+        AppSearchSchema testSchema = new AppSearchSchema.Builder("type")
+                .addProperty(new AppSearchSchema.StringPropertyConfig.Builder("subject")
+                        .setCardinality(AppSearchSchema.PropertyConfig.CARDINALITY_OPTIONAL)
+                        .setIndexingType(
+                                AppSearchSchema.StringPropertyConfig.INDEXING_TYPE_PREFIXES)
+                        .setTokenizerType(AppSearchSchema.StringPropertyConfig.TOKENIZER_TYPE_PLAIN)
+                        .build())
+                .build();
+        List<AppSearchSchema> schemas = Collections.singletonList(testSchema);
+        InternalSetSchemaResponse internalSetSchemaResponse = mAppSearchImpl.setSchema(
+                testPackageName,
+                testDatabase,
+                schemas,
+                /*visibilityDocuments=*/ Collections.emptyList(),
+                /*forceOverride=*/ false,
+                /*version=*/ 0,
+                /* setSchemaStatsBuilder= */ null);
+        assertThat(internalSetSchemaResponse.isSuccess()).isTrue();
+
+        GenericDocument document1 =
+                new GenericDocument.Builder<>("namespace", "id1", "type")
+                        .setPropertyString("subject", "testPut example1")
+                        .build();
+        GenericDocument document2 =
+                new GenericDocument.Builder<>("namespace", "id2", "type")
+                        .setPropertyString("nonExist", "testPut example2")
+                        .build();
+        GenericDocument document3 =
+                new GenericDocument.Builder<>("namespace", "id3", "type")
+                        .setPropertyString("subject", "testPut example3 with more tokens")
+                        .build();
+
+        mAppSearchImpl.batchPutDocuments(
+                testPackageName,
+                testDatabase,
+                ImmutableList.of(document1, document2, document3),
+                /*sendChangeNotifications=*/ false,
+                /*conversionExecutor=*/ null,
+                mLogger);
+
+        // A single stats covers the whole batch
+        PutDocumentStats pStats = mLogger.mPutDocumentStats;
+        assertThat(pStats).isNotNull();
+        assertThat(pStats.getPackageName()).isEqualTo(testPackageName);
+        assertThat(pStats.getDatabase()).isEqualTo(testDatabase);
+        assertThat(pStats.getNumDocuments()).isEqualTo(3);
+        assertThat(pStats.getStatusCode()).isEqualTo(AppSearchResult.RESULT_NOT_FOUND);
+
+        mAppSearchImpl.putDocument(
+                testPackageName,
+                testDatabase,
+                document1,
+                /*sendChangeNotifications=*/ false,
+                mLogger);
+        PutDocumentStats singleStats = mLogger.mPutDocumentStats;
+        assertThat(singleStats.getNumDocuments()).isEqualTo(1);
+        assertThat(pStats.getNativeDocumentSizeBytes())
+                .isGreaterThan(singleStats.getNativeDocumentSizeBytes());
+        assertThat(pStats.getNativeNumTokensIndexed())
+                .isGreaterThan(singleStats.getNativeNumTokensIndexed());
+    }
+
     @Test
     public void testLoggingStats_search_success() throws Exception {
         // Insert schema
@@ -16,6 +16,8 @@
 // @exportToFramework:skipFile()
 package androidx.appsearch.localstorage;
 
+import static androidx.appsearch.localstorage.util.PrefixUtil.createPrefix;
+
 import static com.google.common.truth.Truth.assertThat;
 
 import androidx.appsearch.app.AppSearchSchema;
@@ -26,6 +28,7 @@ import androidx.appsearch.app.SearchSpec;
 
 import com.google.android.icing.proto.TermMatchType;
 import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ListenableFuture;
 
 import org.junit.After;
 import org.junit.Before;
@@ -36,7 +39,11 @@ import org.junit.rules.TemporaryFolder;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
 
 public class SearchResultsImplTest {
     /**
@@ -180,4 +187,231 @@ public class SearchResultsImplTest {
         results = searchResults.getNextPageAsync().get();
         assertThat(results).isEmpty();
     }
+
+    @Test
+    public void testGetNextPage_prefetch() throws Exception {
+        putMessages(25);
+
+        // Query for 2 results per page, so that there are more pages than prefetched ones.
+        SearchSpec searchSpec = new SearchSpec.Builder()
+                .setTermMatch(TermMatchType.Code.PREFIX_VALUE)
+                .setResultCountPerPage(2)
+                .build();
+        List<List<GenericDocument>> expectedPages = readAllPages(new SearchResultsImpl(
+                mAppSearchImpl,
+                Executors.newCachedThreadPool(),
+                "package1",
+                "database1",
+                "",
+                searchSpec,
+                /*logger=*/ null));
+        assertThat(expectedPages).hasSize(13);
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            SearchResultsImpl searchResults = new SearchResultsImpl(
+                    mAppSearchImpl,
+                    executor,
+                    "package1",
+                    "database1",
+                    "",
+                    searchSpec,
+                    /*logger=*/ null,
+                    /*prefetchPageCount=*/ 3);
+            assertThat(readAllPages(searchResults)).containsExactlyElementsIn(expectedPages)
+                    .inOrder();
+
+            // We get all documents, and it shouldn't fail if we keep calling getNextPage().
+            assertThat(searchResults.getNextPageAsync().get()).isEmpty();
+            searchResults.close();
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testGetNextPage_prefetch_singleThreadExecutor() throws Exception {
+        putMessages(5);
+
+        SearchSpec searchSpec = new SearchSpec.Builder()
+                .setTermMatch(TermMatchType.Code.PREFIX_VALUE)
+                .setResultCountPerPage(1)
+                .build();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            SearchResultsImpl searchResults = new SearchResultsImpl(
+                    mAppSearchImpl,
+                    executor,
+                    "package1",
+                    "database1",
+                    "",
+                    searchSpec,
+                    /*logger=*/ null,
+                    /*prefetchPageCount=*/ 2);
+            List<List<GenericDocument>> pages = readAllPages(searchResults);
+            assertThat(pages).hasSize(5);
+            for (int i = 0; i < pages.size(); i++) {
+                // Results are ranked by creation time, newest first.
+                assertThat(pages.get(i).get(0).getId()).isEqualTo("id" + (4 - i));
+            }
+            searchResults.close();
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testGetNextPage_prefetch_notBlockedByFetch() throws Exception {
+        putMessages(5);
+
+        SearchSpec searchSpec = new SearchSpec.Builder()
+                .setTermMatch(TermMatchType.Code.PREFIX_VALUE)
+                .setResultCountPerPage(1)
+                .build();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        ExecutorService callerExecutor = Executors.newSingleThreadExecutor();
+        try {
+            SearchResultsImpl searchResults = new SearchResultsImpl(
+                    mAppSearchImpl,
+                    executor,
+                    "package1",
+                    "database1",
+                    "",
+                    searchSpec,
+                    /*logger=*/ null,
+                    /*prefetchPageCount=*/ 2);
+
+            // Hold the lock of the database, so that the first fetch blocks in the query while
+            // holding on to the search results.
+            Lock databaseLock = mAppSearchImpl.getDatabaseLock(
+                    createPrefix("package1", "database1")).writeLock();
+            List<ListenableFuture<List<SearchResult>>> pages;
+            databaseLock.lock();
+            try {
+                pages = callerExecutor.submit(() -> {
+                    List<ListenableFuture<List<SearchResult>>> futures = new ArrayList<>();
+                    for (int i = 0; i < 3; i++) {
+                        futures.add(searchResults.getNextPageAsync());
+                    }
+                    return futures;
+                }).get(10, TimeUnit.SECONDS);
+                assertThat(pages.get(0).isDone()).isFalse();
+            } finally {
+                databaseLock.unlock();
+            }
+
+            for (int i = 0; i < pages.size(); i++) {
+                List<SearchResult> results = pages.get(i).get();
+                assertThat(results).hasSize(1);
+                // Results are ranked by creation time, newest first.
+                assertThat(results.get(0).getGenericDocument().getId()).isEqualTo("id" + (4 - i));
+            }
+            searchResults.close();
+        } finally {
+            callerExecutor.shutdown();
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testGetNextPage_prefetch_concurrentCallers() throws Exception {
+        putMessages(20);
+
+        SearchSpec searchSpec = new SearchSpec.Builder()
+                .setTermMatch(TermMatchType.Code.PREFIX_VALUE)
+                .setResultCountPerPage(1)
+                .build();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        ExecutorService callerExecutor = Executors.newFixedThreadPool(4);
+        try {
+            SearchResultsImpl searchResults = new SearchResultsImpl(
+                    mAppSearchImpl,
+                    executor,
+                    "package1",
+                    "database1",
+                    "",
+                    searchSpec,
+                    /*logger=*/ null,
+                    /*prefetchPageCount=*/ 2);
+
+            // Four callers ask for five pages each, every page must be returned exactly once.
+            List<Future<List<ListenableFuture<List<SearchResult>>>>> callers = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                callers.add(callerExecutor.submit(() -> {
+                    List<ListenableFuture<List<SearchResult>>> futures = new ArrayList<>();
+                    for (int j = 0; j < 5; j++) {
+                        futures.add(searchResults.getNextPageAsync());
+                    }
+                    return futures;
+                }));
+            }
+            List<String> ids = new ArrayList<>();
+            for (int i = 0; i < callers.size(); i++) {
+                for (ListenableFuture<List<SearchResult>> page
+                        : callers.get(i).get(10, TimeUnit.SECONDS)) {
+                    List<SearchResult> results = page.get(10, TimeUnit.SECONDS);
+                    assertThat(results).hasSize(1);
+                    ids.add(results.get(0).getGenericDocument().getId());
+                }
+            }
+            List<String> expectedIds = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                expectedIds.add("id" + i);
+            }
+            assertThat(ids).containsExactlyElementsIn(expectedIds);
+            assertThat(searchResults.getNextPageAsync().get()).isEmpty();
+            searchResults.close();
+        } finally {
+            callerExecutor.shutdown();
+            executor.shutdown();
+        }
+    }
+
+    private void putMessages(int count) throws Exception {
+        List<AppSearchSchema> schema = ImmutableList.of(new AppSearchSchema.Builder("Message")
+                .addProperty(new AppSearchSchema.StringPropertyConfig.Builder("body")
+                        .setCardinality(AppSearchSchema.PropertyConfig.CARDINALITY_OPTIONAL)
+                        .setIndexingType(
+                                AppSearchSchema.StringPropertyConfig.INDEXING_TYPE_PREFIXES)
+                        .setTokenizerType(
+                                AppSearchSchema.StringPropertyConfig.TOKENIZER_TYPE_PLAIN)
+                        .build())
+                .build());
+        InternalSetSchemaResponse internalSetSchemaResponse = mAppSearchImpl.setSchema(
+                "package1",
+                "database1",
+                schema,
+                /*visibilityDocuments=*/ Collections.emptyList(),
+                /*forceOverride=*/ false,
+                /*version=*/ 0,
+                /* setSchemaStatsBuilder= */ null);
+        assertThat(internalSetSchemaResponse.isSuccess()).isTrue();
+
+        for (int i = 0; i < count; i++) {
+            mAppSearchImpl.putDocument(
+                    "package1",
+                    "database1",
+                    new GenericDocument.Builder<>("namespace", "id" + i, "Message")
+                            .setCreationTimestampMillis(i)
+                            .setPropertyString("body", "body of message " + i)
+                            .build(),
+                    /*sendChangeNotifications=*/ false,
+                    /*logger=*/ null);
+        }
+    }
+
+    private static List<List<GenericDocument>> readAllPages(SearchResultsImpl searchResults)
+            throws Exception {
+        List<List<GenericDocument>> pages = new ArrayList<>();
+        List<SearchResult> results = searchResults.getNextPageAsync().get();
+        while (!results.isEmpty()) {
+            List<GenericDocument> page = new ArrayList<>();
+            for (int i = 0; i < results.size(); i++) {
+                page.add(results.get(i).getGenericDocument());
+            }
+            pages.add(page);
+            results = searchResults.getNextPageAsync().get();
+        }
+        return pages;
+    }
 }
@@ -345,5 +345,85 @@ public class GenericDocumentToProtoConverterTest {
                 GenericDocumentToProtoConverter.toDocumentProto(outerDocument);
         assertThat(convertedDocumentProto).isEqualTo(outerDocumentProto);
         assertThat(convertedGenericDocument).isEqualTo(outerDocument);
+
+        GenericDocument lazyGenericDocument =
+                GenericDocumentToProtoConverter.toLazyGenericDocument(outerDocumentProto, PREFIX,
+                        schemaMap);
+        assertThat(lazyGenericDocument.getPropertyLongArray("documentKey.emptyLongKey"))
+                .isEmpty();
+        assertThat(lazyGenericDocument).isEqualTo(outerDocument);
+    }
+
+    @Test
+    public void testToLazyGenericDocument() {
+        GenericDocument nestedDocument =
+                new GenericDocument.Builder<GenericDocument.Builder<?>>("namespace", "nested",
+                        SCHEMA_TYPE_2)
+                        .setCreationTimestampMillis(6789L)
+                        .setPropertyString("stringKey", "nested-value")
+                        .build();
+        GenericDocument document =
+                new GenericDocument.Builder<GenericDocument.Builder<?>>("namespace", "id1",
+                        SCHEMA_TYPE_1)
+                        .setCreationTimestampMillis(5L)
+                        .setScore(1)
+                        .setTtlMillis(1L)
+                        .setPropertyLong("longKey1", 1L, 2L)
+                        .setPropertyString("stringKey1", "test-value1")
+                        .setPropertyBytes("byteKey1", BYTE_ARRAY_1, BYTE_ARRAY_2)
+                        .setPropertyDocument("documentKey1", nestedDocument)
+                        .build();
+        DocumentProto documentProto = GenericDocumentToProtoConverter.toDocumentProto(document);
+
+        GenericDocument lazyDocument =
+                GenericDocumentToProtoConverter.toLazyGenericDocument(documentProto, PREFIX,
+                        SCHEMA_MAP);
+
+        assertThat(lazyDocument.getId()).isEqualTo("id1");
+        assertThat(lazyDocument.getNamespace()).isEqualTo("namespace");
+        assertThat(lazyDocument.getSchemaType()).isEqualTo(SCHEMA_TYPE_1);
+        assertThat(lazyDocument.getCreationTimestampMillis()).isEqualTo(5L);
+        assertThat(lazyDocument.getScore()).isEqualTo(1);
+        assertThat(lazyDocument.getTtlMillis()).isEqualTo(1L);
+        assertThat(lazyDocument.getPropertyNames())
+                .containsExactly("longKey1", "stringKey1", "byteKey1", "documentKey1");
+        assertThat(lazyDocument.getPropertyString("stringKey1")).isEqualTo("test-value1");
+        assertThat(lazyDocument.getPropertyLongArray("longKey1")).asList()
+                .containsExactly(1L, 2L).inOrder();
+        assertThat(lazyDocument.getPropertyString("documentKey1.stringKey"))
+                .isEqualTo("nested-value");
+        assertThat(lazyDocument.getPropertyDocument("documentKey1")).isEqualTo(nestedDocument);
+        assertThat(lazyDocument.getProperty("missingKey")).isNull();
+
+        // Reading the whole document decodes the properties that haven't been read yet.
+        assertThat(lazyDocument).isEqualTo(document);
+        assertThat(lazyDocument.getPropertyBytesArray("byteKey1"))
+                .isEqualTo(new byte[][]{BYTE_ARRAY_1, BYTE_ARRAY_2});
+        assertThat(lazyDocument.toBuilder().build()).isEqualTo(document);
+        assertThat(lazyDocument.getPropertyNames())
+                .containsExactly("longKey1", "stringKey1", "byteKey1", "documentKey1");
+    }
+
+    @Test
+    public void testToLazyGenericDocument_asNestedDocument() {
+        GenericDocument nestedDocument =
+                new GenericDocument.Builder<GenericDocument.Builder<?>>("namespace", "nested",
+                        SCHEMA_TYPE_2)
+                        .setCreationTimestampMillis(6789L)
+                        .setPropertyString("stringKey", "nested-value")
+                        .build();
+        GenericDocument lazyNestedDocument = GenericDocumentToProtoConverter.toLazyGenericDocument(
+                GenericDocumentToProtoConverter.toDocumentProto(nestedDocument), PREFIX,
+                SCHEMA_MAP);
+
+        GenericDocument outerDocument =
+                new GenericDocument.Builder<GenericDocument.Builder<?>>("namespace", "outer",
+                        SCHEMA_TYPE_1)
+                        .setCreationTimestampMillis(5L)
+                        .setPropertyDocument("documentKey", lazyNestedDocument)
+                        .build();
+
+        assertThat(outerDocument.getPropertyString("documentKey.stringKey"))
+                .isEqualTo("nested-value");
     }
 }
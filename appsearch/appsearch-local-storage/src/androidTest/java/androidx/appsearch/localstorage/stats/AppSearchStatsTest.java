@@ -86,6 +86,7 @@ public class AppSearchStatsTest {
         final int nativeDocumentSize = 7;
         final int nativeNumTokensIndexed = 8;
         final boolean nativeExceededMaxNumTokens = true;
+        final int numDocuments = 9;
         final PutDocumentStats.Builder pStatsBuilder =
                 new PutDocumentStats.Builder(TEST_PACKAGE_NAME, TEST_DATA_BASE)
                         .setStatusCode(TEST_STATUS_CODE)
@@ -97,7 +98,8 @@ public class AppSearchStatsTest {
                         .setNativeIndexLatencyMillis(nativeIndexLatencyMillis)
                         .setNativeIndexMergeLatencyMillis(nativeIndexMergeLatencyMillis)
                         .setNativeDocumentSizeBytes(nativeDocumentSize)
-                        .setNativeNumTokensIndexed(nativeNumTokensIndexed);
+                        .setNativeNumTokensIndexed(nativeNumTokensIndexed)
+                        .setNumDocuments(numDocuments);
 
         final PutDocumentStats pStats = pStatsBuilder.build();
 
@@ -118,6 +120,7 @@ public class AppSearchStatsTest {
                 nativeIndexMergeLatencyMillis);
         assertThat(pStats.getNativeDocumentSizeBytes()).isEqualTo(nativeDocumentSize);
         assertThat(pStats.getNativeNumTokensIndexed()).isEqualTo(nativeNumTokensIndexed);
+        assertThat(pStats.getNumDocuments()).isEqualTo(numDocuments);
     }
 
     @Test
@@ -18,6 +18,7 @@ package androidx.appsearch.localstorage;
 
 import static androidx.appsearch.app.AppSearchResult.RESULT_INTERNAL_ERROR;
 import static androidx.appsearch.app.AppSearchResult.RESULT_SECURITY_ERROR;
+import static androidx.appsearch.app.AppSearchResult.throwableToFailedResult;
 import static androidx.appsearch.app.InternalSetSchemaResponse.newFailedSetSchemaResponse;
 import static androidx.appsearch.app.InternalSetSchemaResponse.newSuccessfulSetSchemaResponse;
 import static androidx.appsearch.localstorage.util.PrefixUtil.addPrefixToDocument;
@@ -37,6 +38,7 @@ import androidx.annotation.Nullable;
 import androidx.annotation.RestrictTo;
 import androidx.annotation.VisibleForTesting;
 import androidx.annotation.WorkerThread;
+import androidx.appsearch.app.AppSearchBatchResult;
 import androidx.appsearch.app.AppSearchResult;
 import androidx.appsearch.app.AppSearchSchema;
 import androidx.appsearch.app.GenericDocument;
@@ -101,6 +103,7 @@ import com.google.android.icing.proto.OptimizeResultProto;
 import com.google.android.icing.proto.PersistToDiskResultProto;
 import com.google.android.icing.proto.PersistType;
 import com.google.android.icing.proto.PropertyConfigProto;
+import com.google.android.icing.proto.PutDocumentStatsProto;
 import com.google.android.icing.proto.PutResultProto;
 import com.google.android.icing.proto.ReportUsageResultProto;
 import com.google.android.icing.proto.ResetResultProto;
@@ -126,7 +129,13 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
@@ -157,6 +166,9 @@ import java.util.concurrent.locks.ReentrantReadWriteLock;
  *         WRITE lock to keep thread safety.
  *     <li>All methods are going to access global parameters or query data from Icing are executed
  *         under READ lock to improve query performance.
+ *     <li>Methods that only modify or query a single database, like {@link #putDocument} or
+ *         {@link #query}, are executed under READ lock plus the WRITE or READ lock of that
+ *         database, so that they don't block operations on other databases.
  * </ul>
  *
  * <p>This class is thread safe.
@@ -172,6 +184,9 @@ public final class AppSearchImpl implements Closeable {
     private static final long EMPTY_PAGE_TOKEN = 0;
     @VisibleForTesting
     static final int CHECK_OPTIMIZE_INTERVAL = 100;
+    /** Number of documents converted by each task of {@link #batchPutDocuments}. */
+    @VisibleForTesting
+    static final int BATCH_PUT_CONVERSION_CHUNK_SIZE = 64;
 
     /** A GetResultSpec that uses projection to skip all properties. */
     private static final GetResultSpecProto GET_RESULT_SPEC_NO_PROPERTIES =
@@ -179,7 +194,23 @@ public final class AppSearchImpl implements Closeable {
                     TypePropertyMask.newBuilder().setSchemaType(
                             GetByDocumentIdRequest.PROJECTION_SCHEMA_TYPE_WILDCARD)).build();
 
+    // Operations that only touch a single package-database prefix hold the read lock of
+    // mReadWriteLock together with the lock of their prefix in mDatabaseLocks, so that a
+    // mutation in one database doesn't block operations on other databases. Operations spanning
+    // every prefix, like setSchema or optimize, hold the write lock of mReadWriteLock instead,
+    // which excludes every other operation. mReadWriteLock must be acquired first.
+    //
+    // IcingSearchEngine synchronizes calls into it by itself, so this only protects the state
+    // kept on the Java side.
     private final ReadWriteLock mReadWriteLock = new ReentrantReadWriteLock();
+
+    /**
+     * Maps each package-database prefix to the lock of its data. Locks are never removed, so that
+     * every thread always gets the same lock for a prefix.
+     */
+    private final ConcurrentHashMap<String, ReadWriteLock> mDatabaseLocks =
+            new ConcurrentHashMap<>();
+
     private final OptimizeStrategy mOptimizeStrategy;
     private final LimitConfig mLimitConfig;
 
@@ -196,14 +227,34 @@ public final class AppSearchImpl implements Closeable {
 
     // This map contains namespaces for all package-database prefixes. All values in the map are
     // prefixed with the package-database prefix.
-    // TODO(b/172360376): Check if this can be replaced with an ArrayMap
+    //
+    // Namespaces are added by mutations holding only the lock of their prefix, while operations
+    // across prefixes read it holding only the read lock of mReadWriteLock, so the map and its
+    // sets are concurrent.
     @GuardedBy("mReadWriteLock")
-    private final Map<String, Set<String>> mNamespaceMapLocked = new HashMap<>();
+    private final ConcurrentHashMap<String, Set<String>> mNamespaceMapLocked =
+            new ConcurrentHashMap<>();
 
-    /** Maps package name to active document count. */
-    @GuardedBy("mReadWriteLock")
+    /**
+     * Maps package name to active document count.
+     *
+     * <p>Documents of a package are added and removed concurrently from each of its databases, so
+     * this map is synchronized on itself.
+     */
+    @GuardedBy("mDocumentCountMapLocked")
     private final Map<String, Integer> mDocumentCountMapLocked = new ArrayMap<>();
 
+    /**
+     * Held for read by puts and removes from the moment they count a document change in
+     * {@link #mDocumentCountMapLocked} or apply it in Icing, until both are done, and for write
+     * while that map is rebuilt from Icing's storage info. This way the storage info never
+     * contains a change that is also about to be applied to the map, or the other way round.
+     *
+     * <p>It must be acquired after the lock of the database, and before the monitor of
+     * {@link #mDocumentCountMapLocked}.
+     */
+    private final ReadWriteLock mDocumentCountLock = new ReentrantReadWriteLock();
+
     // Maps packages to the set of valid nextPageTokens that the package can manipulate. A token
     // is unique and constant per query (i.e. the same token '123' is used to iterate through
     // pages of search results). The tokens themselves are generated and tracked by
@@ -240,9 +291,10 @@ public final class AppSearchImpl implements Closeable {
      * The counter to check when to call {@link #checkForOptimize}. The
      * interval is
      * {@link #CHECK_OPTIMIZE_INTERVAL}.
+     *
+     * <p>It is incremented after every mutation, without taking the write lock.
      */
-    @GuardedBy("mReadWriteLock")
-    private int mOptimizeIntervalCountLocked = 0;
+    private final AtomicInteger mOptimizeIntervalCount = new AtomicInteger();
 
     /** Whether this instance has been closed, and therefore unusable. */
     @GuardedBy("mReadWriteLock")
@@ -371,7 +423,9 @@ public final class AppSearchImpl implements Closeable {
                 }
 
                 // Populate document count map
-                rebuildDocumentCountMapLocked(storageInfoProto);
+                synchronized (mDocumentCountMapLocked) {
+                    rebuildDocumentCountMapLocked(storageInfoProto);
+                }
 
                 // logging prepare_schema_and_namespaces latency
                 if (initStatsBuilder != null) {
@@ -411,6 +465,25 @@ public final class AppSearchImpl implements Closeable {
         }
     }
 
+    /**
+     * Returns the lock of the data of the given package-database prefix.
+     *
+     * <p>It must only be acquired while holding the read lock of {@link #mReadWriteLock}.
+     */
+    @NonNull
+    @VisibleForTesting
+    ReadWriteLock getDatabaseLock(@NonNull String prefix) {
+        ReadWriteLock databaseLock = mDatabaseLocks.get(prefix);
+        if (databaseLock == null) {
+            databaseLock = new ReentrantReadWriteLock();
+            ReadWriteLock existingLock = mDatabaseLocks.putIfAbsent(prefix, databaseLock);
+            if (existingLock != null) {
+                databaseLock = existingLock;
+            }
+        }
+        return databaseLock;
+    }
+
     /**
      * Persists data to disk and closes the instance.
      *
@@ -937,7 +1010,10 @@ public final class AppSearchImpl implements Closeable {
     @NonNull
     public List<String> getNamespaces(
             @NonNull String packageName, @NonNull String databaseName) throws AppSearchException {
+        String prefix = createPrefix(packageName, databaseName);
+        Lock databaseLock = getDatabaseLock(prefix).readLock();
         mReadWriteLock.readLock().lock();
+        databaseLock.lock();
         try {
             throwIfClosedLocked();
             LogUtil.piiTrace(TAG, "getAllNamespaces, request");
@@ -952,7 +1028,6 @@ public final class AppSearchImpl implements Closeable {
                     getAllNamespacesResultProto.getNamespacesCount(),
                     getAllNamespacesResultProto);
             checkSuccess(getAllNamespacesResultProto.getStatus());
-            String prefix = createPrefix(packageName, databaseName);
             List<String> results = new ArrayList<>();
             for (int i = 0; i < getAllNamespacesResultProto.getNamespacesCount(); i++) {
                 String prefixedNamespace = getAllNamespacesResultProto.getNamespaces(i);
@@ -962,6 +1037,7 @@ public final class AppSearchImpl implements Closeable {
             }
             return results;
         } finally {
+            databaseLock.unlock();
             mReadWriteLock.readLock().unlock();
         }
     }
@@ -992,7 +1068,10 @@ public final class AppSearchImpl implements Closeable {
         }
         long totalStartTimeMillis = SystemClock.elapsedRealtime();
 
-        mReadWriteLock.writeLock().lock();
+        String prefix = createPrefix(packageName, databaseName);
+        Lock databaseLock = getDatabaseLock(prefix).writeLock();
+        mReadWriteLock.readLock().lock();
+        databaseLock.lock();
         try {
             throwIfClosedLocked();
 
@@ -1004,24 +1083,29 @@ public final class AppSearchImpl implements Closeable {
 
             // Rewrite Document Type
             long rewriteDocumentTypeStartTimeMillis = SystemClock.elapsedRealtime();
-            String prefix = createPrefix(packageName, databaseName);
             addPrefixToDocument(documentBuilder, prefix);
             long rewriteDocumentTypeEndTimeMillis = SystemClock.elapsedRealtime();
             DocumentProto finalDocument = documentBuilder.build();
 
-            // Check limits
-            int newDocumentCount = enforceLimitConfigLocked(
-                    packageName, finalDocument.getUri(), finalDocument.getSerializedSize());
+            PutResultProto putResultProto;
+            mDocumentCountLock.readLock().lock();
+            try {
+                // Check limits
+                enforceLimitConfig(
+                        packageName, finalDocument.getUri(), finalDocument.getSerializedSize());
 
-            // Insert document
-            LogUtil.piiTrace(TAG, "putDocument, request", finalDocument.getUri(), finalDocument);
-            PutResultProto putResultProto = mIcingSearchEngineLocked.put(finalDocument);
+                // Insert document
+                LogUtil.piiTrace(
+                        TAG, "putDocument, request", finalDocument.getUri(), finalDocument);
+                putResultProto = mIcingSearchEngineLocked.put(finalDocument);
+            } finally {
+                mDocumentCountLock.readLock().unlock();
+            }
             LogUtil.piiTrace(
                     TAG, "putDocument, response", putResultProto.getStatus(), putResultProto);
 
             // Update caches
             addToMap(mNamespaceMapLocked, prefix, finalDocument.getNamespace());
-            mDocumentCountMapLocked.put(packageName, newDocumentCount);
 
             // Logging stats
             if (pStatsBuilder != null) {
@@ -1051,7 +1135,8 @@ public final class AppSearchImpl implements Closeable {
                         mVisibilityCheckerLocked);
             }
         } finally {
-            mReadWriteLock.writeLock().unlock();
+            databaseLock.unlock();
+            mReadWriteLock.readLock().unlock();
 
             if (pStatsBuilder != null && logger != null) {
                 long totalEndTimeMillis = SystemClock.elapsedRealtime();
@@ -1062,16 +1147,242 @@ public final class AppSearchImpl implements Closeable {
         }
     }
 
+    /**
+     * Adds a batch of documents to the AppSearch index.
+     *
+     * <p>This is equivalent to calling {@link #putDocument} for each document, but the documents
+     * are converted to protos and rewritten outside of the lock, in parallel on
+     * {@code conversionExecutor} when one is given, and the lock of the database is only acquired
+     * once for the whole batch. A single {@link PutDocumentStats} is logged for the batch.
+     *
+     * <p>Conversion tasks that haven't started by the time the calling thread runs out of
+     * documents to convert are no-ops, so it is safe to pass the executor this method is running
+     * on, even if it only has a single thread.
+     *
+     * <p>This method belongs to mutate group.
+     *
+     * @param packageName             The package name that owns the documents.
+     * @param databaseName            The databaseName the documents reside in.
+     * @param documents               The documents to index.
+     * @param sendChangeNotifications Whether to dispatch
+     *                                {@link androidx.appsearch.observer.DocumentChangeInfo}
+     *                                messages to observers for these changes.
+     * @param conversionExecutor      The executor used to convert documents in parallel, or
+     *                                {@code null} to convert them on the calling thread.
+     * @return The result of each document, keyed by document id. Documents that can't be
+     * indexed are reported as failed results and don't stop the rest of the batch.
+     * @throws AppSearchException if the conversion is interrupted.
+     */
+    @NonNull
+    public AppSearchBatchResult<String, Void> batchPutDocuments(
+            @NonNull String packageName,
+            @NonNull String databaseName,
+            @NonNull List<GenericDocument> documents,
+            boolean sendChangeNotifications,
+            @Nullable Executor conversionExecutor,
+            @Nullable AppSearchLogger logger)
+            throws AppSearchException {
+        Preconditions.checkNotNull(packageName);
+        Preconditions.checkNotNull(databaseName);
+        Preconditions.checkNotNull(documents);
+        PutDocumentStats.Builder pStatsBuilder = null;
+        PutDocumentStatsProto.Builder nativeStatsBuilder = null;
+        if (logger != null) {
+            pStatsBuilder = new PutDocumentStats.Builder(packageName, databaseName)
+                    .setNumDocuments(documents.size());
+            nativeStatsBuilder = PutDocumentStatsProto.newBuilder();
+        }
+        long totalStartTimeMillis = SystemClock.elapsedRealtime();
+
+        AppSearchBatchResult.Builder<String, Void> resultBuilder =
+                new AppSearchBatchResult.Builder<>();
+        String prefix = createPrefix(packageName, databaseName);
+        DocumentProto[] finalDocuments = new DocumentProto[documents.size()];
+        Throwable[] conversionFailures = new Throwable[documents.size()];
+        long[] conversionLatencyNanos = new long[2];
+        // The status code of the batch is the one of its first failed document.
+        @AppSearchResult.ResultCode int batchStatusCode = AppSearchResult.RESULT_OK;
+        try {
+            // Generate and rewrite Document Protos, they don't depend on any guarded state.
+            convertDocumentsForPut(documents, prefix, conversionExecutor, finalDocuments,
+                    conversionFailures, conversionLatencyNanos);
+
+            Lock databaseLock = getDatabaseLock(prefix).writeLock();
+            mReadWriteLock.readLock().lock();
+            databaseLock.lock();
+            try {
+                throwIfClosedLocked();
+
+                for (int i = 0; i < documents.size(); i++) {
+                    GenericDocument document = documents.get(i);
+                    DocumentProto finalDocument = finalDocuments[i];
+                    try {
+                        if (conversionFailures[i] != null) {
+                            throw conversionFailures[i];
+                        }
+
+                        PutResultProto putResultProto;
+                        mDocumentCountLock.readLock().lock();
+                        try {
+                            // Check limits
+                            enforceLimitConfig(packageName, finalDocument.getUri(),
+                                    finalDocument.getSerializedSize());
+
+                            // Insert document
+                            LogUtil.piiTrace(TAG, "batchPutDocuments, request",
+                                    finalDocument.getUri(), finalDocument);
+                            putResultProto = mIcingSearchEngineLocked.put(finalDocument);
+                        } finally {
+                            mDocumentCountLock.readLock().unlock();
+                        }
+                        LogUtil.piiTrace(TAG, "batchPutDocuments, response",
+                                putResultProto.getStatus(), putResultProto);
+                        if (nativeStatsBuilder != null) {
+                            AppSearchLoggerHelper.addNativeStats(
+                                    putResultProto.getPutDocumentStats(), nativeStatsBuilder);
+                        }
+                        checkSuccess(putResultProto.getStatus());
+
+                        // Update caches
+                        addToMap(mNamespaceMapLocked, prefix, finalDocument.getNamespace());
+
+                        // Prepare notifications
+                        if (sendChangeNotifications) {
+                            mObserverManager.onDocumentChange(
+                                    packageName,
+                                    databaseName,
+                                    document.getNamespace(),
+                                    document.getSchemaType(),
+                                    document.getId(),
+                                    mVisibilityStoreLocked,
+                                    mVisibilityCheckerLocked);
+                        }
+                        resultBuilder.setSuccess(document.getId(), /*value=*/ null);
+                    } catch (Throwable t) {
+                        AppSearchResult<Void> failure = throwableToFailedResult(t);
+                        resultBuilder.setResult(document.getId(), failure);
+                        if (batchStatusCode == AppSearchResult.RESULT_OK) {
+                            batchStatusCode = failure.getResultCode();
+                        }
+                    }
+                }
+            } finally {
+                databaseLock.unlock();
+                mReadWriteLock.readLock().unlock();
+            }
+        } catch (AppSearchException e) {
+            batchStatusCode = e.getResultCode();
+            throw e;
+        } finally {
+            if (pStatsBuilder != null && logger != null) {
+                AppSearchLoggerHelper.copyNativeStats(nativeStatsBuilder.build(), pStatsBuilder);
+                pStatsBuilder.setStatusCode(batchStatusCode);
+                long totalEndTimeMillis = SystemClock.elapsedRealtime();
+                pStatsBuilder
+                        .setGenerateDocumentProtoLatencyMillis(
+                                (int) (conversionLatencyNanos[0] / 1_000_000))
+                        .setRewriteDocumentTypesLatencyMillis(
+                                (int) (conversionLatencyNanos[1] / 1_000_000))
+                        .setTotalLatencyMillis(
+                                (int) (totalEndTimeMillis - totalStartTimeMillis));
+                logger.logStats(pStatsBuilder.build());
+            }
+        }
+        return resultBuilder.build();
+    }
+
+    /**
+     * Converts documents to prefixed {@link DocumentProto}s for {@link #batchPutDocuments}.
+     *
+     * <p>The documents are split in chunks of {@link #BATCH_PUT_CONVERSION_CHUNK_SIZE} that are
+     * claimed by the calling thread and by tasks posted to {@code executor}. The calling thread
+     * only waits for chunks already claimed by other threads, so tasks still queued on a busy
+     * executor never block the batch.
+     *
+     * @param outDocuments  receives the converted documents
+     * @param outFailures   receives the exception thrown while converting each document, if any
+     * @param outLatencyNanos receives the time spent generating protos and rewriting them, summed
+     *                      over all documents
+     */
+    private static void convertDocumentsForPut(
+            @NonNull List<GenericDocument> documents,
+            @NonNull String prefix,
+            @Nullable Executor executor,
+            @NonNull DocumentProto[] outDocuments,
+            @NonNull Throwable[] outFailures,
+            @NonNull long[] outLatencyNanos) throws AppSearchException {
+        int chunkCount = (documents.size() + BATCH_PUT_CONVERSION_CHUNK_SIZE - 1)
+                / BATCH_PUT_CONVERSION_CHUNK_SIZE;
+        AtomicInteger nextChunk = new AtomicInteger();
+        AtomicLong generateLatencyNanos = new AtomicLong();
+        AtomicLong rewriteLatencyNanos = new AtomicLong();
+        CountDownLatch remainingChunks = new CountDownLatch(chunkCount);
+        Runnable converter = () -> {
+            int chunk;
+            while ((chunk = nextChunk.getAndIncrement()) < chunkCount) {
+                long generateNanos = 0;
+                long rewriteNanos = 0;
+                int end = Math.min(documents.size(), (chunk + 1) * BATCH_PUT_CONVERSION_CHUNK_SIZE);
+                try {
+                    for (int i = chunk * BATCH_PUT_CONVERSION_CHUNK_SIZE; i < end; i++) {
+                        try {
+                            long startNanos = SystemClock.elapsedRealtimeNanos();
+                            DocumentProto.Builder documentBuilder =
+                                    GenericDocumentToProtoConverter.toDocumentProto(
+                                            documents.get(i)).toBuilder();
+                            long rewriteStartNanos = SystemClock.elapsedRealtimeNanos();
+                            addPrefixToDocument(documentBuilder, prefix);
+                            outDocuments[i] = documentBuilder.build();
+                            generateNanos += rewriteStartNanos - startNanos;
+                            rewriteNanos += SystemClock.elapsedRealtimeNanos() - rewriteStartNanos;
+                        } catch (Throwable t) {
+                            outFailures[i] = t;
+                        }
+                    }
+                } finally {
+                    generateLatencyNanos.addAndGet(generateNanos);
+                    rewriteLatencyNanos.addAndGet(rewriteNanos);
+                    remainingChunks.countDown();
+                }
+            }
+        };
+        if (executor != null) {
+            try {
+                for (int i = 1; i < chunkCount; i++) {
+                    executor.execute(converter);
+                }
+            } catch (RejectedExecutionException e) {
+                // The calling thread converts whatever the executor can't take.
+            }
+        }
+        converter.run();
+        try {
+            remainingChunks.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AppSearchException(RESULT_INTERNAL_ERROR,
+                    "Interrupted while converting documents", e);
+        }
+        outLatencyNanos[0] = generateLatencyNanos.get();
+        outLatencyNanos[1] = rewriteLatencyNanos.get();
+    }
+
     /**
      * Checks that a new document can be added to the given packageName with the given serialized
-     * size without violating our {@link LimitConfig}.
+     * size without violating our {@link LimitConfig}, and adds it to the count of documents of
+     * the package.
+     *
+     * <p>The count isn't decremented if the document then fails to be put. Like replaced
+     * documents, this is corrected when the count reaches the limit.
+     *
+     * <p>The caller must hold the read lock of {@link #mDocumentCountLock} once, and keep holding
+     * it until the document has been put. The lock is briefly released if the count has to be
+     * rebuilt.
      *
-     * @return the new count of documents for the given package, including the new document.
      * @throws AppSearchException with a code of {@link AppSearchResult#RESULT_OUT_OF_SPACE} if the
      *                            limits are violated by the new document.
      */
-    @GuardedBy("mReadWriteLock")
-    private int enforceLimitConfigLocked(String packageName, String newDocUri, int newDocSize)
+    private void enforceLimitConfig(String packageName, String newDocUri, int newDocSize)
             throws AppSearchException {
         // Limits check: size of document
         if (newDocSize > mLimitConfig.getMaxDocumentSizeBytes()) {
@@ -1083,6 +1394,55 @@ public final class AppSearchImpl implements Closeable {
         }
 
         // Limits check: number of documents
+        synchronized (mDocumentCountMapLocked) {
+            if (tryAddToDocumentCountLocked(packageName)) {
+                return;
+            }
+        }
+
+        // Our management of mDocumentCountMapLocked doesn't account for document
+        // replacements, so our counter might have overcounted if the app has replaced docs.
+        // Rebuild the counter from StorageInfo in case this is so. No other put or remove may be
+        // in flight meanwhile, or it could be counted both in StorageInfo and in the counter.
+        // TODO(b/170371356):  If Icing lib exposes something in the result which says
+        //  whether the document was a replacement, we could subtract 1 again after the put
+        //  to keep the count accurate. That would allow us to remove this code.
+        mDocumentCountLock.readLock().unlock();
+        mDocumentCountLock.writeLock().lock();
+        try {
+            synchronized (mDocumentCountMapLocked) {
+                rebuildDocumentCountMapLocked(getRawStorageInfoProto());
+            }
+        } finally {
+            // Downgrade back to the read lock held by the caller.
+            mDocumentCountLock.readLock().lock();
+            mDocumentCountLock.writeLock().unlock();
+        }
+        synchronized (mDocumentCountMapLocked) {
+            if (tryAddToDocumentCountLocked(packageName)) {
+                return;
+            }
+        }
+
+        // Now we really can't fit it in, even accounting for replacements.
+        throw new AppSearchException(
+                AppSearchResult.RESULT_OUT_OF_SPACE,
+                "Package \"" + packageName + "\" exceeded limit of "
+                        + mLimitConfig.getMaxDocumentCount() + " documents. Some documents "
+                        + "must be removed to index additional ones.");
+    }
+
+    /**
+     * Adds a document to the count of documents of the given package, unless that exceeds the
+     * limit of our {@link LimitConfig}.
+     *
+     * <p>The document is counted right away so that puts into other databases of the package
+     * can't exceed the limit concurrently.
+     *
+     * @return whether the document was counted.
+     */
+    @GuardedBy("mDocumentCountMapLocked")
+    private boolean tryAddToDocumentCountLocked(@NonNull String packageName) {
         Integer oldDocumentCount = mDocumentCountMapLocked.get(packageName);
         int newDocumentCount;
         if (oldDocumentCount == null) {
@@ -1091,30 +1451,10 @@ public final class AppSearchImpl implements Closeable {
             newDocumentCount = oldDocumentCount + 1;
         }
         if (newDocumentCount > mLimitConfig.getMaxDocumentCount()) {
-            // Our management of mDocumentCountMapLocked doesn't account for document
-            // replacements, so our counter might have overcounted if the app has replaced docs.
-            // Rebuild the counter from StorageInfo in case this is so.
-            // TODO(b/170371356):  If Icing lib exposes something in the result which says
-            //  whether the document was a replacement, we could subtract 1 again after the put
-            //  to keep the count accurate. That would allow us to remove this code.
-            rebuildDocumentCountMapLocked(getRawStorageInfoProto());
-            oldDocumentCount = mDocumentCountMapLocked.get(packageName);
-            if (oldDocumentCount == null) {
-                newDocumentCount = 1;
-            } else {
-                newDocumentCount = oldDocumentCount + 1;
-            }
-        }
-        if (newDocumentCount > mLimitConfig.getMaxDocumentCount()) {
-            // Now we really can't fit it in, even accounting for replacements.
-            throw new AppSearchException(
-                    AppSearchResult.RESULT_OUT_OF_SPACE,
-                    "Package \"" + packageName + "\" exceeded limit of "
-                            + mLimitConfig.getMaxDocumentCount() + " documents. Some documents "
-                            + "must be removed to index additional ones.");
+            return false;
         }
-
-        return newDocumentCount;
+        mDocumentCountMapLocked.put(packageName, newDocumentCount);
+        return true;
     }
 
     /**
@@ -1202,7 +1542,10 @@ public final class AppSearchImpl implements Closeable {
             @NonNull String namespace,
             @NonNull String id,
             @NonNull Map<String, List<String>> typePropertyPaths) throws AppSearchException {
+        String prefix = createPrefix(packageName, databaseName);
+        Lock databaseLock = getDatabaseLock(prefix).readLock();
         mReadWriteLock.readLock().lock();
+        databaseLock.lock();
         try {
             throwIfClosedLocked();
             DocumentProto documentProto = getDocumentProtoByIdLocked(packageName, databaseName,
@@ -1210,7 +1553,6 @@ public final class AppSearchImpl implements Closeable {
             DocumentProto.Builder documentBuilder = documentProto.toBuilder();
             removePrefixesFromDocument(documentBuilder);
 
-            String prefix = createPrefix(packageName, databaseName);
             // The schema type map cannot be null at this point. It could only be null if no
             // schema had ever been set for that prefix. Given we have retrieved a document from
             // the index, we know a schema had to have been set.
@@ -1219,6 +1561,7 @@ public final class AppSearchImpl implements Closeable {
             return GenericDocumentToProtoConverter.toGenericDocument(documentBuilder.build(),
                     prefix, schemaTypeMap);
         } finally {
+            databaseLock.unlock();
             mReadWriteLock.readLock().unlock();
         }
     }
@@ -1305,7 +1648,10 @@ public final class AppSearchImpl implements Closeable {
         }
 
         long javaLockAcquisitionLatencyStartMillis = SystemClock.elapsedRealtime();
+        String prefix = createPrefix(packageName, databaseName);
+        Lock databaseLock = getDatabaseLock(prefix).readLock();
         mReadWriteLock.readLock().lock();
+        databaseLock.lock();
         try {
             if (sStatsBuilder != null) {
                 sStatsBuilder.setJavaLockAcquisitionLatencyMillis(
@@ -1324,7 +1670,6 @@ public final class AppSearchImpl implements Closeable {
                 return new SearchResultPage(Bundle.EMPTY);
             }
 
-            String prefix = createPrefix(packageName, databaseName);
             SearchSpecToProtoConverter searchSpecToProtoConverter =
                     new SearchSpecToProtoConverter(queryExpression, searchSpec,
                             Collections.singleton(prefix), mNamespaceMapLocked, mSchemaMapLocked);
@@ -1341,6 +1686,7 @@ public final class AppSearchImpl implements Closeable {
             addNextPageToken(packageName, searchResultPage.getNextPageToken());
             return searchResultPage;
         } finally {
+            databaseLock.unlock();
             mReadWriteLock.readLock().unlock();
             if (sStatsBuilder != null && logger != null) {
                 sStatsBuilder.setTotalLatencyMillis(
@@ -1518,7 +1864,10 @@ public final class AppSearchImpl implements Closeable {
             @NonNull String databaseName,
             @NonNull String suggestionQueryExpression,
             @NonNull SearchSuggestionSpec searchSuggestionSpec) throws AppSearchException {
+        String prefix = createPrefix(packageName, databaseName);
+        Lock databaseLock = getDatabaseLock(prefix).readLock();
         mReadWriteLock.readLock().lock();
+        databaseLock.lock();
         try {
             throwIfClosedLocked();
             if (suggestionQueryExpression.isEmpty()) {
@@ -1535,7 +1884,6 @@ public final class AppSearchImpl implements Closeable {
                                 + mLimitConfig.getMaxSuggestionCount());
             }
 
-            String prefix = createPrefix(packageName, databaseName);
             SearchSuggestionSpecToProtoConverter searchSuggestionSpecToProtoConverter =
                     new SearchSuggestionSpecToProtoConverter(suggestionQueryExpression,
                             searchSuggestionSpec,
@@ -1562,6 +1910,7 @@ public final class AppSearchImpl implements Closeable {
             }
             return suggestions;
         } finally {
+            databaseLock.unlock();
             mReadWriteLock.readLock().unlock();
         }
     }
@@ -1718,11 +2067,14 @@ public final class AppSearchImpl implements Closeable {
             @NonNull String documentId,
             long usageTimestampMillis,
             boolean systemUsage) throws AppSearchException {
-        mReadWriteLock.writeLock().lock();
+        String prefix = createPrefix(packageName, databaseName);
+        Lock databaseLock = getDatabaseLock(prefix).writeLock();
+        mReadWriteLock.readLock().lock();
+        databaseLock.lock();
         try {
             throwIfClosedLocked();
 
-            String prefixedNamespace = createPrefix(packageName, databaseName) + namespace;
+            String prefixedNamespace = prefix + namespace;
             UsageReport.UsageType usageType = systemUsage
                     ? UsageReport.UsageType.USAGE_TYPE2 : UsageReport.UsageType.USAGE_TYPE1;
             UsageReport report = UsageReport.newBuilder()
@@ -1737,7 +2089,8 @@ public final class AppSearchImpl implements Closeable {
             LogUtil.piiTrace(TAG, "reportUsage, response", result.getStatus(), result);
             checkSuccess(result.getStatus());
         } finally {
-            mReadWriteLock.writeLock().unlock();
+            databaseLock.unlock();
+            mReadWriteLock.readLock().unlock();
         }
     }
 
@@ -1760,11 +2113,14 @@ public final class AppSearchImpl implements Closeable {
             @NonNull String documentId,
             @Nullable RemoveStats.Builder removeStatsBuilder) throws AppSearchException {
         long totalLatencyStartTimeMillis = SystemClock.elapsedRealtime();
-        mReadWriteLock.writeLock().lock();
+        String prefix = createPrefix(packageName, databaseName);
+        Lock databaseLock = getDatabaseLock(prefix).writeLock();
+        mReadWriteLock.readLock().lock();
+        databaseLock.lock();
         try {
             throwIfClosedLocked();
 
-            String prefixedNamespace = createPrefix(packageName, databaseName) + namespace;
+            String prefixedNamespace = prefix + namespace;
             String schemaType = null;
             if (mObserverManager.isPackageObserved(packageName)) {
                 // Someone might be observing the type this document is under, but we have no way to
@@ -1785,21 +2141,26 @@ public final class AppSearchImpl implements Closeable {
             if (LogUtil.isPiiTraceEnabled()) {
                 LogUtil.piiTrace(TAG, "removeById, request", prefixedNamespace + ", " + documentId);
             }
-            DeleteResultProto deleteResultProto =
-                    mIcingSearchEngineLocked.delete(prefixedNamespace, documentId);
-            LogUtil.piiTrace(
-                    TAG, "removeById, response", deleteResultProto.getStatus(), deleteResultProto);
+            mDocumentCountLock.readLock().lock();
+            try {
+                DeleteResultProto deleteResultProto =
+                        mIcingSearchEngineLocked.delete(prefixedNamespace, documentId);
+                LogUtil.piiTrace(TAG, "removeById, response", deleteResultProto.getStatus(),
+                        deleteResultProto);
+
+                if (removeStatsBuilder != null) {
+                    removeStatsBuilder.setStatusCode(statusProtoToResultCode(
+                            deleteResultProto.getStatus()));
+                    AppSearchLoggerHelper.copyNativeStats(deleteResultProto.getDeleteStats(),
+                            removeStatsBuilder);
+                }
+                checkSuccess(deleteResultProto.getStatus());
 
-            if (removeStatsBuilder != null) {
-                removeStatsBuilder.setStatusCode(statusProtoToResultCode(
-                        deleteResultProto.getStatus()));
-                AppSearchLoggerHelper.copyNativeStats(deleteResultProto.getDeleteStats(),
-                        removeStatsBuilder);
+                // Update derived maps
+                updateDocumentCountAfterRemovalLocked(packageName, /*numDocumentsDeleted=*/ 1);
+            } finally {
+                mDocumentCountLock.readLock().unlock();
             }
-            checkSuccess(deleteResultProto.getStatus());
-
-            // Update derived maps
-            updateDocumentCountAfterRemovalLocked(packageName, /*numDocumentsDeleted=*/ 1);
 
             // Prepare notifications
             if (schemaType != null) {
@@ -1813,7 +2174,8 @@ public final class AppSearchImpl implements Closeable {
                         mVisibilityCheckerLocked);
             }
         } finally {
-            mReadWriteLock.writeLock().unlock();
+            databaseLock.unlock();
+            mReadWriteLock.readLock().unlock();
             if (removeStatsBuilder != null) {
                 removeStatsBuilder.setTotalLatencyMillis(
                         (int) (SystemClock.elapsedRealtime() - totalLatencyStartTimeMillis));
@@ -1847,7 +2209,10 @@ public final class AppSearchImpl implements Closeable {
         }
 
         long totalLatencyStartTimeMillis = SystemClock.elapsedRealtime();
-        mReadWriteLock.writeLock().lock();
+        String prefix = createPrefix(packageName, databaseName);
+        Lock databaseLock = getDatabaseLock(prefix).writeLock();
+        mReadWriteLock.readLock().lock();
+        databaseLock.lock();
         try {
             throwIfClosedLocked();
 
@@ -1859,7 +2224,6 @@ public final class AppSearchImpl implements Closeable {
                 return;
             }
 
-            String prefix = createPrefix(packageName, databaseName);
             if (!mNamespaceMapLocked.containsKey(prefix)) {
                 // The target database is empty so we can return early and skip sending request to
                 // Icing.
@@ -1891,11 +2255,17 @@ public final class AppSearchImpl implements Closeable {
                 }
             }
 
-            doRemoveByQueryLocked(
-                    packageName, finalSearchSpec, prefixedObservedSchemas, removeStatsBuilder);
+            mDocumentCountLock.readLock().lock();
+            try {
+                doRemoveByQueryLocked(
+                        packageName, finalSearchSpec, prefixedObservedSchemas, removeStatsBuilder);
+            } finally {
+                mDocumentCountLock.readLock().unlock();
+            }
 
         } finally {
-            mReadWriteLock.writeLock().unlock();
+            databaseLock.unlock();
+            mReadWriteLock.readLock().unlock();
             if (removeStatsBuilder != null) {
                 removeStatsBuilder.setTotalLatencyMillis(
                         (int) (SystemClock.elapsedRealtime() - totalLatencyStartTimeMillis));
@@ -1957,14 +2327,16 @@ public final class AppSearchImpl implements Closeable {
     private void updateDocumentCountAfterRemovalLocked(
             @NonNull String packageName, int numDocumentsDeleted) {
         if (numDocumentsDeleted > 0) {
-            Integer oldDocumentCount = mDocumentCountMapLocked.get(packageName);
-            // This should always be true: how can we delete documents for a package without
-            // having seen that package during init? This is just a safeguard.
-            if (oldDocumentCount != null) {
-                // This should always be >0; how can we remove more documents than we've indexed?
-                // This is just a safeguard.
-                int newDocumentCount = Math.max(oldDocumentCount - numDocumentsDeleted, 0);
-                mDocumentCountMapLocked.put(packageName, newDocumentCount);
+            synchronized (mDocumentCountMapLocked) {
+                Integer oldDocumentCount = mDocumentCountMapLocked.get(packageName);
+                // This should always be true: how can we delete documents for a package without
+                // having seen that package during init? This is just a safeguard.
+                if (oldDocumentCount != null) {
+                    // This should always be >0; how can we remove more documents than we've
+                    // indexed? This is just a safeguard.
+                    int newDocumentCount = Math.max(oldDocumentCount - numDocumentsDeleted, 0);
+                    mDocumentCountMapLocked.put(packageName, newDocumentCount);
+                }
             }
         }
     }
@@ -2190,7 +2562,9 @@ public final class AppSearchImpl implements Closeable {
      * @throws AppSearchException on any error that AppSearch persist data to disk.
      */
     public void persistToDisk(@NonNull PersistType.Code persistType) throws AppSearchException {
-        mReadWriteLock.writeLock().lock();
+        // This doesn't touch any state kept on the Java side, and IcingSearchEngine synchronizes
+        // it with the other calls into it, so it doesn't need to block every other operation.
+        mReadWriteLock.readLock().lock();
         try {
             throwIfClosedLocked();
 
@@ -2204,7 +2578,7 @@ public final class AppSearchImpl implements Closeable {
                     persistToDiskResultProto);
             checkSuccess(persistToDiskResultProto.getStatus());
         } finally {
-            mReadWriteLock.writeLock().unlock();
+            mReadWriteLock.readLock().unlock();
         }
     }
 
@@ -2285,7 +2659,9 @@ public final class AppSearchImpl implements Closeable {
                 String packageName = entry.getKey();
                 Set<String> databaseNames = entry.getValue();
                 if (!installedPackages.contains(packageName) && databaseNames != null) {
-                    mDocumentCountMapLocked.remove(packageName);
+                    synchronized (mDocumentCountMapLocked) {
+                        mDocumentCountMapLocked.remove(packageName);
+                    }
                     synchronized (mNextPageTokensLocked) {
                         mNextPageTokensLocked.remove(packageName);
                     }
@@ -2323,10 +2699,12 @@ public final class AppSearchImpl implements Closeable {
                 "icingSearchEngine.reset, response",
                 resetResultProto.getStatus(),
                 resetResultProto);
-        mOptimizeIntervalCountLocked = 0;
+        mOptimizeIntervalCount.set(0);
         mSchemaMapLocked.clear();
         mNamespaceMapLocked.clear();
-        mDocumentCountMapLocked.clear();
+        synchronized (mDocumentCountMapLocked) {
+            mDocumentCountMapLocked.clear();
+        }
         synchronized (mNextPageTokensLocked) {
             mNextPageTokensLocked.clear();
         }
@@ -2339,7 +2717,7 @@ public final class AppSearchImpl implements Closeable {
         checkSuccess(resetResultProto.getStatus());
     }
 
-    @GuardedBy("mReadWriteLock")
+    @GuardedBy("mDocumentCountMapLocked")
     private void rebuildDocumentCountMapLocked(@NonNull StorageInfoProto storageInfoProto) {
         mDocumentCountMapLocked.clear();
         List<NamespaceStorageInfoProto> namespaceStorageInfoProtoList =
@@ -2553,12 +2931,16 @@ public final class AppSearchImpl implements Closeable {
         mObserverManager.dispatchAndClearPendingNotifications();
     }
 
-    private static void addToMap(Map<String, Set<String>> map, String prefix,
+    private static void addToMap(ConcurrentHashMap<String, Set<String>> map, String prefix,
             String prefixedValue) {
         Set<String> values = map.get(prefix);
         if (values == null) {
-            values = new ArraySet<>();
-            map.put(prefix, values);
+            // The namespace map is read and written concurrently, see mNamespaceMapLocked.
+            values = Collections.newSetFromMap(new ConcurrentHashMap<>());
+            Set<String> existingValues = map.putIfAbsent(prefix, values);
+            if (existingValues != null) {
+                values = existingValues;
+            }
         }
         values.add(prefixedValue);
     }
@@ -2636,10 +3018,14 @@ public final class AppSearchImpl implements Closeable {
      */
     public void checkForOptimize(int mutationSize, @Nullable OptimizeStats.Builder builder)
             throws AppSearchException {
+        if (mOptimizeIntervalCount.addAndGet(mutationSize) < CHECK_OPTIMIZE_INTERVAL) {
+            // Most mutations stop here, without blocking operations on other databases.
+            return;
+        }
         mReadWriteLock.writeLock().lock();
         try {
-            mOptimizeIntervalCountLocked += mutationSize;
-            if (mOptimizeIntervalCountLocked >= CHECK_OPTIMIZE_INTERVAL) {
+            // Another thread may have checked while this one was waiting for the lock.
+            if (mOptimizeIntervalCount.get() >= CHECK_OPTIMIZE_INTERVAL) {
                 checkForOptimize(builder);
             }
         } finally {
@@ -2662,7 +3048,7 @@ public final class AppSearchImpl implements Closeable {
         try {
             GetOptimizeInfoResultProto optimizeInfo = getOptimizeInfoResultLocked();
             checkSuccess(optimizeInfo.getStatus());
-            mOptimizeIntervalCountLocked = 0;
+            mOptimizeIntervalCount.set(0);
             if (mOptimizeStrategy.shouldOptimize(optimizeInfo)) {
                 optimize(builder);
             }
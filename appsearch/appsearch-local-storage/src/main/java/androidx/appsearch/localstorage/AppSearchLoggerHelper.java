@@ -67,6 +67,33 @@ public final class AppSearchLoggerHelper {
                         fromNativeStats.getTokenizationStats().getNumTokensIndexed());
     }
 
+    /**
+     * Adds native PutDocument stats of one document to the stats of a batch.
+     *
+     * @param fromNativeStats stats of the document
+     * @param toNativeStats   stats of the batch
+     */
+    static void addNativeStats(@NonNull PutDocumentStatsProto fromNativeStats,
+            @NonNull PutDocumentStatsProto.Builder toNativeStats) {
+        Preconditions.checkNotNull(fromNativeStats);
+        Preconditions.checkNotNull(toNativeStats);
+        toNativeStats
+                .setLatencyMs(toNativeStats.getLatencyMs() + fromNativeStats.getLatencyMs())
+                .setDocumentStoreLatencyMs(toNativeStats.getDocumentStoreLatencyMs()
+                        + fromNativeStats.getDocumentStoreLatencyMs())
+                .setIndexLatencyMs(
+                        toNativeStats.getIndexLatencyMs() + fromNativeStats.getIndexLatencyMs())
+                .setIndexMergeLatencyMs(toNativeStats.getIndexMergeLatencyMs()
+                        + fromNativeStats.getIndexMergeLatencyMs())
+                .setDocumentSize(
+                        toNativeStats.getDocumentSize() + fromNativeStats.getDocumentSize())
+                .setTokenizationStats(toNativeStats.getTokenizationStats().toBuilder()
+                        .setNumTokensIndexed(
+                                toNativeStats.getTokenizationStats().getNumTokensIndexed()
+                                        + fromNativeStats.getTokenizationStats()
+                                        .getNumTokensIndexed()));
+    }
+
     /**
      * Copies native Initialize stats to builder.
      *
@@ -59,6 +59,7 @@ class GlobalSearchSessionImpl implements GlobalSearchSession {
     private final Features mFeatures;
     private final Context mContext;
     @Nullable private final AppSearchLogger mLogger;
+    private final int mSearchResultsPrefetchPageCount;
 
     private final CallerAccess mSelfCallerAccess;
 
@@ -69,12 +70,14 @@ class GlobalSearchSessionImpl implements GlobalSearchSession {
             @NonNull Executor executor,
             @NonNull Features features,
             @NonNull Context context,
-            @Nullable AppSearchLogger logger) {
+            @Nullable AppSearchLogger logger,
+            int searchResultsPrefetchPageCount) {
         mAppSearchImpl = Preconditions.checkNotNull(appSearchImpl);
         mExecutor = Preconditions.checkNotNull(executor);
         mFeatures = Preconditions.checkNotNull(features);
         mContext = Preconditions.checkNotNull(context);
         mLogger = logger;
+        mSearchResultsPrefetchPageCount = searchResultsPrefetchPageCount;
 
         mSelfCallerAccess = new CallerAccess(/*callingPackageName=*/mContext.getPackageName());
     }
@@ -122,7 +125,8 @@ class GlobalSearchSessionImpl implements GlobalSearchSession {
                 /*databaseName=*/ null,
                 queryExpression,
                 searchSpec,
-                mLogger);
+                mLogger,
+                mSearchResultsPrefetchPageCount);
     }
 
     /**
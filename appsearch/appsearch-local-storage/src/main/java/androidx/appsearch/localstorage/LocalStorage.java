@@ -20,6 +20,7 @@ import android.content.Context;
 import android.os.SystemClock;
 import android.util.Log;
 
+import androidx.annotation.IntRange;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.annotation.RestrictTo;
@@ -65,13 +66,16 @@ public class LocalStorage {
         final Executor mExecutor;
         @Nullable
         final AppSearchLogger mLogger;
+        final int mSearchResultsPrefetchPageCount;
 
         SearchContext(@NonNull Context context, @NonNull String databaseName,
-                @NonNull Executor executor, @Nullable AppSearchLogger logger) {
+                @NonNull Executor executor, @Nullable AppSearchLogger logger,
+                int searchResultsPrefetchPageCount) {
             mContext = Preconditions.checkNotNull(context);
             mDatabaseName = Preconditions.checkNotNull(databaseName);
             mExecutor = Preconditions.checkNotNull(executor);
             mLogger = logger;
+            mSearchResultsPrefetchPageCount = searchResultsPrefetchPageCount;
         }
 
         /**
@@ -104,6 +108,7 @@ public class LocalStorage {
             private Executor mExecutor;
             @Nullable
             private AppSearchLogger mLogger;
+            private int mSearchResultsPrefetchPageCount = 0;
 
             /**
              * Creates a {@link SearchContext.Builder} instance.
@@ -156,13 +161,33 @@ public class LocalStorage {
                 return this;
             }
 
+            /**
+             * Sets the number of pages of {@link androidx.appsearch.app.SearchResults} to fetch
+             * ahead of the caller on the worker executor.
+             *
+             * <p>While the caller consumes a page, up to this many following pages are fetched in
+             * the background. Defaults to 0, where a page is only fetched when it's requested.
+             *
+             * @hide
+             */
+            @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
+            @NonNull
+            public Builder setSearchResultsPrefetchPageCount(
+                    @IntRange(from = 0) int prefetchPageCount) {
+                Preconditions.checkArgument(prefetchPageCount >= 0,
+                        "Prefetch page count cannot be negative");
+                mSearchResultsPrefetchPageCount = prefetchPageCount;
+                return this;
+            }
+
             /** Builds a {@link SearchContext} instance. */
             @NonNull
             public SearchContext build() {
                 if (mExecutor == null) {
                     mExecutor = EXECUTOR;
                 }
-                return new SearchContext(mContext, mDatabaseName, mExecutor, mLogger);
+                return new SearchContext(mContext, mDatabaseName, mExecutor, mLogger,
+                        mSearchResultsPrefetchPageCount);
             }
         }
     }
@@ -173,12 +198,14 @@ public class LocalStorage {
         final Executor mExecutor;
         @Nullable
         final AppSearchLogger mLogger;
+        final int mSearchResultsPrefetchPageCount;
 
         GlobalSearchContext(@NonNull Context context, @NonNull Executor executor,
-                @Nullable AppSearchLogger logger) {
+                @Nullable AppSearchLogger logger, int searchResultsPrefetchPageCount) {
             mContext = Preconditions.checkNotNull(context);
             mExecutor = Preconditions.checkNotNull(executor);
             mLogger = logger;
+            mSearchResultsPrefetchPageCount = searchResultsPrefetchPageCount;
         }
 
         /**
@@ -202,6 +229,7 @@ public class LocalStorage {
             private Executor mExecutor;
             @Nullable
             private AppSearchLogger mLogger;
+            private int mSearchResultsPrefetchPageCount = 0;
 
             public Builder(@NonNull Context context) {
                 mContext = Preconditions.checkNotNull(context);
@@ -236,13 +264,33 @@ public class LocalStorage {
                 return this;
             }
 
+            /**
+             * Sets the number of pages of {@link androidx.appsearch.app.SearchResults} to fetch
+             * ahead of the caller on the worker executor.
+             *
+             * <p>While the caller consumes a page, up to this many following pages are fetched in
+             * the background. Defaults to 0, where a page is only fetched when it's requested.
+             *
+             * @hide
+             */
+            @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
+            @NonNull
+            public Builder setSearchResultsPrefetchPageCount(
+                    @IntRange(from = 0) int prefetchPageCount) {
+                Preconditions.checkArgument(prefetchPageCount >= 0,
+                        "Prefetch page count cannot be negative");
+                mSearchResultsPrefetchPageCount = prefetchPageCount;
+                return this;
+            }
+
             /** Builds a {@link GlobalSearchContext} instance. */
             @NonNull
             public GlobalSearchContext build() {
                 if (mExecutor == null) {
                     mExecutor = EXECUTOR;
                 }
-                return new GlobalSearchContext(mContext, mExecutor, mLogger);
+                return new GlobalSearchContext(mContext, mExecutor, mLogger,
+                        mSearchResultsPrefetchPageCount);
             }
         }
     }
@@ -384,13 +432,15 @@ public class LocalStorage {
                 new AlwaysSupportedFeatures(),
                 context.mContext,
                 context.mDatabaseName,
-                context.mLogger);
+                context.mLogger,
+                context.mSearchResultsPrefetchPageCount);
     }
 
     @NonNull
     private GlobalSearchSession doCreateGlobalSearchSession(
             @NonNull GlobalSearchContext context) {
         return new GlobalSearchSessionImpl(mAppSearchImpl, context.mExecutor,
-                new AlwaysSupportedFeatures(), context.mContext, context.mLogger);
+                new AlwaysSupportedFeatures(), context.mContext, context.mLogger,
+                context.mSearchResultsPrefetchPageCount);
     }
 }
@@ -16,22 +16,38 @@
 // @exportToFramework:skipFile()
 package androidx.appsearch.localstorage;
 
+import androidx.annotation.GuardedBy;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.appsearch.app.SearchResult;
 import androidx.appsearch.app.SearchResultPage;
 import androidx.appsearch.app.SearchResults;
 import androidx.appsearch.app.SearchSpec;
+import androidx.appsearch.exceptions.AppSearchException;
 import androidx.appsearch.localstorage.stats.SearchStats;
 import androidx.appsearch.localstorage.util.FutureUtil;
 import androidx.appsearch.localstorage.visibilitystore.CallerAccess;
+import androidx.concurrent.futures.ResolvableFuture;
 import androidx.core.util.Preconditions;
 
 import com.google.common.util.concurrent.ListenableFuture;
 
+import java.util.ArrayDeque;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.Executor;
 
+/**
+ * {@link SearchResults} of the local backend.
+ *
+ * <p>By default a page is only fetched when {@link #getNextPageAsync} is called. When a prefetch
+ * page count is given, up to that many pages are fetched ahead of the caller on the executor
+ * while the caller consumes the current page. More pages are only fetched as the caller consumes
+ * them, which bounds the memory held by the pages. Pages are fetched one at a time, since each
+ * one needs the token of the previous one; the documents of a page aren't converted on the
+ * executor, their properties are decoded as the caller reads them.
+ */
 class SearchResultsImpl implements SearchResults {
     private final AppSearchImpl mAppSearchImpl;
 
@@ -51,10 +67,35 @@ class SearchResultsImpl implements SearchResults {
 
     private final SearchSpec mSearchSpec;
 
+    /* The maximum number of pages to fetch ahead of the caller. 0 disables prefetching. */
+    private final int mPrefetchPageCount;
+
+    // Serializes page fetches, since each page is fetched with the token of the previous one.
+    // It is held across calls into AppSearchImpl, so getNextPageAsync never acquires it.
+    private final Object mLock = new Object();
+
+    @GuardedBy("mLock")
     private long mNextPageToken;
 
+    @GuardedBy("mLock")
     private boolean mIsFirstLoad = true;
 
+    /* Whether the last page has been fetched, so there is nothing left to prefetch. */
+    private volatile boolean mIsExhausted = false;
+
+    /* Pages that have been scheduled but not fetched yet, in the order they will be fetched. */
+    private final ConcurrentLinkedQueue<ResolvableFuture<List<SearchResult>>> mUnfetchedPages =
+            new ConcurrentLinkedQueue<>();
+
+    // Guards mPrefetchedPages, so that getNextPageAsync may be called from any thread. Unlike
+    // mLock, it is never held while a page is fetched.
+    private final Object mPrefetchedPagesLock = new Object();
+
+    /* Pages that have been scheduled but not returned to the caller yet, in order. */
+    @GuardedBy("mPrefetchedPagesLock")
+    private final ArrayDeque<ResolvableFuture<List<SearchResult>>> mPrefetchedPages =
+            new ArrayDeque<>();
+
     private boolean mIsClosed = false;
 
     @Nullable
@@ -62,6 +103,7 @@ class SearchResultsImpl implements SearchResults {
 
     // Visibility Scope(local vs global) for 1st query, so it can be used for the visibility
     // scope for getNextPage().
+    @GuardedBy("mLock")
     @SearchStats.VisibilityScope
     private int mVisibilityScope = SearchStats.VISIBILITY_SCOPE_UNKNOWN;
 
@@ -73,6 +115,21 @@ class SearchResultsImpl implements SearchResults {
             @NonNull String queryExpression,
             @NonNull SearchSpec searchSpec,
             @Nullable AppSearchLogger logger) {
+        this(appSearchImpl, executor, packageName, databaseName, queryExpression, searchSpec,
+                logger, /*prefetchPageCount=*/ 0);
+    }
+
+    SearchResultsImpl(
+            @NonNull AppSearchImpl appSearchImpl,
+            @NonNull Executor executor,
+            @NonNull String packageName,
+            @Nullable String databaseName,
+            @NonNull String queryExpression,
+            @NonNull SearchSpec searchSpec,
+            @Nullable AppSearchLogger logger,
+            int prefetchPageCount) {
+        Preconditions.checkArgument(prefetchPageCount >= 0,
+                "Prefetch page count cannot be negative");
         mAppSearchImpl = Preconditions.checkNotNull(appSearchImpl);
         mExecutor = Preconditions.checkNotNull(executor);
         mPackageName = Preconditions.checkNotNull(packageName);
@@ -81,47 +138,107 @@ class SearchResultsImpl implements SearchResults {
         mQueryExpression = Preconditions.checkNotNull(queryExpression);
         mSearchSpec = Preconditions.checkNotNull(searchSpec);
         mLogger = logger;
+        mPrefetchPageCount = prefetchPageCount;
     }
 
     @Override
     @NonNull
     public ListenableFuture<List<SearchResult>> getNextPageAsync() {
         Preconditions.checkState(!mIsClosed, "SearchResults has already been closed");
-        return FutureUtil.execute(mExecutor, () -> {
-            SearchResultPage searchResultPage;
-            if (mIsFirstLoad) {
-                mIsFirstLoad = false;
-                if (mDatabaseName == null) {
-                    mVisibilityScope = SearchStats.VISIBILITY_SCOPE_GLOBAL;
-                    // Global queries aren't restricted to a single database
-                    searchResultPage = mAppSearchImpl.globalQuery(
-                            mQueryExpression, mSearchSpec, mSelfCallerAccess, mLogger);
-                } else {
-                    mVisibilityScope = SearchStats.VISIBILITY_SCOPE_LOCAL;
-                    // Normal local query, pass in specified database.
-                    searchResultPage = mAppSearchImpl.query(
-                            mPackageName, mDatabaseName, mQueryExpression, mSearchSpec, mLogger);
+        if (mPrefetchPageCount == 0) {
+            return FutureUtil.execute(mExecutor, () -> {
+                synchronized (mLock) {
+                    return fetchNextPageLocked();
                 }
-            } else {
-                SearchStats.Builder sStatsBuilder = null;
-                if (mLogger != null) {
-                    sStatsBuilder =
-                            new SearchStats.Builder(mVisibilityScope, mPackageName);
-                    if (mDatabaseName != null) {
-                        sStatsBuilder.setDatabase(mDatabaseName);
-                    }
+            });
+        }
+
+        synchronized (mPrefetchedPagesLock) {
+            if (mPrefetchedPages.isEmpty()) {
+                schedulePageFetchLocked();
+            }
+            ListenableFuture<List<SearchResult>> nextPage = mPrefetchedPages.poll();
+            // Top the look-ahead back up. Nothing more is fetched until the caller asks for
+            // another page, so a slow caller holds back the fetching.
+            while (!mIsExhausted && mPrefetchedPages.size() < mPrefetchPageCount) {
+                schedulePageFetchLocked();
+            }
+            return nextPage;
+        }
+    }
+
+    /**
+     * Schedules the fetch of the page after the last scheduled one on the executor.
+     *
+     * <p>Fetches may run on any thread of the executor in any order, so each one fetches the
+     * oldest page that hasn't been fetched yet rather than a page of its own.
+     */
+    @GuardedBy("mPrefetchedPagesLock")
+    private void schedulePageFetchLocked() {
+        ResolvableFuture<List<SearchResult>> page = ResolvableFuture.create();
+        mUnfetchedPages.add(page);
+        mPrefetchedPages.add(page);
+        mExecutor.execute(() -> {
+            ResolvableFuture<List<SearchResult>> fetchedPage;
+            List<SearchResult> results;
+            synchronized (mLock) {
+                // Take the page under the lock, so that pages are fetched in the order they were
+                // scheduled.
+                fetchedPage = mUnfetchedPages.poll();
+                if (fetchedPage == null) {
+                    // The results were closed before this page was fetched.
+                    return;
                 }
-                searchResultPage = mAppSearchImpl.getNextPage(mPackageName, mNextPageToken,
-                        sStatsBuilder);
-                if (mLogger != null && sStatsBuilder != null) {
-                    mLogger.logStats(sStatsBuilder.build());
+                try {
+                    results = mIsExhausted ? Collections.emptyList() : fetchNextPageLocked();
+                } catch (Throwable t) {
+                    fetchedPage.setException(t);
+                    return;
                 }
             }
-            mNextPageToken = searchResultPage.getNextPageToken();
-            return searchResultPage.getResults();
+            // Complete the page outside of the lock, its listeners may run right away.
+            fetchedPage.set(results);
         });
     }
 
+    @GuardedBy("mLock")
+    @NonNull
+    private List<SearchResult> fetchNextPageLocked() throws AppSearchException {
+        SearchResultPage searchResultPage;
+        if (mIsFirstLoad) {
+            mIsFirstLoad = false;
+            if (mDatabaseName == null) {
+                mVisibilityScope = SearchStats.VISIBILITY_SCOPE_GLOBAL;
+                // Global queries aren't restricted to a single database
+                searchResultPage = mAppSearchImpl.globalQuery(
+                        mQueryExpression, mSearchSpec, mSelfCallerAccess, mLogger);
+            } else {
+                mVisibilityScope = SearchStats.VISIBILITY_SCOPE_LOCAL;
+                // Normal local query, pass in specified database.
+                searchResultPage = mAppSearchImpl.query(
+                        mPackageName, mDatabaseName, mQueryExpression, mSearchSpec, mLogger);
+            }
+        } else {
+            SearchStats.Builder sStatsBuilder = null;
+            if (mLogger != null) {
+                sStatsBuilder =
+                        new SearchStats.Builder(mVisibilityScope, mPackageName);
+                if (mDatabaseName != null) {
+                    sStatsBuilder.setDatabase(mDatabaseName);
+                }
+            }
+            searchResultPage = mAppSearchImpl.getNextPage(mPackageName, mNextPageToken,
+                    sStatsBuilder);
+            if (mLogger != null && sStatsBuilder != null) {
+                mLogger.logStats(sStatsBuilder.build());
+            }
+        }
+        mNextPageToken = searchResultPage.getNextPageToken();
+        // A token of 0 means Icing has no more pages for this query.
+        mIsExhausted = mNextPageToken == 0 || searchResultPage.getResults().isEmpty();
+        return searchResultPage.getResults();
+    }
+
     @Override
     @SuppressWarnings("FutureReturnValueIgnored")
     public void close() {
@@ -129,8 +246,14 @@ class SearchResultsImpl implements SearchResults {
         // critical to the correct functioning of the system; also, the return value is void.
         if (!mIsClosed) {
             FutureUtil.execute(mExecutor, () -> {
-                mAppSearchImpl.invalidateNextPageToken(mPackageName, mNextPageToken);
-                mIsClosed = true;
+                synchronized (mLock) {
+                    mAppSearchImpl.invalidateNextPageToken(mPackageName, mNextPageToken);
+                    mIsClosed = true;
+                    // Don't fetch pages the caller will never ask for.
+                    while (!mUnfetchedPages.isEmpty()) {
+                        mUnfetchedPages.poll().cancel(/*mayInterruptIfRunning=*/ false);
+                    }
+                }
                 return null;
             });
         }
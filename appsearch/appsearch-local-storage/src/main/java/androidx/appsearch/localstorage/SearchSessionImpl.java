@@ -83,6 +83,7 @@ class SearchSessionImpl implements AppSearchSession {
     private final Context mContext;
     private final String mDatabaseName;
     @Nullable private final AppSearchLogger mLogger;
+    private final int mSearchResultsPrefetchPageCount;
 
     private final String mPackageName;
     private final CallerAccess mSelfCallerAccess;
@@ -96,13 +97,15 @@ class SearchSessionImpl implements AppSearchSession {
             @NonNull Features features,
             @NonNull Context context,
             @NonNull String databaseName,
-            @Nullable AppSearchLogger logger) {
+            @Nullable AppSearchLogger logger,
+            int searchResultsPrefetchPageCount) {
         mAppSearchImpl = Preconditions.checkNotNull(appSearchImpl);
         mExecutor = Preconditions.checkNotNull(executor);
         mFeatures = Preconditions.checkNotNull(features);
         mContext = Preconditions.checkNotNull(context);
         mDatabaseName = Preconditions.checkNotNull(databaseName);
         mLogger = logger;
+        mSearchResultsPrefetchPageCount = searchResultsPrefetchPageCount;
 
         mPackageName = mContext.getPackageName();
         mSelfCallerAccess = new CallerAccess(/*callingPackageName=*/mPackageName);
@@ -353,22 +356,15 @@ class SearchSessionImpl implements AppSearchSession {
         Preconditions.checkNotNull(request);
         Preconditions.checkState(!mIsClosed, "AppSearchSession has already been closed");
         ListenableFuture<AppSearchBatchResult<String, Void>> future = execute(() -> {
-            AppSearchBatchResult.Builder<String, Void> resultBuilder =
-                    new AppSearchBatchResult.Builder<>();
-            for (int i = 0; i < request.getGenericDocuments().size(); i++) {
-                GenericDocument document = request.getGenericDocuments().get(i);
-                try {
-                    mAppSearchImpl.putDocument(
-                            mPackageName,
-                            mDatabaseName,
-                            document,
-                            /*sendChangeNotifications=*/ true,
-                            mLogger);
-                    resultBuilder.setSuccess(document.getId(), /*value=*/ null);
-                } catch (Throwable t) {
-                    resultBuilder.setResult(document.getId(), throwableToFailedResult(t));
-                }
-            }
+            // Documents are converted in parallel on our executor and written under a single
+            // lock acquisition.
+            AppSearchBatchResult<String, Void> result = mAppSearchImpl.batchPutDocuments(
+                    mPackageName,
+                    mDatabaseName,
+                    request.getGenericDocuments(),
+                    /*sendChangeNotifications=*/ true,
+                    mExecutor,
+                    mLogger);
             // Now that the batch has been written. Persist the newly written data.
             mAppSearchImpl.persistToDisk(PersistType.Code.LITE);
             mIsMutated = true;
@@ -377,7 +373,7 @@ class SearchSessionImpl implements AppSearchSession {
             // method is called documented in the method description.
             dispatchChangeNotifications();
 
-            return resultBuilder.build();
+            return result;
         });
 
         // The existing documents with same ID will be deleted, so there may be some resources that
@@ -426,7 +422,8 @@ class SearchSessionImpl implements AppSearchSession {
                 mDatabaseName,
                 queryExpression,
                 searchSpec,
-                mLogger);
+                mLogger,
+                mSearchResultsPrefetchPageCount);
     }
 
     @NonNull
@@ -17,9 +17,11 @@
 package androidx.appsearch.localstorage.converter;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.annotation.RestrictTo;
 import androidx.appsearch.app.AppSearchSchema;
 import androidx.appsearch.app.GenericDocument;
+import androidx.collection.ArrayMap;
 import androidx.core.util.Preconditions;
 
 import com.google.android.icing.proto.DocumentProto;
@@ -31,6 +33,7 @@ import com.google.android.icing.protobuf.ByteString;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Translates a {@link GenericDocument} into a {@link DocumentProto}.
@@ -143,55 +146,98 @@ public final class GenericDocumentToProtoConverter {
         String prefixedSchemaType = prefix + proto.getSchema();
 
         for (int i = 0; i < proto.getPropertiesCount(); i++) {
-            PropertyProto property = proto.getProperties(i);
-            String name = property.getName();
-            if (property.getStringValuesCount() > 0) {
-                String[] values = new String[property.getStringValuesCount()];
-                for (int j = 0; j < values.length; j++) {
-                    values[j] = property.getStringValues(j);
-                }
-                documentBuilder.setPropertyString(name, values);
-            } else if (property.getInt64ValuesCount() > 0) {
-                long[] values = new long[property.getInt64ValuesCount()];
-                for (int j = 0; j < values.length; j++) {
-                    values[j] = property.getInt64Values(j);
-                }
-                documentBuilder.setPropertyLong(name, values);
-            } else if (property.getDoubleValuesCount() > 0) {
-                double[] values = new double[property.getDoubleValuesCount()];
-                for (int j = 0; j < values.length; j++) {
-                    values[j] = property.getDoubleValues(j);
-                }
-                documentBuilder.setPropertyDouble(name, values);
-            } else if (property.getBooleanValuesCount() > 0) {
-                boolean[] values = new boolean[property.getBooleanValuesCount()];
-                for (int j = 0; j < values.length; j++) {
-                    values[j] = property.getBooleanValues(j);
-                }
-                documentBuilder.setPropertyBoolean(name, values);
-            } else if (property.getBytesValuesCount() > 0) {
-                byte[][] values = new byte[property.getBytesValuesCount()][];
-                for (int j = 0; j < values.length; j++) {
-                    values[j] = property.getBytesValues(j).toByteArray();
-                }
-                documentBuilder.setPropertyBytes(name, values);
-            } else if (property.getDocumentValuesCount() > 0) {
-                GenericDocument[] values = new GenericDocument[property.getDocumentValuesCount()];
-                for (int j = 0; j < values.length; j++) {
-                    values[j] = toGenericDocument(property.getDocumentValues(j), prefix,
-                            schemaTypeMap);
-                }
-                documentBuilder.setPropertyDocument(name, values);
-            } else {
-                // TODO(b/184966497): Optimize by caching PropertyConfigProto
-                SchemaTypeConfigProto schema =
-                        Preconditions.checkNotNull(schemaTypeMap.get(prefixedSchemaType));
-                setEmptyProperty(name, documentBuilder, schema);
-            }
+            setProperty(proto.getProperties(i), documentBuilder, prefix, prefixedSchemaType,
+                    schemaTypeMap);
         }
         return documentBuilder.build();
     }
 
+    /**
+     * Converts a {@link DocumentProto} into a {@link GenericDocument} whose properties are only
+     * converted when they are first read.
+     *
+     * <p>This avoids inflating every property of every document into {@link android.os.Bundle}s
+     * when the caller only reads a few of them, which is the common case for search results.
+     *
+     * @param proto         the document to convert, with its package + database prefix stripped
+     *                      from its fields. It is kept by the returned document.
+     * @param prefix        the package + database prefix used searching the {@code schemaTypeMap}.
+     * @param schemaTypeMap map of prefixed schema type to {@link SchemaTypeConfigProto}, used
+     *                      for looking up the default empty value of properties. It is read
+     *                      whenever a property is converted, so it must not be modified once
+     *                      passed to this method.
+     * @see #toGenericDocument
+     */
+    @NonNull
+    public static GenericDocument toLazyGenericDocument(@NonNull DocumentProto proto,
+            @NonNull String prefix,
+            @NonNull Map<String, SchemaTypeConfigProto> schemaTypeMap) {
+        Preconditions.checkNotNull(proto);
+        Preconditions.checkNotNull(prefix);
+        Preconditions.checkNotNull(schemaTypeMap);
+        GenericDocument metadata =
+                new GenericDocument.Builder<>(proto.getNamespace(), proto.getUri(),
+                        proto.getSchema())
+                        .setScore(proto.getScore())
+                        .setTtlMillis(proto.getTtlMs())
+                        .setCreationTimestampMillis(proto.getCreationTimestampMs())
+                        .build();
+        return new GenericDocument(metadata.getBundle(),
+                new DocumentProtoPropertyDecoder(proto, prefix, schemaTypeMap));
+    }
+
+    /** Sets the values of a {@link PropertyProto} on the builder of its document. */
+    private static void setProperty(@NonNull PropertyProto property,
+            @NonNull GenericDocument.Builder<?> documentBuilder,
+            @NonNull String prefix,
+            @NonNull String prefixedSchemaType,
+            @NonNull Map<String, SchemaTypeConfigProto> schemaTypeMap) {
+        String name = property.getName();
+        if (property.getStringValuesCount() > 0) {
+            String[] values = new String[property.getStringValuesCount()];
+            for (int j = 0; j < values.length; j++) {
+                values[j] = property.getStringValues(j);
+            }
+            documentBuilder.setPropertyString(name, values);
+        } else if (property.getInt64ValuesCount() > 0) {
+            long[] values = new long[property.getInt64ValuesCount()];
+            for (int j = 0; j < values.length; j++) {
+                values[j] = property.getInt64Values(j);
+            }
+            documentBuilder.setPropertyLong(name, values);
+        } else if (property.getDoubleValuesCount() > 0) {
+            double[] values = new double[property.getDoubleValuesCount()];
+            for (int j = 0; j < values.length; j++) {
+                values[j] = property.getDoubleValues(j);
+            }
+            documentBuilder.setPropertyDouble(name, values);
+        } else if (property.getBooleanValuesCount() > 0) {
+            boolean[] values = new boolean[property.getBooleanValuesCount()];
+            for (int j = 0; j < values.length; j++) {
+                values[j] = property.getBooleanValues(j);
+            }
+            documentBuilder.setPropertyBoolean(name, values);
+        } else if (property.getBytesValuesCount() > 0) {
+            byte[][] values = new byte[property.getBytesValuesCount()][];
+            for (int j = 0; j < values.length; j++) {
+                values[j] = property.getBytesValues(j).toByteArray();
+            }
+            documentBuilder.setPropertyBytes(name, values);
+        } else if (property.getDocumentValuesCount() > 0) {
+            GenericDocument[] values = new GenericDocument[property.getDocumentValuesCount()];
+            for (int j = 0; j < values.length; j++) {
+                values[j] = toGenericDocument(property.getDocumentValues(j), prefix,
+                        schemaTypeMap);
+            }
+            documentBuilder.setPropertyDocument(name, values);
+        } else {
+            // TODO(b/184966497): Optimize by caching PropertyConfigProto
+            SchemaTypeConfigProto schema =
+                    Preconditions.checkNotNull(schemaTypeMap.get(prefixedSchemaType));
+            setEmptyProperty(name, documentBuilder, schema);
+        }
+    }
+
     private static void setEmptyProperty(@NonNull String propertyName,
             @NonNull GenericDocument.Builder<?> documentBuilder,
             @NonNull SchemaTypeConfigProto schema) {
@@ -226,4 +272,58 @@ public final class GenericDocumentToProtoConverter {
                 throw new IllegalStateException("Unknown type of value: " + propertyName);
         }
     }
+
+    /**
+     * Converts the properties of a {@link DocumentProto} into its {@link GenericDocument} one by
+     * one, as they are read.
+     */
+    private static final class DocumentProtoPropertyDecoder
+            implements GenericDocument.PropertyDecoder {
+        private final DocumentProto mProto;
+        private final String mPrefix;
+        private final String mPrefixedSchemaType;
+        private final Map<String, SchemaTypeConfigProto> mSchemaTypeMap;
+
+        // Map of property name to its index in mProto, built on first use.
+        @Nullable
+        private Map<String, Integer> mPropertyIndices;
+
+        DocumentProtoPropertyDecoder(@NonNull DocumentProto proto, @NonNull String prefix,
+                @NonNull Map<String, SchemaTypeConfigProto> schemaTypeMap) {
+            mProto = proto;
+            mPrefix = prefix;
+            mPrefixedSchemaType = prefix + proto.getSchema();
+            mSchemaTypeMap = schemaTypeMap;
+        }
+
+        @Override
+        @NonNull
+        public Set<String> getPropertyNames() {
+            return getPropertyIndices().keySet();
+        }
+
+        @Override
+        public void decodeProperty(@NonNull String name,
+                @NonNull GenericDocument.Builder<?> builder) {
+            Integer index = getPropertyIndices().get(name);
+            if (index == null) {
+                return;
+            }
+            setProperty(mProto.getProperties(index), builder, mPrefix, mPrefixedSchemaType,
+                    mSchemaTypeMap);
+        }
+
+        @NonNull
+        private Map<String, Integer> getPropertyIndices() {
+            if (mPropertyIndices == null) {
+                Map<String, Integer> propertyIndices =
+                        new ArrayMap<>(mProto.getPropertiesCount());
+                for (int i = 0; i < mProto.getPropertiesCount(); i++) {
+                    propertyIndices.put(mProto.getProperties(i).getName(), i);
+                }
+                mPropertyIndices = Collections.unmodifiableMap(propertyIndices);
+            }
+            return mPropertyIndices;
+        }
+    }
 }
@@ -20,8 +20,6 @@ import static androidx.appsearch.localstorage.util.PrefixUtil.getDatabaseName;
 import static androidx.appsearch.localstorage.util.PrefixUtil.getPackageName;
 import static androidx.appsearch.localstorage.util.PrefixUtil.removePrefixesFromDocument;
 
-import android.os.Bundle;
-
 import androidx.annotation.NonNull;
 import androidx.annotation.RestrictTo;
 import androidx.appsearch.app.AppSearchResult;
@@ -29,6 +27,7 @@ import androidx.appsearch.app.GenericDocument;
 import androidx.appsearch.app.SearchResult;
 import androidx.appsearch.app.SearchResultPage;
 import androidx.appsearch.exceptions.AppSearchException;
+import androidx.collection.ArrayMap;
 import androidx.core.util.Preconditions;
 
 import com.google.android.icing.proto.DocumentProto;
@@ -38,6 +37,7 @@ import com.google.android.icing.proto.SnippetMatchProto;
 import com.google.android.icing.proto.SnippetProto;
 
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -53,6 +53,10 @@ public class SearchResultToProtoConverter {
     /**
      * Translate a {@link SearchResultProto} into {@link SearchResultPage}.
      *
+     * <p>The properties of the returned documents are only converted when they are read, which
+     * may happen after {@code schemaMap} has changed, so they use a copy of the schema types
+     * they need.
+     *
      * @param proto         The {@link SearchResultProto} containing results.
      * @param schemaMap     The cached Map of <Prefix, Map<PrefixedSchemaType, schemaProto>>
      *                      stores all existing prefixed schema type.
@@ -62,15 +66,12 @@ public class SearchResultToProtoConverter {
     public static SearchResultPage toSearchResultPage(@NonNull SearchResultProto proto,
             @NonNull Map<String, Map<String, SchemaTypeConfigProto>> schemaMap)
             throws AppSearchException {
-        Bundle bundle = new Bundle();
-        bundle.putLong(SearchResultPage.NEXT_PAGE_TOKEN_FIELD, proto.getNextPageToken());
-        ArrayList<Bundle> resultBundles = new ArrayList<>(proto.getResultsCount());
+        Map<String, Map<String, SchemaTypeConfigProto>> schemaMapCopy = new ArrayMap<>();
+        List<SearchResult> results = new ArrayList<>(proto.getResultsCount());
         for (int i = 0; i < proto.getResultsCount(); i++) {
-            SearchResult result = toUnprefixedSearchResult(proto.getResults(i), schemaMap);
-            resultBundles.add(result.getBundle());
+            results.add(toUnprefixedSearchResult(proto.getResults(i), schemaMap, schemaMapCopy));
         }
-        bundle.putParcelableArrayList(SearchResultPage.RESULTS_FIELD, resultBundles);
-        return new SearchResultPage(bundle);
+        return new SearchResultPage(proto.getNextPageToken(), results);
     }
 
     /**
@@ -80,21 +81,30 @@ public class SearchResultToProtoConverter {
      * @param proto          The proto to be converted.
      * @param schemaMap      The cached Map of <Prefix, Map<PrefixedSchemaType, schemaProto>>
      *                       stores all existing prefixed schema type.
+     * @param schemaMapCopy  The copies of the entries of {@code schemaMap} already made for
+     *                       the current page, which will be added to if needed.
      * @return A {@link SearchResult}.
      */
     @NonNull
     private static SearchResult toUnprefixedSearchResult(
             @NonNull SearchResultProto.ResultProto proto,
-            @NonNull Map<String, Map<String, SchemaTypeConfigProto>> schemaMap)
+            @NonNull Map<String, Map<String, SchemaTypeConfigProto>> schemaMap,
+            @NonNull Map<String, Map<String, SchemaTypeConfigProto>> schemaMapCopy)
             throws AppSearchException {
 
         DocumentProto.Builder documentBuilder = proto.getDocument().toBuilder();
         String prefix = removePrefixesFromDocument(documentBuilder);
-        Map<String, SchemaTypeConfigProto> schemaTypeMap =
-                Preconditions.checkNotNull(schemaMap.get(prefix));
+        Map<String, SchemaTypeConfigProto> schemaTypeMap = schemaMapCopy.get(prefix);
+        if (schemaTypeMap == null) {
+            Map<String, SchemaTypeConfigProto> currentSchemaTypeMap =
+                    Preconditions.checkNotNull(schemaMap.get(prefix));
+            schemaTypeMap = new ArrayMap<>(currentSchemaTypeMap.size());
+            schemaTypeMap.putAll(currentSchemaTypeMap);
+            schemaMapCopy.put(prefix, schemaTypeMap);
+        }
         GenericDocument document =
-                GenericDocumentToProtoConverter.toGenericDocument(documentBuilder, prefix,
-                        schemaTypeMap);
+                GenericDocumentToProtoConverter.toLazyGenericDocument(documentBuilder.build(),
+                        prefix, schemaTypeMap);
         SearchResult.Builder builder =
                 new SearchResult.Builder(getPackageName(prefix), getDatabaseName(prefix))
                         .setGenericDocument(document).setRankingSignal(proto.getScore());
@@ -116,7 +126,8 @@ public class SearchResultToProtoConverter {
                         "Nesting joined results within joined results not allowed.");
             }
 
-            builder.addJoinedResult(toUnprefixedSearchResult(joinedResultProto, schemaMap));
+            builder.addJoinedResult(
+                    toUnprefixedSearchResult(joinedResultProto, schemaMap, schemaMapCopy));
         }
         return builder.build();
     }
@@ -25,6 +25,10 @@ import androidx.core.util.Preconditions;
  * A class for holding detailed stats to log for each individual document put by a
  * {@link androidx.appsearch.app.AppSearchSession#putAsync} call.
  *
+ * <p>When documents are put as a batch, a single {@link PutDocumentStats} covers the whole batch:
+ * {@link #getNumDocuments()} is the size of the batch, the total latency is the latency of the
+ * batch and every other latency, size and count is summed over its documents.
+ *
  * @hide
  */
 @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
@@ -65,6 +69,9 @@ public final class PutDocumentStats {
     /** Number of tokens added to the index. */
     private final int mNativeNumTokensIndexed;
 
+    /** Number of documents covered by these stats. */
+    private final int mNumDocuments;
+
     PutDocumentStats(@NonNull Builder builder) {
         Preconditions.checkNotNull(builder);
         mPackageName = builder.mPackageName;
@@ -79,6 +86,7 @@ public final class PutDocumentStats {
         mNativeIndexMergeLatencyMillis = builder.mNativeIndexMergeLatencyMillis;
         mNativeDocumentSizeBytes = builder.mNativeDocumentSizeBytes;
         mNativeNumTokensIndexed = builder.mNativeNumTokensIndexed;
+        mNumDocuments = builder.mNumDocuments;
     }
 
     /** Returns calling package name. */
@@ -144,6 +152,11 @@ public final class PutDocumentStats {
         return mNativeNumTokensIndexed;
     }
 
+    /** Returns number of documents put, 1 unless the stats cover a batch. */
+    public int getNumDocuments() {
+        return mNumDocuments;
+    }
+
     /** Builder for {@link PutDocumentStats}. */
     public static class Builder {
         @NonNull
@@ -161,6 +174,7 @@ public final class PutDocumentStats {
         int mNativeIndexMergeLatencyMillis;
         int mNativeDocumentSizeBytes;
         int mNativeNumTokensIndexed;
+        int mNumDocuments = 1;
 
         /** Builder for {@link PutDocumentStats} */
         public Builder(@NonNull String packageName, @NonNull String database) {
@@ -242,6 +256,13 @@ public final class PutDocumentStats {
             return this;
         }
 
+        /** Sets number of documents put. */
+        @NonNull
+        public Builder setNumDocuments(int numDocuments) {
+            mNumDocuments = numDocuments;
+            return this;
+        }
+
         /**
          * Creates a new {@link PutDocumentStats} object from the contents of this
          * {@link Builder} instance.
@@ -19,16 +19,20 @@ package androidx.appsearch.localstorage.util;
 import android.util.Log;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.annotation.RestrictTo;
 import androidx.annotation.VisibleForTesting;
 import androidx.appsearch.app.AppSearchResult;
 import androidx.appsearch.exceptions.AppSearchException;
+import androidx.collection.LruCache;
 
 import com.google.android.icing.proto.DocumentProto;
 import com.google.android.icing.proto.PropertyConfigProto;
 import com.google.android.icing.proto.PropertyProto;
 import com.google.android.icing.proto.SchemaTypeConfigProto;
 
+import java.util.concurrent.ConcurrentHashMap;
+
 /**
  * Provides utility functions for working with package + database prefixes.
  *
@@ -44,15 +48,40 @@ public class PrefixUtil {
     @VisibleForTesting
     public static final char PACKAGE_DELIMITER = '$';
 
+    /**
+     * The maximum number of prefixes kept in the prefix table. Prefixes created past this limit
+     * still work, they just aren't shared.
+     */
+    @VisibleForTesting
+    static final int MAX_INTERNED_PREFIXES = 1000;
+
+    /**
+     * The maximum number of prefixed and unprefixed strings cached for each prefix. The least
+     * recently used strings are evicted past this limit.
+     */
+    @VisibleForTesting
+    static final int MAX_CACHED_STRINGS_PER_PREFIX = 256;
+
+    /** Map of package name to map of database name to the {@link PrefixEntry} for them. */
+    private static final ConcurrentHashMap<String, ConcurrentHashMap<String, PrefixEntry>>
+            sPrefixEntriesByName = new ConcurrentHashMap<>();
+
+    /** Map of prefix to its {@link PrefixEntry}. */
+    private static final ConcurrentHashMap<String, PrefixEntry> sPrefixEntries =
+            new ConcurrentHashMap<>();
+
     private PrefixUtil() {
     }
 
     /**
      * Creates prefix string for given package name and database name.
+     *
+     * <p>Prefixes are interned: the same instance is returned every time for a given package name
+     * and database name, and strings prefixed with it are shared where possible.
      */
     @NonNull
     public static String createPrefix(@NonNull String packageName, @NonNull String databaseName) {
-        return packageName + PACKAGE_DELIMITER + databaseName + DATABASE_DELIMITER;
+        return getPrefixEntry(packageName, databaseName).mPrefix;
     }
 
     /**
@@ -73,6 +102,10 @@ public class PrefixUtil {
      */
     @NonNull
     public static String getPackageName(@NonNull String prefix) {
+        PrefixEntry entry = sPrefixEntries.get(prefix);
+        if (entry != null) {
+            return entry.mPackageName;
+        }
         int delimiterIndex = prefix.indexOf(PACKAGE_DELIMITER);
         if (delimiterIndex == -1) {
             // This should never happen if we construct our prefixes properly
@@ -91,6 +124,10 @@ public class PrefixUtil {
      */
     @NonNull
     public static String getDatabaseName(@NonNull String prefix) {
+        PrefixEntry entry = sPrefixEntries.get(prefix);
+        if (entry != null) {
+            return entry.mDatabaseName;
+        }
         // TODO (b/184050178) Start database delimiter index search from after package delimiter
         int packageDelimiterIndex = prefix.indexOf(PACKAGE_DELIMITER);
         int databaseDelimiterIndex = prefix.indexOf(DATABASE_DELIMITER);
@@ -161,12 +198,18 @@ public class PrefixUtil {
     public static void addPrefixToDocument(
             @NonNull DocumentProto.Builder documentBuilder,
             @NonNull String prefix) {
+        addPrefixToDocument(documentBuilder, getPrefixEntry(prefix));
+    }
+
+    private static void addPrefixToDocument(
+            @NonNull DocumentProto.Builder documentBuilder,
+            @NonNull PrefixEntry prefixEntry) {
         // Rewrite the type name to include/remove the prefix.
-        String newSchema = prefix + documentBuilder.getSchema();
+        String newSchema = prefixEntry.addPrefix(documentBuilder.getSchema());
         documentBuilder.setSchema(newSchema);
 
         // Rewrite the namespace to include/remove the prefix.
-        documentBuilder.setNamespace(prefix + documentBuilder.getNamespace());
+        documentBuilder.setNamespace(prefixEntry.addPrefix(documentBuilder.getNamespace()));
 
         // Recurse into derived documents
         for (int propertyIdx = 0;
@@ -179,7 +222,7 @@ public class PrefixUtil {
                 for (int documentIdx = 0; documentIdx < documentCount; documentIdx++) {
                     DocumentProto.Builder derivedDocumentBuilder =
                             propertyBuilder.getDocumentValues(documentIdx).toBuilder();
-                    addPrefixToDocument(derivedDocumentBuilder, prefix);
+                    addPrefixToDocument(derivedDocumentBuilder, prefixEntry);
                     propertyBuilder.setDocumentValues(documentIdx, derivedDocumentBuilder);
                 }
                 documentBuilder.setProperties(propertyIdx, propertyBuilder);
@@ -198,18 +241,49 @@ public class PrefixUtil {
     @NonNull
     public static String removePrefixesFromDocument(@NonNull DocumentProto.Builder documentBuilder)
             throws AppSearchException {
-        // Rewrite the type name and namespace to remove the prefix.
-        String schemaPrefix = getPrefix(documentBuilder.getSchema());
-        String namespacePrefix = getPrefix(documentBuilder.getNamespace());
-
-        if (!schemaPrefix.equals(namespacePrefix)) {
-            throw new AppSearchException(AppSearchResult.RESULT_INTERNAL_ERROR, "Found unexpected"
-                    + " multiple prefix names in document: " + schemaPrefix + ", "
-                    + namespacePrefix);
+        return removePrefixesFromDocument(documentBuilder, /*parentPrefixEntry=*/ null).mPrefix;
+    }
+
+    /**
+     * Removes any prefixes from types and namespaces mentioned anywhere in
+     * {@code documentBuilder}.
+     *
+     * @param documentBuilder   The document to mutate
+     * @param parentPrefixEntry The prefix of the document containing this one, which this document
+     *                          must also use, or {@code null} for a top level document.
+     * @return Prefix that was removed from the document.
+     * @throws AppSearchException if there are unexpected database prefixing errors.
+     */
+    @NonNull
+    private static PrefixEntry removePrefixesFromDocument(
+            @NonNull DocumentProto.Builder documentBuilder,
+            @Nullable PrefixEntry parentPrefixEntry) throws AppSearchException {
+        String schema = documentBuilder.getSchema();
+        String namespace = documentBuilder.getNamespace();
+        PrefixEntry prefixEntry;
+        if (parentPrefixEntry != null && schema.startsWith(parentPrefixEntry.mPrefix)
+                && namespace.startsWith(parentPrefixEntry.mPrefix)) {
+            // Nested documents share the prefix of their parent, avoid extracting it again.
+            prefixEntry = parentPrefixEntry;
+        } else {
+            // Rewrite the type name and namespace to remove the prefix.
+            String schemaPrefix = getPrefix(schema);
+            if (!namespace.startsWith(schemaPrefix)) {
+                String namespacePrefix = getPrefix(namespace);
+                throw new AppSearchException(AppSearchResult.RESULT_INTERNAL_ERROR,
+                        "Found unexpected multiple prefix names in document: " + schemaPrefix
+                                + ", " + namespacePrefix);
+            }
+            prefixEntry = getPrefixEntry(schemaPrefix);
+            if (parentPrefixEntry != null) {
+                throw new AppSearchException(AppSearchResult.RESULT_INTERNAL_ERROR,
+                        "Found unexpected multiple prefix names in document: "
+                                + parentPrefixEntry.mPrefix + ", " + schemaPrefix);
+            }
         }
 
-        documentBuilder.setSchema(removePrefix(documentBuilder.getSchema()));
-        documentBuilder.setNamespace(removePrefix(documentBuilder.getNamespace()));
+        documentBuilder.setSchema(prefixEntry.removePrefix(schema));
+        documentBuilder.setNamespace(prefixEntry.removePrefix(namespace));
 
         // Recurse into derived documents
         for (int propertyIdx = 0;
@@ -222,19 +296,14 @@ public class PrefixUtil {
                 for (int documentIdx = 0; documentIdx < documentCount; documentIdx++) {
                     DocumentProto.Builder derivedDocumentBuilder =
                             propertyBuilder.getDocumentValues(documentIdx).toBuilder();
-                    String nestedPrefix = removePrefixesFromDocument(derivedDocumentBuilder);
-                    if (!nestedPrefix.equals(schemaPrefix)) {
-                        throw new AppSearchException(AppSearchResult.RESULT_INTERNAL_ERROR,
-                                "Found unexpected multiple prefix names in document: "
-                                        + schemaPrefix + ", " + nestedPrefix);
-                    }
+                    removePrefixesFromDocument(derivedDocumentBuilder, prefixEntry);
                     propertyBuilder.setDocumentValues(documentIdx, derivedDocumentBuilder);
                 }
                 documentBuilder.setProperties(propertyIdx, propertyBuilder);
             }
         }
 
-        return schemaPrefix;
+        return prefixEntry;
     }
 
     /**
@@ -248,10 +317,10 @@ public class PrefixUtil {
     public static String removePrefixesFromSchemaType(
             @NonNull SchemaTypeConfigProto.Builder typeConfigBuilder)
             throws AppSearchException {
-        String typePrefix = PrefixUtil.getPrefix(typeConfigBuilder.getSchemaType());
+        PrefixEntry prefixEntry =
+                getPrefixEntry(PrefixUtil.getPrefix(typeConfigBuilder.getSchemaType()));
         // Rewrite SchemaProto.types.schema_type
-        String newSchemaType =
-                typeConfigBuilder.getSchemaType().substring(typePrefix.length());
+        String newSchemaType = prefixEntry.removePrefix(typeConfigBuilder.getSchemaType());
         typeConfigBuilder.setSchemaType(newSchemaType);
 
         // Rewrite SchemaProto.types.properties.schema_type
@@ -261,12 +330,125 @@ public class PrefixUtil {
             if (!typeConfigBuilder.getProperties(propertyIdx).getSchemaType().isEmpty()) {
                 PropertyConfigProto.Builder propertyConfigBuilder =
                         typeConfigBuilder.getProperties(propertyIdx).toBuilder();
-                String newPropertySchemaType = propertyConfigBuilder.getSchemaType()
-                        .substring(typePrefix.length());
+                String newPropertySchemaType =
+                        prefixEntry.removePrefix(propertyConfigBuilder.getSchemaType());
                 propertyConfigBuilder.setSchemaType(newPropertySchemaType);
                 typeConfigBuilder.setProperties(propertyIdx, propertyConfigBuilder);
             }
         }
-        return typePrefix;
+        return prefixEntry.mPrefix;
+    }
+
+    /** Returns the {@link PrefixEntry} for the given package name and database name. */
+    @NonNull
+    private static PrefixEntry getPrefixEntry(@NonNull String packageName,
+            @NonNull String databaseName) {
+        ConcurrentHashMap<String, PrefixEntry> databaseEntries =
+                sPrefixEntriesByName.get(packageName);
+        PrefixEntry entry = databaseEntries == null ? null : databaseEntries.get(databaseName);
+        if (entry != null) {
+            return entry;
+        }
+        String prefix = packageName + PACKAGE_DELIMITER + databaseName + DATABASE_DELIMITER;
+        if (sPrefixEntries.size() >= MAX_INTERNED_PREFIXES) {
+            return new PrefixEntry(prefix, packageName, databaseName, /*cached=*/ false);
+        }
+        if (databaseEntries == null) {
+            databaseEntries = new ConcurrentHashMap<>();
+            ConcurrentHashMap<String, PrefixEntry> existingEntries =
+                    sPrefixEntriesByName.putIfAbsent(packageName, databaseEntries);
+            if (existingEntries != null) {
+                databaseEntries = existingEntries;
+            }
+        }
+        entry = new PrefixEntry(prefix, packageName, databaseName, /*cached=*/ true);
+        PrefixEntry existingEntry = databaseEntries.putIfAbsent(databaseName, entry);
+        if (existingEntry != null) {
+            return existingEntry;
+        }
+        sPrefixEntries.put(prefix, entry);
+        return entry;
+    }
+
+    /** Returns the {@link PrefixEntry} for the given prefix. */
+    @NonNull
+    private static PrefixEntry getPrefixEntry(@NonNull String prefix) {
+        PrefixEntry entry = sPrefixEntries.get(prefix);
+        if (entry != null) {
+            return entry;
+        }
+        int packageDelimiterIndex = prefix.indexOf(PACKAGE_DELIMITER);
+        int databaseDelimiterIndex = prefix.indexOf(DATABASE_DELIMITER);
+        if (packageDelimiterIndex == -1 || databaseDelimiterIndex != prefix.length() - 1) {
+            // Not a prefix created by createPrefix. This entry is never looked up by prefix, so
+            // its names are never read.
+            return new PrefixEntry(prefix, /*packageName=*/ "", /*databaseName=*/ "",
+                    /*cached=*/ false);
+        }
+        return getPrefixEntry(prefix.substring(0, packageDelimiterIndex),
+                prefix.substring(packageDelimiterIndex + 1, databaseDelimiterIndex));
+    }
+
+    /**
+     * A package + database prefix. Interned prefixes also keep the strings that have recently
+     * been prefixed with them, so that rewriting the same schema types and namespaces over and
+     * over doesn't allocate new strings each time. Other prefixes are only used for one call, so
+     * they rewrite strings directly.
+     */
+    private static final class PrefixEntry {
+        final String mPrefix;
+        final String mPackageName;
+        final String mDatabaseName;
+
+        // LRU cache of unprefixed string to the same string with mPrefix prepended, null if the
+        // prefix isn't interned.
+        @Nullable
+        private final LruCache<String, String> mPrefixedStrings;
+        // LRU cache of prefixed string to the same string with mPrefix removed, null if the
+        // prefix isn't interned.
+        @Nullable
+        private final LruCache<String, String> mUnprefixedStrings;
+
+        PrefixEntry(@NonNull String prefix, @NonNull String packageName,
+                @NonNull String databaseName, boolean cached) {
+            mPrefix = prefix;
+            mPackageName = packageName;
+            mDatabaseName = databaseName;
+            if (cached) {
+                mPrefixedStrings = new LruCache<>(MAX_CACHED_STRINGS_PER_PREFIX);
+                mUnprefixedStrings = new LruCache<>(MAX_CACHED_STRINGS_PER_PREFIX);
+            } else {
+                mPrefixedStrings = null;
+                mUnprefixedStrings = null;
+            }
+        }
+
+        /** Returns {@code value} with this prefix prepended. */
+        @NonNull
+        String addPrefix(@NonNull String value) {
+            if (mPrefixedStrings == null) {
+                return mPrefix + value;
+            }
+            String prefixedValue = mPrefixedStrings.get(value);
+            if (prefixedValue == null) {
+                prefixedValue = mPrefix + value;
+                mPrefixedStrings.put(value, prefixedValue);
+            }
+            return prefixedValue;
+        }
+
+        /** Returns {@code prefixedValue}, which must start with this prefix, without it. */
+        @NonNull
+        String removePrefix(@NonNull String prefixedValue) {
+            if (mUnprefixedStrings == null) {
+                return prefixedValue.substring(mPrefix.length());
+            }
+            String value = mUnprefixedStrings.get(prefixedValue);
+            if (value == null) {
+                value = prefixedValue.substring(mPrefix.length());
+                mUnprefixedStrings.put(prefixedValue, value);
+            }
+            return value;
+        }
     }
 }
@@ -131,6 +131,35 @@ public class GenericDocument {
     @Nullable
     private Integer mHashCode;
 
+    /**
+     * Decodes the properties that are not in {@link #mProperties} yet, {@code null} once every
+     * property has been decoded. Properties are only decoded while holding the lock on this
+     * document.
+     */
+    @Nullable
+    private volatile PropertyDecoder mPropertyDecoder;
+
+    /**
+     * Decodes the properties of a {@link GenericDocument} from another representation when they
+     * are first read.
+     *
+     * <p>Calls are serialized by the document, implementations don't need to be thread safe.
+     *
+     * @hide
+     */
+    @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
+    public interface PropertyDecoder {
+        /** Returns the names of all properties of the document. */
+        @NonNull
+        Set<String> getPropertyNames();
+
+        /**
+         * Decodes the property with the given name, if the document has one, by setting it on the
+         * given builder.
+         */
+        void decodeProperty(@NonNull String name, @NonNull Builder<?> builder);
+    }
+
     /**
      * Rebuilds a {@link GenericDocument} from a bundle.
      *
@@ -150,13 +179,31 @@ public class GenericDocument {
                 System.currentTimeMillis());
     }
 
+    /**
+     * Creates a {@link GenericDocument} whose properties are decoded when they are first read.
+     *
+     * <p>Reading a single property only decodes that property. Anything that needs the whole
+     * document, such as {@link #getBundle}, {@link #equals} or {@link #toBuilder}, decodes all
+     * the remaining properties first.
+     *
+     * @param bundle  Packaged {@link GenericDocument} data without any property, such as the
+     *                result of {@link #getBundle} on a document built without properties.
+     * @param decoder Decodes the properties of the document.
+     * @hide
+     */
+    @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
+    public GenericDocument(@NonNull Bundle bundle, @NonNull PropertyDecoder decoder) {
+        this(bundle);
+        mPropertyDecoder = Preconditions.checkNotNull(decoder);
+    }
+
     /**
      * Creates a new {@link GenericDocument} from an existing instance.
      *
      * <p>This method should be only used by constructor of a subclass.
      */
     protected GenericDocument(@NonNull GenericDocument document) {
-        this(document.mBundle);
+        this(document.getBundle());
     }
 
     /**
@@ -167,6 +214,7 @@ public class GenericDocument {
     @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
     @NonNull
     public Bundle getBundle() {
+        decodeAllProperties();
         return mBundle;
     }
 
@@ -230,6 +278,12 @@ public class GenericDocument {
     /** Returns the names of all properties defined in this document. */
     @NonNull
     public Set<String> getPropertyNames() {
+        PropertyDecoder decoder = mPropertyDecoder;
+        if (decoder != null) {
+            synchronized (this) {
+                return Collections.unmodifiableSet(decoder.getPropertyNames());
+            }
+        }
         return Collections.unmodifiableSet(mProperties.keySet());
     }
 
@@ -297,8 +351,18 @@ public class GenericDocument {
     @Nullable
     public Object getProperty(@NonNull String path) {
         Preconditions.checkNotNull(path);
-        Object rawValue =
-                getRawPropertyFromRawDocument(new PropertyPath(path), /*pathIndex=*/0, mBundle);
+        PropertyPath propertyPath = new PropertyPath(path);
+        Object rawValue;
+        if (mPropertyDecoder != null && propertyPath.size() > 0) {
+            // The properties bundle is still being written to, only the first segment of the path
+            // needs to be decoded since nested documents are always fully decoded.
+            synchronized (this) {
+                decodePropertyLocked(propertyPath.get(0).getPropertyName());
+                rawValue = getRawPropertyFromRawDocument(propertyPath, /*pathIndex=*/0, mBundle);
+            }
+        } else {
+            rawValue = getRawPropertyFromRawDocument(propertyPath, /*pathIndex=*/0, mBundle);
+        }
 
         // Unpack the raw value into the types the user expects, if required.
         if (rawValue instanceof Bundle) {
@@ -354,6 +418,31 @@ public class GenericDocument {
         return rawValue;
     }
 
+    /** Decodes the property with the given name if it hasn't been decoded yet. */
+    private void decodePropertyLocked(@NonNull String name) {
+        PropertyDecoder decoder = mPropertyDecoder;
+        if (decoder != null && !mProperties.containsKey(name)) {
+            decoder.decodeProperty(name, new Builder<>(mBundle));
+        }
+    }
+
+    /** Decodes all the properties that haven't been decoded yet. */
+    private void decodeAllProperties() {
+        if (mPropertyDecoder == null) {
+            return;
+        }
+        synchronized (this) {
+            PropertyDecoder decoder = mPropertyDecoder;
+            if (decoder == null) {
+                return;
+            }
+            for (String name : decoder.getPropertyNames()) {
+                decodePropertyLocked(name);
+            }
+            mPropertyDecoder = null;
+        }
+    }
+
     /**
      * Looks up a property path within the given document bundle.
      *
@@ -931,7 +1020,7 @@ public class GenericDocument {
     // TODO(b/171882200): Expose this API in Android T
     @NonNull
     public GenericDocument.Builder<GenericDocument.Builder<?>> toBuilder() {
-        Bundle clonedBundle = BundleUtil.deepCopy(mBundle);
+        Bundle clonedBundle = BundleUtil.deepCopy(getBundle());
         return new GenericDocument.Builder<>(clonedBundle);
     }
 
@@ -944,13 +1033,13 @@ public class GenericDocument {
             return false;
         }
         GenericDocument otherDocument = (GenericDocument) other;
-        return BundleUtil.deepEquals(this.mBundle, otherDocument.mBundle);
+        return BundleUtil.deepEquals(this.getBundle(), otherDocument.getBundle());
     }
 
     @Override
     public int hashCode() {
         if (mHashCode == null) {
-            mHashCode = BundleUtil.deepHashCode(mBundle);
+            mHashCode = BundleUtil.deepHashCode(getBundle());
         }
         return mHashCode;
     }
@@ -1417,7 +1506,7 @@ public class GenericDocument {
                 if (values[i] == null) {
                     throw new IllegalArgumentException("The document at " + i + " is null.");
                 }
-                documentBundles[i] = values[i].mBundle;
+                documentBundles[i] = values[i].getBundle();
             }
             mProperties.putParcelableArray(name, documentBundles);
         }
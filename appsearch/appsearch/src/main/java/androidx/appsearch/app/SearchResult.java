@@ -69,10 +69,22 @@ public final class SearchResult {
         mBundle = Preconditions.checkNotNull(bundle);
     }
 
+    /**
+     * Creates a {@link SearchResult} whose bundle doesn't hold the document until
+     * {@link #getBundle} is called, so that a lazily decoded document stays lazy.
+     */
+    SearchResult(@NonNull Bundle bundle, @NonNull GenericDocument document) {
+        mBundle = Preconditions.checkNotNull(bundle);
+        mDocument = Preconditions.checkNotNull(document);
+    }
+
     /** @hide */
     @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
     @NonNull
     public Bundle getBundle() {
+        if (mDocument != null && !mBundle.containsKey(DOCUMENT_FIELD)) {
+            mBundle.putBundle(DOCUMENT_FIELD, mDocument.getBundle());
+        }
         return mBundle;
     }
 
@@ -298,12 +310,12 @@ public final class SearchResult {
             Bundle bundle = new Bundle();
             bundle.putString(PACKAGE_NAME_FIELD, mPackageName);
             bundle.putString(DATABASE_NAME_FIELD, mDatabaseName);
-            bundle.putBundle(DOCUMENT_FIELD, mGenericDocument.getBundle());
             bundle.putDouble(RANKING_SIGNAL_FIELD, mRankingSignal);
             bundle.putParcelableArrayList(MATCH_INFOS_FIELD, mMatchInfoBundles);
             bundle.putParcelableArrayList(JOINED_RESULTS, mJoinedResults);
             mBuilt = true;
-            return new SearchResult(bundle);
+            // The document is only added to the bundle when the bundle is requested.
+            return new SearchResult(bundle, mGenericDocument);
         }
 
         private void resetIfBuilt() {
@@ -40,17 +40,36 @@ public class SearchResultPage {
     @Nullable
     private List<SearchResult> mResults;
 
-    @NonNull
-    private final Bundle mBundle;
+    @Nullable
+    private Bundle mBundle;
 
     public SearchResultPage(@NonNull Bundle bundle) {
         mBundle = Preconditions.checkNotNull(bundle);
         mNextPageToken = mBundle.getLong(NEXT_PAGE_TOKEN_FIELD);
     }
 
+    /**
+     * Creates a page from already built results, its {@link Bundle} is only created if
+     * {@link #getBundle} is called.
+     */
+    public SearchResultPage(long nextPageToken, @NonNull List<SearchResult> results) {
+        mNextPageToken = nextPageToken;
+        mResults = Preconditions.checkNotNull(results);
+    }
+
     /** Returns the {@link Bundle} of this class. */
     @NonNull
     public Bundle getBundle() {
+        if (mBundle == null) {
+            List<SearchResult> results = Preconditions.checkNotNull(mResults);
+            ArrayList<Bundle> resultBundles = new ArrayList<>(results.size());
+            for (int i = 0; i < results.size(); i++) {
+                resultBundles.add(results.get(i).getBundle());
+            }
+            mBundle = new Bundle();
+            mBundle.putLong(NEXT_PAGE_TOKEN_FIELD, mNextPageToken);
+            mBundle.putParcelableArrayList(RESULTS_FIELD, resultBundles);
+        }
         return mBundle;
     }
 
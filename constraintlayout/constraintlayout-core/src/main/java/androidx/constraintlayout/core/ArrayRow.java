@@ -30,6 +30,8 @@ public class ArrayRow implements LinearSystem.Row {
     SolverVariable mVariable = null;
     float mConstantValue = 0;
     boolean mUsed = false;
+    WarmStart mWarmStart = null; // set when the row is created by a system with warm start
+    int mSlot = -1;
     private static final boolean FULL_NEW_CHECK = false; // full validation (debug purposes)
 
     ArrayList<SolverVariable> mVariablesToUpdate = new ArrayList<>();
@@ -468,8 +470,14 @@ public class ArrayRow implements LinearSystem.Row {
 
     void ensurePositiveConstant() {
         // Ensure that if we have a constant it's positive
+        if (mWarmStart != null) {
+            mWarmStart.recordSign(this);
+        }
         if (mConstantValue < 0) {
             // If not, simply multiply the equation by -1
+            if (mWarmStart != null) {
+                mWarmStart.recordNegate(this);
+            }
             mConstantValue *= -1;
             variables.invert();
         }
@@ -600,6 +608,9 @@ public class ArrayRow implements LinearSystem.Row {
         if (amount == 1) {
             return;
         }
+        if (mWarmStart != null) {
+            mWarmStart.recordDivide(this, amount);
+        }
         mConstantValue = mConstantValue / amount;
         variables.divideByAmount(amount);
     }
@@ -617,6 +628,9 @@ public class ArrayRow implements LinearSystem.Row {
             boolean removeFromDefinition) {
         float value = variables.use(definition, removeFromDefinition);
 
+        if (mWarmStart != null) {
+            mWarmStart.recordAddRow(this, definition, value);
+        }
         mConstantValue += definition.mConstantValue * value;
         if (removeFromDefinition) {
             definition.mVariable.removeFromRow(this);
@@ -637,6 +651,9 @@ public class ArrayRow implements LinearSystem.Row {
             return;
         }
         float value = variables.get(variable);
+        if (mWarmStart != null) {
+            mWarmStart.recordAddFinal(this, variable, value);
+        }
         mConstantValue += variable.computedValue * value;
         variables.remove(variable, removeFromDefinition);
         if (removeFromDefinition) {
@@ -657,6 +674,9 @@ public class ArrayRow implements LinearSystem.Row {
             return;
         }
         float value = variables.get(variable);
+        if (mWarmStart != null) {
+            mWarmStart.invalidate();
+        }
         mConstantValue += variable.mSynonymDelta * value;
         variables.remove(variable, removeFromDefinition);
         if (removeFromDefinition) {
@@ -21,6 +21,8 @@ package androidx.constraintlayout.core;
 public class Cache {
     Pools.Pool<ArrayRow> mOptimizedArrayRowPool = new Pools.SimplePool<>(256);
     Pools.Pool<ArrayRow> mArrayRowPool = new Pools.SimplePool<>(256);
+    Pools.Pool<ArrayRow> mSharedArrayRowPool = new Pools.SimplePool<>(256);
     Pools.Pool<SolverVariable> mSolverVariablePool = new Pools.SimplePool<>(256);
     SolverVariable[] mIndexedVariables = new SolverVariable[32];
+    SharedArrayVariables.Storage mSharedRowStorage = null;
 }
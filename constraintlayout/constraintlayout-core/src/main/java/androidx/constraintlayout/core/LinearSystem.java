@@ -85,22 +85,38 @@ public class LinearSystem {
     public static Metrics sMetrics;
     private Row mTempGoal;
 
+    /*
+     * Records the passes when warm start is enabled, the spare one is used
+     * when a replay gets abandoned.
+     */
+    WarmStart mWarmStart = null;
+    private WarmStart mSpareWarmStart = null;
+    // Variables kept by an abandoned replay, indexed by their recorded id
+    private SolverVariable[] mKeptVariables = null;
+    private SolverVariable[] mPendingVariables = null;
+    private float[] mPendingValues = null;
+
+    // Rows created store their variables in storage shared by all rows
+    private boolean mSharedRowStorage = false;
+
     static class ValuesRow extends ArrayRow {
         ValuesRow(Cache cache) {
             variables = new SolverVariableValues(this, cache);
         }
     }
 
+    static class SharedRow extends ArrayRow {
+        SharedRow(Cache cache) {
+            variables = new SharedArrayVariables(this, cache);
+        }
+    }
+
     public LinearSystem() {
         mRows = new ArrayRow[mTableSize];
         releaseRows();
         mCache = new Cache();
         mGoal = new PriorityGoalRow(mCache);
-        if (OPTIMIZED_ENGINE) {
-            mTempGoal = new ValuesRow(mCache);
-        } else {
-            mTempGoal = new ArrayRow(mCache);
-        }
+        mTempGoal = createTempGoal();
     }
 
     // @TODO: add description
@@ -112,6 +128,59 @@ public class LinearSystem {
         return sMetrics;
     }
 
+    /**
+     * Enable or disable warm start. When enabled, {@link #reset()} keeps the tableau of the
+     * previous pass if the same equations get added again, only updating their constants, and
+     * {@link #minimize()} optimizes it starting from the previous solution. If the equations
+     * added differ from the previous pass, the system falls back to a regular resolution.
+     * <p>
+     * The variables of the system are kept between passes, so they should not be reset or
+     * shared with another system while warm start is enabled.
+     *
+     * @param enabled true to enable warm start
+     */
+    public void setWarmStartEnabled(boolean enabled) {
+        if (enabled == (mWarmStart != null)) {
+            return;
+        }
+        if (enabled) {
+            mWarmStart = new WarmStart();
+        } else {
+            if (mWarmStart.mReplaying) {
+                abandonReplay();
+            }
+            mWarmStart.stop();
+            mWarmStart = null;
+            mSpareWarmStart = null;
+        }
+    }
+
+    /**
+     * Returns true if warm start is enabled
+     */
+    public boolean isWarmStartEnabled() {
+        return mWarmStart != null;
+    }
+
+    /**
+     * Enable or disable the storage of the rows in arrays shared by all the rows of the system,
+     * instead of arrays owned by each row. This avoids allocating when rows are created and
+     * releases the storage of all the rows at once on {@link #reset()}. Only the rows created
+     * after this call are affected.
+     *
+     * @param enabled true to use shared storage for new rows
+     */
+    public void setSharedRowStorageEnabled(boolean enabled) {
+        mSharedRowStorage = enabled;
+    }
+
+    /**
+     * Returns true if new rows use storage shared by all the rows of the system
+     */
+    public boolean isSharedRowStorageEnabled() {
+        return mSharedRowStorage;
+    }
+
     interface Row {
         SolverVariable getPivotCandidate(LinearSystem system, boolean[] avoid);
 
@@ -165,23 +234,35 @@ public class LinearSystem {
      * Release ArrayRows back to their pool
      */
     private void releaseRows() {
-        if (OPTIMIZED_ENGINE) {
-            for (int i = 0; i < mNumRows; i++) {
-                ArrayRow row = mRows[i];
-                if (row != null) {
-                    mCache.mOptimizedArrayRowPool.release(row);
-                }
-                mRows[i] = null;
+        for (int i = 0; i < mNumRows; i++) {
+            ArrayRow row = mRows[i];
+            if (row != null) {
+                releaseRow(row);
             }
+            mRows[i] = null;
+        }
+    }
+
+    /**
+     * Release an ArrayRow back to the pool matching its storage
+     */
+    private void releaseRow(ArrayRow row) {
+        if (row instanceof SharedRow) {
+            mCache.mSharedArrayRowPool.release(row);
+        } else if (OPTIMIZED_ENGINE) {
+            mCache.mOptimizedArrayRowPool.release(row);
         } else {
-            for (int i = 0; i < mNumRows; i++) {
-                ArrayRow row = mRows[i];
-                if (row != null) {
-                    mCache.mArrayRowPool.release(row);
-                }
-                mRows[i] = null;
-            }
+            mCache.mArrayRowPool.release(row);
+        }
+    }
+
+    private ArrayRow createTempGoal() {
+        if (mSharedRowStorage) {
+            return new SharedRow(mCache);
+        } else if (OPTIMIZED_ENGINE) {
+            return new ValuesRow(mCache);
         }
+        return new ArrayRow(mCache);
     }
 
     /**
@@ -193,6 +274,10 @@ public class LinearSystem {
             System.out.println("## RESET SYSTEM ##");
             System.out.println("##################");
         }
+        if (mWarmStart != null && mWarmStart.canReplay()) {
+            beginReplay();
+            return;
+        }
         for (int i = 0; i < mCache.mIndexedVariables.length; i++) {
             SolverVariable variable = mCache.mIndexedVariables[i];
             if (variable != null) {
@@ -216,13 +301,216 @@ public class LinearSystem {
         }
         releaseRows();
         mNumRows = 0;
-        if (OPTIMIZED_ENGINE) {
-            mTempGoal = new ValuesRow(mCache);
-        } else {
-            mTempGoal = new ArrayRow(mCache);
+        if (mCache.mSharedRowStorage != null) {
+            mCache.mSharedRowStorage.reset();
+        }
+        mTempGoal = createTempGoal();
+        if (mWarmStart != null) {
+            mWarmStart.beginRecording();
+        }
+    }
+
+    /*--------------------------------------------------------------------------------------------*/
+    // Warm start
+    /*--------------------------------------------------------------------------------------------*/
+
+    /**
+     * Start a pass keeping the tableau of the previous one. The equations added during the pass
+     * are checked against the recorded ones instead of being added to the tableau.
+     */
+    private void beginReplay() {
+        mWarmStart.beginReplay(mCache.mIndexedVariables.length);
+        // Variables only get their final value as the equations are added
+        for (int i = 1; i <= mVariablesID; i++) {
+            SolverVariable variable = mCache.mIndexedVariables[i];
+            if (variable != null) {
+                variable.isFinalValue = false;
+            }
+        }
+    }
+
+    /**
+     * Called once all the equations of a replayed pass are added: computes the constants of the
+     * kept tableau and the final values of the variables from the new inputs.
+     */
+    private void finishReplay() {
+        WarmStart warmStart = mWarmStart;
+        if (!warmStart.isReplayComplete() || !warmStart.computeConstants(mVariablesID + 1)) {
+            abandonReplay();
+            return;
+        }
+        for (int i = 0; i < mNumRows; i++) {
+            if (Float.isNaN(warmStart.getConstant(mRows[i]))) {
+                abandonReplay();
+                return;
+            }
+        }
+        for (int i = 0; i < mNumRows; i++) {
+            mRows[i].mConstantValue = warmStart.getConstant(mRows[i]);
+        }
+        for (int i = 1; i <= mVariablesID; i++) {
+            SolverVariable variable = mCache.mIndexedVariables[i];
+            if (variable != null) {
+                variable.computedValue = variable.isFinalValue ? warmStart.getFinalValue(i) : 0;
+            }
+        }
+        warmStart.endReplay();
+        if (sMetrics != null) {
+            sMetrics.warmStarts++;
+        }
+    }
+
+    /**
+     * Gives up on the tableau kept from the previous pass, when the equations added during the
+     * current pass stop matching the recorded ones. The equations that did match are added
+     * again to an empty tableau, so that the rest of the pass proceeds as a regular one.
+     * The variables get the ids a regular pass would have given them, as the choices of the
+     * solver depend on them.
+     */
+    private void abandonReplay() {
+        WarmStart previous = mWarmStart;
+        int count = previous.mCursor;
+        ArrayRow pending = previous.mPendingRow;
+        if (sMetrics != null) {
+            sMetrics.warmStartFallbacks++;
+        }
+        int pendingCount = 0;
+        if (pending != null) {
+            // the row being built when the replay was abandoned isn't part of the system yet,
+            // its variables are put back once they got their new ids
+            ArrayRow.ArrayRowVariables variables = pending.variables;
+            pendingCount = variables.getCurrentSize();
+            if (mPendingVariables == null || mPendingVariables.length < pendingCount) {
+                mPendingVariables = new SolverVariable[pendingCount * 2];
+                mPendingValues = new float[pendingCount * 2];
+            }
+            for (int i = 0; i < pendingCount; i++) {
+                mPendingVariables[i] = variables.getVariable(i);
+                mPendingValues[i] = variables.getVariableValue(i);
+            }
+            variables.clear();
+        }
+        for (int i = 0; i < mNumRows; i++) {
+            if (mRows[i] != null) {
+                mRows[i].mUsed = false;
+            }
+        }
+        releaseRows();
+        mNumRows = 0;
+        mGoal.clear();
+        mTempGoal = createTempGoal();
+        hasSimpleDefinition = false;
+
+        // Keep the variables already used in this pass, they get their ids back as the
+        // events creating them are added again
+        if (mKeptVariables == null || mKeptVariables.length < mCache.mIndexedVariables.length) {
+            mKeptVariables = new SolverVariable[mCache.mIndexedVariables.length];
+        }
+        final SolverVariable[] kept = mKeptVariables;
+        for (int i = 1; i <= mVariablesID; i++) {
+            SolverVariable variable = mCache.mIndexedVariables[i];
+            if (variable == null) {
+                continue;
+            }
+            if (variable.id == i && previous.isClaimed(i)) {
+                variable.resetDefinition();
+                kept[i] = variable;
+            } else if (variable.id == i) {
+                variable.reset();
+            }
+            mCache.mIndexedVariables[i] = null;
+        }
+        int keptCount = 0;
+        for (int i = 0; i < mPoolVariablesCount; i++) {
+            SolverVariable variable = mPoolVariables[i];
+            if (variable.id == -1) {
+                mCache.mSolverVariablePool.release(variable);
+            } else {
+                mPoolVariables[keptCount++] = variable;
+            }
+        }
+        mPoolVariablesCount = keptCount;
+        int numVariableIds = mVariablesID;
+        mVariablesID = 0;
+        mNumColumns = 1;
+
+        WarmStart warmStart = mSpareWarmStart != null ? mSpareWarmStart : new WarmStart();
+        mSpareWarmStart = previous;
+        mWarmStart = warmStart;
+        previous.stop();
+        warmStart.beginRecording();
+        for (int i = 0; i < count; i++) {
+            int id = previous.mEventFirst[i];
+            switch (previous.mEventKind[i]) {
+                case WarmStart.EVENT_OBJECT_VARIABLE:
+                case WarmStart.EVENT_SLACK_VARIABLE: {
+                    warmStart.recordVariable(previous.mEventKind[i],
+                            addKeptVariable(kept[id]), previous.mEventSecond[i]);
+                }
+                break;
+                case WarmStart.EVENT_ERROR_VARIABLE: {
+                    SolverVariable error = addKeptVariable(kept[id]);
+                    warmStart.recordVariable(previous.mEventKind[i], error,
+                            previous.mEventSecond[i]);
+                    mGoal.addError(error);
+                }
+                break;
+                case WarmStart.EVENT_ROW: {
+                    ArrayRow row = createRow();
+                    previous.fillRow(kept, row, i);
+                    addConstraint(row);
+                }
+                break;
+                case WarmStart.EVENT_FINAL_EQUALITY: {
+                    addEquality(kept[id], kept[previous.mEventSecond[i]],
+                            (int) previous.mEventInput[i], SolverVariable.STRENGTH_FIXED);
+                }
+                break;
+                case WarmStart.EVENT_VALUE: {
+                    addEquality(kept[id], (int) previous.mEventInput[i]);
+                }
+                break;
+                default:
+                    // extra variables are created again by the system
+                    break;
+            }
+        }
+        Arrays.fill(kept, 0, numVariableIds + 1, null);
+        if (pending != null) {
+            warmStart.adoptRow(pending);
+            for (int i = 0; i < pendingCount; i++) {
+                pending.variables.put(mPendingVariables[i], mPendingValues[i]);
+                mPendingVariables[i] = null;
+            }
         }
     }
 
+    /**
+     * Give a variable kept by an abandoned replay the next id, as a regular pass would
+     */
+    private SolverVariable addKeptVariable(SolverVariable variable) {
+        if (mNumColumns + 1 >= mMaxColumns) {
+            increaseTableSize();
+        }
+        mVariablesID++;
+        mNumColumns++;
+        variable.id = mVariablesID;
+        mCache.mIndexedVariables[mVariablesID] = variable;
+        return variable;
+    }
+
+    /**
+     * Release a row matching the recorded one during a replay
+     */
+    private void releaseReplayedRow(ArrayRow row) {
+        ArrayRow.ArrayRowVariables variables = row.variables;
+        while (variables.getCurrentSize() > 0) {
+            variables.remove(variables.getVariable(0), true);
+        }
+        row.mVariable = null;
+        releaseRow(row);
+    }
+
     /*--------------------------------------------------------------------------------------------*/
     // Creation of rows / variables / errors
     /*--------------------------------------------------------------------------------------------*/
@@ -238,13 +526,22 @@ public class LinearSystem {
         SolverVariable variable = null;
         if (anchor instanceof ConstraintAnchor) {
             variable = ((ConstraintAnchor) anchor).getSolverVariable();
+            if (mWarmStart != null && mWarmStart.mReplaying) {
+                if (variable != null
+                        && mWarmStart.replayObjectVariable(mCache.mIndexedVariables, variable)) {
+                    return variable;
+                }
+                abandonReplay();
+            }
             if (variable == null) {
                 ((ConstraintAnchor) anchor).resetSolverVariable(mCache);
                 variable = ((ConstraintAnchor) anchor).getSolverVariable();
             }
+            // after an abandoned replay, the slot of a kept variable can hold another variable
             if (variable.id == -1
                     || variable.id > mVariablesID
-                    || mCache.mIndexedVariables[variable.id] == null) {
+                    || mCache.mIndexedVariables[variable.id] == null
+                    || (mWarmStart != null && mCache.mIndexedVariables[variable.id] != variable)) {
                 if (variable.id != -1) {
                     variable.reset();
                 }
@@ -253,6 +550,9 @@ public class LinearSystem {
                 variable.id = mVariablesID;
                 variable.mType = SolverVariable.Type.UNRESTRICTED;
                 mCache.mIndexedVariables[mVariablesID] = variable;
+                if (mWarmStart != null) {
+                    mWarmStart.recordVariable(WarmStart.EVENT_OBJECT_VARIABLE, variable, 0);
+                }
             }
         }
         return variable;
@@ -264,7 +564,14 @@ public class LinearSystem {
     // @TODO: add description
     public ArrayRow createRow() {
         ArrayRow row;
-        if (OPTIMIZED_ENGINE) {
+        if (mSharedRowStorage) {
+            row = mCache.mSharedArrayRowPool.acquire();
+            if (row == null) {
+                row = new SharedRow(mCache);
+            } else {
+                row.reset();
+            }
+        } else if (OPTIMIZED_ENGINE) {
             row = mCache.mOptimizedArrayRowPool.acquire();
             if (row == null) {
                 row = new ValuesRow(mCache);
@@ -281,6 +588,10 @@ public class LinearSystem {
                 row.reset();
             }
         }
+        row.mWarmStart = null;
+        if (mWarmStart != null) {
+            mWarmStart.prepareRow(row);
+        }
         SolverVariable.increaseErrorId();
         return row;
     }
@@ -290,6 +601,14 @@ public class LinearSystem {
         if (sMetrics != null) {
             sMetrics.slackvariables++;
         }
+        if (mWarmStart != null && mWarmStart.mReplaying) {
+            SolverVariable variable = mWarmStart.replayVariable(mCache.mIndexedVariables,
+                    WarmStart.EVENT_SLACK_VARIABLE, 0);
+            if (variable != null) {
+                return variable;
+            }
+            abandonReplay();
+        }
         if (mNumColumns + 1 >= mMaxColumns) {
             increaseTableSize();
         }
@@ -298,6 +617,9 @@ public class LinearSystem {
         mNumColumns++;
         variable.id = mVariablesID;
         mCache.mIndexedVariables[mVariablesID] = variable;
+        if (mWarmStart != null) {
+            mWarmStart.recordVariable(WarmStart.EVENT_SLACK_VARIABLE, variable, 0);
+        }
         return variable;
     }
 
@@ -314,6 +636,9 @@ public class LinearSystem {
         mNumColumns++;
         variable.id = mVariablesID;
         mCache.mIndexedVariables[mVariablesID] = variable;
+        if (mWarmStart != null) {
+            mWarmStart.recordVariable(WarmStart.EVENT_EXTRA_VARIABLE, variable, 0);
+        }
         return variable;
     }
 
@@ -343,6 +668,13 @@ public class LinearSystem {
         if (sMetrics != null) {
             sMetrics.variables++;
         }
+        if (mWarmStart != null) {
+            // named variables are only used when testing the system
+            if (mWarmStart.mReplaying) {
+                abandonReplay();
+            }
+            mWarmStart.invalidate();
+        }
         if (mNumColumns + 1 >= mMaxColumns) {
             increaseTableSize();
         }
@@ -364,6 +696,14 @@ public class LinearSystem {
         if (sMetrics != null) {
             sMetrics.errors++;
         }
+        if (mWarmStart != null && mWarmStart.mReplaying) {
+            SolverVariable variable = mWarmStart.replayVariable(mCache.mIndexedVariables,
+                    WarmStart.EVENT_ERROR_VARIABLE, strength);
+            if (variable != null) {
+                return variable;
+            }
+            abandonReplay();
+        }
         if (mNumColumns + 1 >= mMaxColumns) {
             increaseTableSize();
         }
@@ -374,6 +714,9 @@ public class LinearSystem {
         variable.strength = strength;
         mCache.mIndexedVariables[mVariablesID] = variable;
         mGoal.addError(variable);
+        if (mWarmStart != null) {
+            mWarmStart.recordVariable(WarmStart.EVENT_ERROR_VARIABLE, variable, strength);
+        }
         return variable;
     }
 
@@ -427,6 +770,10 @@ public class LinearSystem {
 
     // @TODO: add description
     public int getObjectVariableValue(Object object) {
+        if (mWarmStart != null && mWarmStart.mReplaying) {
+            // the kept tableau only holds the values of the system once minimized
+            abandonReplay();
+        }
         ConstraintAnchor anchor = (ConstraintAnchor) object;
         if (Chain.USE_CHAIN_OPTIMIZATION) {
             if (anchor.hasFinalValue()) {
@@ -469,6 +816,16 @@ public class LinearSystem {
         if (sMetrics != null) {
             sMetrics.minimize++;
         }
+        if (mWarmStart != null) {
+            if (mWarmStart.mReplaying) {
+                finishReplay();
+            }
+            if (mWarmStart.minimizing()) {
+                // the replayed tableau is already optimized
+                computeValues();
+                return;
+            }
+        }
         if (mGoal.isEmpty()) {
             if (DEBUG) {
                 System.out.println("\n*** SKIPPING MINIMIZE! ***\n");
@@ -542,6 +899,12 @@ public class LinearSystem {
     }
 
     final void cleanupRows() {
+        if (mWarmStart != null) {
+            if (mWarmStart.mReplaying) {
+                abandonReplay();
+            }
+            mWarmStart.invalidate();
+        }
         int i = 0;
         while (i < mNumRows) {
             ArrayRow current = mRows[i];
@@ -557,11 +920,7 @@ public class LinearSystem {
                 mRows[mNumRows - 1] = null;
                 mNumRows--;
                 i--;
-                if (OPTIMIZED_ENGINE) {
-                    mCache.mOptimizedArrayRowPool.release(current);
-                } else {
-                    mCache.mArrayRowPool.release(current);
-                }
+                releaseRow(current);
             }
             i++;
         }
@@ -585,6 +944,17 @@ public class LinearSystem {
         if (mNumRows + 1 >= mMaxRows || mNumColumns + 1 >= mMaxColumns) {
             increaseTableSize();
         }
+        if (mWarmStart != null) {
+            if (mWarmStart.mReplaying) {
+                if (mWarmStart.replayRow(mCache.mIndexedVariables, row)) {
+                    releaseReplayedRow(row);
+                    return;
+                }
+                mWarmStart.mPendingRow = row;
+                abandonReplay();
+            }
+            mWarmStart.recordRow(row);
+        }
         if (DEBUG) {
             System.out.println("addConstraint <" + row.toReadableString() + ">");
             displayReadableRows();
@@ -596,6 +966,9 @@ public class LinearSystem {
             row.updateFromSystem(this);
 
             if (row.isEmpty()) {
+                if (mWarmStart != null) {
+                    mWarmStart.recordEmptyRow(row);
+                }
                 return;
             }
 
@@ -634,22 +1007,25 @@ public class LinearSystem {
                         if (!row.mIsSimpleDefinition) {
                             row.mVariable.updateReferencesWithNewDefinition(this, row);
                         }
-                        if (OPTIMIZED_ENGINE) {
-                            mCache.mOptimizedArrayRowPool.release(row);
-                        } else {
-                            mCache.mArrayRowPool.release(row);
-                        }
+                        releaseRow(row);
                         mNumRows--;
                     }
                 }
             }
 
+            if (mWarmStart != null && row.mVariable != null
+                    && row.mVariable.mType != SolverVariable.Type.UNRESTRICTED) {
+                mWarmStart.recordSign(row);
+            }
             if (!row.hasKeyVariable()) {
                 // Can happen if row resolves to nil
                 if (DEBUG) {
                     System.out.println("No variable found to pivot on " + row.toReadableString());
                     displayReadableRows();
                 }
+                if (mWarmStart != null) {
+                    mWarmStart.invalidate();
+                }
                 return;
             }
         }
@@ -660,6 +1036,9 @@ public class LinearSystem {
 
     private void addRow(ArrayRow row) {
         if (SIMPLIFY_SYNONYMS && row.mIsSimpleDefinition) {
+            if (mWarmStart != null) {
+                mWarmStart.recordFinal(row.mVariable, row);
+            }
             row.mVariable.setFinalValue(this, row.mConstantValue);
         } else {
             mRows[mNumRows] = row;
@@ -680,12 +1059,11 @@ public class LinearSystem {
                 }
                 if (mRows[i] != null && mRows[i].mIsSimpleDefinition) {
                     ArrayRow removedRow = mRows[i];
-                    removedRow.mVariable.setFinalValue(this, removedRow.mConstantValue);
-                    if (OPTIMIZED_ENGINE) {
-                        mCache.mOptimizedArrayRowPool.release(removedRow);
-                    } else {
-                        mCache.mArrayRowPool.release(removedRow);
+                    if (mWarmStart != null) {
+                        mWarmStart.recordFinal(removedRow.mVariable, removedRow);
                     }
+                    removedRow.mVariable.setFinalValue(this, removedRow.mConstantValue);
+                    releaseRow(removedRow);
                     mRows[i] = null;
                     int lastRow = i + 1;
                     for (int j = i + 1; j < mNumRows; j++) {
@@ -708,6 +1086,12 @@ public class LinearSystem {
 
     // @TODO: add description
     public void removeRow(ArrayRow row) {
+        if (mWarmStart != null) {
+            if (mWarmStart.mReplaying) {
+                abandonReplay();
+            }
+            mWarmStart.invalidate();
+        }
         if (row.mIsSimpleDefinition && row.mVariable != null) {
             if (row.mVariable.mDefinitionId != -1) {
                 for (int i = row.mVariable.mDefinitionId; i < mNumRows - 1; i++) {
@@ -722,11 +1106,7 @@ public class LinearSystem {
             if (!row.mVariable.isFinalValue) {
                 row.mVariable.setFinalValue(this, row.mConstantValue);
             }
-            if (OPTIMIZED_ENGINE) {
-                mCache.mOptimizedArrayRowPool.release(row);
-            } else {
-                mCache.mArrayRowPool.release(row);
-            }
+            releaseRow(row);
         }
     }
 
@@ -828,6 +1208,9 @@ public class LinearSystem {
                         // we want to pivot on
                         float a_j = current.variables.get(pivotCandidate);
                         if (a_j < 0) {
+                            if (mWarmStart != null) {
+                                mWarmStart.recordRatio(current, a_j);
+                            }
                             float value = -current.mConstantValue / a_j;
                             if (value < min) {
                                 min = value;
@@ -837,6 +1220,10 @@ public class LinearSystem {
                     }
                 }
                 // At this point, we ought to have an equation to pivot on
+                if (mWarmStart != null) {
+                    mWarmStart.recordRatioChoice(pivotRowIndex > -1
+                            ? mRows[pivotRowIndex] : null);
+                }
 
                 if (pivotRowIndex > -1) {
                     // We found an equation to pivot on
@@ -909,6 +1296,9 @@ public class LinearSystem {
             if (variable.mType == SolverVariable.Type.UNRESTRICTED) {
                 continue; // C can be either positive or negative.
             }
+            if (mWarmStart != null) {
+                mWarmStart.recordSign(mRows[i]);
+            }
             if (mRows[i].mConstantValue < 0) {
                 infeasibleSystem = true;
                 break;
@@ -950,6 +1340,9 @@ public class LinearSystem {
                     if (current.mIsSimpleDefinition) {
                         continue;
                     }
+                    if (mWarmStart != null) {
+                        mWarmStart.recordSign(current);
+                    }
                     if (current.mConstantValue < 0) {
                         // let's examine this row, see if we can find a good pivot
                         if (DEBUG) {
@@ -1366,7 +1759,13 @@ public class LinearSystem {
 
     // @TODO: add description
     public void addSynonym(SolverVariable a, SolverVariable b, int margin) {
+        if (mWarmStart != null && mWarmStart.mReplaying) {
+            abandonReplay();
+        }
         if (a.mDefinitionId == -1 && margin == 0) {
+            if (mWarmStart != null) {
+                mWarmStart.invalidate();
+            }
             if (DEBUG_CONSTRAINTS) {
                 System.out.println("(S) -> " + a + " = " + b + (margin != 0 ? " + " + margin : ""));
             }
@@ -1397,12 +1796,21 @@ public class LinearSystem {
         if (sMetrics != null) {
             sMetrics.mSimpleEquations++;
         }
-        if (USE_BASIC_SYNONYMS && strength == SolverVariable.STRENGTH_FIXED
+        boolean replaying = mWarmStart != null && mWarmStart.mReplaying;
+        if (replaying && strength == SolverVariable.STRENGTH_FIXED
+                && mWarmStart.replayFinalEquality(mCache.mIndexedVariables, a, b, margin)) {
+            return null;
+        }
+        // when replaying, the state of a belongs to the previous pass: add the equation as a row
+        if (!replaying && USE_BASIC_SYNONYMS && strength == SolverVariable.STRENGTH_FIXED
                 && b.isFinalValue && a.mDefinitionId == -1) {
             if (DEBUG_CONSTRAINTS) {
                 System.out.println("=> " + a + " = " + b + (margin != 0 ? " + " + margin : "")
                         + " = " + (b.computedValue + margin) + " (Synonym)");
             }
+            if (mWarmStart != null) {
+                mWarmStart.recordFinalEquality(a, b, margin);
+            }
             a.setFinalValue(this, b.computedValue + margin);
             return null;
         }
@@ -1447,14 +1855,32 @@ public class LinearSystem {
         if (sMetrics != null) {
             sMetrics.mSimpleEquations++;
         }
+        if (mWarmStart != null && mWarmStart.mReplaying) {
+            if (mWarmStart.replayValue(mCache.mIndexedVariables, a, value)) {
+                return;
+            }
+            if (mWarmStart.nextIsRow()) {
+                ArrayRow row = createRow();
+                row.createRowEquals(a, value);
+                addConstraint(row);
+                return;
+            }
+            abandonReplay();
+        }
         if (USE_BASIC_SYNONYMS && a.mDefinitionId == -1) {
             if (DEBUG_CONSTRAINTS) {
                 System.out.println("=> " + a + " = " + value + " (Synonym)");
             }
+            if (mWarmStart != null) {
+                mWarmStart.recordValue(a, value, null);
+            }
             a.setFinalValue(this, value);
             for (int i = 0; i < mVariablesID + 1; i++) {
                 SolverVariable variable = mCache.mIndexedVariables[i];
                 if (variable != null && variable.mIsSynonym && variable.mSynonym == a.id) {
+                    if (mWarmStart != null) {
+                        mWarmStart.invalidate();
+                    }
                     variable.setFinalValue(this, value + variable.mSynonymDelta);
                 }
             }
@@ -1467,9 +1893,15 @@ public class LinearSystem {
         if (a.mDefinitionId != -1) {
             ArrayRow row = mRows[idx];
             if (row.mIsSimpleDefinition) {
+                if (mWarmStart != null) {
+                    mWarmStart.recordValue(a, value, row);
+                }
                 row.mConstantValue = value;
             } else {
                 if (row.variables.getCurrentSize() == 0) {
+                    if (mWarmStart != null) {
+                        mWarmStart.recordValue(a, value, row);
+                    }
                     row.mIsSimpleDefinition = true;
                     row.mConstantValue = value;
                 } else {
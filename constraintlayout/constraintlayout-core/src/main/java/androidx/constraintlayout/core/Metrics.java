@@ -68,6 +68,10 @@ public class Metrics {
     public long mEquations;
     public long mVariables;
     public long mSimpleEquations;
+    public long warmStarts; // passes solved from the tableau of the previous pass
+    public long warmStartFallbacks; // passes that couldn't reuse the previous tableau
+    public long measureCacheHits; // measures answered by the measure result cache
+    public long measureCacheMisses; // measures that had to call the measurer
 
     // @TODO: add description
     @Override
@@ -125,6 +129,10 @@ public class Metrics {
         mVariables = 0;
         mEquations = 0;
         mSimpleEquations = 0;
+        warmStarts = 0;
+        warmStartFallbacks = 0;
+        measureCacheHits = 0;
+        measureCacheMisses = 0;
     }
 
     /**
@@ -170,5 +178,21 @@ public class Metrics {
         graphSolved = metrics.graphSolved;
         resolvedWidgets = metrics.resolvedWidgets;
         nonresolvedWidgets = metrics.nonresolvedWidgets;
+        warmStarts = metrics.warmStarts;
+        warmStartFallbacks = metrics.warmStartFallbacks;
+        measureCacheHits = metrics.measureCacheHits;
+        measureCacheMisses = metrics.measureCacheMisses;
+    }
+
+    /**
+     * Returns the ratio of measures answered by the measure result cache,
+     * or 0 if the cache wasn't used
+     */
+    public float getMeasureCacheHitRate() {
+        long lookups = measureCacheHits + measureCacheMisses;
+        if (lookups == 0) {
+            return 0;
+        }
+        return measureCacheHits / (float) lookups;
     }
 }
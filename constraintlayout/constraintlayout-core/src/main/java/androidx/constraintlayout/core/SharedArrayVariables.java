@@ -0,0 +1,485 @@
+/*
+ * Copyright 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package androidx.constraintlayout.core;
+
+import java.util.Arrays;
+
+/**
+ * Store a set of variables and their values as a linked list living in arrays shared
+ * by all the rows of a {@link LinearSystem}.
+ *
+ * Like {@link ArrayLinkedVariables}, the list is kept ordered by variable id, but instead of
+ * each row owning its own arrays, the entries of every row are allocated from a single
+ * {@link Storage} held by the {@link Cache}. Rows are then only a head pointer and a count,
+ * creating or recycling a row does not allocate, and the storage of all the rows is released
+ * at once when the system is reset.
+ */
+public class SharedArrayVariables implements ArrayRow.ArrayRowVariables {
+    static final int NONE = -1;
+    private static float sEpsilon = 0.001f;
+
+    private final ArrayRow mRow; // our owner
+
+    // pointer to the system-wide cache, allowing access to SolverVariables
+    protected final Cache mCache;
+
+    // the entries shared by all the rows of the system
+    private final Storage mStorage;
+
+    // generation of the storage our entries were allocated in
+    private int mGeneration;
+
+    private int mHead = NONE;
+    private int mCount = 0;
+
+    // last position looked up with getVariable() / getVariableValue(), and its entry,
+    // so that iterating over the list by position doesn't restart from the head every time
+    private int mCursorIndex = NONE;
+    private int mCursorEntry = NONE;
+
+    /**
+     * Entries shared between rows: for each entry, the id of the variable
+     * in mCache.mIndexedVariables, its value, and the next entry in the row.
+     */
+    static final class Storage {
+        int[] mIds;
+        float[] mValues;
+        int[] mNext;
+
+        // list of entries that were released, linked through mNext
+        private int mFree = NONE;
+
+        // first entry never allocated since the last reset
+        private int mEnd = 0;
+
+        // incremented on reset, invalidating the entries of all the rows
+        int mGeneration = 0;
+
+        Storage(int size) {
+            mIds = new int[size];
+            mValues = new float[size];
+            mNext = new int[size];
+        }
+
+        int allocate() {
+            int entry = mFree;
+            if (entry != NONE) {
+                mFree = mNext[entry];
+                return entry;
+            }
+            if (mEnd == mIds.length) {
+                int size = mIds.length * 2;
+                mIds = Arrays.copyOf(mIds, size);
+                mValues = Arrays.copyOf(mValues, size);
+                mNext = Arrays.copyOf(mNext, size);
+            }
+            return mEnd++;
+        }
+
+        void release(int entry) {
+            mNext[entry] = mFree;
+            mFree = entry;
+        }
+
+        /**
+         * Release the entries of every row at once
+         */
+        void reset() {
+            mFree = NONE;
+            mEnd = 0;
+            mGeneration++;
+        }
+    }
+
+    /**
+     * Constructor
+     *
+     * @param arrayRow the row owning us
+     * @param cache    instances cache
+     */
+    SharedArrayVariables(ArrayRow arrayRow, Cache cache) {
+        mRow = arrayRow;
+        mCache = cache;
+        if (cache.mSharedRowStorage == null) {
+            cache.mSharedRowStorage = new Storage(256);
+        }
+        mStorage = cache.mSharedRowStorage;
+        mGeneration = mStorage.mGeneration;
+    }
+
+    @Override
+    public int getCurrentSize() {
+        return mCount;
+    }
+
+    /**
+     * Insert a variable with a given value in the list
+     *
+     * @param variable the variable to add in the list
+     * @param value    the value of the variable
+     */
+    @Override
+    public void put(SolverVariable variable, float value) {
+        if (value == 0) {
+            remove(variable, true);
+            return;
+        }
+        final int id = variable.id;
+        int[] ids = mStorage.mIds;
+        int[] next = mStorage.mNext;
+        int current = mHead;
+        int previous = NONE;
+        while (current != NONE && ids[current] <= id) {
+            if (ids[current] == id) {
+                mStorage.mValues[current] = value;
+                return;
+            }
+            previous = current;
+            current = next[current];
+        }
+        insert(variable, value, previous);
+    }
+
+    /**
+     * Add value to an existing variable, removing it if the result is zero
+     *
+     * @param variable the variable we want to add
+     * @param value    its value
+     */
+    @Override
+    public void add(SolverVariable variable, float value, boolean removeFromDefinition) {
+        if (value > -sEpsilon && value < sEpsilon) {
+            return;
+        }
+        final int id = variable.id;
+        int[] ids = mStorage.mIds;
+        int[] next = mStorage.mNext;
+        float[] values = mStorage.mValues;
+        int current = mHead;
+        int previous = NONE;
+        while (current != NONE && ids[current] <= id) {
+            if (ids[current] == id) {
+                float v = values[current] + value;
+                if (v > -sEpsilon && v < sEpsilon) {
+                    unlink(current, previous);
+                    if (removeFromDefinition) {
+                        variable.removeFromRow(mRow);
+                    }
+                    variable.usageInRowCount--;
+                } else {
+                    values[current] = v;
+                }
+                return;
+            }
+            previous = current;
+            current = next[current];
+        }
+        insert(variable, value, previous);
+    }
+
+    private void insert(SolverVariable variable, float value, int previous) {
+        int entry = mStorage.allocate();
+        mStorage.mIds[entry] = variable.id;
+        mStorage.mValues[entry] = value;
+        if (previous == NONE) {
+            mStorage.mNext[entry] = mHead;
+            mHead = entry;
+        } else {
+            mStorage.mNext[entry] = mStorage.mNext[previous];
+            mStorage.mNext[previous] = entry;
+        }
+        mCount++;
+        mCursorIndex = NONE;
+        variable.usageInRowCount++;
+        variable.addToRow(mRow);
+    }
+
+    private void unlink(int entry, int previous) {
+        if (previous == NONE) {
+            mHead = mStorage.mNext[entry];
+        } else {
+            mStorage.mNext[previous] = mStorage.mNext[entry];
+        }
+        mStorage.release(entry);
+        mCount--;
+        mCursorIndex = NONE;
+    }
+
+    /**
+     * Update the current list with a new definition
+     *
+     * @param definition the row containing the definition
+     */
+    @Override
+    public float use(ArrayRow definition, boolean removeFromDefinition) {
+        float value = get(definition.mVariable);
+        remove(definition.mVariable, removeFromDefinition);
+        ArrayRow.ArrayRowVariables definitionVariables = definition.variables;
+        if (definitionVariables instanceof SharedArrayVariables
+                && ((SharedArrayVariables) definitionVariables).mStorage == mStorage) {
+            // walk the definition directly, re-reading the arrays as add() might grow them
+            int current = ((SharedArrayVariables) definitionVariables).mHead;
+            while (current != NONE) {
+                SolverVariable definitionVariable =
+                        mCache.mIndexedVariables[mStorage.mIds[current]];
+                float definitionValue = mStorage.mValues[current];
+                this.add(definitionVariable, definitionValue * value, removeFromDefinition);
+                current = mStorage.mNext[current];
+            }
+            return value;
+        }
+        int definitionSize = definitionVariables.getCurrentSize();
+        for (int i = 0; i < definitionSize; i++) {
+            SolverVariable definitionVariable = definitionVariables.getVariable(i);
+            float definitionValue = definitionVariables.get(definitionVariable);
+            this.add(definitionVariable, definitionValue * value, removeFromDefinition);
+        }
+        return value;
+    }
+
+    /**
+     * Remove a variable from the list
+     *
+     * @param variable the variable we want to remove
+     * @return the value of the removed variable
+     */
+    @Override
+    public float remove(SolverVariable variable, boolean removeFromDefinition) {
+        final int id = variable.id;
+        int[] ids = mStorage.mIds;
+        int[] next = mStorage.mNext;
+        int current = mHead;
+        int previous = NONE;
+        while (current != NONE && ids[current] <= id) {
+            if (ids[current] == id) {
+                float value = mStorage.mValues[current];
+                unlink(current, previous);
+                if (removeFromDefinition) {
+                    variable.removeFromRow(mRow);
+                }
+                variable.usageInRowCount--;
+                return value;
+            }
+            previous = current;
+            current = next[current];
+        }
+        return 0;
+    }
+
+    /**
+     * Clear the list of variables
+     */
+    @Override
+    public void clear() {
+        if (mGeneration != mStorage.mGeneration) {
+            // our entries were released with the rest of the storage
+            mGeneration = mStorage.mGeneration;
+        } else {
+            int current = mHead;
+            while (current != NONE) {
+                SolverVariable variable = mCache.mIndexedVariables[mStorage.mIds[current]];
+                if (variable != null) {
+                    variable.removeFromRow(mRow);
+                }
+                int following = mStorage.mNext[current];
+                mStorage.release(current);
+                current = following;
+            }
+        }
+        mHead = NONE;
+        mCount = 0;
+        mCursorIndex = NONE;
+    }
+
+    /**
+     * Returns true if the variable is contained in the list
+     *
+     * @param variable the variable we are looking for
+     * @return return true if we found the variable
+     */
+    @Override
+    public boolean contains(SolverVariable variable) {
+        return find(variable.id) != NONE;
+    }
+
+    @Override
+    public int indexOf(SolverVariable variable) {
+        final int id = variable.id;
+        int current = mHead;
+        int index = 0;
+        while (current != NONE && mStorage.mIds[current] <= id) {
+            if (mStorage.mIds[current] == id) {
+                return index;
+            }
+            current = mStorage.mNext[current];
+            index++;
+        }
+        return -1;
+    }
+
+    private int find(int id) {
+        int[] ids = mStorage.mIds;
+        int[] next = mStorage.mNext;
+        int current = mHead;
+        while (current != NONE && ids[current] <= id) {
+            if (ids[current] == id) {
+                return current;
+            }
+            current = next[current];
+        }
+        return NONE;
+    }
+
+    /**
+     * Return the value of a variable, 0 if not found
+     *
+     * @param v the variable we are looking up
+     * @return the value of the found variable, or 0 if not found
+     */
+    @Override
+    public float get(SolverVariable v) {
+        int entry = find(v.id);
+        if (entry == NONE) {
+            return 0;
+        }
+        return mStorage.mValues[entry];
+    }
+
+    /**
+     * Invert the values of all the variables in the list
+     */
+    @Override
+    public void invert() {
+        float[] values = mStorage.mValues;
+        int[] next = mStorage.mNext;
+        int current = mHead;
+        while (current != NONE) {
+            values[current] *= -1;
+            current = next[current];
+        }
+    }
+
+    /**
+     * Divide the values of all the variables in the list
+     * by the given amount
+     *
+     * @param amount amount to divide by
+     */
+    @Override
+    public void divideByAmount(float amount) {
+        float[] values = mStorage.mValues;
+        int[] next = mStorage.mNext;
+        int current = mHead;
+        while (current != NONE) {
+            values[current] /= amount;
+            current = next[current];
+        }
+    }
+
+    private int entryAt(int index) {
+        if (index < 0 || index >= mCount) {
+            return NONE;
+        }
+        int current = mHead;
+        int counter = 0;
+        if (mCursorIndex != NONE && mCursorIndex <= index) {
+            current = mCursorEntry;
+            counter = mCursorIndex;
+        }
+        while (counter < index) {
+            current = mStorage.mNext[current];
+            counter++;
+        }
+        mCursorIndex = index;
+        mCursorEntry = current;
+        return current;
+    }
+
+    /**
+     * Return a variable from its position in the list
+     *
+     * @param index the index of the variable we want to return
+     * @return the variable found, or null
+     */
+    @Override
+    public SolverVariable getVariable(int index) {
+        int entry = entryAt(index);
+        if (entry == NONE) {
+            return null;
+        }
+        return mCache.mIndexedVariables[mStorage.mIds[entry]];
+    }
+
+    /**
+     * Return the value of a variable from its position in the list
+     *
+     * @param index the index of the variable we want to look up
+     * @return the value of the found variable, or 0 if not found
+     */
+    @Override
+    public float getVariableValue(int index) {
+        int entry = entryAt(index);
+        if (entry == NONE) {
+            return 0;
+        }
+        return mStorage.mValues[entry];
+    }
+
+    /**
+     * Show size in bytes used by this row in the shared storage
+     *
+     * @return size in bytes
+     */
+    @Override
+    public int sizeInBytes() {
+        return 3 * (mCount * 4) + 6 * 4;
+    }
+
+    /**
+     * print out the variables and their values
+     */
+    @Override
+    public void display() {
+        int count = mCount;
+        System.out.print("{ ");
+        for (int i = 0; i < count; i++) {
+            SolverVariable v = getVariable(i);
+            if (v == null) {
+                continue;
+            }
+            System.out.print(v + " = " + getVariableValue(i) + " ");
+        }
+        System.out.println(" }");
+    }
+
+    /**
+     * Returns a string representation of the list
+     *
+     * @return a string containing a representation of the list
+     */
+    @Override
+    public String toString() {
+        String result = "";
+        int current = mHead;
+        while (current != NONE) {
+            result += " -> ";
+            result += mStorage.mValues[current] + " : ";
+            result += mCache.mIndexedVariables[mStorage.mIds[current]];
+            current = mStorage.mNext[current];
+        }
+        return result;
+    }
+}
@@ -270,6 +270,13 @@ public class SolverVariable implements Comparable<SolverVariable> {
         mType = Type.UNKNOWN;
         strength = SolverVariable.STRENGTH_NONE;
         id = -1;
+        resetDefinition();
+    }
+
+    /**
+     * Reset the state of the variable in the system, keeping its id, type and strength
+     */
+    void resetDefinition() {
         mDefinitionId = -1;
         computedValue = 0;
         isFinalValue = false;
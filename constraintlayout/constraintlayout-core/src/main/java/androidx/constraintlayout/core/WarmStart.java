@@ -0,0 +1,740 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.constraintlayout.core;
+
+import java.util.Arrays;
+
+/**
+ * Records how the equations of a {@link LinearSystem} were added during a pass, so that the
+ * next pass can keep the tableau of the previous one instead of building it again.
+ * <p>
+ * Layouts are solved again whenever a dimension changes, but most of the time the same
+ * equations are added with different constants. While recording, every call shaping the system
+ * (variables, rows, final values) is stored as an event, and every operation applied to the
+ * constants of the rows (substitutions, pivots...) is stored on a tape. The constants of the
+ * tableau only depend linearly on the constants of the added equations, so a replayed pass only
+ * has to check that its events match the recorded ones and run the tape on the new constants.
+ * <p>
+ * The choices made while solving (the sign of a constant, the row picked by a ratio test...)
+ * are recorded on the tape as guards. The kept tableau is the one the recorded pass ended with,
+ * so it is only the solution of the replayed pass if every guard takes the same branch with the
+ * new constants. If a guard fails, or if the events stop matching, the system falls back to a
+ * regular pass, rebuilt the same way a pass started from scratch would be.
+ */
+class WarmStart {
+
+    static final int EVENT_OBJECT_VARIABLE = 0;
+    static final int EVENT_SLACK_VARIABLE = 1;
+    static final int EVENT_EXTRA_VARIABLE = 2;
+    static final int EVENT_ERROR_VARIABLE = 3;
+    static final int EVENT_ROW = 4;
+    static final int EVENT_FINAL_EQUALITY = 5;
+    static final int EVENT_VALUE = 6;
+
+    private static final int OP_INPUT = 0; // row = input
+    private static final int OP_NEGATE = 1; // row = -row
+    private static final int OP_DIVIDE = 2; // row = row / value
+    private static final int OP_ADD_ROW = 3; // row += other row * value
+    private static final int OP_ADD_FINAL = 4; // row += final * value
+    private static final int OP_FINAL_ROW = 5; // final = row
+    private static final int OP_FINAL_INPUT = 6; // final = input
+    private static final int OP_FINAL_ADD = 7; // final += other final
+    private static final int OP_GUARD_ZERO = 8; // row == 0, or the pass can't be replayed
+    private static final int OP_GUARD_NEGATIVE = 9; // row < 0, or the pass can't be replayed
+    private static final int OP_GUARD_NOT_NEGATIVE = 10; // row >= 0, or the pass can't be replayed
+    private static final int OP_RATIO = 11; // ratio test on -row / value
+    private static final int OP_RATIO_CHOICE = 12; // row picked by the ratio test, or no replay
+
+    private static final int INITIAL_SIZE = 128;
+
+    boolean mRecording = false;
+    boolean mReplaying = false;
+    private boolean mValid = false;
+    private boolean mMinimized = false;
+    private boolean mReplayed = false;
+
+    // Events, with the terms of the recorded rows
+    int mEventCount = 0;
+    int[] mEventKind = new int[INITIAL_SIZE];
+    int[] mEventFirst = new int[INITIAL_SIZE]; // variable id, or offset of the row terms
+    int[] mEventSecond = new int[INITIAL_SIZE]; // strength, second variable id, or terms count
+    int[] mEventSubject = new int[INITIAL_SIZE]; // variable id of a simple definition
+    float[] mEventInput = new float[INITIAL_SIZE];
+    private int[] mEventTapeStart = new int[INITIAL_SIZE];
+
+    private int mTermCount = 0;
+    private int[] mTermIds = new int[INITIAL_SIZE];
+    private float[] mTermValues = new float[INITIAL_SIZE];
+
+    // Tape of operations applied to the constants
+    private int mOpCount = 0;
+    private int mBuildOpCount = -1;
+    private int[] mOpKind = new int[INITIAL_SIZE];
+    private int[] mOpTarget = new int[INITIAL_SIZE];
+    private int[] mOpSource = new int[INITIAL_SIZE];
+    private float[] mOpValue = new float[INITIAL_SIZE];
+
+    // Rows created while recording, indexed by their slot
+    private int mSlotCount = 0;
+    private ArrayRow[] mSlotRows = new ArrayRow[INITIAL_SIZE];
+
+    // Replay state
+    int mCursor = 0;
+    ArrayRow mPendingRow = null;
+    private int mMarkedOps = 0;
+    private boolean[] mClaimed = new boolean[INITIAL_SIZE];
+    private float[] mSlotValues = new float[INITIAL_SIZE];
+    private float[] mFinalValues = new float[INITIAL_SIZE];
+
+    /*--------------------------------------------------------------------------------------------*/
+    // State
+    /*--------------------------------------------------------------------------------------------*/
+
+    /**
+     * Start recording a new pass, dropping the previous recording
+     */
+    void beginRecording() {
+        Arrays.fill(mSlotRows, 0, mSlotCount, null);
+        mRecording = true;
+        mReplaying = false;
+        mValid = true;
+        mMinimized = false;
+        mReplayed = false;
+        mEventCount = 0;
+        mTermCount = 0;
+        mOpCount = 0;
+        mBuildOpCount = -1;
+        mSlotCount = 0;
+        mPendingRow = null;
+    }
+
+    /**
+     * Stop recording, the recorded pass won't be replayed
+     */
+    void stop() {
+        mRecording = false;
+        mReplaying = false;
+        mValid = false;
+        mReplayed = false;
+        mPendingRow = null;
+    }
+
+    /**
+     * Mark the recorded pass as not replayable, e.g. if it used synonyms
+     */
+    void invalidate() {
+        mValid = false;
+    }
+
+    /**
+     * Returns true if the recorded pass can be replayed
+     */
+    boolean canReplay() {
+        return mValid && mMinimized && mEventCount > 0;
+    }
+
+    /**
+     * Start replaying the recorded pass
+     */
+    void beginReplay(int tableSize) {
+        if (mClaimed.length < tableSize) {
+            mClaimed = new boolean[tableSize];
+        } else {
+            Arrays.fill(mClaimed, false);
+        }
+        mRecording = false;
+        mReplaying = true;
+        mReplayed = false;
+        mCursor = 0;
+        mMarkedOps = 0;
+        mPendingRow = null;
+    }
+
+    /**
+     * Ends a replay where all the events matched and all the guards held. Anything changing
+     * the system after this point makes the recording stale.
+     */
+    void endReplay() {
+        mReplaying = false;
+        mRecording = true;
+        mMinimized = true;
+        mReplayed = true;
+        mPendingRow = null;
+    }
+
+    /**
+     * Called before the system gets minimized. Returns true if the system was just replayed,
+     * in which case it already holds the solution.
+     */
+    boolean minimizing() {
+        if (!mRecording) {
+            return false;
+        }
+        if (mReplayed) {
+            mReplayed = false;
+            return true;
+        }
+        if (mMinimized) {
+            // we only replay passes minimizing their system once
+            mValid = false;
+        } else {
+            mBuildOpCount = mOpCount;
+            mMinimized = true;
+        }
+        return false;
+    }
+
+    boolean isClaimed(int id) {
+        return id < mClaimed.length && mClaimed[id];
+    }
+
+    /**
+     * Returns true if the variable was added to the system during the replayed pass
+     */
+    private boolean isClaimed(SolverVariable[] indexedVariables, SolverVariable variable) {
+        int id = variable.id;
+        return id > 0 && id < indexedVariables.length && indexedVariables[id] == variable
+                && isClaimed(id);
+    }
+
+    boolean isReplayComplete() {
+        return mCursor == mEventCount;
+    }
+
+    /*--------------------------------------------------------------------------------------------*/
+    // Recording
+    /*--------------------------------------------------------------------------------------------*/
+
+    /**
+     * Assign a slot to a newly created row
+     */
+    void prepareRow(ArrayRow row) {
+        row.mWarmStart = this;
+        row.mSlot = -1;
+        if (mRecording) {
+            if (mSlotCount >= mSlotRows.length) {
+                mSlotRows = Arrays.copyOf(mSlotRows, mSlotRows.length * 2);
+            }
+            row.mSlot = mSlotCount;
+            mSlotRows[mSlotCount++] = row;
+        } else if (mReplaying) {
+            mPendingRow = row;
+        }
+    }
+
+    /**
+     * Assign a slot to a row created during an abandoned replay
+     */
+    void adoptRow(ArrayRow row) {
+        boolean recording = mRecording;
+        mRecording = true;
+        prepareRow(row);
+        mRecording = recording;
+    }
+
+    private int slotOf(ArrayRow row) {
+        int slot = row.mSlot;
+        if (slot >= 0 && slot < mSlotCount && mSlotRows[slot] == row) {
+            return slot;
+        }
+        return -1;
+    }
+
+    private int addEvent(int kind, int first, int second, float input) {
+        if (mMinimized) {
+            // we only replay passes adding all their equations before minimizing
+            mValid = false;
+        }
+        if (mEventCount >= mEventKind.length) {
+            int size = mEventKind.length * 2;
+            mEventKind = Arrays.copyOf(mEventKind, size);
+            mEventFirst = Arrays.copyOf(mEventFirst, size);
+            mEventSecond = Arrays.copyOf(mEventSecond, size);
+            mEventSubject = Arrays.copyOf(mEventSubject, size);
+            mEventInput = Arrays.copyOf(mEventInput, size);
+            mEventTapeStart = Arrays.copyOf(mEventTapeStart, size);
+        }
+        int event = mEventCount++;
+        mEventKind[event] = kind;
+        mEventFirst[event] = first;
+        mEventSecond[event] = second;
+        mEventSubject[event] = 0;
+        mEventInput[event] = input;
+        mEventTapeStart[event] = mOpCount;
+        return event;
+    }
+
+    private void addOp(int kind, int target, int source, float value) {
+        if (mOpCount >= mOpKind.length) {
+            int size = mOpKind.length * 2;
+            mOpKind = Arrays.copyOf(mOpKind, size);
+            mOpTarget = Arrays.copyOf(mOpTarget, size);
+            mOpSource = Arrays.copyOf(mOpSource, size);
+            mOpValue = Arrays.copyOf(mOpValue, size);
+        }
+        mOpKind[mOpCount] = kind;
+        mOpTarget[mOpCount] = target;
+        mOpSource[mOpCount] = source;
+        mOpValue[mOpCount] = value;
+        mOpCount++;
+    }
+
+    void recordVariable(int kind, SolverVariable variable, int strength) {
+        if (!mRecording) {
+            return;
+        }
+        addEvent(kind, variable.id, strength, 0);
+    }
+
+    /**
+     * Record a row about to be added to the system, along with its constant
+     */
+    void recordRow(ArrayRow row) {
+        if (!mRecording) {
+            return;
+        }
+        int slot = slotOf(row);
+        boolean hasSubject = row.mVariable != null;
+        if (slot == -1 || hasSubject != row.mIsSimpleDefinition) {
+            mValid = false;
+            return;
+        }
+        ArrayRow.ArrayRowVariables variables = row.variables;
+        int count = variables.getCurrentSize();
+        if (mTermCount + count > mTermIds.length) {
+            int size = Math.max(mTermIds.length * 2, mTermCount + count);
+            mTermIds = Arrays.copyOf(mTermIds, size);
+            mTermValues = Arrays.copyOf(mTermValues, size);
+        }
+        for (int i = 0; i < count; i++) {
+            mTermIds[mTermCount + i] = variables.getVariable(i).id;
+            mTermValues[mTermCount + i] = variables.getVariableValue(i);
+        }
+        int event = addEvent(EVENT_ROW, mTermCount, count, row.mConstantValue);
+        mEventSubject[event] = hasSubject ? row.mVariable.id : 0;
+        mTermCount += count;
+        addOp(OP_INPUT, slot, event, 0);
+    }
+
+    /**
+     * Record a = b + margin, resolved by setting a final value on a
+     */
+    void recordFinalEquality(SolverVariable a, SolverVariable b, int margin) {
+        if (!mRecording) {
+            return;
+        }
+        int event = addEvent(EVENT_FINAL_EQUALITY, a.id, b.id, margin);
+        addOp(OP_FINAL_INPUT, a.id, event, 0);
+        addOp(OP_FINAL_ADD, a.id, b.id, 0);
+    }
+
+    /**
+     * Record a = value, resolved either by setting a final value on a (if row is null),
+     * or by setting the constant of the row defining a.
+     */
+    void recordValue(SolverVariable a, int value, ArrayRow row) {
+        if (!mRecording) {
+            return;
+        }
+        int event = addEvent(EVENT_VALUE, a.id, 0, value);
+        if (row == null) {
+            addOp(OP_FINAL_INPUT, a.id, event, 0);
+            return;
+        }
+        int slot = slotOf(row);
+        if (slot == -1) {
+            mValid = false;
+            return;
+        }
+        addOp(OP_INPUT, slot, event, 0);
+    }
+
+    /**
+     * Record that the row was skipped as it resolved to 0 = 0
+     */
+    void recordEmptyRow(ArrayRow row) {
+        guard(row);
+    }
+
+    /**
+     * Record the final value of a variable being set from the constant of its row
+     */
+    void recordFinal(SolverVariable variable, ArrayRow row) {
+        if (!mRecording) {
+            return;
+        }
+        int slot = slotOf(row);
+        if (slot == -1) {
+            mValid = false;
+            return;
+        }
+        addOp(OP_FINAL_ROW, variable.id, slot, 0);
+    }
+
+    /**
+     * Record the sign of the constant of the row, when the system branches on it
+     */
+    void recordSign(ArrayRow row) {
+        if (!mRecording) {
+            return;
+        }
+        int slot = slotOf(row);
+        if (slot == -1) {
+            mValid = false;
+            return;
+        }
+        int kind = row.mConstantValue < 0 ? OP_GUARD_NEGATIVE : OP_GUARD_NOT_NEGATIVE;
+        addOp(kind, slot, 0, 0);
+    }
+
+    /**
+     * Record a row taking part in a ratio test, with the coefficient of the entering variable
+     */
+    void recordRatio(ArrayRow row, float value) {
+        if (!mRecording) {
+            return;
+        }
+        int slot = slotOf(row);
+        if (slot == -1) {
+            mValid = false;
+            return;
+        }
+        addOp(OP_RATIO, slot, 0, value);
+    }
+
+    /**
+     * Record the row picked by a ratio test, if any
+     */
+    void recordRatioChoice(ArrayRow row) {
+        if (!mRecording) {
+            return;
+        }
+        int slot = -1;
+        if (row != null) {
+            slot = slotOf(row);
+            if (slot == -1) {
+                mValid = false;
+                return;
+            }
+        }
+        addOp(OP_RATIO_CHOICE, slot, 0, 0);
+    }
+
+    void recordNegate(ArrayRow row) {
+        if (!mRecording) {
+            return;
+        }
+        int slot = slotOf(row);
+        if (slot != -1) {
+            addOp(OP_NEGATE, slot, 0, 0);
+        }
+    }
+
+    void recordDivide(ArrayRow row, float amount) {
+        if (!mRecording) {
+            return;
+        }
+        int slot = slotOf(row);
+        if (slot != -1) {
+            addOp(OP_DIVIDE, slot, 0, amount);
+        }
+    }
+
+    void recordAddRow(ArrayRow row, ArrayRow definition, float value) {
+        if (!mRecording || value == 0) {
+            return;
+        }
+        int slot = slotOf(row);
+        if (slot == -1) {
+            return;
+        }
+        int source = slotOf(definition);
+        if (source == -1) {
+            mValid = false;
+            return;
+        }
+        addOp(OP_ADD_ROW, slot, source, value);
+    }
+
+    void recordAddFinal(ArrayRow row, SolverVariable variable, float value) {
+        if (!mRecording || value == 0) {
+            return;
+        }
+        int slot = slotOf(row);
+        if (slot != -1) {
+            addOp(OP_ADD_FINAL, slot, variable.id, value);
+        }
+    }
+
+    private void guard(ArrayRow row) {
+        if (!mRecording) {
+            return;
+        }
+        int slot = slotOf(row);
+        if (slot == -1) {
+            mValid = false;
+            return;
+        }
+        addOp(OP_GUARD_ZERO, slot, 0, 0);
+    }
+
+    /*--------------------------------------------------------------------------------------------*/
+    // Replay
+    /*--------------------------------------------------------------------------------------------*/
+
+    private void consume(SolverVariable[] indexedVariables) {
+        mCursor++;
+        int end = mCursor < mEventCount ? mEventTapeStart[mCursor] : mBuildOpCount;
+        // Mark the variables getting a final value, as widgets look at it while
+        // adding their equations
+        for (int i = mMarkedOps; i < end; i++) {
+            int kind = mOpKind[i];
+            if (kind == OP_FINAL_ROW || kind == OP_FINAL_INPUT) {
+                indexedVariables[mOpTarget[i]].isFinalValue = true;
+            }
+        }
+        mMarkedOps = Math.max(mMarkedOps, end);
+    }
+
+    /**
+     * Returns the variable created at this point of the recorded pass if it has the same
+     * kind and strength, null otherwise.
+     */
+    SolverVariable replayVariable(SolverVariable[] indexedVariables, int kind, int strength) {
+        if (mCursor < mEventCount && mEventKind[mCursor] == kind
+                && mEventSecond[mCursor] == strength) {
+            SolverVariable variable = indexedVariables[mEventFirst[mCursor]];
+            if (variable == null || variable.id != mEventFirst[mCursor]) {
+                return null;
+            }
+            mClaimed[variable.id] = true;
+            consume(indexedVariables);
+            return variable;
+        }
+        return null;
+    }
+
+    /**
+     * Returns true if the object variable was already added, or is the one added at this point
+     * of the recorded pass.
+     */
+    boolean replayObjectVariable(SolverVariable[] indexedVariables, SolverVariable variable) {
+        int id = variable.id;
+        if (id <= 0 || id >= indexedVariables.length || id >= mClaimed.length
+                || indexedVariables[id] != variable) {
+            return false;
+        }
+        if (mClaimed[id]) {
+            return true;
+        }
+        if (mCursor < mEventCount && mEventKind[mCursor] == EVENT_OBJECT_VARIABLE
+                && mEventFirst[mCursor] == id) {
+            mClaimed[id] = true;
+            consume(indexedVariables);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Returns true if the row has the same variables and coefficients as the one added at this
+     * point of the recorded pass, keeping its constant as the new input.
+     */
+    boolean replayRow(SolverVariable[] indexedVariables, ArrayRow row) {
+        if (mCursor >= mEventCount || mEventKind[mCursor] != EVENT_ROW) {
+            return false;
+        }
+        int subject = row.mVariable != null ? row.mVariable.id : 0;
+        if (subject != mEventSubject[mCursor]
+                || row.mIsSimpleDefinition != (subject != 0)) {
+            return false;
+        }
+        ArrayRow.ArrayRowVariables variables = row.variables;
+        int first = mEventFirst[mCursor];
+        int count = mEventSecond[mCursor];
+        if (variables.getCurrentSize() != count) {
+            return false;
+        }
+        if (subject != 0 && !isClaimed(indexedVariables, row.mVariable)) {
+            return false;
+        }
+        for (int i = 0; i < count; i++) {
+            SolverVariable variable = variables.getVariable(i);
+            if (variable.id != mTermIds[first + i]
+                    || variables.getVariableValue(i) != mTermValues[first + i]
+                    || !isClaimed(indexedVariables, variable)) {
+                return false;
+            }
+        }
+        mEventInput[mCursor] = row.mConstantValue;
+        mPendingRow = null;
+        consume(indexedVariables);
+        // the extra variables were created by the system itself while adding the row
+        while (mCursor < mEventCount && mEventKind[mCursor] == EVENT_EXTRA_VARIABLE) {
+            consume(indexedVariables);
+        }
+        return true;
+    }
+
+    /**
+     * Returns true if a = b + margin was resolved as a final value at this point of the
+     * recorded pass.
+     */
+    boolean replayFinalEquality(SolverVariable[] indexedVariables,
+            SolverVariable a, SolverVariable b, int margin) {
+        if (mCursor < mEventCount && mEventKind[mCursor] == EVENT_FINAL_EQUALITY
+                && mEventFirst[mCursor] == a.id && mEventSecond[mCursor] == b.id
+                && isClaimed(indexedVariables, a) && isClaimed(indexedVariables, b)) {
+            mEventInput[mCursor] = margin;
+            consume(indexedVariables);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Returns true if a = value was resolved without adding a row at this point of the
+     * recorded pass.
+     */
+    boolean replayValue(SolverVariable[] indexedVariables, SolverVariable a, int value) {
+        if (mCursor < mEventCount && mEventKind[mCursor] == EVENT_VALUE
+                && mEventFirst[mCursor] == a.id && isClaimed(indexedVariables, a)) {
+            mEventInput[mCursor] = value;
+            consume(indexedVariables);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Returns true if the next recorded event is a row without a subject
+     */
+    boolean nextIsRow() {
+        return mCursor < mEventCount && mEventKind[mCursor] == EVENT_ROW
+                && mEventSubject[mCursor] == 0;
+    }
+
+    /**
+     * Fill an empty row with the variables and constant of a recorded row event
+     */
+    void fillRow(SolverVariable[] indexedVariables, ArrayRow row, int event) {
+        int first = mEventFirst[event];
+        int count = mEventSecond[event];
+        for (int i = first; i < first + count; i++) {
+            row.variables.put(indexedVariables[mTermIds[i]], mTermValues[i]);
+        }
+        row.mConstantValue = mEventInput[event];
+        if (mEventSubject[event] != 0) {
+            row.mVariable = indexedVariables[mEventSubject[event]];
+            row.mIsSimpleDefinition = true;
+        }
+    }
+
+    /**
+     * Run the tape on the new inputs. Returns false if the pass can't be replayed, i.e. if a
+     * guard doesn't hold anymore.
+     */
+    boolean computeConstants(int numVariableIds) {
+        if (mSlotValues.length < mSlotCount) {
+            mSlotValues = new float[Math.max(mSlotCount, mSlotValues.length * 2)];
+        }
+        if (mFinalValues.length < numVariableIds) {
+            mFinalValues = new float[Math.max(numVariableIds, mFinalValues.length * 2)];
+        }
+        final float[] rows = mSlotValues;
+        final float[] finals = mFinalValues;
+        float ratioMin = Float.MAX_VALUE;
+        int ratioSlot = -1;
+        for (int i = 0; i < mOpCount; i++) {
+            int target = mOpTarget[i];
+            switch (mOpKind[i]) {
+                case OP_INPUT:
+                    rows[target] = mEventInput[mOpSource[i]];
+                    break;
+                case OP_NEGATE:
+                    rows[target] *= -1;
+                    break;
+                case OP_DIVIDE:
+                    rows[target] = rows[target] / mOpValue[i];
+                    break;
+                case OP_ADD_ROW:
+                    rows[target] += rows[mOpSource[i]] * mOpValue[i];
+                    break;
+                case OP_ADD_FINAL:
+                    rows[target] += finals[mOpSource[i]] * mOpValue[i];
+                    break;
+                case OP_FINAL_ROW:
+                    finals[target] = rows[mOpSource[i]];
+                    break;
+                case OP_FINAL_INPUT:
+                    finals[target] = mEventInput[mOpSource[i]];
+                    break;
+                case OP_FINAL_ADD:
+                    finals[target] += finals[mOpSource[i]];
+                    break;
+                case OP_GUARD_ZERO:
+                    if (rows[target] != 0) {
+                        return false;
+                    }
+                    break;
+                case OP_GUARD_NEGATIVE:
+                    if (!(rows[target] < 0)) {
+                        return false;
+                    }
+                    break;
+                case OP_GUARD_NOT_NEGATIVE:
+                    if (rows[target] < 0) {
+                        return false;
+                    }
+                    break;
+                case OP_RATIO: {
+                    // same expression and comparison as LinearSystem#optimize, so that
+                    // ties are broken the same way
+                    float value = -rows[target] / mOpValue[i];
+                    if (value < ratioMin) {
+                        ratioMin = value;
+                        ratioSlot = target;
+                    }
+                }
+                break;
+                case OP_RATIO_CHOICE:
+                    if (ratioSlot != target) {
+                        return false;
+                    }
+                    ratioMin = Float.MAX_VALUE;
+                    ratioSlot = -1;
+                    break;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the constant computed for the row, or NaN if it wasn't recorded
+     */
+    float getConstant(ArrayRow row) {
+        int slot = slotOf(row);
+        if (slot == -1) {
+            return Float.NaN;
+        }
+        return mSlotValues[slot];
+    }
+
+    float getFinalValue(int id) {
+        return mFinalValues[id];
+    }
+}
@@ -0,0 +1,501 @@
+/*
+ * Copyright 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package androidx.constraintlayout.core.parser;
+
+/**
+ * Pull parser for the JSON5 content accepted by {@link CLParser}.
+ * <p>
+ * Instead of building a tree of {@link CLElement}, the reader returns one event at a time
+ * from {@link #next()}. Keys, strings and numbers are only materialized when asked for,
+ * and {@link #contentEquals(String)} compares the current token without allocating.
+ * {@link #readElement()} builds a {@link CLElement} for the current value when a tree is
+ * more convenient, sharing the content with the reader.
+ * <pre>
+ *     CLReader reader = new CLReader(content);
+ *     reader.next(); // BEGIN_OBJECT
+ *     while (reader.next() == CLReader.KEY) {
+ *         String name = reader.getString();
+ *         reader.next();
+ *         ...
+ *         reader.skipValue();
+ *     }
+ * </pre>
+ * Like {@link CLParser}, content before the root object is ignored, and elements left open
+ * at the end of the content are closed.
+ */
+public class CLReader {
+
+    public static final int BEGIN_OBJECT = 0;
+    public static final int END_OBJECT = 1;
+    public static final int BEGIN_ARRAY = 2;
+    public static final int END_ARRAY = 3;
+    public static final int KEY = 4;
+    public static final int STRING = 5;
+    public static final int NUMBER = 6;
+    public static final int TOKEN = 7;
+    public static final int END_DOCUMENT = 8;
+
+    private static final int NONE = -1;
+
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9,
+            1e10, 1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18
+    };
+
+    private final char[] mContent;
+    private final int mLength;
+    private int mPosition = 0;
+    private int mLine = 1;
+
+    // current event, and its token as [mStart, mEnd[ in mContent
+    private int mEvent = NONE;
+    private int mStart = 0;
+    private int mEnd = 0;
+    private int mTokenLine = 1;
+    private boolean mPushedBack = false;
+
+    // lazily parsed value of the current number
+    private boolean mNumberParsed = false;
+    private float mNumber;
+
+    // open containers, true for objects
+    private boolean[] mStack = new boolean[16];
+    private int mDepth = 0;
+    private boolean mExpectKey = false;
+
+    // saved state, see mark() / reset()
+    private int[] mMark = null;
+    private boolean mMarkExpectKey;
+    private boolean mMarkPushedBack;
+
+    public CLReader(char[] content) {
+        mContent = content;
+        mLength = content.length;
+    }
+
+    public CLReader(String content) {
+        this(content.toCharArray());
+    }
+
+    /**
+     * Move to the next event
+     *
+     * @return the event, one of {@link #BEGIN_OBJECT}, {@link #END_OBJECT},
+     * {@link #BEGIN_ARRAY}, {@link #END_ARRAY}, {@link #KEY}, {@link #STRING},
+     * {@link #NUMBER}, {@link #TOKEN} or {@link #END_DOCUMENT}
+     */
+    public int next() throws CLParsingException {
+        if (mPushedBack) {
+            mPushedBack = false;
+            return mEvent;
+        }
+        mNumberParsed = false;
+        if (mEvent == NONE) {
+            // First, let's find the root element start
+            while (mPosition < mLength && mContent[mPosition] != '{') {
+                if (mContent[mPosition] == '\n') {
+                    mLine++;
+                }
+                mPosition++;
+            }
+            if (mPosition == mLength) {
+                throw new CLParsingException("invalid json content", null);
+            }
+            mTokenLine = mLine;
+            return beginContainer(true);
+        }
+        if (mDepth == 0) {
+            mStart = mLength;
+            mEnd = mLength;
+            mEvent = END_DOCUMENT;
+            return mEvent;
+        }
+        skipSeparators();
+        mTokenLine = mLine;
+        if (mPosition >= mLength) {
+            // close the elements left open, useful during editing
+            mStart = mLength;
+            mEnd = mLength;
+            return endContainer();
+        }
+        char c = mContent[mPosition];
+        switch (c) {
+            case '{':
+                return beginContainer(true);
+            case '[':
+                return beginContainer(false);
+            case '}':
+            case ']':
+                mStart = mPosition;
+                mEnd = ++mPosition;
+                return endContainer();
+            case '"':
+            case '\'': {
+                mStart = ++mPosition;
+                while (mPosition < mLength && mContent[mPosition] != c) {
+                    if (mContent[mPosition] == '\n') {
+                        mLine++;
+                    }
+                    mPosition++;
+                }
+                mEnd = mPosition;
+                if (mPosition < mLength) {
+                    mPosition++;
+                }
+                return scalar(STRING);
+            }
+            case '-':
+            case '+':
+            case '.':
+            case '0':
+            case '1':
+            case '2':
+            case '3':
+            case '4':
+            case '5':
+            case '6':
+            case '7':
+            case '8':
+            case '9':
+                readUnquoted();
+                return scalar(NUMBER);
+            default: {
+                readUnquoted();
+                if (!mExpectKey && !contentEquals("true") && !contentEquals("false")
+                        && !contentEquals("null")) {
+                    throw new CLParsingException("incorrect token <" + getString()
+                            + "> at line " + mTokenLine, null);
+                }
+                return scalar(TOKEN);
+            }
+        }
+    }
+
+    private void skipSeparators() {
+        while (mPosition < mLength) {
+            char c = mContent[mPosition];
+            if (c == '\n') {
+                mLine++;
+            } else if (c == '/') {
+                if (mPosition + 1 < mLength && mContent[mPosition + 1] == '/') {
+                    // skip the comment up to the end of the line
+                    while (mPosition + 1 < mLength && mContent[mPosition + 1] != '\n') {
+                        mPosition++;
+                    }
+                }
+            } else if (c != ' ' && c != '\t' && c != '\r' && c != ',' && c != ':') {
+                return;
+            }
+            mPosition++;
+        }
+    }
+
+    private void readUnquoted() {
+        mStart = mPosition;
+        while (mPosition < mLength) {
+            char c = mContent[mPosition];
+            if (c == '}' || c == ']' || c == ',' || c == ' '
+                    || c == '\t' || c == '\r' || c == '\n' || c == ':') {
+                break;
+            }
+            mPosition++;
+        }
+        mEnd = mPosition;
+    }
+
+    private int beginContainer(boolean isObject) {
+        mStart = mPosition;
+        mEnd = ++mPosition;
+        if (mDepth == mStack.length) {
+            boolean[] stack = new boolean[mStack.length * 2];
+            System.arraycopy(mStack, 0, stack, 0, mDepth);
+            mStack = stack;
+        }
+        mStack[mDepth++] = isObject;
+        mExpectKey = isObject;
+        mEvent = isObject ? BEGIN_OBJECT : BEGIN_ARRAY;
+        return mEvent;
+    }
+
+    private int endContainer() {
+        boolean isObject = mStack[--mDepth];
+        mExpectKey = mDepth > 0 && mStack[mDepth - 1];
+        mEvent = isObject ? END_OBJECT : END_ARRAY;
+        return mEvent;
+    }
+
+    private int scalar(int event) {
+        if (mExpectKey) {
+            mExpectKey = false;
+            mEvent = KEY;
+        } else {
+            mExpectKey = mStack[mDepth - 1];
+            mEvent = event;
+        }
+        return mEvent;
+    }
+
+    /**
+     * Returns the current event
+     */
+    public int getEvent() {
+        return mEvent;
+    }
+
+    /**
+     * Returns the line of the current event
+     */
+    public int getLine() {
+        return mTokenLine;
+    }
+
+    /**
+     * Returns the nesting level of the current position, 1 inside the root object
+     */
+    public int getDepth() {
+        return mDepth;
+    }
+
+    /**
+     * Returns the content of the current key, string, number or token
+     */
+    public String getString() {
+        return new String(mContent, mStart, mEnd - mStart);
+    }
+
+    /**
+     * Returns true if the content of the current key, string, number or token is the given
+     * string, without allocating
+     */
+    public boolean contentEquals(String string) {
+        int length = mEnd - mStart;
+        if (string.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (mContent[mStart + i] != string.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the value of the current number
+     */
+    public float getFloat() {
+        if (!mNumberParsed) {
+            mNumber = parseNumber();
+            mNumberParsed = true;
+        }
+        return mNumber;
+    }
+
+    /**
+     * Returns the value of the current number, truncated to an int
+     */
+    public int getInt() {
+        return (int) getFloat();
+    }
+
+    /**
+     * Returns the value of the current true or false token
+     */
+    public boolean getBoolean() throws CLParsingException {
+        if (mEvent == TOKEN) {
+            if (contentEquals("true")) {
+                return true;
+            }
+            if (contentEquals("false")) {
+                return false;
+            }
+        }
+        throw new CLParsingException("this token is not a boolean: <" + getString()
+                + "> at line " + mTokenLine, null);
+    }
+
+    /**
+     * Returns true if the current token is null
+     */
+    public boolean isNull() {
+        return mEvent == TOKEN && contentEquals("null");
+    }
+
+    /**
+     * Parse simple decimal numbers in place, falling back to Float.parseFloat otherwise
+     */
+    private float parseNumber() {
+        int i = mStart;
+        boolean negative = false;
+        if (i < mEnd && (mContent[i] == '-' || mContent[i] == '+')) {
+            negative = mContent[i] == '-';
+            i++;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int decimals = 0;
+        boolean dot = false;
+        for (; i < mEnd; i++) {
+            char c = mContent[i];
+            if (c >= '0' && c <= '9') {
+                if (++digits >= POWERS_OF_TEN.length) {
+                    return Float.parseFloat(getString());
+                }
+                mantissa = mantissa * 10 + (c - '0');
+                if (dot) {
+                    decimals++;
+                }
+            } else if (c == '.' && !dot) {
+                dot = true;
+            } else {
+                return Float.parseFloat(getString());
+            }
+        }
+        if (digits == 0) {
+            return Float.parseFloat(getString());
+        }
+        double value = mantissa / POWERS_OF_TEN[decimals];
+        return (float) (negative ? -value : value);
+    }
+
+    /**
+     * Skip the current value. If positioned on the start of an object or an array,
+     * skip up to its end, otherwise does nothing.
+     */
+    public void skipValue() throws CLParsingException {
+        if (mEvent != BEGIN_OBJECT && mEvent != BEGIN_ARRAY) {
+            return;
+        }
+        int depth = mDepth - 1;
+        while (mDepth > depth) {
+            next();
+        }
+    }
+
+    /**
+     * Build a {@link CLElement} for the current value, consuming it. If positioned on a key,
+     * returns a {@link CLKey} holding the key and its value.
+     *
+     * @return the element, or null if positioned on the end of a container or of the document
+     */
+    public CLElement readElement() throws CLParsingException {
+        return readElement(null);
+    }
+
+    private CLElement readElement(CLContainer container) throws CLParsingException {
+        CLElement element;
+        switch (mEvent) {
+            case BEGIN_OBJECT:
+            case BEGIN_ARRAY: {
+                boolean isObject = mEvent == BEGIN_OBJECT;
+                CLContainer result = isObject
+                        ? CLObject.allocate(mContent) : (CLContainer) CLArray.allocate(mContent);
+                result.setLine(mTokenLine);
+                result.setStart(mStart + 1);
+                int end = isObject ? END_OBJECT : END_ARRAY;
+                while (next() != end && mEvent != END_DOCUMENT) {
+                    if (mEvent == END_OBJECT || mEvent == END_ARRAY) {
+                        // mismatched end, let the parent handle it
+                        mPushedBack = true;
+                        break;
+                    }
+                    readElement(result);
+                }
+                element = result;
+                element.setContainer(container);
+                element.setEnd(mStart - 1);
+                return element;
+            }
+            case KEY: {
+                CLKey key = (CLKey) CLKey.allocate(mContent);
+                key.setLine(mTokenLine);
+                key.setStart(mStart);
+                key.setContainer(container);
+                key.setEnd(mEnd - 1);
+                int event = next();
+                if (event == END_OBJECT || event == END_ARRAY || event == END_DOCUMENT) {
+                    // key without a value
+                    mPushedBack = true;
+                    return key;
+                }
+                readElement(key);
+                return key;
+            }
+            case STRING:
+                element = CLString.allocate(mContent);
+                break;
+            case NUMBER:
+                element = CLNumber.allocate(mContent);
+                break;
+            case TOKEN: {
+                CLToken token = (CLToken) CLToken.allocate(mContent);
+                token.setLine(mTokenLine);
+                token.setStart(mStart);
+                token.setContainer(container);
+                for (int i = mStart; i < mEnd; i++) {
+                    token.validate(mContent[i], i);
+                }
+                return token;
+            }
+            default:
+                return null;
+        }
+        element.setLine(mTokenLine);
+        element.setStart(mStart);
+        element.setContainer(container);
+        element.setEnd(mEnd - 1);
+        return element;
+    }
+
+    /**
+     * Save the current position, to come back to it with {@link #reset()}.
+     * Only one position is kept, and the reader must not leave the container it is in
+     * before calling {@link #reset()}.
+     */
+    public void mark() {
+        if (mMark == null) {
+            mMark = new int[8];
+        }
+        mMark[0] = mPosition;
+        mMark[1] = mLine;
+        mMark[2] = mEvent;
+        mMark[3] = mStart;
+        mMark[4] = mEnd;
+        mMark[5] = mTokenLine;
+        mMark[6] = mDepth;
+        mMarkExpectKey = mExpectKey;
+        mMarkPushedBack = mPushedBack;
+    }
+
+    /**
+     * Go back to the position saved by {@link #mark()}
+     */
+    public void reset() {
+        if (mMark == null) {
+            return;
+        }
+        mPosition = mMark[0];
+        mLine = mMark[1];
+        mEvent = mMark[2];
+        mStart = mMark[3];
+        mEnd = mMark[4];
+        mTokenLine = mMark[5];
+        mDepth = mMark[6];
+        mExpectKey = mMarkExpectKey;
+        mPushedBack = mMarkPushedBack;
+        mNumberParsed = false;
+    }
+}
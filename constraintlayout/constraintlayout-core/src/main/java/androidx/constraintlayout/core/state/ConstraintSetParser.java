@@ -33,6 +33,7 @@ import androidx.constraintlayout.core.parser.CLNumber;
 import androidx.constraintlayout.core.parser.CLObject;
 import androidx.constraintlayout.core.parser.CLParser;
 import androidx.constraintlayout.core.parser.CLParsingException;
+import androidx.constraintlayout.core.parser.CLReader;
 import androidx.constraintlayout.core.parser.CLString;
 import androidx.constraintlayout.core.state.helpers.BarrierReference;
 import androidx.constraintlayout.core.state.helpers.ChainReference;
@@ -471,8 +472,7 @@ public class ConstraintSetParser {
     public static void parseJSON(String content, State state,
                                  LayoutVariables layoutVariables) throws CLParsingException {
         try {
-            CLObject json = CLParser.parse(content);
-            populateState(json, state, layoutVariables);
+            populateState(new CLReader(content), state, layoutVariables);
         } catch (CLParsingException e) {
             System.err.println("Error parsing JSON " + e);
         }
@@ -521,66 +521,7 @@ public class ConstraintSetParser {
                     break;
                 default:
                     if (element instanceof CLObject) {
-                        String type = lookForType((CLObject) element);
-                        if (type != null) {
-                            switch (type) {
-                                case "hGuideline":
-                                    parseGuidelineParams(
-                                            ConstraintWidget.HORIZONTAL,
-                                            state,
-                                            elementName,
-                                            (CLObject) element
-                                    );
-                                    break;
-                                case "vGuideline":
-                                    parseGuidelineParams(
-                                            ConstraintWidget.VERTICAL,
-                                            state,
-                                            elementName,
-                                            (CLObject) element
-                                    );
-                                    break;
-                                case "barrier":
-                                    parseBarrier(state, elementName, (CLObject) element);
-                                    break;
-                                case "vChain":
-                                case "hChain":
-                                    parseChainType(
-                                            type,
-                                            state,
-                                            elementName,
-                                            layoutVariables,
-                                            (CLObject) element
-                                    );
-                                    break;
-                                case "vFlow":
-                                case "hFlow":
-                                    parseFlowType(
-                                            type,
-                                            state,
-                                            elementName,
-                                            layoutVariables,
-                                            (CLObject) element
-                                    );
-                                    break;
-                                case "grid":
-                                case "row":
-                                case "column":
-                                    parseGridType(
-                                            type,
-                                            state,
-                                            elementName,
-                                            layoutVariables,
-                                            (CLObject) element
-                                    );
-                                    break;
-                            }
-                        } else {
-                            parseWidget(state,
-                                    layoutVariables,
-                                    elementName,
-                                    (CLObject) element);
-                        }
+                        parseElement(state, layoutVariables, elementName, (CLObject) element);
                     } else if (element instanceof CLNumber) {
                         layoutVariables.put(elementName, element.getInt());
                     }
@@ -588,6 +529,124 @@ public class ConstraintSetParser {
         }
     }
 
+    /**
+     * Populates the given {@link State} from a {@link CLReader} positioned before the start
+     * of a ConstraintSet. Widgets are applied to the state as their attributes are read,
+     * without building a tree for the whole ConstraintSet; only the helpers, variables and
+     * the attributes themselves are materialized as {@link CLElement}.
+     *
+     * @param reader the reader over the ConstraintSet
+     * @param state the state to populate
+     * @param layoutVariables the variables to override
+     * @throws CLParsingException when parsing fails
+     */
+    @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
+    public static void populateState(
+            @NonNull CLReader reader,
+            @NonNull State state,
+            @NonNull LayoutVariables layoutVariables
+    ) throws CLParsingException {
+        if (reader.next() != CLReader.BEGIN_OBJECT) {
+            return;
+        }
+        // holds the attribute being applied, see applyAttribute()
+        CLObject attributes = null;
+        while (reader.next() == CLReader.KEY) {
+            String elementName = reader.getString();
+            int event = reader.next();
+            if (event == CLReader.END_OBJECT || event == CLReader.END_DOCUMENT) {
+                break;
+            }
+            if (event == CLReader.NUMBER) {
+                switch (elementName) {
+                    case "Variables":
+                    case "Helpers":
+                    case "Generate":
+                        break;
+                    default:
+                        layoutVariables.put(elementName, reader.getInt());
+                }
+                continue;
+            }
+            if (event != CLReader.BEGIN_OBJECT) {
+                CLElement element = reader.readElement();
+                if (element instanceof CLArray && elementName.equals("Helpers")) {
+                    parseHelpers(state, layoutVariables, (CLArray) element);
+                }
+                continue;
+            }
+            switch (elementName) {
+                case "Variables":
+                    parseVariables(state, layoutVariables, (CLObject) reader.readElement());
+                    break;
+                case "Generate":
+                    parseGenerate(state, layoutVariables, (CLObject) reader.readElement());
+                    break;
+                case "Helpers":
+                    reader.skipValue();
+                    break;
+                default:
+                    if (lookForType(reader) != null) {
+                        parseElement(state, layoutVariables, elementName,
+                                (CLObject) reader.readElement());
+                        break;
+                    }
+                    if (attributes == null) {
+                        attributes = new CLObject(new char[0]);
+                    }
+                    ConstraintReference reference = state.constraints(elementName);
+                    setDefaultDimensions(reference);
+                    while (reader.next() == CLReader.KEY) {
+                        CLKey attribute = (CLKey) reader.readElement();
+                        attributes.clear();
+                        attributes.add(attribute);
+                        applyAttribute(state, layoutVariables, reference, attributes,
+                                attribute.content());
+                    }
+            }
+        }
+    }
+
+    /**
+     * Parse an element of a ConstraintSet that isn't a section, i.e. a widget or a helper
+     */
+    private static void parseElement(
+            State state,
+            LayoutVariables layoutVariables,
+            String elementName,
+            CLObject element
+    ) throws CLParsingException {
+        String type = lookForType(element);
+        if (type == null) {
+            parseWidget(state, layoutVariables, elementName, element);
+            return;
+        }
+        switch (type) {
+            case "hGuideline":
+                parseGuidelineParams(ConstraintWidget.HORIZONTAL, state, elementName, element);
+                break;
+            case "vGuideline":
+                parseGuidelineParams(ConstraintWidget.VERTICAL, state, elementName, element);
+                break;
+            case "barrier":
+                parseBarrier(state, elementName, element);
+                break;
+            case "vChain":
+            case "hChain":
+                parseChainType(type, state, elementName, layoutVariables, element);
+                break;
+            case "vFlow":
+            case "hFlow":
+                parseFlowType(type, state, elementName, layoutVariables, element);
+                break;
+            case "grid":
+            case "row":
+            case "column":
+                parseGridType(type, state, elementName, layoutVariables, element);
+                break;
+        }
+    }
+
     private static void parseVariables(State state,
                                        LayoutVariables layoutVariables,
                                        CLObject json) throws CLParsingException {
@@ -1680,6 +1739,17 @@ public class ConstraintSetParser {
             ConstraintReference reference,
             CLObject element
     ) throws CLParsingException {
+        setDefaultDimensions(reference);
+        ArrayList<String> constraints = element.names();
+        if (constraints == null) {
+            return;
+        }
+        for (String constraintName : constraints) {
+            applyAttribute(state, layoutVariables, reference, element, constraintName);
+        }
+    }
+
+    private static void setDefaultDimensions(ConstraintReference reference) {
         if (reference.getWidth() == null) {
             // Default to Wrap when the Dimension has not been assigned
             reference.setWidth(Dimension.createWrap());
@@ -1688,13 +1758,6 @@ public class ConstraintSetParser {
             // Default to Wrap when the Dimension has not been assigned
             reference.setHeight(Dimension.createWrap());
         }
-        ArrayList<String> constraints = element.names();
-        if (constraints == null) {
-            return;
-        }
-        for (String constraintName : constraints) {
-            applyAttribute(state, layoutVariables, reference, element, constraintName);
-        }
     }
 
     static void parseCustomProperties(
@@ -2079,6 +2142,26 @@ public class ConstraintSetParser {
         }
     }
 
+    /**
+     * Look ahead for the type of the object the reader is at the start of,
+     * leaving the reader where it was
+     */
+    static String lookForType(CLReader reader) throws CLParsingException {
+        String type = null;
+        reader.mark();
+        while (reader.next() == CLReader.KEY) {
+            boolean isType = reader.contentEquals("type");
+            int event = reader.next();
+            if (isType && event == CLReader.STRING) {
+                type = reader.getString();
+                break;
+            }
+            reader.skipValue();
+        }
+        reader.reset();
+        return type;
+    }
+
     static String lookForType(CLObject element) throws CLParsingException {
         ArrayList<String> constraints = element.names();
         for (String constraintName : constraints) {
@@ -76,6 +76,7 @@ public class ConstraintWidget {
     public boolean[] isTerminalWidget = {true, true};
     boolean mResolvedHasRatio = false;
     private boolean mMeasureRequested = true;
+    private int mMeasureGeneration = 0;
     private boolean mOptimizeWrapO = false;
     private boolean mOptimizeWrapOnResolved = true;
 
@@ -231,9 +232,22 @@ public class ConstraintWidget {
         }
     }
 
-    // @TODO: add description
+    /**
+     * Request a new measure of the widget, for instance because its content changed.
+     * This also invalidates the measures cached for it
+     * (see {@link Optimizer#OPTIMIZATION_MEASURE_RESULT_CACHE}).
+     */
     public void ensureMeasureRequested() {
         mMeasureRequested = true;
+        mMeasureGeneration++;
+    }
+
+    /**
+     * Returns the measure generation of the widget, incremented each time
+     * {@link #ensureMeasureRequested()} is called
+     */
+    public int getMeasureGeneration() {
+        return mMeasureGeneration;
     }
 
     // @TODO: add description
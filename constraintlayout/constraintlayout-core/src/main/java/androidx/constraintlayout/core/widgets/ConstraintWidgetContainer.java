@@ -33,6 +33,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * A container of ConstraintWidget that can layout its children
@@ -132,12 +133,45 @@ public class ConstraintWidgetContainer extends WidgetContainer {
     public void setMeasurer(BasicMeasure.Measurer measurer) {
         mMeasurer = measurer;
         mDependencyGraph.setMeasurer(measurer);
+        mBasicMeasureSolver.invalidateMeasureCache();
     }
 
     public BasicMeasure.Measurer getMeasurer() {
         return mMeasurer;
     }
 
+    /**
+     * Set the pool used to measure the children in parallel when
+     * {@link Optimizer#OPTIMIZATION_PARALLEL_MEASURES} is enabled and the measurer is a
+     * {@link BasicMeasure.ConcurrentMeasurer}. If not set, the common pool is used.
+     *
+     * @param pool the pool to use, or null to use the common pool
+     */
+    public void setMeasurePool(ForkJoinPool pool) {
+        mBasicMeasureSolver.setMeasurePool(pool);
+    }
+
+    /**
+     * Drop the measure results cached when
+     * {@link Optimizer#OPTIMIZATION_MEASURE_RESULT_CACHE} is enabled, for instance when
+     * the measurer starts giving different results. Use
+     * {@link ConstraintWidget#ensureMeasureRequested()} to only invalidate the results of a
+     * single widget.
+     */
+    public void invalidateMeasureCache() {
+        mBasicMeasureSolver.invalidateMeasureCache();
+    }
+
+    /**
+     * Set the maximum number of measure results kept when
+     * {@link Optimizer#OPTIMIZATION_MEASURE_RESULT_CACHE} is enabled
+     *
+     * @param size the maximum number of results to keep
+     */
+    public void setMeasureCacheSize(int size) {
+        mBasicMeasureSolver.setMeasureCacheSize(size);
+    }
+
     private boolean mIsRtl = false;
     public Metrics mMetrics;
 
@@ -217,6 +251,12 @@ public class ConstraintWidgetContainer extends WidgetContainer {
     public void setOptimizationLevel(int value) {
         mOptimizationLevel = value;
         mSystem.USE_DEPENDENCY_ORDERING = optimizeFor(Optimizer.OPTIMIZATION_DEPENDENCY_ORDERING);
+        mSystem.setSharedRowStorageEnabled(
+                optimizeFor(Optimizer.OPTIMIZATION_SHARED_ROW_STORAGE));
+        if (!optimizeFor(Optimizer.OPTIMIZATION_WARM_START)
+                || optimizeFor(Optimizer.OPTIMIZATION_GROUPING)) {
+            mSystem.setWarmStartEnabled(false);
+        }
     }
 
     /**
@@ -600,7 +640,7 @@ public class ConstraintWidgetContainer extends WidgetContainer {
                     measuredHeight = measure.verticalDimension;
                 } else {
                     measure.horizontalBehavior = WRAP_CONTENT;
-                    measurer.measure(widget, measure);
+                    callMeasurer(widget, measurer, measure);
                     measuredHeight = measure.measuredHeight;
                 }
                 measure.horizontalBehavior = FIXED;
@@ -623,7 +663,7 @@ public class ConstraintWidgetContainer extends WidgetContainer {
                     measuredWidth = measure.horizontalDimension;
                 } else {
                     measure.verticalBehavior = WRAP_CONTENT;
-                    measurer.measure(widget, measure);
+                    callMeasurer(widget, measurer, measure);
                     measuredWidth = measure.measuredWidth;
                 }
                 measure.verticalBehavior = FIXED;
@@ -643,7 +683,7 @@ public class ConstraintWidgetContainer extends WidgetContainer {
             }
         }
 
-        measurer.measure(widget, measure);
+        callMeasurer(widget, measurer, measure);
         widget.setWidth(measure.measuredWidth);
         widget.setHeight(measure.measuredHeight);
         widget.setHasBaseline(measure.measuredHasBaseline);
@@ -658,6 +698,20 @@ public class ConstraintWidgetContainer extends WidgetContainer {
         return measure.measuredNeedsSolverPass;
     }
 
+    /**
+     * Call the measurer, going through the measure result cache of the parent layout if any
+     */
+    private static void callMeasurer(ConstraintWidget widget,
+            BasicMeasure.Measurer measurer,
+            BasicMeasure.Measure measure) {
+        if (widget.getParent() instanceof ConstraintWidgetContainer) {
+            ConstraintWidgetContainer container = (ConstraintWidgetContainer) widget.getParent();
+            container.mBasicMeasureSolver.measureWithCache(container, measurer, widget, measure);
+        } else {
+            measurer.measure(widget, measure);
+        }
+    }
+
     static int sMyCounter = 0;
 
     /**
@@ -820,12 +874,21 @@ public class ConstraintWidgetContainer extends WidgetContainer {
 
         // Before we solve our system, we should call layout() on any
         // of our children that is a container.
+        // The solver variables of nested containers are shared between systems, and grouping
+        // measures groups with our system, so they can't keep the solver state between passes.
+        // Wrap content solves the system again with the measured size, which a kept tableau
+        // doesn't follow, so we also start from scratch in that case.
+        boolean warmStart = optimizeFor(Optimizer.OPTIMIZATION_WARM_START)
+                && !optimizeFor(Optimizer.OPTIMIZATION_GROUPING)
+                && mParent == null && !hasWrapContent;
         for (int i = 0; i < count; i++) {
             ConstraintWidget widget = mChildren.get(i);
             if (widget instanceof WidgetContainer) {
                 ((WidgetContainer) widget).layout();
+                warmStart = false;
             }
         }
+        mSystem.setWarmStartEnabled(warmStart);
         boolean optimize = optimizeFor(Optimizer.OPTIMIZATION_GRAPH);
 
         // Now let's solve our system as usual
@@ -1003,7 +1066,9 @@ public class ConstraintWidgetContainer extends WidgetContainer {
             mListDimensionBehaviors[DIMENSION_VERTICAL] = originalVerticalDimensionBehaviour;
         }
 
-        resetSolverVariables(mSystem.getCache());
+        if (!warmStart) {
+            resetSolverVariables(mSystem.getCache());
+        }
     }
 
     /**
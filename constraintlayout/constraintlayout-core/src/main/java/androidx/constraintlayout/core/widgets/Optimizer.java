@@ -39,8 +39,16 @@ public class Optimizer {
     public static final int OPTIMIZATION_CACHE_MEASURES = 1 << 8;
     public static final int OPTIMIZATION_DEPENDENCY_ORDERING = 1 << 9;
     public static final int OPTIMIZATION_GROUPING = 1 << 10;
+    public static final int OPTIMIZATION_WARM_START = 1 << 11;
+    public static final int OPTIMIZATION_SHARED_ROW_STORAGE = 1 << 12;
+    public static final int OPTIMIZATION_PARALLEL_MEASURES = 1 << 13;
+    public static final int OPTIMIZATION_MEASURE_RESULT_CACHE = 1 << 14;
     public static final int OPTIMIZATION_STANDARD = OPTIMIZATION_DIRECT
             /* | OPTIMIZATION_GROUPING */
+            /* | OPTIMIZATION_WARM_START */
+            /* | OPTIMIZATION_SHARED_ROW_STORAGE */
+            /* | OPTIMIZATION_PARALLEL_MEASURES */
+            /* | OPTIMIZATION_MEASURE_RESULT_CACHE */
             /* | OPTIMIZATION_DEPENDENCY_ORDERING */
             | OPTIMIZATION_CACHE_MEASURES
             /* | OPTIMIZATION_GRAPH */
@@ -33,6 +33,8 @@ import androidx.constraintlayout.core.widgets.Optimizer;
 import androidx.constraintlayout.core.widgets.VirtualLayout;
 
 import java.util.ArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 /**
  * Implements basic measure for linear resolution
@@ -50,9 +52,23 @@ public class BasicMeasure {
     public static final int WRAP_CONTENT = -2;
     public static final int FIXED = -3;
 
+    // number of widgets measured by each task when measuring in parallel
+    private static final int PARALLEL_MEASURES_BATCH = 4;
+
     private final ArrayList<ConstraintWidget> mVariableDimensionsWidgets = new ArrayList<>();
     private Measure mMeasure = new Measure();
 
+    // widgets to measure in parallel, and whether each of them needs a solver pass
+    private final ArrayList<ConstraintWidget> mParallelWidgets = new ArrayList<>();
+    private boolean[] mParallelResults = new boolean[16];
+    private int[] mPreviousDimensions = new int[48];
+    private ForkJoinPool mMeasurePool = null;
+
+    // results of the previous measures, used if OPTIMIZATION_MEASURE_RESULT_CACHE is enabled
+    private MeasureCache mMeasureCache = null;
+    private int mMeasureCacheSize = MeasureCache.DEFAULT_MAX_SIZE;
+    private MeasureCache mActiveMeasureCache = null;
+
     // @TODO: add description
     public void updateHierarchy(ConstraintWidgetContainer layout) {
         mVariableDimensionsWidgets.clear();
@@ -79,6 +95,7 @@ public class BasicMeasure {
         final int childCount = layout.mChildren.size();
         boolean optimize = layout.optimizeFor(Optimizer.OPTIMIZATION_GRAPH);
         Measurer measurer = layout.getMeasurer();
+        boolean parallel = canMeasureInParallel(layout, measurer);
         for (int i = 0; i < childCount; i++) {
             ConstraintWidget child = layout.mChildren.get(i);
             if (child instanceof Guideline) {
@@ -137,14 +154,168 @@ public class BasicMeasure {
                 continue;
             }
 
+            if (parallel) {
+                mParallelWidgets.add(child);
+                continue;
+            }
             measure(measurer, child, Measure.SELF_DIMENSIONS);
             if (layout.mMetrics != null) {
                 layout.mMetrics.measuredWidgets++;
             }
         }
+        if (parallel) {
+            measureInParallel(measurer, Measure.SELF_DIMENSIONS);
+            if (layout.mMetrics != null) {
+                layout.mMetrics.measuredWidgets += mParallelWidgets.size();
+            }
+            mParallelWidgets.clear();
+        }
         measurer.didMeasures();
     }
 
+    /**
+     * Returns true if the widget needs to be measured again once its size
+     * was given by the solver
+     */
+    private static boolean needsMeasureAfterSolve(ConstraintWidget widget, boolean optimize) {
+        if ((widget instanceof Helper && !(widget instanceof VirtualLayout))
+                || widget instanceof Guideline) {
+            return false;
+        }
+        if (widget.getVisibility() == GONE) {
+            return false;
+        }
+        if (optimize && widget.mHorizontalRun.mDimension.resolved
+                && widget.mVerticalRun.mDimension.resolved) {
+            return false;
+        }
+        return !(widget instanceof VirtualLayout);
+    }
+
+    /**
+     * Set the pool used to measure widgets in parallel when
+     * {@link Optimizer#OPTIMIZATION_PARALLEL_MEASURES} is enabled.
+     * If not set, the common pool is used.
+     *
+     * @param pool the pool to use, or null to use the common pool
+     */
+    public void setMeasurePool(ForkJoinPool pool) {
+        mMeasurePool = pool;
+    }
+
+    /**
+     * Set the maximum number of measure results kept when
+     * {@link Optimizer#OPTIMIZATION_MEASURE_RESULT_CACHE} is enabled.
+     * The least recently used results are dropped first.
+     *
+     * @param size the maximum number of results to keep
+     */
+    public void setMeasureCacheSize(int size) {
+        mMeasureCacheSize = size;
+        if (mMeasureCache != null) {
+            mMeasureCache.setMaxSize(size);
+        }
+    }
+
+    /**
+     * Drop all the measure results cached so far. To only invalidate the results
+     * of a single widget, use {@link ConstraintWidget#ensureMeasureRequested()}.
+     */
+    public void invalidateMeasureCache() {
+        if (mMeasureCache != null) {
+            mMeasureCache.clear();
+        }
+    }
+
+    /**
+     * Returns the measure cache to use for the layout, or null if it is not enabled
+     */
+    private MeasureCache getMeasureCache(ConstraintWidgetContainer layout) {
+        if (!layout.optimizeFor(Optimizer.OPTIMIZATION_MEASURE_RESULT_CACHE)) {
+            return null;
+        }
+        if (mMeasureCache == null) {
+            mMeasureCache = new MeasureCache();
+            mMeasureCache.setMaxSize(mMeasureCacheSize);
+        }
+        return mMeasureCache;
+    }
+
+    /**
+     * Returns true if the children of the layout can be measured in parallel
+     */
+    private static boolean canMeasureInParallel(ConstraintWidgetContainer layout,
+            Measurer measurer) {
+        return layout.optimizeFor(Optimizer.OPTIMIZATION_PARALLEL_MEASURES)
+                && measurer instanceof ConcurrentMeasurer;
+    }
+
+    /**
+     * Measure the widgets in mParallelWidgets on the measure pool, storing in
+     * mParallelResults whether each of them needs a solver pass. Each widget is
+     * only touched by the task measuring it, and the callers then go through the
+     * results in order, so the outcome is the same as measuring sequentially.
+     */
+    private void measureInParallel(Measurer measurer, int measureStrategy) {
+        final int count = mParallelWidgets.size();
+        if (count == 0) {
+            return;
+        }
+        if (mParallelResults.length < count) {
+            mParallelResults = new boolean[Math.max(count, mParallelResults.length * 2)];
+        }
+        MeasureTask task = new MeasureTask(measurer, mActiveMeasureCache, mParallelWidgets,
+                measureStrategy, mParallelResults, 0, count);
+        if (count <= PARALLEL_MEASURES_BATCH) {
+            task.compute();
+            return;
+        }
+        ForkJoinPool pool = mMeasurePool != null ? mMeasurePool : ForkJoinPool.commonPool();
+        pool.invoke(task);
+    }
+
+    /**
+     * Measures a range of widgets, splitting it between the threads of the pool
+     */
+    @SuppressWarnings("serial") // only runs in a pool, never serialized
+    private static class MeasureTask extends RecursiveAction {
+        private final Measurer mMeasurer;
+        private final MeasureCache mCache;
+        private final ArrayList<ConstraintWidget> mWidgets;
+        private final int mMeasureStrategy;
+        private final boolean[] mResults;
+        private final int mStart;
+        private final int mEnd;
+
+        MeasureTask(Measurer measurer, MeasureCache cache, ArrayList<ConstraintWidget> widgets,
+                int measureStrategy, boolean[] results, int start, int end) {
+            mMeasurer = measurer;
+            mCache = cache;
+            mWidgets = widgets;
+            mMeasureStrategy = measureStrategy;
+            mResults = results;
+            mStart = start;
+            mEnd = end;
+        }
+
+        @Override
+        protected void compute() {
+            if (mEnd - mStart <= PARALLEL_MEASURES_BATCH) {
+                Measure measure = new Measure();
+                for (int i = mStart; i < mEnd; i++) {
+                    mResults[i] = measure(mMeasurer, mCache, mWidgets.get(i), mMeasureStrategy,
+                            measure);
+                }
+                return;
+            }
+            int middle = (mStart + mEnd) >>> 1;
+            invokeAll(new MeasureTask(mMeasurer, mCache, mWidgets, mMeasureStrategy, mResults,
+                            mStart, middle),
+                    new MeasureTask(mMeasurer, mCache, mWidgets, mMeasureStrategy, mResults,
+                            middle, mEnd));
+        }
+    }
+
     private void solveLinearSystem(ConstraintWidgetContainer layout,
             String reason,
             int pass,
@@ -281,6 +452,7 @@ public class BasicMeasure {
 
         if (!allSolved || computations != 2) {
             int optimizations = layout.getOptimizationLevel();
+            mActiveMeasureCache = getMeasureCache(layout);
             if (childCount > 0) {
                 measureChildren(layout);
             }
@@ -353,33 +525,56 @@ public class BasicMeasure {
                 ////////////////////////////////////////////////////////////////////////////////////
 
                 int maxIterations = 2;
+                boolean parallel = canMeasureInParallel(layout, measurer);
                 for (int j = 0; j < maxIterations; j++) {
-                    for (int i = 0; i < sizeDependentWidgetsCount; i++) {
-                        ConstraintWidget widget = mVariableDimensionsWidgets.get(i);
-                        if ((widget instanceof Helper && !(widget instanceof VirtualLayout))
-                                || widget instanceof Guideline) {
-                            continue;
+                    int measureStrategy = Measure.TRY_GIVEN_DIMENSIONS;
+                    if (j == maxIterations - 1) {
+                        measureStrategy = Measure.USE_GIVEN_DIMENSIONS;
+                    }
+                    if (parallel) {
+                        // measure everything first, keeping the previous dimensions around
+                        for (int i = 0; i < sizeDependentWidgetsCount; i++) {
+                            ConstraintWidget widget = mVariableDimensionsWidgets.get(i);
+                            if (needsMeasureAfterSolve(widget, optimize)) {
+                                mParallelWidgets.add(widget);
+                            }
                         }
-                        if (widget.getVisibility() == GONE) {
-                            continue;
+                        final int count = mParallelWidgets.size();
+                        if (mPreviousDimensions.length < 3 * count) {
+                            mPreviousDimensions = new int[3 * count];
                         }
-                        if (optimize && widget.mHorizontalRun.mDimension.resolved
-                                && widget.mVerticalRun.mDimension.resolved) {
-                            continue;
+                        for (int i = 0; i < count; i++) {
+                            ConstraintWidget widget = mParallelWidgets.get(i);
+                            mPreviousDimensions[3 * i] = widget.getWidth();
+                            mPreviousDimensions[3 * i + 1] = widget.getHeight();
+                            mPreviousDimensions[3 * i + 2] = widget.getBaselineDistance();
                         }
-                        if (widget instanceof VirtualLayout) {
+                        measureInParallel(measurer, measureStrategy);
+                        mParallelWidgets.clear();
+                    }
+                    int measured = 0;
+                    for (int i = 0; i < sizeDependentWidgetsCount; i++) {
+                        ConstraintWidget widget = mVariableDimensionsWidgets.get(i);
+                        if (!needsMeasureAfterSolve(widget, optimize)) {
                             continue;
                         }
 
-                        int preWidth = widget.getWidth();
-                        int preHeight = widget.getHeight();
-                        int preBaselineDistance = widget.getBaselineDistance();
-
-                        int measureStrategy = Measure.TRY_GIVEN_DIMENSIONS;
-                        if (j == maxIterations - 1) {
-                            measureStrategy = Measure.USE_GIVEN_DIMENSIONS;
+                        int preWidth;
+                        int preHeight;
+                        int preBaselineDistance;
+                        boolean hasMeasure;
+                        if (parallel) {
+                            preWidth = mPreviousDimensions[3 * measured];
+                            preHeight = mPreviousDimensions[3 * measured + 1];
+                            preBaselineDistance = mPreviousDimensions[3 * measured + 2];
+                            hasMeasure = mParallelResults[measured];
+                            measured++;
+                        } else {
+                            preWidth = widget.getWidth();
+                            preHeight = widget.getHeight();
+                            preBaselineDistance = widget.getBaselineDistance();
+                            hasMeasure = measure(measurer, widget, measureStrategy);
                         }
-                        boolean hasMeasure = measure(measurer, widget, measureStrategy);
                         if (DO_NOT_USE && !widget.hasDependencies()) {
                             hasMeasure = false;
                         }
@@ -445,6 +640,15 @@ public class BasicMeasure {
                 }
             }
             layout.setOptimizationLevel(optimizations);
+            mActiveMeasureCache = null;
+        }
+        if (mMeasureCache != null) {
+            long hits = mMeasureCache.takeHits();
+            long misses = mMeasureCache.takeMisses();
+            if (layout.mMetrics != null) {
+                layout.mMetrics.measureCacheHits += hits;
+                layout.mMetrics.measureCacheMisses += misses;
+            }
         }
         if (layout.mMetrics != null) {
             layoutTime = (System.nanoTime() - layoutTime);
@@ -461,16 +665,21 @@ public class BasicMeasure {
      * @return true if needs another solver pass
      */
     private boolean measure(Measurer measurer, ConstraintWidget widget, int measureStrategy) {
-        mMeasure.horizontalBehavior = widget.getHorizontalDimensionBehaviour();
-        mMeasure.verticalBehavior = widget.getVerticalDimensionBehaviour();
-        mMeasure.horizontalDimension = widget.getWidth();
-        mMeasure.verticalDimension = widget.getHeight();
-        mMeasure.measuredNeedsSolverPass = false;
-        mMeasure.measureStrategy = measureStrategy;
-
-        boolean horizontalMatchConstraints = (mMeasure.horizontalBehavior
+        return measure(measurer, mActiveMeasureCache, widget, measureStrategy, mMeasure);
+    }
+
+    private static boolean measure(Measurer measurer, MeasureCache cache,
+            ConstraintWidget widget, int measureStrategy, Measure measure) {
+        measure.horizontalBehavior = widget.getHorizontalDimensionBehaviour();
+        measure.verticalBehavior = widget.getVerticalDimensionBehaviour();
+        measure.horizontalDimension = widget.getWidth();
+        measure.verticalDimension = widget.getHeight();
+        measure.measuredNeedsSolverPass = false;
+        measure.measureStrategy = measureStrategy;
+
+        boolean horizontalMatchConstraints = (measure.horizontalBehavior
                 == ConstraintWidget.DimensionBehaviour.MATCH_CONSTRAINT);
-        boolean verticalMatchConstraints = (mMeasure.verticalBehavior
+        boolean verticalMatchConstraints = (measure.verticalBehavior
                 == ConstraintWidget.DimensionBehaviour.MATCH_CONSTRAINT);
         boolean horizontalUseRatio = horizontalMatchConstraints && widget.mDimensionRatio > 0;
         boolean verticalUseRatio = verticalMatchConstraints && widget.mDimensionRatio > 0;
@@ -478,23 +687,49 @@ public class BasicMeasure {
         if (horizontalUseRatio) {
             if (widget.mResolvedMatchConstraintDefault[HORIZONTAL]
                     == ConstraintWidget.MATCH_CONSTRAINT_RATIO_RESOLVED) {
-                mMeasure.horizontalBehavior = ConstraintWidget.DimensionBehaviour.FIXED;
+                measure.horizontalBehavior = ConstraintWidget.DimensionBehaviour.FIXED;
             }
         }
         if (verticalUseRatio) {
             if (widget.mResolvedMatchConstraintDefault[VERTICAL]
                     == ConstraintWidget.MATCH_CONSTRAINT_RATIO_RESOLVED) {
-                mMeasure.verticalBehavior = ConstraintWidget.DimensionBehaviour.FIXED;
+                measure.verticalBehavior = ConstraintWidget.DimensionBehaviour.FIXED;
             }
         }
 
-        measurer.measure(widget, mMeasure);
-        widget.setWidth(mMeasure.measuredWidth);
-        widget.setHeight(mMeasure.measuredHeight);
-        widget.setHasBaseline(mMeasure.measuredHasBaseline);
-        widget.setBaselineDistance(mMeasure.measuredBaseline);
-        mMeasure.measureStrategy = Measure.SELF_DIMENSIONS;
-        return mMeasure.measuredNeedsSolverPass;
+        callMeasurer(measurer, cache, widget, measure);
+        widget.setWidth(measure.measuredWidth);
+        widget.setHeight(measure.measuredHeight);
+        widget.setHasBaseline(measure.measuredHasBaseline);
+        widget.setBaselineDistance(measure.measuredBaseline);
+        measure.measureStrategy = Measure.SELF_DIMENSIONS;
+        return measure.measuredNeedsSolverPass;
+    }
+
+    /**
+     * Call the measurer with the given measure spec, going through the measure result cache
+     * if {@link Optimizer#OPTIMIZATION_MEASURE_RESULT_CACHE} is enabled on the layout
+     *
+     * @param layout   the layout the widget belongs to
+     * @param measurer the measurer callback
+     * @param widget   the widget to measure
+     * @param measure  the measure spec, filled in with the result
+     */
+    public void measureWithCache(ConstraintWidgetContainer layout, Measurer measurer,
+            ConstraintWidget widget, Measure measure) {
+        callMeasurer(measurer, getMeasureCache(layout), widget, measure);
+    }
+
+    private static void callMeasurer(Measurer measurer, MeasureCache cache,
+            ConstraintWidget widget, Measure measure) {
+        if (cache == null || widget instanceof VirtualLayout) {
+            // virtual layouts depend on the measures of their own widgets, don't cache them
+            measurer.measure(widget, measure);
+        } else if (!cache.get(widget, measure)) {
+            MeasureCache.Key key = MeasureCache.keyFor(widget, measure);
+            measurer.measure(widget, measure);
+            cache.put(key, measure);
+        }
     }
 
     public interface Measurer {
@@ -505,6 +740,16 @@ public class BasicMeasure {
         void didMeasures();
     }
 
+    /**
+     * A {@link Measurer} that can measure different widgets at the same time from several
+     * threads. Implementations must only read the widget and the {@link Measure} they are given,
+     * and must give the same result for the same input regardless of the order of the calls.
+     * {@link #didMeasures()} is still called on the thread doing the layout, after all the
+     * measures. Only used when {@link Optimizer#OPTIMIZATION_PARALLEL_MEASURES} is enabled.
+     */
+    public interface ConcurrentMeasurer extends Measurer {
+    }
+
     public static class Measure {
         public static int SELF_DIMENSIONS = 0;
         public static int TRY_GIVEN_DIMENSIONS = 1;
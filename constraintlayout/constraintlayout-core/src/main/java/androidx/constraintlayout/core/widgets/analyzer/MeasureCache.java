@@ -0,0 +1,184 @@
+/*
+ * Copyright 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.constraintlayout.core.widgets.analyzer;
+
+import androidx.constraintlayout.core.widgets.ConstraintWidget;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded cache of measure results, keyed by the widget, the measure spec it was given
+ * and its measure generation (see {@link ConstraintWidget#getMeasureGeneration()}).
+ * The least recently used results are dropped first.
+ *
+ * Lookups can come from several threads when measuring in parallel, so all the accesses
+ * are synchronized.
+ */
+class MeasureCache {
+
+    static final int DEFAULT_MAX_SIZE = 256;
+
+    private int mMaxSize = DEFAULT_MAX_SIZE;
+    private final Key mProbe = new Key();
+    private final LinkedHashMap<Key, Result> mEntries =
+            new LinkedHashMap<Key, Result>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Key, Result> eldest) {
+                    return size() > mMaxSize;
+                }
+            };
+
+    // hits and misses since the last call to takeHits() / takeMisses()
+    private long mHits;
+    private long mMisses;
+
+    static final class Key {
+        ConstraintWidget mWidget;
+        ConstraintWidget.DimensionBehaviour mHorizontalBehavior;
+        ConstraintWidget.DimensionBehaviour mVerticalBehavior;
+        int mHorizontalDimension;
+        int mVerticalDimension;
+        int mMeasureStrategy;
+        int mGeneration;
+
+        void set(ConstraintWidget widget, BasicMeasure.Measure measure) {
+            mWidget = widget;
+            mHorizontalBehavior = measure.horizontalBehavior;
+            mVerticalBehavior = measure.verticalBehavior;
+            mHorizontalDimension = measure.horizontalDimension;
+            mVerticalDimension = measure.verticalDimension;
+            mMeasureStrategy = measure.measureStrategy;
+            mGeneration = widget.getMeasureGeneration();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return mWidget == key.mWidget
+                    && mHorizontalBehavior == key.mHorizontalBehavior
+                    && mVerticalBehavior == key.mVerticalBehavior
+                    && mHorizontalDimension == key.mHorizontalDimension
+                    && mVerticalDimension == key.mVerticalDimension
+                    && mMeasureStrategy == key.mMeasureStrategy
+                    && mGeneration == key.mGeneration;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = System.identityHashCode(mWidget);
+            result = 31 * result + (mHorizontalBehavior != null
+                    ? mHorizontalBehavior.ordinal() : -1);
+            result = 31 * result + (mVerticalBehavior != null ? mVerticalBehavior.ordinal() : -1);
+            result = 31 * result + mHorizontalDimension;
+            result = 31 * result + mVerticalDimension;
+            result = 31 * result + mMeasureStrategy;
+            result = 31 * result + mGeneration;
+            return result;
+        }
+    }
+
+    static final class Result {
+        final int mWidth;
+        final int mHeight;
+        final int mBaseline;
+        final boolean mHasBaseline;
+        final boolean mNeedsSolverPass;
+
+        Result(BasicMeasure.Measure measure) {
+            mWidth = measure.measuredWidth;
+            mHeight = measure.measuredHeight;
+            mBaseline = measure.measuredBaseline;
+            mHasBaseline = measure.measuredHasBaseline;
+            mNeedsSolverPass = measure.measuredNeedsSolverPass;
+        }
+    }
+
+    /**
+     * Fill in the measured values of the given measure spec if a result is cached for it
+     *
+     * @return true if the result was found
+     */
+    synchronized boolean get(ConstraintWidget widget, BasicMeasure.Measure measure) {
+        mProbe.set(widget, measure);
+        Result result = mEntries.get(mProbe);
+        mProbe.mWidget = null;
+        if (result == null) {
+            mMisses++;
+            return false;
+        }
+        mHits++;
+        measure.measuredWidth = result.mWidth;
+        measure.measuredHeight = result.mHeight;
+        measure.measuredBaseline = result.mBaseline;
+        measure.measuredHasBaseline = result.mHasBaseline;
+        measure.measuredNeedsSolverPass = result.mNeedsSolverPass;
+        return true;
+    }
+
+    /**
+     * Store the result of a measure
+     *
+     * @param key     the key of the measure, captured before calling the measurer
+     * @param measure the measure holding the result
+     */
+    synchronized void put(Key key, BasicMeasure.Measure measure) {
+        mEntries.put(key, new Result(measure));
+    }
+
+    /**
+     * Capture the key of a measure spec, to store its result once measured
+     */
+    static Key keyFor(ConstraintWidget widget, BasicMeasure.Measure measure) {
+        Key key = new Key();
+        key.set(widget, measure);
+        return key;
+    }
+
+    synchronized void setMaxSize(int maxSize) {
+        mMaxSize = Math.max(0, maxSize);
+        while (mEntries.size() > mMaxSize) {
+            mEntries.remove(mEntries.keySet().iterator().next());
+        }
+    }
+
+    synchronized void clear() {
+        mEntries.clear();
+    }
+
+    synchronized int size() {
+        return mEntries.size();
+    }
+
+    synchronized long takeHits() {
+        long hits = mHits;
+        mHits = 0;
+        return hits;
+    }
+
+    synchronized long takeMisses() {
+        long misses = mMisses;
+        mMisses = 0;
+        return misses;
+    }
+}
@@ -0,0 +1,217 @@
+/*
+ * Copyright 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.constraintlayout.core;
+
+import static androidx.constraintlayout.core.widgets.analyzer.BasicMeasure.EXACTLY;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import androidx.constraintlayout.core.widgets.ConstraintAnchor;
+import androidx.constraintlayout.core.widgets.ConstraintWidget;
+import androidx.constraintlayout.core.widgets.ConstraintWidgetContainer;
+import androidx.constraintlayout.core.widgets.Optimizer;
+import androidx.constraintlayout.core.widgets.analyzer.BasicMeasure;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * Checks the measure result cache of BasicMeasure
+ */
+public class MeasureCacheTest {
+
+    private static final int CACHE = Optimizer.OPTIMIZATION_STANDARD
+            | Optimizer.OPTIMIZATION_MEASURE_RESULT_CACHE;
+
+    /**
+     * Measures widgets like text views, wrapping their text on several lines if needed
+     */
+    static class TextMeasurer implements BasicMeasure.Measurer {
+        final HashMap<ConstraintWidget, Integer> mCharacters = new HashMap<>();
+        int mMeasures = 0;
+
+        @Override
+        public void measure(ConstraintWidget widget, BasicMeasure.Measure measure) {
+            mMeasures++;
+            Integer characters = mCharacters.get(widget);
+            if (characters == null) {
+                characters = 10 + Math.abs(widget.getDebugName().hashCode()) % 50;
+            }
+            int width = characters * 8;
+            if (measure.horizontalBehavior == ConstraintWidget.DimensionBehaviour.FIXED
+                    || (measure.horizontalBehavior
+                    == ConstraintWidget.DimensionBehaviour.MATCH_CONSTRAINT
+                    && measure.measureStrategy != BasicMeasure.Measure.SELF_DIMENSIONS)) {
+                width = Math.max(1, measure.horizontalDimension);
+            }
+            int lines = (characters * 8 + width - 1) / width;
+            measure.measuredWidth = Math.min(width, characters * 8);
+            measure.measuredHeight = lines * 16;
+            measure.measuredBaseline = 12;
+            measure.measuredHasBaseline = true;
+        }
+
+        @Override
+        public void didMeasures() {
+        }
+    }
+
+    private static ConstraintWidgetContainer createLayout(int rows,
+            ArrayList<ConstraintWidget> widgets) {
+        ConstraintWidgetContainer root = new ConstraintWidgetContainer(0, 0, 800, 2000);
+        root.setDebugName("root");
+        ConstraintWidget previous = null;
+        for (int i = 0; i < rows; i++) {
+            ConstraintWidget label = new ConstraintWidget();
+            ConstraintWidget text = new ConstraintWidget();
+            label.setDebugName("label" + i);
+            text.setDebugName("text" + i);
+            root.add(label);
+            root.add(text);
+            widgets.add(label);
+            widgets.add(text);
+            label.setHorizontalDimensionBehaviour(ConstraintWidget.DimensionBehaviour.WRAP_CONTENT);
+            label.setVerticalDimensionBehaviour(ConstraintWidget.DimensionBehaviour.WRAP_CONTENT);
+            text.setHorizontalDimensionBehaviour(
+                    ConstraintWidget.DimensionBehaviour.MATCH_CONSTRAINT);
+            text.setHorizontalMatchStyle(ConstraintWidget.MATCH_CONSTRAINT_SPREAD, 0, 0, 0);
+            text.setVerticalDimensionBehaviour(ConstraintWidget.DimensionBehaviour.WRAP_CONTENT);
+            label.connect(ConstraintAnchor.Type.LEFT, root, ConstraintAnchor.Type.LEFT, 8);
+            text.connect(ConstraintAnchor.Type.LEFT, label, ConstraintAnchor.Type.RIGHT, 8);
+            text.connect(ConstraintAnchor.Type.RIGHT, root, ConstraintAnchor.Type.RIGHT, 8);
+            if (previous == null) {
+                text.connect(ConstraintAnchor.Type.TOP, root, ConstraintAnchor.Type.TOP, 8);
+            } else {
+                text.connect(ConstraintAnchor.Type.TOP, previous,
+                        ConstraintAnchor.Type.BOTTOM, 8);
+            }
+            label.connect(ConstraintAnchor.Type.BASELINE, text, ConstraintAnchor.Type.BASELINE);
+            previous = text;
+        }
+        return root;
+    }
+
+    private static void measure(ConstraintWidgetContainer root, int optimizationLevel) {
+        root.setOptimizationLevel(optimizationLevel);
+        root.updateHierarchy();
+        root.measure(optimizationLevel, EXACTLY, 800, EXACTLY, 2000, 0, 0, 0, 0);
+    }
+
+    private static void assertSameLayout(ArrayList<ConstraintWidget> expected,
+            ArrayList<ConstraintWidget> actual) {
+        for (int i = 0; i < expected.size(); i++) {
+            ConstraintWidget a = expected.get(i);
+            ConstraintWidget b = actual.get(i);
+            assertEquals(a.getDebugName(), a.getLeft(), b.getLeft());
+            assertEquals(a.getDebugName(), a.getTop(), b.getTop());
+            assertEquals(a.getDebugName(), a.getWidth(), b.getWidth());
+            assertEquals(a.getDebugName(), a.getHeight(), b.getHeight());
+            assertEquals(a.getDebugName(), a.getBaselineDistance(), b.getBaselineDistance());
+        }
+    }
+
+    @Test
+    public void testCachedMeasuresMatchUncached() {
+        ArrayList<ConstraintWidget> uncachedWidgets = new ArrayList<>();
+        ArrayList<ConstraintWidget> cachedWidgets = new ArrayList<>();
+        ConstraintWidgetContainer uncached = createLayout(20, uncachedWidgets);
+        ConstraintWidgetContainer cached = createLayout(20, cachedWidgets);
+        TextMeasurer uncachedMeasurer = new TextMeasurer();
+        TextMeasurer cachedMeasurer = new TextMeasurer();
+        uncached.setMeasurer(uncachedMeasurer);
+        cached.setMeasurer(cachedMeasurer);
+        Metrics metrics = new Metrics();
+        cached.fillMetrics(metrics);
+        for (int pass = 0; pass < 3; pass++) {
+            measure(uncached, Optimizer.OPTIMIZATION_STANDARD);
+            measure(cached, CACHE);
+            assertSameLayout(uncachedWidgets, cachedWidgets);
+        }
+        assertTrue(cachedMeasurer.mMeasures < uncachedMeasurer.mMeasures);
+        assertEquals(cachedMeasurer.mMeasures, metrics.measureCacheMisses);
+        assertEquals(uncachedMeasurer.mMeasures,
+                metrics.measureCacheHits + metrics.measureCacheMisses);
+        assertTrue(metrics.getMeasureCacheHitRate() > 0.5f);
+    }
+
+    @Test
+    public void testEnsureMeasureRequestedInvalidates() {
+        ArrayList<ConstraintWidget> widgets = new ArrayList<>();
+        ConstraintWidgetContainer root = createLayout(5, widgets);
+        TextMeasurer measurer = new TextMeasurer();
+        root.setMeasurer(measurer);
+        measure(root, CACHE);
+        ConstraintWidget label = widgets.get(4);
+        int width = label.getWidth();
+
+        // changing the content isn't seen until the widget asks for a new measure
+        measurer.mCharacters.put(label, 3);
+        measure(root, CACHE);
+        assertEquals(width, label.getWidth());
+
+        label.ensureMeasureRequested();
+        measure(root, CACHE);
+        assertEquals(3 * 8, label.getWidth());
+
+        measurer.mCharacters.put(label, 4);
+        root.invalidateMeasureCache();
+        measure(root, CACHE);
+        assertEquals(4 * 8, label.getWidth());
+    }
+
+    @Test
+    public void testCacheSize() {
+        ArrayList<ConstraintWidget> widgets = new ArrayList<>();
+        ConstraintWidgetContainer root = createLayout(10, widgets);
+        TextMeasurer measurer = new TextMeasurer();
+        root.setMeasurer(measurer);
+        root.setMeasureCacheSize(0);
+        Metrics metrics = new Metrics();
+        root.fillMetrics(metrics);
+        measure(root, CACHE);
+        measure(root, CACHE);
+        assertEquals(0, metrics.measureCacheHits);
+        assertEquals(measurer.mMeasures, metrics.measureCacheMisses);
+    }
+
+    @Test
+    public void testCacheSkipsMeasures() {
+        int[] rows = {50, 250};
+        for (int count : rows) {
+            int uncachedMeasures = countMeasures(count, Optimizer.OPTIMIZATION_STANDARD);
+            int cachedMeasures = countMeasures(count, CACHE);
+            assertTrue(count + " rows", cachedMeasures < uncachedMeasures);
+        }
+    }
+
+    private static int countMeasures(int rows, int optimizationLevel) {
+        ArrayList<ConstraintWidget> widgets = new ArrayList<>();
+        ConstraintWidgetContainer root = createLayout(rows, widgets);
+        TextMeasurer measurer = new TextMeasurer();
+        root.setMeasurer(measurer);
+        root.setMeasureCacheSize(4 * widgets.size());
+        measure(root, optimizationLevel);
+        measurer.mMeasures = 0;
+        for (int pass = 0; pass < 5; pass++) {
+            measure(root, optimizationLevel);
+        }
+        return measurer.mMeasures;
+    }
+}
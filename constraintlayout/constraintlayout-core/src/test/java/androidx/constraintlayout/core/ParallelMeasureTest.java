@@ -0,0 +1,179 @@
+/*
+ * Copyright 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.constraintlayout.core;
+
+import static androidx.constraintlayout.core.widgets.analyzer.BasicMeasure.EXACTLY;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import androidx.constraintlayout.core.widgets.ConstraintAnchor;
+import androidx.constraintlayout.core.widgets.ConstraintWidget;
+import androidx.constraintlayout.core.widgets.ConstraintWidgetContainer;
+import androidx.constraintlayout.core.widgets.Optimizer;
+import androidx.constraintlayout.core.widgets.analyzer.BasicMeasure;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Checks that measuring in parallel gives the same results as measuring sequentially
+ */
+public class ParallelMeasureTest {
+
+    /**
+     * Measures widgets like text views, only depending on the widget and the measure spec
+     */
+    static class TextMeasurer implements BasicMeasure.ConcurrentMeasurer {
+        final AtomicInteger mMeasures = new AtomicInteger();
+        final Set<Thread> mThreads = Collections.synchronizedSet(new HashSet<Thread>());
+
+        @Override
+        public void measure(ConstraintWidget widget, BasicMeasure.Measure measure) {
+            mMeasures.incrementAndGet();
+            mThreads.add(Thread.currentThread());
+            int characters = 10 + Math.abs(widget.getDebugName().hashCode()) % 50;
+            int width = characters * 8;
+            if (measure.horizontalBehavior == ConstraintWidget.DimensionBehaviour.FIXED
+                    || (measure.horizontalBehavior
+                    == ConstraintWidget.DimensionBehaviour.MATCH_CONSTRAINT
+                    && measure.measureStrategy != BasicMeasure.Measure.SELF_DIMENSIONS)) {
+                width = Math.max(1, measure.horizontalDimension);
+            }
+            int lines = (characters * 8 + width - 1) / width;
+            measure.measuredWidth = Math.min(width, characters * 8);
+            measure.measuredHeight = lines * 16;
+            measure.measuredBaseline = 12;
+            measure.measuredHasBaseline = true;
+        }
+
+        @Override
+        public void didMeasures() {
+        }
+    }
+
+    private static ConstraintWidgetContainer createLayout(int rows,
+            ArrayList<ConstraintWidget> widgets) {
+        ConstraintWidgetContainer root = new ConstraintWidgetContainer(0, 0, 800, 2000);
+        root.setDebugName("root");
+        ConstraintWidget previous = null;
+        for (int i = 0; i < rows; i++) {
+            ConstraintWidget label = new ConstraintWidget();
+            ConstraintWidget text = new ConstraintWidget();
+            label.setDebugName("label" + i);
+            text.setDebugName("text" + i);
+            root.add(label);
+            root.add(text);
+            widgets.add(label);
+            widgets.add(text);
+            label.setHorizontalDimensionBehaviour(ConstraintWidget.DimensionBehaviour.WRAP_CONTENT);
+            label.setVerticalDimensionBehaviour(ConstraintWidget.DimensionBehaviour.WRAP_CONTENT);
+            text.setHorizontalDimensionBehaviour(
+                    ConstraintWidget.DimensionBehaviour.MATCH_CONSTRAINT);
+            text.setHorizontalMatchStyle(ConstraintWidget.MATCH_CONSTRAINT_SPREAD, 0, 0, 0);
+            text.setVerticalDimensionBehaviour(ConstraintWidget.DimensionBehaviour.WRAP_CONTENT);
+            label.connect(ConstraintAnchor.Type.LEFT, root, ConstraintAnchor.Type.LEFT, 8);
+            text.connect(ConstraintAnchor.Type.LEFT, label, ConstraintAnchor.Type.RIGHT, 8);
+            text.connect(ConstraintAnchor.Type.RIGHT, root, ConstraintAnchor.Type.RIGHT, 8);
+            if (previous == null) {
+                text.connect(ConstraintAnchor.Type.TOP, root, ConstraintAnchor.Type.TOP, 8);
+            } else {
+                text.connect(ConstraintAnchor.Type.TOP, previous,
+                        ConstraintAnchor.Type.BOTTOM, 8);
+            }
+            label.connect(ConstraintAnchor.Type.BASELINE, text, ConstraintAnchor.Type.BASELINE);
+            previous = text;
+        }
+        return root;
+    }
+
+    private static void measure(ConstraintWidgetContainer root, int optimizationLevel) {
+        root.setOptimizationLevel(optimizationLevel);
+        root.updateHierarchy();
+        root.measure(optimizationLevel, EXACTLY, 800, EXACTLY, 2000, 0, 0, 0, 0);
+    }
+
+    @Test
+    public void testParallelMeasuresMatchSequential() {
+        ArrayList<ConstraintWidget> sequentialWidgets = new ArrayList<>();
+        ArrayList<ConstraintWidget> parallelWidgets = new ArrayList<>();
+        ConstraintWidgetContainer sequential = createLayout(40, sequentialWidgets);
+        ConstraintWidgetContainer parallel = createLayout(40, parallelWidgets);
+        TextMeasurer sequentialMeasurer = new TextMeasurer();
+        TextMeasurer parallelMeasurer = new TextMeasurer();
+        sequential.setMeasurer(sequentialMeasurer);
+        parallel.setMeasurer(parallelMeasurer);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        parallel.setMeasurePool(pool);
+        try {
+            for (int pass = 0; pass < 3; pass++) {
+                measure(sequential, Optimizer.OPTIMIZATION_STANDARD);
+                measure(parallel, Optimizer.OPTIMIZATION_STANDARD
+                        | Optimizer.OPTIMIZATION_PARALLEL_MEASURES);
+                for (int i = 0; i < sequentialWidgets.size(); i++) {
+                    ConstraintWidget a = sequentialWidgets.get(i);
+                    ConstraintWidget b = parallelWidgets.get(i);
+                    assertEquals(a.getDebugName(), a.getLeft(), b.getLeft());
+                    assertEquals(a.getDebugName(), a.getTop(), b.getTop());
+                    assertEquals(a.getDebugName(), a.getWidth(), b.getWidth());
+                    assertEquals(a.getDebugName(), a.getHeight(), b.getHeight());
+                    assertEquals(a.getDebugName(), a.getBaselineDistance(),
+                            b.getBaselineDistance());
+                }
+            }
+            assertEquals(sequentialMeasurer.mMeasures.get(), parallelMeasurer.mMeasures.get());
+            boolean usedPool = false;
+            synchronized (parallelMeasurer.mThreads) {
+                for (Thread thread : parallelMeasurer.mThreads) {
+                    usedPool |= thread instanceof ForkJoinWorkerThread;
+                }
+            }
+            assertTrue(usedPool);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testRegularMeasurerIsNotParallel() {
+        ArrayList<ConstraintWidget> widgets = new ArrayList<>();
+        ConstraintWidgetContainer root = createLayout(20, widgets);
+        final Set<Thread> threads = new HashSet<>();
+        final TextMeasurer textMeasurer = new TextMeasurer();
+        root.setMeasurer(new BasicMeasure.Measurer() {
+            @Override
+            public void measure(ConstraintWidget widget, BasicMeasure.Measure measure) {
+                threads.add(Thread.currentThread());
+                textMeasurer.measure(widget, measure);
+            }
+
+            @Override
+            public void didMeasures() {
+            }
+        });
+        measure(root, Optimizer.OPTIMIZATION_STANDARD | Optimizer.OPTIMIZATION_PARALLEL_MEASURES);
+        assertEquals(1, threads.size());
+        assertTrue(threads.contains(Thread.currentThread()));
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package androidx.constraintlayout.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import androidx.constraintlayout.core.widgets.ConstraintAnchor;
+import androidx.constraintlayout.core.widgets.ConstraintWidget;
+import androidx.constraintlayout.core.widgets.ConstraintWidgetContainer;
+import androidx.constraintlayout.core.widgets.Optimizer;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+/**
+ * Test the rows storage shared between rows
+ */
+public class SharedArrayVariablesTest {
+
+    private static void assertSameVariables(ArrayRow.ArrayRowVariables expected,
+            ArrayRow.ArrayRowVariables actual) {
+        assertEquals(expected.getCurrentSize(), actual.getCurrentSize());
+        for (int i = 0; i < expected.getCurrentSize(); i++) {
+            assertSame(expected.getVariable(i), actual.getVariable(i));
+            assertEquals(expected.getVariableValue(i), actual.getVariableValue(i), 0f);
+            assertEquals(expected.get(expected.getVariable(i)),
+                    actual.get(actual.getVariable(i)), 0f);
+        }
+    }
+
+    @Test
+    public void testMatchesArrayLinkedVariables() {
+        Cache cache = new Cache();
+        SolverVariable[] v = new SolverVariable[20];
+        for (int i = 0; i < v.length; i++) {
+            v[i] = new SolverVariable("v" + i, SolverVariable.Type.UNRESTRICTED);
+            v[i].id = i;
+            cache.mIndexedVariables[i] = v[i];
+        }
+        ArrayRow linkedRow = new ArrayRow(cache);
+        ArrayRow sharedRow = new LinearSystem.SharedRow(cache);
+        ArrayRow otherRow = new LinearSystem.SharedRow(cache);
+        ArrayRow.ArrayRowVariables linked = linkedRow.variables;
+        ArrayRow.ArrayRowVariables shared = sharedRow.variables;
+        Random random = new Random(42);
+        for (int i = 0; i < 2000; i++) {
+            SolverVariable variable = v[random.nextInt(v.length)];
+            float value = random.nextInt(7) - 3;
+            switch (random.nextInt(5)) {
+                case 0:
+                    linked.put(variable, value);
+                    shared.put(variable, value);
+                    break;
+                case 1:
+                    linked.add(variable, value, true);
+                    shared.add(variable, value, true);
+                    break;
+                case 2:
+                    assertEquals(linked.remove(variable, true), shared.remove(variable, true), 0f);
+                    break;
+                case 3:
+                    // interleave entries of another row in the shared storage
+                    otherRow.variables.add(variable, value, true);
+                    break;
+                default:
+                    if (value != 0) {
+                        linked.divideByAmount(value);
+                        shared.divideByAmount(value);
+                    } else {
+                        linked.invert();
+                        shared.invert();
+                    }
+                    break;
+            }
+            assertSameVariables(linked, shared);
+            assertEquals(linked.contains(variable), shared.contains(variable));
+        }
+        linked.clear();
+        shared.clear();
+        assertSameVariables(linked, shared);
+        assertNull(shared.getVariable(0));
+    }
+
+    @Test
+    public void testStorageReset() {
+        Cache cache = new Cache();
+        SolverVariable a = new SolverVariable("a", SolverVariable.Type.UNRESTRICTED);
+        SolverVariable b = new SolverVariable("b", SolverVariable.Type.UNRESTRICTED);
+        a.id = 1;
+        b.id = 2;
+        cache.mIndexedVariables[1] = a;
+        cache.mIndexedVariables[2] = b;
+        ArrayRow first = new LinearSystem.SharedRow(cache);
+        first.variables.put(a, 1);
+        first.variables.put(b, 2);
+        cache.mSharedRowStorage.reset();
+
+        // the entries of the first row are now owned by the second one
+        ArrayRow second = new LinearSystem.SharedRow(cache);
+        second.variables.put(b, 3);
+        first.reset();
+        assertEquals(0, first.variables.getCurrentSize());
+        assertEquals(1, second.variables.getCurrentSize());
+        assertEquals(3, second.variables.get(b), 0f);
+    }
+
+    private static ConstraintWidgetContainer createLayout(int count,
+            ArrayList<ConstraintWidget> widgets) {
+        ConstraintWidgetContainer root = new ConstraintWidgetContainer(0, 0, 1000, 1000);
+        ConstraintWidget previous = null;
+        for (int i = 0; i < count; i++) {
+            ConstraintWidget widget = new ConstraintWidget(100, 20);
+            widget.setDebugName("W" + i);
+            root.add(widget);
+            widgets.add(widget);
+            if (previous == null) {
+                widget.connect(ConstraintAnchor.Type.LEFT, root, ConstraintAnchor.Type.LEFT, 8);
+                widget.connect(ConstraintAnchor.Type.TOP, root, ConstraintAnchor.Type.TOP, 8);
+            } else {
+                widget.connect(ConstraintAnchor.Type.LEFT, previous, ConstraintAnchor.Type.LEFT);
+                widget.connect(ConstraintAnchor.Type.RIGHT, root, ConstraintAnchor.Type.RIGHT);
+                widget.connect(ConstraintAnchor.Type.TOP, previous,
+                        ConstraintAnchor.Type.BOTTOM, 4);
+                widget.setHorizontalBiasPercent((i % 10) / 10f);
+            }
+            if (i % 3 == 1) {
+                widget.setHorizontalDimensionBehaviour(
+                        ConstraintWidget.DimensionBehaviour.MATCH_CONSTRAINT);
+            }
+            previous = widget;
+        }
+        return root;
+    }
+
+    @Test
+    public void testSameLayoutAsArrayLinkedVariables() {
+        ArrayList<ConstraintWidget> linkedWidgets = new ArrayList<>();
+        ArrayList<ConstraintWidget> sharedWidgets = new ArrayList<>();
+        ConstraintWidgetContainer linked = createLayout(50, linkedWidgets);
+        ConstraintWidgetContainer shared = createLayout(50, sharedWidgets);
+        linked.setOptimizationLevel(Optimizer.OPTIMIZATION_NONE);
+        shared.setOptimizationLevel(
+                Optimizer.OPTIMIZATION_NONE | Optimizer.OPTIMIZATION_SHARED_ROW_STORAGE);
+        for (int pass = 0; pass < 3; pass++) {
+            linked.layout();
+            shared.layout();
+            for (int i = 0; i < linkedWidgets.size(); i++) {
+                ConstraintWidget a = linkedWidgets.get(i);
+                ConstraintWidget b = sharedWidgets.get(i);
+                assertEquals(a.getDebugName(), a.getLeft(), b.getLeft());
+                assertEquals(a.getDebugName(), a.getTop(), b.getTop());
+                assertEquals(a.getDebugName(), a.getWidth(), b.getWidth());
+            }
+        }
+    }
+}
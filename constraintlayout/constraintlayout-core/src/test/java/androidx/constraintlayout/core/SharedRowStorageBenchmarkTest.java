@@ -0,0 +1,92 @@
+/*
+ * Copyright 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package androidx.constraintlayout.core;
+
+import androidx.constraintlayout.core.widgets.ConstraintWidget;
+import androidx.constraintlayout.core.widgets.ConstraintWidgetContainer;
+import androidx.constraintlayout.core.widgets.Optimizer;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+
+/**
+ * Compares the time to solve the same layouts with rows stored in {@link ArrayLinkedVariables},
+ * in {@link SolverVariableValues} and in the storage shared by all the rows
+ * ({@link Optimizer#OPTIMIZATION_SHARED_ROW_STORAGE}). The layouts are checked to be the same
+ * with the three, the times are only printed.
+ */
+public class SharedRowStorageBenchmarkTest {
+
+    private static final int PASSES = 10;
+
+    private static final int LINKED = 0;
+    private static final int VALUES = 1;
+    private static final int SHARED = 2;
+    private static final String[] NAMES = {"ArrayLinkedVariables", "SolverVariableValues",
+            "shared rows"};
+
+    @Test
+    public void compareRowStorage200() {
+        compareRowStorage(200);
+    }
+
+    @Test
+    public void compareRowStorage1000() {
+        compareRowStorage(1000);
+    }
+
+    private void compareRowStorage(int count) {
+        ArrayList<ConstraintWidget> expected = null;
+        StringBuilder result = new StringBuilder();
+        result.append(count).append(" widgets, ").append(PASSES).append(" passes:");
+        for (int storage = LINKED; storage <= SHARED; storage++) {
+            ArrayList<ConstraintWidget> widgets = new ArrayList<>();
+            long time = solve(count, storage, widgets);
+            if (expected == null) {
+                expected = widgets;
+            } else {
+                WarmStartTest.assertSameLayout(expected, widgets);
+            }
+            result.append(' ').append(NAMES[storage]).append(' ')
+                    .append(time / 1000000).append(" ms");
+        }
+        System.out.println(result);
+    }
+
+    private long solve(int count, int storage, ArrayList<ConstraintWidget> widgets) {
+        boolean optimizedEngine = LinearSystem.OPTIMIZED_ENGINE;
+        LinearSystem.OPTIMIZED_ENGINE = storage == VALUES;
+        try {
+            int level = Optimizer.OPTIMIZATION_NONE;
+            if (storage == SHARED) {
+                level |= Optimizer.OPTIMIZATION_SHARED_ROW_STORAGE;
+            }
+            ConstraintWidgetContainer root = WarmStartTest.createLayout(count, level, false,
+                    widgets);
+            // the first pass allocates the rows
+            root.layout();
+            long start = System.nanoTime();
+            for (int pass = 0; pass < PASSES; pass++) {
+                WarmStartTest.resize(widgets, pass);
+                root.layout();
+            }
+            return System.nanoTime() - start;
+        } finally {
+            LinearSystem.OPTIMIZED_ENGINE = optimizedEngine;
+        }
+    }
+}
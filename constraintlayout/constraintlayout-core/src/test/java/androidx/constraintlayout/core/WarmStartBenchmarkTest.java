@@ -0,0 +1,87 @@
+/*
+ * Copyright 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package androidx.constraintlayout.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import androidx.constraintlayout.core.widgets.ConstraintWidget;
+import androidx.constraintlayout.core.widgets.ConstraintWidgetContainer;
+import androidx.constraintlayout.core.widgets.Optimizer;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+
+/**
+ * Compares cold and warm started solves of the same layouts, resized between passes.
+ * Each pass is checked against the cold solve, the times are only printed.
+ */
+public class WarmStartBenchmarkTest {
+
+    private static final int PASSES = 10;
+
+    @Test
+    public void coldVsWarm100() {
+        coldVsWarm(100);
+    }
+
+    @Test
+    public void coldVsWarm500() {
+        coldVsWarm(500);
+    }
+
+    @Test
+    public void coldVsWarm2000() {
+        coldVsWarm(2000);
+    }
+
+    private void coldVsWarm(int count) {
+        ArrayList<ConstraintWidget> coldWidgets = new ArrayList<>();
+        ArrayList<ConstraintWidget> warmWidgets = new ArrayList<>();
+        ConstraintWidgetContainer cold = WarmStartTest.createLayout(count,
+                Optimizer.OPTIMIZATION_NONE, false, coldWidgets);
+        ConstraintWidgetContainer warm = WarmStartTest.createLayout(count,
+                WarmStartTest.WARM_START, false, warmWidgets);
+        Metrics metrics = new Metrics();
+        warm.fillMetrics(metrics);
+        // first pass records the equations of the warm layout
+        cold.layout();
+        warm.layout();
+
+        long coldTime = 0;
+        long warmTime = 0;
+        for (int pass = 0; pass < PASSES; pass++) {
+            WarmStartTest.resize(coldWidgets, pass);
+            WarmStartTest.resize(warmWidgets, pass);
+            long start = System.nanoTime();
+            cold.layout();
+            long middle = System.nanoTime();
+            warm.layout();
+            long end = System.nanoTime();
+            coldTime += middle - start;
+            warmTime += end - middle;
+            assertEquals(cold.getWidth(), warm.getWidth());
+            assertEquals(cold.getHeight(), warm.getHeight());
+            WarmStartTest.assertSameLayout(coldWidgets, warmWidgets);
+        }
+        assertTrue(metrics.warmStarts > 0);
+        System.out.println(count + " widgets, " + PASSES + " passes: cold "
+                + (coldTime / 1000000) + " ms, warm " + (warmTime / 1000000) + " ms ("
+                + metrics.warmStarts + " warm starts, " + metrics.warmStartFallbacks
+                + " fallbacks)");
+    }
+}
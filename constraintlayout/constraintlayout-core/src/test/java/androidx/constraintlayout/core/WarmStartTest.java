@@ -0,0 +1,340 @@
+/*
+ * Copyright 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.constraintlayout.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import androidx.constraintlayout.core.widgets.ConstraintAnchor;
+import androidx.constraintlayout.core.widgets.ConstraintWidget;
+import androidx.constraintlayout.core.widgets.ConstraintWidgetContainer;
+import androidx.constraintlayout.core.widgets.Guideline;
+import androidx.constraintlayout.core.widgets.Optimizer;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+/**
+ * Checks that solving with {@link Optimizer#OPTIMIZATION_WARM_START} gives the same results
+ * as solving from scratch.
+ */
+public class WarmStartTest {
+
+    static final int WARM_START =
+            Optimizer.OPTIMIZATION_NONE | Optimizer.OPTIMIZATION_WARM_START;
+
+    static ConstraintWidgetContainer createLayout(int count, int optimizationLevel,
+            boolean wrap, ArrayList<ConstraintWidget> widgets) {
+        ConstraintWidgetContainer root = new ConstraintWidgetContainer(0, 0, 1000, 1000);
+        root.setOptimizationLevel(optimizationLevel);
+        ConstraintWidget previous = null;
+        for (int i = 0; i < count; i++) {
+            ConstraintWidget widget = new ConstraintWidget(100, 20);
+            widget.setDebugName("W" + i);
+            root.add(widget);
+            widgets.add(widget);
+            if (previous == null) {
+                widget.connect(ConstraintAnchor.Type.LEFT, root, ConstraintAnchor.Type.LEFT, 8);
+                widget.connect(ConstraintAnchor.Type.TOP, root, ConstraintAnchor.Type.TOP, 8);
+            } else {
+                widget.connect(ConstraintAnchor.Type.LEFT, previous, ConstraintAnchor.Type.LEFT);
+                widget.connect(ConstraintAnchor.Type.RIGHT, root, ConstraintAnchor.Type.RIGHT);
+                widget.connect(ConstraintAnchor.Type.TOP, previous,
+                        ConstraintAnchor.Type.BOTTOM, 4);
+                widget.setHorizontalBiasPercent((i % 10) / 10f);
+            }
+            if (i % 3 == 1) {
+                widget.setHorizontalDimensionBehaviour(
+                        ConstraintWidget.DimensionBehaviour.MATCH_CONSTRAINT);
+            }
+            previous = widget;
+        }
+        if (wrap) {
+            root.setHorizontalDimensionBehaviour(
+                    ConstraintWidget.DimensionBehaviour.WRAP_CONTENT);
+            root.setVerticalDimensionBehaviour(ConstraintWidget.DimensionBehaviour.WRAP_CONTENT);
+        }
+        return root;
+    }
+
+    static void resize(ArrayList<ConstraintWidget> widgets, int pass) {
+        for (int i = 0; i < widgets.size(); i++) {
+            ConstraintWidget widget = widgets.get(i);
+            widget.setWidth(60 + (i * 7 + pass * 13) % 90);
+            widget.setHeight(10 + (i + pass * 3) % 30);
+        }
+    }
+
+    static void assertSameLayout(ArrayList<ConstraintWidget> expected,
+            ArrayList<ConstraintWidget> actual) {
+        for (int i = 0; i < expected.size(); i++) {
+            ConstraintWidget a = expected.get(i);
+            ConstraintWidget b = actual.get(i);
+            assertEquals(a.getDebugName(), a.getLeft(), b.getLeft());
+            assertEquals(a.getDebugName(), a.getTop(), b.getTop());
+            assertEquals(a.getDebugName(), a.getWidth(), b.getWidth());
+            assertEquals(a.getDebugName(), a.getHeight(), b.getHeight());
+        }
+    }
+
+    @Test
+    public void testWarmStartMatchesColdSolve() {
+        ArrayList<ConstraintWidget> coldWidgets = new ArrayList<>();
+        ArrayList<ConstraintWidget> warmWidgets = new ArrayList<>();
+        ConstraintWidgetContainer cold = createLayout(40, Optimizer.OPTIMIZATION_NONE,
+                false, coldWidgets);
+        ConstraintWidgetContainer warm = createLayout(40, WARM_START, false, warmWidgets);
+        Metrics metrics = new Metrics();
+        warm.fillMetrics(metrics);
+        for (int pass = 0; pass < 8; pass++) {
+            resize(coldWidgets, pass);
+            resize(warmWidgets, pass);
+            cold.layout();
+            warm.layout();
+            assertEquals(cold.getWidth(), warm.getWidth());
+            assertEquals(cold.getHeight(), warm.getHeight());
+            assertSameLayout(coldWidgets, warmWidgets);
+        }
+        assertTrue(metrics.warmStarts > 0);
+    }
+
+    @Test
+    public void testWarmStartFallsBackOnStructuralChange() {
+        ArrayList<ConstraintWidget> coldWidgets = new ArrayList<>();
+        ArrayList<ConstraintWidget> warmWidgets = new ArrayList<>();
+        ConstraintWidgetContainer cold = createLayout(20, Optimizer.OPTIMIZATION_NONE,
+                false, coldWidgets);
+        ConstraintWidgetContainer warm = createLayout(20, WARM_START, false, warmWidgets);
+        Metrics metrics = new Metrics();
+        warm.fillMetrics(metrics);
+        cold.layout();
+        warm.layout();
+        warm.layout();
+        long fallbacks = metrics.warmStartFallbacks;
+
+        ConstraintWidget coldLast = coldWidgets.get(coldWidgets.size() - 1);
+        ConstraintWidget warmLast = warmWidgets.get(warmWidgets.size() - 1);
+        coldLast.connect(ConstraintAnchor.Type.BOTTOM, cold, ConstraintAnchor.Type.BOTTOM, 16);
+        warmLast.connect(ConstraintAnchor.Type.BOTTOM, warm, ConstraintAnchor.Type.BOTTOM, 16);
+        cold.layout();
+        warm.layout();
+        assertSameLayout(coldWidgets, warmWidgets);
+        assertTrue(metrics.warmStartFallbacks > fallbacks);
+
+        for (int pass = 0; pass < 4; pass++) {
+            resize(coldWidgets, pass);
+            resize(warmWidgets, pass);
+            cold.layout();
+            warm.layout();
+            assertSameLayout(coldWidgets, warmWidgets);
+        }
+    }
+
+    @Test
+    public void testWarmStartWithWrapContent() {
+        ArrayList<ConstraintWidget> coldWidgets = new ArrayList<>();
+        ArrayList<ConstraintWidget> warmWidgets = new ArrayList<>();
+        ConstraintWidgetContainer cold = createLayout(20, Optimizer.OPTIMIZATION_NONE,
+                true, coldWidgets);
+        ConstraintWidgetContainer warm = createLayout(20, WARM_START, true, warmWidgets);
+        for (int pass = 0; pass < 4; pass++) {
+            resize(coldWidgets, pass);
+            resize(warmWidgets, pass);
+            cold.layout();
+            warm.layout();
+            assertEquals(cold.getWidth(), warm.getWidth());
+            assertEquals(cold.getHeight(), warm.getHeight());
+            assertSameLayout(coldWidgets, warmWidgets);
+        }
+    }
+
+    /**
+     * Builds a random layout: widgets connected to the root or to previous widgets, with
+     * biases, match constraint dimensions, ratios, guidelines and chains.
+     */
+    private static ConstraintWidgetContainer createRandomLayout(long seed, int optimizationLevel,
+            boolean allowWrap, ArrayList<ConstraintWidget> widgets) {
+        Random random = new Random(seed);
+        int count = 3 + random.nextInt(15);
+        boolean wrapHorizontally = allowWrap && random.nextInt(3) == 0;
+        boolean wrapVertically = allowWrap && random.nextInt(3) == 0;
+        ConstraintWidgetContainer root = new ConstraintWidgetContainer(0, 0,
+                300 + random.nextInt(700), 300 + random.nextInt(700));
+        root.setOptimizationLevel(optimizationLevel);
+        ConstraintAnchor.Type[][] sides = {
+                {ConstraintAnchor.Type.LEFT, ConstraintAnchor.Type.RIGHT},
+                {ConstraintAnchor.Type.TOP, ConstraintAnchor.Type.BOTTOM}};
+        for (int i = 0; i < count; i++) {
+            ConstraintWidget widget = new ConstraintWidget(10 + random.nextInt(200),
+                    10 + random.nextInt(100));
+            widget.setDebugName("W" + i);
+            root.add(widget);
+            widgets.add(widget);
+            if (random.nextInt(6) == 0) {
+                Guideline guideline = new Guideline();
+                guideline.setOrientation(random.nextBoolean()
+                        ? Guideline.VERTICAL : Guideline.HORIZONTAL);
+                if (random.nextBoolean()) {
+                    guideline.setGuidePercent(random.nextInt(10) / 10f);
+                } else {
+                    guideline.setGuideBegin(random.nextInt(200));
+                }
+                root.add(guideline);
+            }
+            for (int orientation = 0; orientation < 2; orientation++) {
+                ConstraintAnchor.Type[] types = sides[orientation];
+                ConstraintWidget start = i == 0 || random.nextInt(3) == 0
+                        ? root : widgets.get(random.nextInt(i));
+                ConstraintWidget end = i == 0 || random.nextInt(3) == 0
+                        ? root : widgets.get(random.nextInt(i));
+                int mode = random.nextInt(4);
+                if (mode != 1) {
+                    widget.connect(types[0], start,
+                            start == root ? types[0] : types[random.nextInt(2)],
+                            random.nextInt(3) * 8);
+                }
+                if (mode != 0) {
+                    widget.connect(types[1], end,
+                            end == root ? types[1] : types[random.nextInt(2)],
+                            random.nextInt(3) * 8);
+                }
+                if (mode >= 2) {
+                    setRandomDimension(random, widget, orientation);
+                }
+            }
+        }
+        for (int i = 1; i < count; i++) {
+            if (random.nextInt(5) == 0) {
+                ConstraintWidget previous = widgets.get(i - 1);
+                ConstraintWidget widget = widgets.get(i);
+                previous.connect(ConstraintAnchor.Type.RIGHT, widget, ConstraintAnchor.Type.LEFT);
+                widget.connect(ConstraintAnchor.Type.LEFT, previous, ConstraintAnchor.Type.RIGHT);
+                if (random.nextBoolean()) {
+                    previous.setHorizontalChainStyle(random.nextInt(3));
+                }
+            }
+        }
+        if (wrapHorizontally) {
+            root.setHorizontalDimensionBehaviour(
+                    ConstraintWidget.DimensionBehaviour.WRAP_CONTENT);
+        }
+        if (wrapVertically) {
+            root.setVerticalDimensionBehaviour(ConstraintWidget.DimensionBehaviour.WRAP_CONTENT);
+        }
+        return root;
+    }
+
+    private static void setRandomDimension(Random random, ConstraintWidget widget,
+            int orientation) {
+        float bias = random.nextInt(11) / 10f;
+        if (orientation == ConstraintWidget.HORIZONTAL) {
+            widget.setHorizontalBiasPercent(bias);
+        } else {
+            widget.setVerticalBiasPercent(bias);
+        }
+        if (!random.nextBoolean()) {
+            return;
+        }
+        int style = random.nextInt(5);
+        if (orientation == ConstraintWidget.HORIZONTAL) {
+            widget.setHorizontalDimensionBehaviour(
+                    ConstraintWidget.DimensionBehaviour.MATCH_CONSTRAINT);
+            if (style == 1) {
+                widget.setHorizontalMatchStyle(ConstraintWidget.MATCH_CONSTRAINT_PERCENT,
+                        0, 0, 0.1f + random.nextInt(9) / 10f);
+            } else if (style == 2) {
+                widget.setHorizontalMatchStyle(ConstraintWidget.MATCH_CONSTRAINT_SPREAD,
+                        random.nextInt(50), 50 + random.nextInt(200), 1);
+            }
+        } else {
+            widget.setVerticalDimensionBehaviour(
+                    ConstraintWidget.DimensionBehaviour.MATCH_CONSTRAINT);
+            if (style == 1) {
+                widget.setVerticalMatchStyle(ConstraintWidget.MATCH_CONSTRAINT_PERCENT,
+                        0, 0, 0.1f + random.nextInt(9) / 10f);
+            } else if (style == 2) {
+                widget.setVerticalMatchStyle(ConstraintWidget.MATCH_CONSTRAINT_SPREAD,
+                        random.nextInt(50), 50 + random.nextInt(200), 1);
+            } else if (style == 3 && widget.getHorizontalDimensionBehaviour()
+                    != ConstraintWidget.DimensionBehaviour.MATCH_CONSTRAINT) {
+                widget.setDimensionRatio((1 + random.nextInt(3)) + ":"
+                        + (1 + random.nextInt(3)));
+            }
+        }
+    }
+
+    private static void resizeRandomly(long seed, int pass, ConstraintWidgetContainer root,
+            ArrayList<ConstraintWidget> widgets) {
+        Random random = new Random(seed * 31 + pass);
+        for (ConstraintWidget widget : widgets) {
+            if (widget.getHorizontalDimensionBehaviour()
+                    == ConstraintWidget.DimensionBehaviour.FIXED) {
+                widget.setWidth(10 + random.nextInt(200));
+            }
+            if (widget.getVerticalDimensionBehaviour()
+                    == ConstraintWidget.DimensionBehaviour.FIXED) {
+                widget.setHeight(10 + random.nextInt(100));
+            }
+        }
+        if (random.nextBoolean()) {
+            root.setWidth(300 + random.nextInt(700));
+        }
+    }
+
+    private static void checkRandomLayouts(int baseLevel, boolean allowWrap) {
+        Metrics metrics = new Metrics();
+        for (long seed = 0; seed < 300; seed++) {
+            ArrayList<ConstraintWidget> coldWidgets = new ArrayList<>();
+            ArrayList<ConstraintWidget> warmWidgets = new ArrayList<>();
+            ConstraintWidgetContainer cold = createRandomLayout(seed, baseLevel, allowWrap,
+                    coldWidgets);
+            ConstraintWidgetContainer warm = createRandomLayout(seed,
+                    baseLevel | Optimizer.OPTIMIZATION_WARM_START, allowWrap, warmWidgets);
+            warm.fillMetrics(metrics);
+            for (int pass = 0; pass < 4; pass++) {
+                if (pass > 0) {
+                    resizeRandomly(seed, pass, cold, coldWidgets);
+                    resizeRandomly(seed, pass, warm, warmWidgets);
+                }
+                cold.layout();
+                warm.layout();
+                assertEquals("seed " + seed, cold.getWidth(), warm.getWidth());
+                assertEquals("seed " + seed, cold.getHeight(), warm.getHeight());
+                assertSameLayout(coldWidgets, warmWidgets);
+            }
+        }
+        assertTrue(metrics.warmStarts > 0);
+    }
+
+    @Test
+    public void testRandomLayoutsMatchColdSolve() {
+        checkRandomLayouts(Optimizer.OPTIMIZATION_NONE, false);
+    }
+
+    @Test
+    public void testRandomLayoutsMatchColdSolveWithOptimizations() {
+        checkRandomLayouts(Optimizer.OPTIMIZATION_STANDARD & ~Optimizer.OPTIMIZATION_GROUPING,
+                false);
+    }
+
+    @Test
+    public void testRandomLayoutsWithWrapContentMatchColdSolve() {
+        checkRandomLayouts(Optimizer.OPTIMIZATION_NONE, true);
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package androidx.constraintlayout.core.cl;
+
+import static org.junit.Assert.assertEquals;
+
+import androidx.constraintlayout.core.parser.CLParser;
+import androidx.constraintlayout.core.parser.CLParsingException;
+import androidx.constraintlayout.core.parser.CLReader;
+import androidx.constraintlayout.core.state.ConstraintSetParser;
+import androidx.constraintlayout.core.state.State;
+
+import org.junit.Test;
+
+/**
+ * Compares populating a State from a parsed tree and from a CLReader, for constraint sets of
+ * 100, 500 and 2000 widgets. Every populated State is checked, the times are only printed.
+ */
+public class ConstraintSetReaderBenchmarkTest {
+
+    private static final int RUNS = 5;
+
+    @Test
+    public void treeVsReader100() throws CLParsingException {
+        treeVsReader(100);
+    }
+
+    @Test
+    public void treeVsReader500() throws CLParsingException {
+        treeVsReader(500);
+    }
+
+    @Test
+    public void treeVsReader2000() throws CLParsingException {
+        treeVsReader(2000);
+    }
+
+    private void treeVsReader(int count) throws CLParsingException {
+        String content = ConstraintSetReaderTest.createConstraintSet(count);
+        // warm up both paths
+        check(populateFromTree(content), count);
+        check(populateFromReader(content), count);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < RUNS; i++) {
+            check(populateFromTree(content), count);
+        }
+        long treeTime = System.nanoTime() - start;
+        start = System.nanoTime();
+        for (int i = 0; i < RUNS; i++) {
+            check(populateFromReader(content), count);
+        }
+        long readerTime = System.nanoTime() - start;
+        System.out.println(count + " widgets, " + RUNS + " runs: tree "
+                + (treeTime / 1000000f) + " ms, reader " + (readerTime / 1000000f) + " ms");
+    }
+
+    private static void check(State state, int count) {
+        assertEquals(0.5f, state.constraints("w0").getAlpha(), 0f);
+        assertEquals(0.5f, state.constraints("w" + (count - 1)).getAlpha(), 0f);
+    }
+
+    private static State populateFromTree(String content) throws CLParsingException {
+        State state = ConstraintSetReaderTest.newState();
+        ConstraintSetParser.populateState(CLParser.parse(content), state,
+                new ConstraintSetParser.LayoutVariables());
+        return state;
+    }
+
+    private static State populateFromReader(String content) throws CLParsingException {
+        State state = ConstraintSetReaderTest.newState();
+        ConstraintSetParser.populateState(new CLReader(content), state,
+                new ConstraintSetParser.LayoutVariables());
+        return state;
+    }
+}
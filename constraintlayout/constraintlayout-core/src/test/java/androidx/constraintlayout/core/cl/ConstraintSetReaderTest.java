@@ -0,0 +1,150 @@
+/*
+ * Copyright 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package androidx.constraintlayout.core.cl;
+
+import static org.junit.Assert.assertEquals;
+
+import androidx.constraintlayout.core.parser.CLParser;
+import androidx.constraintlayout.core.parser.CLParsingException;
+import androidx.constraintlayout.core.parser.CLReader;
+import androidx.constraintlayout.core.state.ConstraintReference;
+import androidx.constraintlayout.core.state.ConstraintSetParser;
+import androidx.constraintlayout.core.state.State;
+import androidx.constraintlayout.core.widgets.ConstraintWidget;
+import androidx.constraintlayout.core.widgets.ConstraintWidgetContainer;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+
+/**
+ * Checks that populating a State from a CLReader matches populating it from a parsed tree
+ */
+public class ConstraintSetReaderTest {
+
+    static String createConstraintSet(int count) {
+        StringBuilder json = new StringBuilder();
+        json.append("{\n");
+        json.append("  Variables: { margin: 8, small: 4 },\n");
+        json.append("  Helpers: [\n");
+        json.append("    ['hChain', ['w0', 'w1', 'w2'], { style: 'packed' }],\n");
+        json.append("  ],\n");
+        json.append("  guide: { type: 'vGuideline', percent: 0.5 },\n");
+        json.append("  // the widgets\n");
+        for (int i = 0; i < count; i++) {
+            json.append("  w").append(i).append(": {\n");
+            json.append("    width: ").append(20 + i % 7 * 10).append(",\n");
+            json.append("    height: ").append(10 + i % 3 * 5).append(",\n");
+            if (i == 0) {
+                json.append("    top: ['parent', 'top', 'margin'],\n");
+            } else {
+                json.append("    top: ['w").append(i - 1).append("', 'bottom', 'small'],\n");
+            }
+            if (i > 2) {
+                if (i % 2 == 0) {
+                    json.append("    start: ['parent', 'start', 16],\n");
+                    json.append("    end: ['guide', 'start'],\n");
+                } else {
+                    json.append("    start: ['guide', 'end'],\n");
+                    json.append("    end: ['parent', 'end', 'margin'],\n");
+                }
+                json.append("    hBias: ").append((i % 10) / 10f).append(",\n");
+            }
+            json.append("    alpha: 0.5,\n");
+            json.append("    custom: { background: '#FF0000', size: 12.5 },\n");
+            json.append("  },\n");
+        }
+        json.append("}\n");
+        return json.toString();
+    }
+
+    private static ConstraintWidgetContainer apply(State state, int count,
+            ArrayList<ConstraintWidget> widgets) {
+        ConstraintWidgetContainer root = new ConstraintWidgetContainer(0, 0, 1000, 20000);
+        for (int i = 0; i < count; i++) {
+            ConstraintWidget widget = new ConstraintWidget();
+            widget.stringId = "w" + i;
+            widget.setDebugName(widget.stringId);
+            root.add(widget);
+            widgets.add(widget);
+        }
+        state.apply(root);
+        root.layout();
+        return root;
+    }
+
+    static State newState() {
+        State state = new State();
+        state.setDpToPixel(dp -> dp);
+        return state;
+    }
+
+    @Test
+    public void testReaderMatchesTree() throws CLParsingException {
+        int count = 30;
+        String content = createConstraintSet(count);
+
+        State treeState = newState();
+        ConstraintSetParser.LayoutVariables treeVars = new ConstraintSetParser.LayoutVariables();
+        ConstraintSetParser.populateState(CLParser.parse(content), treeState, treeVars);
+
+        State readerState = newState();
+        ConstraintSetParser.LayoutVariables readerVars =
+                new ConstraintSetParser.LayoutVariables();
+        ConstraintSetParser.populateState(new CLReader(content), readerState, readerVars);
+
+        for (int i = 0; i < count; i++) {
+            ConstraintReference a = treeState.constraints("w" + i);
+            ConstraintReference b = readerState.constraints("w" + i);
+            assertEquals(a.getAlpha(), b.getAlpha(), 0f);
+        }
+
+        ArrayList<ConstraintWidget> treeWidgets = new ArrayList<>();
+        ArrayList<ConstraintWidget> readerWidgets = new ArrayList<>();
+        apply(treeState, count, treeWidgets);
+        apply(readerState, count, readerWidgets);
+        for (int i = 0; i < count; i++) {
+            ConstraintWidget a = treeWidgets.get(i);
+            ConstraintWidget b = readerWidgets.get(i);
+            assertEquals(a.getDebugName(), a.getX(), b.getX());
+            assertEquals(a.getDebugName(), a.getY(), b.getY());
+            assertEquals(a.getDebugName(), a.getWidth(), b.getWidth());
+            assertEquals(a.getDebugName(), a.getHeight(), b.getHeight());
+        }
+    }
+
+    @Test
+    public void testParseJSONMatchesTree() throws CLParsingException {
+        int count = 5;
+        String content = createConstraintSet(count);
+        State treeState = newState();
+        ConstraintSetParser.populateState(CLParser.parse(content), treeState,
+                new ConstraintSetParser.LayoutVariables());
+        State state = newState();
+        ConstraintSetParser.parseJSON(content, state, new ConstraintSetParser.LayoutVariables());
+
+        ArrayList<ConstraintWidget> treeWidgets = new ArrayList<>();
+        ArrayList<ConstraintWidget> widgets = new ArrayList<>();
+        apply(treeState, count, treeWidgets);
+        apply(state, count, widgets);
+        for (int i = 0; i < count; i++) {
+            ConstraintWidget a = treeWidgets.get(i);
+            ConstraintWidget b = widgets.get(i);
+            assertEquals(a.getDebugName(), a.getY(), b.getY());
+            assertEquals(a.getDebugName(), a.getHeight(), b.getHeight());
+        }
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package androidx.constraintlayout.core.parser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class CLReaderBenchmarkTest {
+
+    String mSimpleFromWiki2 =
+            "{\n"
+                    + "  firstName: 'John',\n"
+                    + "  lastName: 'Smith',\n"
+                    + "  isAlive: true,\n"
+                    + "  age: 27,\n"
+                    + "  address: {\n"
+                    + "    streetAddress: '21 2nd Street',\n"
+                    + "    city: 'New York',\n"
+                    + "    state: 'NY',\n"
+                    + "    postalCode: '10021-3100'\n"
+                    + "  },\n"
+                    + "  phoneNumbers: [\n"
+                    + "    {\n"
+                    + "      type: 'home',\n"
+                    + "      number: '212 555-1234'\n"
+                    + "    },\n"
+                    + "    {\n"
+                    + "      type: 'office',\n"
+                    + "      number: '646 555-4567'\n"
+                    + "    }\n"
+                    + "  ],\n"
+                    + "  children: [],\n"
+                    + "  spouse: null\n"
+                    + "}";
+
+    @Test
+    public void readAndCheck1000x() {
+        try {
+            for (int i = 0; i < 1000; i++) {
+                readAndCheck();
+            }
+        } catch (CLParsingException e) {
+            System.err.println("Exception " + e.reason());
+            e.printStackTrace();
+            assertTrue(false);
+        }
+    }
+
+    @Test
+    public void readVsParse1000x() {
+        try {
+            // warm up both paths
+            for (int i = 0; i < 1000; i++) {
+                readOnce();
+                parseOnce();
+            }
+            long start = System.nanoTime();
+            for (int i = 0; i < 1000; i++) {
+                parseOnce();
+            }
+            long parseTime = System.nanoTime() - start;
+            start = System.nanoTime();
+            for (int i = 0; i < 1000; i++) {
+                readOnce();
+            }
+            long readTime = System.nanoTime() - start;
+            System.out.println("1000x parse " + (parseTime / 1000000f) + " ms, read "
+                    + (readTime / 1000000f) + " ms");
+        } catch (CLParsingException e) {
+            System.err.println("Exception " + e.reason());
+            e.printStackTrace();
+            assertTrue(false);
+        }
+    }
+
+    private void parseOnce() throws CLParsingException {
+        CLObject parsedContent = CLParser.parse(mSimpleFromWiki2);
+        assertEquals("Smith", parsedContent.getString("lastName"));
+    }
+
+    private void readOnce() throws CLParsingException {
+        CLReader reader = new CLReader(mSimpleFromWiki2);
+        assertEquals(CLReader.BEGIN_OBJECT, reader.next());
+        String lastName = null;
+        while (reader.next() == CLReader.KEY) {
+            boolean found = reader.contentEquals("lastName");
+            reader.next();
+            if (found) {
+                lastName = reader.getString();
+            }
+            reader.skipValue();
+        }
+        assertEquals("Smith", lastName);
+    }
+
+    private void readAndCheck() throws CLParsingException {
+        CLReader reader = new CLReader(mSimpleFromWiki2);
+        assertEquals(CLReader.BEGIN_OBJECT, reader.next());
+        int keys = 0;
+        while (reader.next() == CLReader.KEY) {
+            String key = reader.getString();
+            reader.next();
+            keys++;
+            switch (key) {
+                case "firstName":
+                    assertEquals("John", reader.getString());
+                    break;
+                case "isAlive":
+                    assertEquals(true, reader.getBoolean());
+                    break;
+                case "age":
+                    assertEquals(27, reader.getInt());
+                    break;
+                case "address": {
+                    CLObject o = (CLObject) reader.readElement();
+                    assertEquals("New York", o.getString("city"));
+                    assertEquals("10021-3100", o.getString("postalCode"));
+                    break;
+                }
+                case "phoneNumbers": {
+                    CLArray phoneNumbers = (CLArray) reader.readElement();
+                    assertEquals("646 555-4567",
+                            phoneNumbers.getObject(1).getString("number"));
+                    break;
+                }
+                case "spouse":
+                    assertTrue(reader.isNull());
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        assertEquals(8, keys);
+    }
+}
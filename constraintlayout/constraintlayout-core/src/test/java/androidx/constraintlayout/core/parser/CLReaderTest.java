@@ -0,0 +1,173 @@
+/*
+ * Copyright 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package androidx.constraintlayout.core.parser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+public class CLReaderTest {
+
+    String mSimpleFromWiki2 =
+            "{\n"
+                    + "  firstName: 'John',\n"
+                    + "  lastName: \"Smith\",\n"
+                    + "  isAlive: true,\n"
+                    + "  age: 27,\n"
+                    + "  // comment\n"
+                    + "  address: {\n"
+                    + "    streetAddress: '21 2nd Street',\n"
+                    + "    city: 'New York',\n"
+                    + "    state: 'NY',\n"
+                    + "    postalCode: '10021-3100',\n"
+                    + "  },\n"
+                    + "  'phoneNumbers': [\n"
+                    + "    {\n"
+                    + "      type: 'home',\n"
+                    + "      number: '212 555-1234'\n"
+                    + "    },\n"
+                    + "    {\n"
+                    + "      type: 'office',\n"
+                    + "      number: '646 555-4567'\n"
+                    + "    }\n"
+                    + "  ],\n"
+                    + "  children: [],\n"
+                    + "  scores: [1, -2.5, .75, 1e3],\n"
+                    + "  spouse: null\n"
+                    + "}";
+
+    @Test
+    public void testEvents() throws CLParsingException {
+        CLReader reader = new CLReader("// header\n{ a: 1, 'b': [true, 'x'], c: { d: null } }");
+        assertEquals(CLReader.BEGIN_OBJECT, reader.next());
+        assertEquals(2, reader.getLine());
+        assertEquals(CLReader.KEY, reader.next());
+        assertTrue(reader.contentEquals("a"));
+        assertEquals(CLReader.NUMBER, reader.next());
+        assertEquals(1, reader.getInt());
+        assertEquals(CLReader.KEY, reader.next());
+        assertEquals("b", reader.getString());
+        assertEquals(CLReader.BEGIN_ARRAY, reader.next());
+        assertEquals(CLReader.TOKEN, reader.next());
+        assertTrue(reader.getBoolean());
+        assertEquals(CLReader.STRING, reader.next());
+        assertEquals("x", reader.getString());
+        assertEquals(CLReader.END_ARRAY, reader.next());
+        assertEquals(CLReader.KEY, reader.next());
+        assertEquals(CLReader.BEGIN_OBJECT, reader.next());
+        assertEquals(CLReader.KEY, reader.next());
+        assertEquals(CLReader.TOKEN, reader.next());
+        assertTrue(reader.isNull());
+        assertEquals(CLReader.END_OBJECT, reader.next());
+        assertEquals(CLReader.END_OBJECT, reader.next());
+        assertEquals(CLReader.END_DOCUMENT, reader.next());
+        assertEquals(CLReader.END_DOCUMENT, reader.next());
+    }
+
+    @Test
+    public void testReadElementMatchesParser() throws CLParsingException {
+        String[] contents = {
+                mSimpleFromWiki2,
+                "{ a: 1, b: 'two', c: [3, [4, 5], { d: false }], }",
+                "{ \"key\": \"value\", other: ['a', \"b\"] }",
+                "start: {\n  id1: {\n    width: 40, height: 40,\n"
+                        + "    start: ['parent', 'start', 16]\n  }\n}",
+        };
+        for (String content : contents) {
+            CLObject expected = CLParser.parse(content);
+            CLReader reader = new CLReader(content);
+            reader.next();
+            CLObject actual = (CLObject) reader.readElement();
+            assertEquals(expected.toJSON(), actual.toJSON());
+            assertEquals(expected.names(), actual.names());
+            assertEquals(CLReader.END_DOCUMENT, reader.next());
+        }
+    }
+
+    @Test
+    public void testIncompleteContent() throws CLParsingException {
+        CLReader reader = new CLReader("{ a: 1, b: { c: [1, 2");
+        reader.next();
+        assertEquals("{ a: 1, b: { c: [1, 2] } }", ((CLObject) reader.readElement()).toJSON());
+        assertEquals(CLReader.END_DOCUMENT, reader.next());
+    }
+
+    @Test
+    public void testNumbers() throws CLParsingException {
+        String[] numbers = {"0", "1", "-1", "+3", "12.5", "-0.25", ".5", "5.", "16.000001",
+                "123456789", "0.1", "1e3", "-2.5E-2", "3.4028235E38"};
+        StringBuilder content = new StringBuilder("[");
+        for (String number : numbers) {
+            content.append(number).append(", ");
+        }
+        content.append("]");
+        CLReader reader = new CLReader("{ a: " + content + " }");
+        reader.next();
+        reader.next();
+        assertEquals(CLReader.BEGIN_ARRAY, reader.next());
+        for (String number : numbers) {
+            assertEquals(CLReader.NUMBER, reader.next());
+            assertEquals(number, Float.parseFloat(number), reader.getFloat(), 0f);
+        }
+        assertEquals(CLReader.END_ARRAY, reader.next());
+    }
+
+    @Test
+    public void testSkipAndReset() throws CLParsingException {
+        CLReader reader = new CLReader(mSimpleFromWiki2);
+        reader.next();
+        reader.mark();
+        String last = null;
+        while (reader.next() == CLReader.KEY) {
+            last = reader.getString();
+            reader.next();
+            reader.skipValue();
+        }
+        assertEquals("spouse", last);
+        assertEquals(CLReader.END_OBJECT, reader.getEvent());
+        reader.reset();
+        assertEquals(CLReader.BEGIN_OBJECT, reader.getEvent());
+        assertEquals(CLReader.KEY, reader.next());
+        assertEquals("firstName", reader.getString());
+        assertEquals(1, reader.getDepth());
+    }
+
+    @Test
+    public void testIncorrectToken() {
+        try {
+            CLReader reader = new CLReader("{ a: [trve] }");
+            while (reader.next() != CLReader.END_DOCUMENT) {
+                assertFalse(reader.getEvent() == CLReader.TOKEN);
+            }
+            fail("token not rejected");
+        } catch (CLParsingException e) {
+            assertTrue(e.reason().contains("trve"));
+        }
+    }
+
+    @Test
+    public void testNoRootObject() {
+        try {
+            new CLReader("[1, 2]").next();
+            fail("missing root object not rejected");
+        } catch (CLParsingException e) {
+            // expected
+        }
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.emoji2.benchmark.text
+
+import android.text.DynamicLayout
+import android.text.Editable
+import android.text.Layout
+import android.text.TextPaint
+import androidx.benchmark.junit4.BenchmarkRule
+import androidx.benchmark.junit4.measureRepeated
+import androidx.emoji2.text.EmojiCompat
+import androidx.emoji2.text.SpannableBuilder
+import androidx.test.filters.LargeTest
+import androidx.test.filters.SdkSuppress
+import org.junit.Before
+import org.junit.Rule
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.junit.runners.Parameterized
+
+/**
+ * Measures a single keystroke in a long draft: inserting the text, adding EmojiSpans around it
+ * and reflowing the layout, the same work an EditText does for every typed character.
+ */
+@RunWith(Parameterized::class)
+@LargeTest
+@SdkSuppress(minSdkVersion = 23)
+class EmojiEditBenchmark(private val size: Int) {
+
+    @get:Rule
+    val benchmarkRule = BenchmarkRule()
+
+    companion object {
+        @Parameterized.Parameters(name = "size={0}")
+        @JvmStatic
+        fun parameters() = listOf(100, 1_000, 10_000)
+    }
+
+    private lateinit var draft: Editable
+
+    @Suppress("DEPRECATION")
+    @Before
+    fun setUp() {
+        initializeEmojiCompatWithBundledForTest()
+        val watcherClass = Class.forName("android.text.DynamicLayout\$ChangeWatcher")
+        draft = SpannableBuilder.create(watcherClass, createDraft(size))
+        EmojiCompat.get().process(draft)
+        // DynamicLayout registers its ChangeWatcher on the text, like an EditText does
+        DynamicLayout(draft, TextPaint(), 1000, Layout.Alignment.ALIGN_NORMAL, 1f, 0f, false)
+    }
+
+    @Test
+    fun typeLatin() {
+        measureKeystroke("a")
+    }
+
+    @Test
+    fun typeEmoji() {
+        measureKeystroke(POLARBEAR)
+    }
+
+    private fun measureKeystroke(keystroke: String) {
+        val position = draft.length / 2
+        val emojiCompat = EmojiCompat.get()
+        benchmarkRule.measureRepeated {
+            draft.insert(position, keystroke)
+            emojiCompat.process(draft, position, position + keystroke.length)
+            runWithTimingDisabled {
+                draft.delete(position, position + keystroke.length)
+            }
+        }
+    }
+
+    /**
+     * Chat style draft made of short paragraphs with some emojis in them.
+     */
+    private fun createDraft(size: Int): String {
+        val emojis = emojisList(20)
+        val builder = StringBuilder()
+        var index = 0
+        while (builder.length < size) {
+            builder.append("lorem ipsum dolor sit amet ")
+            builder.append(emojis[index % emojis.size])
+            if (++index % 4 == 0) {
+                builder.append('\n')
+            }
+        }
+        return builder.substring(0, size)
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.emoji2.benchmark.text
+
+import android.content.Context
+import android.graphics.Typeface
+import android.util.Log
+import androidx.benchmark.junit4.BenchmarkRule
+import androidx.benchmark.junit4.measureRepeated
+import androidx.emoji2.text.MetadataRepo
+import androidx.test.core.app.ApplicationProvider
+import androidx.test.ext.junit.runners.AndroidJUnit4
+import androidx.test.filters.LargeTest
+import androidx.test.filters.SdkSuppress
+import java.nio.ByteBuffer
+import org.junit.Before
+import org.junit.Rule
+import org.junit.Test
+import org.junit.runner.RunWith
+
+/**
+ * Measures building the emoji index from the bundled font, the work done by every process that
+ * initializes EmojiCompat.
+ */
+@RunWith(AndroidJUnit4::class)
+@LargeTest
+@SdkSuppress(minSdkVersion = 19)
+class MetadataRepoBenchmark {
+
+    @get:Rule
+    val benchmarkRule = BenchmarkRule()
+
+    private lateinit var fontBuffer: ByteBuffer
+
+    @Before
+    fun setUp() {
+        val context = ApplicationProvider.getApplicationContext<Context>()
+        val bytes = context.assets.open(FONT_NAME).use { it.readBytes() }
+        // A direct buffer behaves like the memory mapped font used by downloadable fonts
+        fontBuffer = ByteBuffer.allocateDirect(bytes.size).put(bytes)
+        fontBuffer.rewind()
+    }
+
+    @Test
+    fun createFromByteBuffer() {
+        benchmarkRule.measureRepeated {
+            MetadataRepo.create(Typeface.DEFAULT, fontBuffer.duplicate())
+        }
+    }
+
+    /**
+     * Logs the heap retained by a single MetadataRepo, which is kept for the lifetime of the
+     * process.
+     */
+    @Test
+    fun retainedHeap() {
+        val repos = arrayOfNulls<MetadataRepo>(RETAINED_REPO_COUNT)
+        val before = usedHeap()
+        for (i in repos.indices) {
+            repos[i] = MetadataRepo.create(Typeface.DEFAULT, fontBuffer.duplicate())
+        }
+        val retained = (usedHeap() - before) / repos.size
+        Log.i(TAG, "MetadataRepo retains about $retained bytes for ${repos[0]!!.metadataList
+            .listLength()} emojis")
+    }
+
+    private fun usedHeap(): Long {
+        val runtime = Runtime.getRuntime()
+        repeat(3) {
+            runtime.gc()
+            System.runFinalization()
+        }
+        return runtime.totalMemory() - runtime.freeMemory()
+    }
+
+    companion object {
+        private const val TAG = "MetadataRepoBenchmark"
+        private const val FONT_NAME = "NotoColorEmojiCompat.ttf"
+        private const val RETAINED_REPO_COUNT = 10
+    }
+}
@@ -425,6 +425,26 @@ public class EmojiCompatTest {
         assertThat(editable, EmojiMatcher.hasEmojiAt(Emoji.EMOJI_SINGLE_CODEPOINT, start, end));
     }
 
+    @Test
+    @SdkSuppress(minSdkVersion = 19)
+    public void testProcess_withAppend_extendsPreviousEmoji() {
+        final Editable editable = new SpannableStringBuilder(
+                new TestString(Emoji.CHAR_MAN).withPrefix().withSuffix().toString());
+        final int start = editable.toString().indexOf(new String(Character.toChars(
+                Emoji.CHAR_MAN)));
+        final int end = start + Character.charCount(Emoji.CHAR_MAN);
+        EmojiCompat.get().process(editable);
+        assertThat(editable, EmojiMatcher.hasEmojiCount(1));
+
+        // only the inserted skin tone modifier is processed, the span before it is replaced
+        editable.insert(end, new String(Character.toChars(Emoji.CHAR_FITZPATRICK)));
+        EmojiCompat.get().process(editable, end,
+                end + Character.charCount(Emoji.CHAR_FITZPATRICK));
+        assertThat(editable, EmojiMatcher.hasEmojiCount(1));
+        assertThat(editable, EmojiMatcher.hasEmojiAt(Emoji.EMOJI_SKIN_MODIFIER, start,
+                end + Character.charCount(Emoji.CHAR_FITZPATRICK)));
+    }
+
     @Test
     public void testProcess_doesNotCreateSpannable_ifNoEmoji() {
         CharSequence processed = EmojiCompat.get().process("abc");
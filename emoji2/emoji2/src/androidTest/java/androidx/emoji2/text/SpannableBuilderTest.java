@@ -27,6 +27,7 @@ import static org.junit.Assert.assertSame;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyObject;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.same;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
@@ -267,4 +268,33 @@ public class SpannableBuilderTest {
             throw new RuntimeException("Inserting text into DynamicLayout should not crash", e);
         }
     }
+
+    @Test
+    public void testEndBatchEdit_reportsOnlyChangedEmojiSpanRange() {
+        final SpannableBuilder spannable = new SpannableBuilder(mClass, "0123456789");
+        spannable.setSpan(mWatcher, 0, spannable.length(), SPAN_INCLUSIVE_INCLUSIVE);
+        final EmojiSpan existing = mock(EmojiSpan.class);
+        spannable.setSpan(existing, 7, 9, SPAN_EXCLUSIVE_EXCLUSIVE);
+        reset(mWatcher);
+
+        spannable.beginBatchEdit();
+        spannable.removeSpan(existing);
+        spannable.setSpan(mock(EmojiSpan.class), 5, 6, SPAN_EXCLUSIVE_EXCLUSIVE);
+        spannable.endBatchEdit();
+
+        verify(mWatcher, times(1)).onTextChanged(same(spannable), eq(5), eq(4), eq(4));
+    }
+
+    @Test
+    public void testEndBatchEdit_withoutEmojiSpanChanges_doesNotNotify() {
+        final SpannableBuilder spannable = new SpannableBuilder(mClass, "0123456789");
+        spannable.setSpan(mWatcher, 0, spannable.length(), SPAN_INCLUSIVE_INCLUSIVE);
+        reset(mWatcher);
+
+        spannable.beginBatchEdit();
+        spannable.endBatchEdit();
+
+        verify(mWatcher, never()).onTextChanged(any(CharSequence.class), anyInt(), anyInt(),
+                anyInt());
+    }
 }
@@ -96,6 +96,16 @@ final class EmojiProcessor {
      */
     private static final int MAX_LOOK_AROUND_CHARACTER = 16;
 
+    /**
+     * Zero width joiner, combines the emoji before and after it into a single emoji.
+     */
+    private static final int ZERO_WIDTH_JOINER = 0x200D;
+
+    /**
+     * Combining enclosing keycap, turns the preceding digit, # or * into a keycap emoji.
+     */
+    private static final int COMBINING_ENCLOSING_KEYCAP = 0x20E3;
+
     /**
      * Factory used to create EmojiSpans.
      */
@@ -294,6 +304,13 @@ final class EmojiProcessor {
         }
 
         try {
+            // An edit can complete or break an emoji sequence that started before start or
+            // continues after end, i.e. typing a skin tone modifier right after an emoji. Include
+            // the rest of such a sequence, but nothing more, so that processing an edit costs
+            // the same regardless of the length of the text around it.
+            start = getSequenceStart(charSequence, start);
+            end = getSequenceEnd(charSequence, end);
+
             UnprecomputeTextOnModificationSpannable spannable = null;
             // if it is a spannable already, use the same instance to add/remove EmojiSpans.
             // otherwise wait until the first EmojiSpan found in order to change the result
@@ -416,6 +433,69 @@ final class EmojiProcessor {
         return emojiProcessCallback.getResult();
     }
 
+    /**
+     * Walks backwards from {@code offset} over the code points that may belong to the same emoji
+     * sequence as the code point at {@code offset}.
+     *
+     * @return start of the emoji sequence that includes {@code offset}, or {@code offset} if the
+     * code point at {@code offset} does not continue a sequence
+     */
+    private static int getSequenceStart(@NonNull final CharSequence charSequence,
+            final int offset) {
+        final int limit = Math.max(0, offset - MAX_LOOK_AROUND_CHARACTER);
+        int index = offset;
+        while (index > limit && index < charSequence.length()) {
+            final int codePoint = Character.codePointBefore(charSequence, index);
+            if (!isSequenceJoined(codePoint, Character.codePointAt(charSequence, index))) {
+                break;
+            }
+            index -= Character.charCount(codePoint);
+        }
+        return index;
+    }
+
+    /**
+     * Walks forward from {@code offset} over the code points that may belong to the same emoji
+     * sequence as the code point before {@code offset}.
+     *
+     * @return end of the emoji sequence that includes {@code offset - 1}, or {@code offset} if
+     * the code point at {@code offset} does not continue a sequence
+     */
+    private static int getSequenceEnd(@NonNull final CharSequence charSequence,
+            final int offset) {
+        final int limit = Math.min(charSequence.length(), offset + MAX_LOOK_AROUND_CHARACTER);
+        int index = offset;
+        while (index > 0 && index < limit) {
+            final int codePoint = Character.codePointAt(charSequence, index);
+            if (!isSequenceJoined(Character.codePointBefore(charSequence, index), codePoint)) {
+                break;
+            }
+            index += Character.charCount(codePoint);
+        }
+        return index;
+    }
+
+    /**
+     * @return {@code true} if {@code codePoint} followed by {@code nextCodePoint} may be part of
+     * a single emoji sequence, so that editing the text between them can change the emoji
+     */
+    private static boolean isSequenceJoined(final int codePoint, final int nextCodePoint) {
+        return codePoint == ZERO_WIDTH_JOINER
+                || nextCodePoint == ZERO_WIDTH_JOINER
+                // emoji and text style variation selectors
+                || nextCodePoint == 0xFE0F || nextCodePoint == 0xFE0E
+                || nextCodePoint == COMBINING_ENCLOSING_KEYCAP
+                // skin tone modifiers
+                || (nextCodePoint >= 0x1F3FB && nextCodePoint <= 0x1F3FF)
+                // tag characters used by subdivision flags
+                || (nextCodePoint >= 0xE0020 && nextCodePoint <= 0xE007F)
+                || (isRegionalIndicator(codePoint) && isRegionalIndicator(nextCodePoint));
+    }
+
+    private static boolean isRegionalIndicator(final int codePoint) {
+        return codePoint >= 0x1F1E6 && codePoint <= 0x1F1FF;
+    }
+
     /**
      * Handles onKeyDown commands from a {@link KeyListener} and if {@code keyCode} is one of
      * {@link KeyEvent#KEYCODE_DEL} or {@link KeyEvent#KEYCODE_FORWARD_DEL} it tries to delete an
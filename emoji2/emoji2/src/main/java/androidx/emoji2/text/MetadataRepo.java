@@ -38,10 +38,6 @@ import java.nio.ByteBuffer;
 @AnyThread
 @RequiresApi(19)
 public final class MetadataRepo {
-    /**
-     * The default children size of the root node.
-     */
-    private static final int DEFAULT_ROOT_SIZE = 1024;
     private static final String S_TRACE_CREATE_REPO = "EmojiCompat.MetadataRepo.create";
 
     /**
@@ -56,6 +52,17 @@ public final class MetadataRepo {
      */
     private final @NonNull char[] mEmojiCharArray;
 
+    /**
+     * Trie from codepoints to emojis, built from the metadata in flat arrays.
+     */
+    @SuppressWarnings("WeakerAccess") /* synthetic access */
+    final @NonNull MetadataTrie mTrie;
+
+    /**
+     * Nodes of the trie that have been looked up, created on first access.
+     */
+    private final @NonNull Node[] mNodes;
+
     /**
      * Empty root node of the trie.
      */
@@ -76,9 +83,10 @@ public final class MetadataRepo {
             @NonNull final MetadataList metadataList) {
         mTypeface = typeface;
         mMetadataList = metadataList;
-        mRootNode = new Node(DEFAULT_ROOT_SIZE);
         mEmojiCharArray = new char[mMetadataList.listLength() * 2];
-        constructIndex(mMetadataList);
+        mTrie = MetadataTrie.create(mMetadataList, mEmojiCharArray);
+        mNodes = new Node[mTrie.getNodeCount()];
+        mRootNode = getNode(0);
     }
 
     /**
@@ -155,18 +163,18 @@ public final class MetadataRepo {
     }
 
     /**
-     * Read emoji metadata list and construct the trie.
+     * Returns the node for an index of the trie, creating it the first time it is needed.
      */
-    private void constructIndex(final MetadataList metadataList) {
-        int length = metadataList.listLength();
-        for (int i = 0; i < length; i++) {
-            final TypefaceEmojiRasterizer metadata = new TypefaceEmojiRasterizer(this, i);
-            //since all emojis are mapped to a single codepoint in Private Use Area A they are 2
-            //chars wide
-            //noinspection ResultOfMethodCallIgnored
-            Character.toChars(metadata.getId(), mEmojiCharArray, i * 2);
-            put(metadata);
+    @SuppressWarnings("WeakerAccess") /* synthetic access */
+    @NonNull
+    Node getNode(final int index) {
+        Node node = mNodes[index];
+        if (node == null) {
+            // Racing threads may create equal nodes, either one can be used
+            node = new Node(this, index);
+            mNodes[index] = node;
         }
+        return node;
     }
 
     /**
@@ -231,37 +239,61 @@ public final class MetadataRepo {
     /**
      * Trie node that holds mapping from emoji codepoint(s) to TypefaceEmojiRasterizer.
      *
-     * A single codepoint emoji is represented by a child of the root node.
+     * A single codepoint emoji is represented by a child of the root node. Nodes are views of
+     * the {@link MetadataTrie} and are only created when they are looked up.
      *
      * @hide
      */
     @RestrictTo(RestrictTo.Scope.LIBRARY)
     static class Node {
-        private final SparseArray<Node> mChildren;
-        private TypefaceEmojiRasterizer mData;
-
-        private Node() {
-            this(1);
-        }
+        private final MetadataRepo mRepo;
+        /**
+         * Index of this node in the trie, or {@link MetadataTrie#NO_NODE} for nodes which were
+         * only added with {@link #put}.
+         */
+        private final int mIndex;
+        /**
+         * Children added with {@link #put}, in addition to the ones in the trie.
+         */
+        private SparseArray<Node> mChildren;
+        private volatile TypefaceEmojiRasterizer mData;
 
         @SuppressWarnings("WeakerAccess") /* synthetic access */
-        Node(final int defaultChildrenSize) {
-            mChildren = new SparseArray<>(defaultChildrenSize);
+        Node(@NonNull final MetadataRepo repo, final int index) {
+            mRepo = repo;
+            mIndex = index;
         }
 
         Node get(final int key) {
+            if (mIndex != MetadataTrie.NO_NODE) {
+                final int child = mRepo.mTrie.getChild(mIndex, key);
+                if (child != MetadataTrie.NO_NODE) {
+                    return mRepo.getNode(child);
+                }
+            }
             return mChildren == null ? null : mChildren.get(key);
         }
 
         final TypefaceEmojiRasterizer getData() {
-            return mData;
+            TypefaceEmojiRasterizer data = mData;
+            if (data == null && mIndex != MetadataTrie.NO_NODE) {
+                final int metadataIndex = mRepo.mTrie.getData(mIndex);
+                if (metadataIndex != MetadataTrie.NO_DATA) {
+                    data = new TypefaceEmojiRasterizer(mRepo, metadataIndex);
+                    mData = data;
+                }
+            }
+            return data;
         }
 
         @SuppressWarnings("WeakerAccess") /* synthetic access */
         void put(@NonNull final TypefaceEmojiRasterizer data, final int start, final int end) {
             Node node = get(data.getCodepointAt(start));
             if (node == null) {
-                node = new Node();
+                node = new Node(mRepo, MetadataTrie.NO_NODE);
+                if (mChildren == null) {
+                    mChildren = new SparseArray<>(1);
+                }
                 mChildren.put(data.getCodepointAt(start), node);
             }
 
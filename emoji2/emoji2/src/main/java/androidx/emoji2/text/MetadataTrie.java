@@ -0,0 +1,213 @@
+/*
+ * Copyright 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.emoji2.text;
+
+import androidx.annotation.NonNull;
+import androidx.emoji2.text.flatbuffer.MetadataItem;
+import androidx.emoji2.text.flatbuffer.MetadataList;
+
+import java.util.Arrays;
+
+/**
+ * Trie from emoji codepoint sequences to their index in the {@link MetadataList}, stored in flat
+ * int arrays instead of a graph of objects.
+ *
+ * Nodes are numbered in breadth first order with the root being 0, so the children of a node are
+ * consecutive nodes. The children of node {@code n} are found at the positions
+ * {@code [mChildStart[n], mChildStart[n + 1])} of {@link #mChildKeys}, sorted by codepoint, and
+ * the child at position {@code p} is node {@code p + 1}.
+ */
+final class MetadataTrie {
+    static final int NO_NODE = -1;
+    static final int NO_DATA = -1;
+
+    private final int[] mChildStart;
+    private final int[] mChildKeys;
+    private final int[] mNodeData;
+
+    private MetadataTrie(int[] childStart, int[] childKeys, int[] nodeData) {
+        mChildStart = childStart;
+        mChildKeys = childKeys;
+        mNodeData = nodeData;
+    }
+
+    /**
+     * @return the number of nodes, including the root
+     */
+    int getNodeCount() {
+        return mNodeData.length;
+    }
+
+    /**
+     * @return the child of {@code node} for {@code codepoint}, or {@link #NO_NODE}
+     */
+    int getChild(int node, int codepoint) {
+        int lo = mChildStart[node];
+        int hi = mChildStart[node + 1] - 1;
+        while (lo <= hi) {
+            final int mid = (lo + hi) >>> 1;
+            final int key = mChildKeys[mid];
+            if (key < codepoint) {
+                lo = mid + 1;
+            } else if (key > codepoint) {
+                hi = mid - 1;
+            } else {
+                return mid + 1;
+            }
+        }
+        return NO_NODE;
+    }
+
+    /**
+     * @return the index in the MetadataList of the emoji ending at {@code node}, or
+     * {@link #NO_DATA}
+     */
+    int getData(int node) {
+        return mNodeData[node];
+    }
+
+    /**
+     * Reads the codepoints of all emojis in {@code metadataList} and builds the trie. While the
+     * metadata is read anyway the id of every emoji is written to {@code emojiCharArray}.
+     *
+     * If several emojis have the same codepoints, the last one in the list wins.
+     */
+    @NonNull
+    static MetadataTrie create(@NonNull MetadataList metadataList,
+            @NonNull char[] emojiCharArray) {
+        final int count = metadataList.listLength();
+        final MetadataItem item = new MetadataItem();
+
+        // Codepoints of emoji i are codepoints[offsets[i]..offsets[i + 1])
+        final int[] offsets = new int[count + 1];
+        int[] codepoints = new int[count * 2];
+        int codepointCount = 0;
+        for (int i = 0; i < count; i++) {
+            metadataList.list(item, i);
+            //since all emojis are mapped to a single codepoint in Private Use Area A they are 2
+            //chars wide
+            //noinspection ResultOfMethodCallIgnored
+            Character.toChars(item.id(), emojiCharArray, i * 2);
+            final int length = item.codepointsLength();
+            if (length <= 0) {
+                throw new IllegalArgumentException("invalid metadata codepoint length");
+            }
+            if (codepointCount + length > codepoints.length) {
+                codepoints = Arrays.copyOf(codepoints,
+                        Math.max(codepoints.length * 2, codepointCount + length));
+            }
+            for (int j = 0; j < length; j++) {
+                codepoints[codepointCount++] = item.codepoints(j);
+            }
+            offsets[i + 1] = codepointCount;
+        }
+
+        final int[] order = sortBySequence(count, offsets, codepoints);
+
+        // Every codepoint adds at most one node. Nodes are processed in the order they are
+        // created, each one covering the range of sorted emojis [lo, hi) sharing its prefix.
+        final int maxNodes = codepointCount + 1;
+        final int[] childStart = new int[maxNodes + 1];
+        final int[] childKeys = new int[maxNodes];
+        final int[] nodeData = new int[maxNodes];
+        final int[] lo = new int[maxNodes];
+        final int[] hi = new int[maxNodes];
+        final int[] depth = new int[maxNodes];
+        hi[0] = count;
+        int nodeCount = 1;
+        for (int node = 0; node < nodeCount; node++) {
+            childStart[node] = nodeCount - 1;
+            nodeData[node] = NO_DATA;
+            final int d = depth[node];
+            final int end = hi[node];
+            int i = lo[node];
+            // Shorter sequences sort first, so emojis ending at this node come first
+            while (i < end && length(order[i], offsets) == d) {
+                nodeData[node] = order[i++];
+            }
+            while (i < end) {
+                final int key = codepoints[offsets[order[i]] + d];
+                int j = i + 1;
+                while (j < end && codepoints[offsets[order[j]] + d] == key) {
+                    j++;
+                }
+                final int child = nodeCount++;
+                childKeys[child - 1] = key;
+                lo[child] = i;
+                hi[child] = j;
+                depth[child] = d + 1;
+                i = j;
+            }
+        }
+        childStart[nodeCount] = nodeCount - 1;
+
+        return new MetadataTrie(Arrays.copyOf(childStart, nodeCount + 1),
+                Arrays.copyOf(childKeys, nodeCount - 1),
+                Arrays.copyOf(nodeData, nodeCount));
+    }
+
+    private static int length(int emoji, int[] offsets) {
+        return offsets[emoji + 1] - offsets[emoji];
+    }
+
+    /**
+     * Stable merge sort of the emoji indices by their codepoint sequences.
+     */
+    private static int[] sortBySequence(int count, int[] offsets, int[] codepoints) {
+        int[] order = new int[count];
+        int[] temp = new int[count];
+        for (int i = 0; i < count; i++) {
+            order[i] = i;
+        }
+        for (int width = 1; width < count; width *= 2) {
+            for (int start = 0; start < count; start += 2 * width) {
+                final int mid = Math.min(start + width, count);
+                final int end = Math.min(start + 2 * width, count);
+                int left = start;
+                int right = mid;
+                for (int k = start; k < end; k++) {
+                    if (left < mid && (right >= end || compare(order[left], order[right],
+                            offsets, codepoints) <= 0)) {
+                        temp[k] = order[left++];
+                    } else {
+                        temp[k] = order[right++];
+                    }
+                }
+            }
+            final int[] swap = order;
+            order = temp;
+            temp = swap;
+        }
+        return order;
+    }
+
+    private static int compare(int emoji1, int emoji2, int[] offsets, int[] codepoints) {
+        final int start1 = offsets[emoji1];
+        final int start2 = offsets[emoji2];
+        final int length1 = offsets[emoji1 + 1] - start1;
+        final int length2 = offsets[emoji2 + 1] - start2;
+        final int length = Math.min(length1, length2);
+        for (int i = 0; i < length; i++) {
+            final int codepoint1 = codepoints[start1 + i];
+            final int codepoint2 = codepoints[start2 + i];
+            if (codepoint1 != codepoint2) {
+                return codepoint1 < codepoint2 ? -1 : 1;
+            }
+        }
+        return length1 - length2;
+    }
+}
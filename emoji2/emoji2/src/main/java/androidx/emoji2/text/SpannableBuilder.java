@@ -58,6 +58,18 @@ public final class SpannableBuilder extends SpannableStringBuilder {
      */
     private final @NonNull List<WatcherWrapper> mWatchers = new ArrayList<>();
 
+    /**
+     * Start of the range in which EmojiSpans were added or removed since the last
+     * {@link #beginBatchEdit()}, or {@code -1} if none were.
+     */
+    private int mEmojiSpanChangeStart = -1;
+
+    /**
+     * End of the range in which EmojiSpans were added or removed since the last
+     * {@link #beginBatchEdit()}.
+     */
+    private int mEmojiSpanChangeEnd = -1;
+
     /**
      * @hide
      */
@@ -138,6 +150,9 @@ public final class SpannableBuilder extends SpannableStringBuilder {
             what = span;
         }
         super.setSpan(what, start, end, flags);
+        if (what instanceof EmojiSpan) {
+            onEmojiSpanChanged(start, end);
+        }
     }
 
     /**
@@ -176,6 +191,13 @@ public final class SpannableBuilder extends SpannableStringBuilder {
             watcher = null;
         }
 
+        if (what instanceof EmojiSpan) {
+            final int start = super.getSpanStart(what);
+            if (start >= 0) {
+                onEmojiSpanChanged(start, super.getSpanEnd(what));
+            }
+        }
+
         super.removeSpan(what);
 
         if (watcher != null) {
@@ -258,6 +280,8 @@ public final class SpannableBuilder extends SpannableStringBuilder {
      */
     @RestrictTo(RestrictTo.Scope.LIBRARY)
     public void beginBatchEdit() {
+        mEmojiSpanChangeStart = -1;
+        mEmojiSpanChangeEnd = -1;
         blockWatchers();
     }
 
@@ -289,12 +313,35 @@ public final class SpannableBuilder extends SpannableStringBuilder {
     }
 
     /**
-     * Unblock all watcher wrapper events. Called by editing operations, namely
-     * {@link SpannableStringBuilder#replace(int, int, CharSequence)}.
+     * Extends the range reported to the watchers at the end of a batch edit.
+     */
+    private void onEmojiSpanChanged(int start, int end) {
+        if (mEmojiSpanChangeStart < 0) {
+            mEmojiSpanChangeStart = start;
+            mEmojiSpanChangeEnd = end;
+        } else {
+            mEmojiSpanChangeStart = Math.min(mEmojiSpanChangeStart, start);
+            mEmojiSpanChangeEnd = Math.max(mEmojiSpanChangeEnd, end);
+        }
+    }
+
+    /**
+     * Informs the watchers about the EmojiSpans that were added or removed during the batch edit.
+     * Only the changed range is reported so that DynamicLayout reflows the paragraphs around the
+     * edit instead of the whole text.
      */
     private void fireWatchers() {
+        if (mEmojiSpanChangeStart < 0) {
+            // no EmojiSpan was added or removed, layout is still valid
+            return;
+        }
+        final int length = this.length();
+        final int start = Math.min(mEmojiSpanChangeStart, length);
+        final int count = Math.min(mEmojiSpanChangeEnd, length) - start;
+        mEmojiSpanChangeStart = -1;
+        mEmojiSpanChangeEnd = -1;
         for (int i = 0; i < mWatchers.size(); i++) {
-            mWatchers.get(i).onTextChanged(this, 0, this.length(), this.length());
+            mWatchers.get(i).onTextChanged(this, start, count, count);
         }
     }
 
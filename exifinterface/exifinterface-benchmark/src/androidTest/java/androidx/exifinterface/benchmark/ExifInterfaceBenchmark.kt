@@ -0,0 +1,101 @@
+/*
+ * Copyright 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.exifinterface.benchmark
+
+import android.content.Context
+import androidx.benchmark.junit4.BenchmarkRule
+import androidx.benchmark.junit4.measureRepeated
+import androidx.exifinterface.benchmark.test.R
+import androidx.exifinterface.media.ExifInterface
+import androidx.test.core.app.ApplicationProvider
+import androidx.test.filters.LargeTest
+import java.io.BufferedInputStream
+import java.io.File
+import java.io.FileInputStream
+import org.junit.After
+import org.junit.Before
+import org.junit.Rule
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.junit.runners.Parameterized
+
+/**
+ * Reads the attributes a gallery needs from each image format, through a file and through a
+ * stream that cannot be read with positional reads.
+ */
+@LargeTest
+@RunWith(Parameterized::class)
+class ExifInterfaceBenchmark(
+    private val image: Image
+) {
+    @get:Rule
+    val benchmarkRule = BenchmarkRule()
+
+    private lateinit var file: File
+
+    @Before
+    fun setUp() {
+        val context = ApplicationProvider.getApplicationContext<Context>()
+        file = File(context.cacheDir, image.fileName)
+        context.resources.openRawResource(image.resourceId).use { input ->
+            file.outputStream().use { input.copyTo(it) }
+        }
+    }
+
+    @After
+    fun tearDown() {
+        file.delete()
+    }
+
+    @Test
+    fun readFromFile() {
+        benchmarkRule.measureRepeated {
+            readGalleryAttributes(ExifInterface(file))
+        }
+    }
+
+    @Test
+    fun readFromStream() {
+        benchmarkRule.measureRepeated {
+            BufferedInputStream(FileInputStream(file)).use {
+                readGalleryAttributes(ExifInterface(it))
+            }
+        }
+    }
+
+    private fun readGalleryAttributes(exifInterface: ExifInterface) {
+        exifInterface.getAttributeInt(ExifInterface.TAG_ORIENTATION, 0)
+        exifInterface.getAttribute(ExifInterface.TAG_DATETIME_ORIGINAL)
+        exifInterface.latLong
+    }
+
+    companion object {
+        @JvmStatic
+        @Parameterized.Parameters(name = "{0}")
+        fun params() = listOf(
+            Image("jpeg_with_exif_byte_order_ii.jpg", R.raw.jpeg_with_exif_byte_order_ii),
+            Image("heif_with_exif.heic", R.raw.heif_with_exif),
+            Image("png_with_exif_byte_order_ii.png", R.raw.png_with_exif_byte_order_ii),
+            Image("webp_with_exif.webp", R.raw.webp_with_exif),
+            Image("dng_with_exif_with_xmp.dng", R.raw.dng_with_exif_with_xmp)
+        )
+    }
+
+    data class Image(val fileName: String, val resourceId: Int) {
+        override fun toString() = fileName
+    }
+}
@@ -1266,6 +1266,15 @@ public class ExifInterfaceTest {
             closeQuietly(in);
         }
 
+        // Creates via FileInputStream, which is read with positional reads when seekable.
+        try {
+            in = new FileInputStream(imageFile.getAbsolutePath());
+            exifInterface = new ExifInterface(in);
+            compareWithExpectedValue(exifInterface, expectedValue, verboseTag, true);
+        } finally {
+            closeQuietly(in);
+        }
+
         // Creates via FileDescriptor.
         if (Build.VERSION.SDK_INT >= 21) {
             FileDescriptor fd = null;
@@ -65,6 +65,7 @@ import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
 import java.text.ParsePosition;
 import java.text.SimpleDateFormat;
@@ -4559,6 +4560,16 @@ public class ExifInterface {
                 mAttributes[i] = new HashMap<>();
             }
 
+            // Seekable files are read with positional reads, so that seeking does not require
+            // buffering everything that was read before.
+            FileChannelInputStream fileChannelInputStream = null;
+            if (!mIsExifDataOnly && mSeekableFileDescriptor != null
+                    && in instanceof FileInputStream) {
+                fileChannelInputStream =
+                        new FileChannelInputStream(((FileInputStream) in).getChannel());
+                in = fileChannelInputStream;
+            }
+
             // Check file type
             if (!mIsExifDataOnly) {
                 in = new BufferedInputStream(in, SIGNATURE_CHECK_SIZE);
@@ -4566,8 +4577,14 @@ public class ExifInterface {
             }
 
             if (shouldSupportSeek(mMimeType)) {
-                SeekableByteOrderedDataInputStream inputStream =
-                        new SeekableByteOrderedDataInputStream(in);
+                final SeekableByteOrderedDataInputStream inputStream;
+                if (fileChannelInputStream != null) {
+                    // Skip the BufferedInputStream, it has already read ahead for the signature
+                    fileChannelInputStream.reset();
+                    inputStream = new SeekableByteOrderedDataInputStream(fileChannelInputStream);
+                } else {
+                    inputStream = new SeekableByteOrderedDataInputStream(in);
+                }
                 if (mIsExifDataOnly) {
                     if (!getStandaloneAttributes(inputStream)) {
                         return;
@@ -7703,6 +7720,119 @@ public class ExifInterface {
         }
     }
 
+    // An input stream that reads a file with positional reads on its FileChannel, starting from
+    // the current position of the channel. Seeking backwards via mark/reset does not require
+    // keeping the bytes that were read in memory, and skipping does not read the skipped bytes.
+    // Small reads are served from an internal buffer refilled with positional reads, which is
+    // dropped when the stream skips or is reset. The position of the channel itself is not
+    // changed.
+    private static class FileChannelInputStream extends InputStream {
+        private static final int BUFFER_SIZE = 8192;
+
+        private final FileChannel mChannel;
+        private final long mStartOffset;
+        private final byte[] mBuffer = new byte[BUFFER_SIZE];
+        private final ByteBuffer mByteBuffer = ByteBuffer.wrap(mBuffer);
+        private int mBufferOffset;
+        private int mBufferLength;
+        private long mPosition;
+        private long mMarkPosition;
+
+        FileChannelInputStream(FileChannel channel) throws IOException {
+            mChannel = channel;
+            mStartOffset = channel.position();
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (mBufferOffset >= mBufferLength && !fillBuffer()) {
+                return -1;
+            }
+            mPosition++;
+            return mBuffer[mBufferOffset++] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            if (mBufferOffset >= mBufferLength) {
+                if (len >= BUFFER_SIZE) {
+                    // Large reads don't need to go through the buffer
+                    int bytesRead = mChannel.read(ByteBuffer.wrap(b, off, len),
+                            mStartOffset + mPosition);
+                    if (bytesRead > 0) {
+                        mPosition += bytesRead;
+                    }
+                    return bytesRead;
+                }
+                if (!fillBuffer()) {
+                    return -1;
+                }
+            }
+            int bytesRead = Math.min(len, mBufferLength - mBufferOffset);
+            System.arraycopy(mBuffer, mBufferOffset, b, off, bytesRead);
+            mBufferOffset += bytesRead;
+            mPosition += bytesRead;
+            return bytesRead;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            if (n <= 0) {
+                return 0;
+            }
+            long skipped = Math.min(n, remaining());
+            mPosition += skipped;
+            invalidateBuffer();
+            return skipped;
+        }
+
+        @Override
+        public int available() throws IOException {
+            return (int) Math.min(Integer.MAX_VALUE, remaining());
+        }
+
+        @Override
+        public boolean markSupported() {
+            return true;
+        }
+
+        @Override
+        public void mark(int readLimit) {
+            mMarkPosition = mPosition;
+        }
+
+        @Override
+        public void reset() {
+            mPosition = mMarkPosition;
+            invalidateBuffer();
+        }
+
+        // Reads the bytes following the current position in the buffer, returns false at the
+        // end of the file.
+        private boolean fillBuffer() throws IOException {
+            invalidateBuffer();
+            mByteBuffer.clear();
+            int bytesRead = mChannel.read(mByteBuffer, mStartOffset + mPosition);
+            if (bytesRead <= 0) {
+                return false;
+            }
+            mBufferLength = bytesRead;
+            return true;
+        }
+
+        private void invalidateBuffer() {
+            mBufferOffset = 0;
+            mBufferLength = 0;
+        }
+
+        private long remaining() throws IOException {
+            return Math.max(0, mChannel.size() - mStartOffset - mPosition);
+        }
+    }
+
     // An input stream class that can parse both little and big endian order data.
     private static class ByteOrderedDataInputStream extends InputStream implements DataInput {
 
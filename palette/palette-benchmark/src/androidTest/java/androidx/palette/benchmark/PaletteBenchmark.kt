@@ -0,0 +1,117 @@
+/*
+ * Copyright 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.palette.benchmark
+
+import android.graphics.Bitmap
+import androidx.benchmark.junit4.BenchmarkRule
+import androidx.benchmark.junit4.measureRepeated
+import androidx.palette.graphics.Palette
+import androidx.test.filters.LargeTest
+import java.util.Random
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import org.junit.AfterClass
+import org.junit.Rule
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.junit.runners.Parameterized
+
+/**
+ * Generates palettes without resizing, so that the size of the bitmap is what is measured.
+ */
+@LargeTest
+@RunWith(Parameterized::class)
+class PaletteBenchmark(
+    private val size: Int,
+    private val maxColors: Int
+) {
+    @get:Rule
+    val benchmarkRule = BenchmarkRule()
+
+    private val bitmap = createBitmap(size)
+
+    @Test
+    fun generate() {
+        benchmarkRule.measureRepeated {
+            builder(bitmap).generate()
+        }
+    }
+
+    @Test
+    fun generate_withExecutor() {
+        benchmarkRule.measureRepeated {
+            builder(bitmap).setExecutor(executor).generate()
+        }
+    }
+
+    @Test
+    fun generateAll_thumbnails() {
+        val thumbnails = List(THUMBNAIL_COUNT) { createBitmap(size, seed = it.toLong()) }
+        benchmarkRule.measureRepeated {
+            Palette.generateAll(thumbnails.map { builder(it) }, executor)
+        }
+    }
+
+    @Test
+    fun generateEach_thumbnails() {
+        val thumbnails = List(THUMBNAIL_COUNT) { createBitmap(size, seed = it.toLong()) }
+        benchmarkRule.measureRepeated {
+            thumbnails.map { builder(it).generate() }
+        }
+    }
+
+    private fun builder(bitmap: Bitmap) = Palette.from(bitmap)
+        .resizeBitmapArea(0)
+        .maximumColorCount(maxColors)
+
+    companion object {
+        private const val THUMBNAIL_COUNT = 16
+
+        private val executor: ExecutorService = Executors.newFixedThreadPool(
+            Runtime.getRuntime().availableProcessors()
+        )
+
+        @JvmStatic
+        @AfterClass
+        fun shutdownExecutor() {
+            executor.shutdown()
+        }
+
+        @JvmStatic
+        @Parameterized.Parameters(name = "size={0},maxColors={1}")
+        fun params() = listOf(64, 112, 256, 512).flatMap { size ->
+            listOf(8, 16, 32).map { maxColors -> arrayOf(size, maxColors) }
+        }
+
+        /**
+         * Creates a bitmap with smooth gradients plus noise, so that it has many distinct colors
+         * like a photo does.
+         */
+        private fun createBitmap(size: Int, seed: Long = 0): Bitmap {
+            val random = Random(seed)
+            val pixels = IntArray(size * size) { i ->
+                val x = i % size
+                val y = i / size
+                val r = (x * 255 / size + random.nextInt(32)).coerceAtMost(255)
+                val g = (y * 255 / size + random.nextInt(32)).coerceAtMost(255)
+                val b = ((x + y) * 127 / size + random.nextInt(32)).coerceAtMost(255)
+                (0xFF shl 24) or (r shl 16) or (g shl 8) or b
+            }
+            return Bitmap.createBitmap(pixels, size, size, Bitmap.Config.ARGB_8888)
+        }
+    }
+}
@@ -26,6 +26,11 @@ import androidx.test.filters.SmallTest;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
 @RunWith(AndroidJUnit4.class)
 public class ConsistencyTest {
 
@@ -46,6 +51,51 @@ public class ConsistencyTest {
         }
     }
 
+    @Test
+    @SmallTest
+    public void testConsistency_withExecutor() {
+        final Bitmap bitmap = TestUtils.loadSampleBitmap();
+        final ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            // Disable resizing so that the histogram is built in several chunks
+            Palette expected = Palette.from(bitmap).resizeBitmapArea(0).generate();
+            Palette actual = Palette.from(bitmap).resizeBitmapArea(0)
+                    .setExecutor(executor).generate();
+
+            assertEquals(expected.getSwatches(), actual.getSwatches());
+            assetPalettesEqual(expected, actual);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    @SmallTest
+    public void testGenerateAll() {
+        final Bitmap bitmap = TestUtils.loadSampleBitmap();
+        final ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            List<Palette.Builder> builders = new ArrayList<>();
+            for (int i = 0; i < NUMBER_TRIALS; i++) {
+                builders.add(Palette.from(bitmap).maximumColorCount(8 + i)
+                        .setRegion(i, i, bitmap.getWidth() / 2, bitmap.getHeight() / 2));
+            }
+
+            List<Palette> palettes = Palette.generateAll(builders, executor);
+
+            assertEquals(NUMBER_TRIALS, palettes.size());
+            for (int i = 0; i < NUMBER_TRIALS; i++) {
+                Palette expected = Palette.from(bitmap).maximumColorCount(8 + i)
+                        .setRegion(i, i, bitmap.getWidth() / 2, bitmap.getHeight() / 2)
+                        .generate();
+                assertEquals(expected.getSwatches(), palettes.get(i).getSwatches());
+                assetPalettesEqual(expected, palettes.get(i));
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
     private static void assetPalettesEqual(Palette p1, Palette p2) {
         assertEquals(p1.getVibrantSwatch(), p2.getVibrantSwatch());
         assertEquals(p1.getLightVibrantSwatch(), p2.getLightVibrantSwatch());
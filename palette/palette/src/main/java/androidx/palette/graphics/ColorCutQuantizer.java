@@ -20,6 +20,7 @@ import android.graphics.Color;
 
 import androidx.annotation.Nullable;
 import androidx.core.graphics.ColorUtils;
+import androidx.core.util.Pools;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -27,6 +28,7 @@ import java.util.Collection;
 import java.util.Comparator;
 import java.util.List;
 import java.util.PriorityQueue;
+import java.util.concurrent.Executor;
 
 /**
  * An color quantizer based on the Median-cut algorithm, but optimized for picking out distinct
@@ -48,9 +50,19 @@ final class ColorCutQuantizer {
 
     private static final int QUANTIZE_WORD_WIDTH = 5;
     private static final int QUANTIZE_WORD_MASK = (1 << QUANTIZE_WORD_WIDTH) - 1;
+    private static final int HISTOGRAM_SIZE = 1 << (QUANTIZE_WORD_WIDTH * 3);
+
+    // Each chunk needs its own histogram which has to be merged afterwards, so only split up
+    // large images and not into too many pieces
+    private static final int MIN_PIXELS_PER_CHUNK = 1 << 15;
+    private static final int MAX_HISTOGRAM_CHUNKS = 4;
+
+    private static final Pools.Pool<int[]> sHistogramPool =
+            new Pools.SynchronizedPool<>(MAX_HISTOGRAM_CHUNKS);
 
     final int[] mColors;
-    final int[] mHistogram;
+    // Only valid during construction, the histogram is handed back to the pool afterwards
+    int[] mHistogram;
     final List<Palette.Swatch> mQuantizedColors;
     @Nullable final Palette.Filter[] mFilters;
 
@@ -64,15 +76,31 @@ final class ColorCutQuantizer {
      * @param filters Set of filters to use in the quantization stage
      */
     ColorCutQuantizer(int[] pixels, int maxColors, @Nullable Palette.Filter[] filters) {
+        this(pixels, pixels.length, maxColors, filters, null);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param pixels array holding an image's pixel data, only the first {@code pixelCount} are
+     *               used
+     * @param pixelCount The number of pixels in {@code pixels}
+     * @param maxColors The maximum number of colors that should be in the result palette.
+     * @param filters Set of filters to use in the quantization stage
+     * @param executor Executor used to build the histogram of large images in parallel, or
+     *                 {@code null} to build it on the calling thread
+     */
+    ColorCutQuantizer(int[] pixels, int pixelCount, int maxColors,
+            @Nullable Palette.Filter[] filters, @Nullable Executor executor) {
         mFilters = filters;
 
-        final int[] hist = mHistogram = new int[1 << (QUANTIZE_WORD_WIDTH * 3)];
-        for (int i = 0; i < pixels.length; i++) {
-            final int quantizedColor = quantizeFromRgb888(pixels[i]);
-            // Now update the pixel value to the quantized value
-            pixels[i] = quantizedColor;
-            // And update the histogram
-            hist[quantizedColor]++;
+        final int[] hist = mHistogram = obtainHistogram();
+        final int chunkCount = executor == null
+                ? 1 : Math.min(MAX_HISTOGRAM_CHUNKS, pixelCount / MIN_PIXELS_PER_CHUNK);
+        if (chunkCount > 1) {
+            buildHistogramInParallel(pixels, pixelCount, hist, chunkCount, executor);
+        } else {
+            countPixels(pixels, 0, pixelCount, hist);
         }
 
         // Now let's count the number of distinct colors
@@ -107,6 +135,53 @@ final class ColorCutQuantizer {
             // We need use quantization to reduce the number of colors
             mQuantizedColors = quantizePixels(maxColors);
         }
+
+        // The swatches hold the populations they need, so the histogram can be reused
+        mHistogram = null;
+        sHistogramPool.release(hist);
+    }
+
+    private static int[] obtainHistogram() {
+        final int[] hist = sHistogramPool.acquire();
+        if (hist == null) {
+            return new int[HISTOGRAM_SIZE];
+        }
+        Arrays.fill(hist, 0);
+        return hist;
+    }
+
+    private static void countPixels(final int[] pixels, final int from, final int to,
+            final int[] hist) {
+        for (int i = from; i < to; i++) {
+            hist[quantizeFromRgb888(pixels[i])]++;
+        }
+    }
+
+    /**
+     * Counts the pixels in chunks with one histogram per chunk, then adds those up. The result is
+     * the same as counting on a single thread.
+     */
+    private static void buildHistogramInParallel(final int[] pixels, final int pixelCount,
+            final int[] hist, final int chunkCount, final Executor executor) {
+        final int[][] chunkHistograms = new int[chunkCount][];
+        chunkHistograms[0] = hist;
+        final int chunkSize = (pixelCount + chunkCount - 1) / chunkCount;
+        ParallelTasks.run(chunkCount, executor, new ParallelTasks.Task() {
+            @Override
+            public void run(int index) {
+                final int[] chunkHist = index == 0 ? hist : obtainHistogram();
+                chunkHistograms[index] = chunkHist;
+                countPixels(pixels, index * chunkSize,
+                        Math.min(pixelCount, (index + 1) * chunkSize), chunkHist);
+            }
+        });
+        for (int chunk = 1; chunk < chunkCount; chunk++) {
+            final int[] chunkHist = chunkHistograms[chunk];
+            for (int color = 0; color < HISTOGRAM_SIZE; color++) {
+                hist[color] += chunkHist[color];
+            }
+            sHistogramPool.release(chunkHist);
+        }
     }
 
     /**
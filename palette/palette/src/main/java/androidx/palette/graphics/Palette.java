@@ -28,12 +28,14 @@ import androidx.annotation.Nullable;
 import androidx.annotation.Px;
 import androidx.collection.SimpleArrayMap;
 import androidx.core.graphics.ColorUtils;
+import androidx.core.util.Pools;
 import androidx.core.util.Preconditions;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.Executor;
 
 /**
  * A helper class to extract prominent colors from an image.
@@ -93,6 +95,11 @@ public final class Palette {
     static final String LOG_TAG = "Palette";
     static final boolean LOG_TIMINGS = false;
 
+    // Pixel buffers of bitmaps up to this size are kept around for the next generation, larger
+    // ones are only expected when resizing is disabled and would use too much memory.
+    static final int MAX_POOLED_PIXEL_BUFFER_SIZE = 2 * DEFAULT_RESIZE_BITMAP_AREA;
+    static final Pools.Pool<int[]> sPixelBufferPool = new Pools.SynchronizedPool<>(4);
+
     /**
      * Start generating a {@link Palette} with the returned {@link Builder} instance.
      */
@@ -111,6 +118,30 @@ public final class Palette {
         return new Builder(swatches).generate();
     }
 
+    /**
+     * Generate the {@link Palette}s of several {@link Builder}s at once, for example for all of
+     * the thumbnails in a grid. The palettes are generated on {@code executor} and on the calling
+     * thread, which blocks until all of them are done, so this should be called on a background
+     * thread.
+     *
+     * @param builders The builders to generate palettes with, these should not be used while the
+     *                 palettes are generated
+     * @param executor Executor to generate the palettes on in parallel
+     * @return The generated palettes, in the same order as {@code builders}
+     */
+    @NonNull
+    public static List<Palette> generateAll(@NonNull final List<Builder> builders,
+            @NonNull Executor executor) {
+        final Palette[] palettes = new Palette[builders.size()];
+        ParallelTasks.run(palettes.length, executor, new ParallelTasks.Task() {
+            @Override
+            public void run(int index) {
+                palettes[index] = builders.get(index).generate();
+            }
+        });
+        return Arrays.asList(palettes);
+    }
+
     /**
      * @deprecated Use {@link Builder} to generate the Palette.
      */
@@ -601,6 +632,7 @@ public final class Palette {
 
         private final List<Filter> mFilters = new ArrayList<>();
         @Nullable private Rect mRegion;
+        @Nullable private Executor mExecutor;
 
         /**
          * Construct a new {@link Builder} using a source {@link Bitmap}
@@ -746,6 +778,19 @@ public final class Palette {
             return this;
         }
 
+        /**
+         * Set an {@link Executor} to count the colors of large bitmaps on in parallel. This is
+         * mostly useful when resizing has been disabled; {@link #generate()} still blocks until
+         * the palette has been generated and the result is the same as without an executor.
+         *
+         * @param executor The executor to use, or {@code null} to only use the calling thread
+         */
+        @NonNull
+        public Builder setExecutor(@Nullable Executor executor) {
+            mExecutor = executor;
+            return this;
+        }
+
         /**
          * Add a target profile to be generated in the palette.
          *
@@ -798,10 +843,18 @@ public final class Palette {
                 }
 
                 // Now generate a quantizer from the Bitmap
+                final int pixelCount = region != null
+                        ? region.width() * region.height()
+                        : bitmap.getWidth() * bitmap.getHeight();
+                final int[] pixels = obtainPixelBuffer(pixelCount);
+                getPixelsFromBitmap(bitmap, pixels);
                 final ColorCutQuantizer quantizer = new ColorCutQuantizer(
-                        getPixelsFromBitmap(bitmap),
+                        pixels,
+                        pixelCount,
                         mMaxColors,
-                        mFilters.isEmpty() ? null : mFilters.toArray(new Filter[mFilters.size()]));
+                        mFilters.isEmpty() ? null : mFilters.toArray(new Filter[mFilters.size()]),
+                        mExecutor);
+                releasePixelBuffer(pixels);
 
                 // If created a new bitmap, recycle it
                 if (bitmap != mBitmap) {
@@ -859,28 +912,36 @@ public final class Palette {
             }.executeOnExecutor(android.os.AsyncTask.THREAD_POOL_EXECUTOR, mBitmap);
         }
 
-        private int[] getPixelsFromBitmap(Bitmap bitmap) {
-            final int bitmapWidth = bitmap.getWidth();
-            final int bitmapHeight = bitmap.getHeight();
-            final int[] pixels = new int[bitmapWidth * bitmapHeight];
-            bitmap.getPixels(pixels, 0, bitmapWidth, 0, 0, bitmapWidth, bitmapHeight);
-
+        /**
+         * Reads the pixels of the bitmap, or only those of the region if one is set, row by row
+         * into the start of {@code pixels}.
+         */
+        private void getPixelsFromBitmap(Bitmap bitmap, int[] pixels) {
             if (mRegion == null) {
-                // If we don't have a region, return all of the pixels
-                return pixels;
+                final int bitmapWidth = bitmap.getWidth();
+                final int bitmapHeight = bitmap.getHeight();
+                bitmap.getPixels(pixels, 0, bitmapWidth, 0, 0, bitmapWidth, bitmapHeight);
             } else {
-                // If we do have a region, lets create a subset array containing only the region's
-                // pixels
+                // Only read the region's pixels instead of copying them out of all of the pixels
                 final int regionWidth = mRegion.width();
                 final int regionHeight = mRegion.height();
-                // pixels contains all of the pixels, so we need to iterate through each row and
-                // copy the regions pixels into a new smaller array
-                final int[] subsetPixels = new int[regionWidth * regionHeight];
-                for (int row = 0; row < regionHeight; row++) {
-                    System.arraycopy(pixels, ((row + mRegion.top) * bitmapWidth) + mRegion.left,
-                            subsetPixels, row * regionWidth, regionWidth);
-                }
-                return subsetPixels;
+                bitmap.getPixels(pixels, 0, regionWidth, mRegion.left, mRegion.top,
+                        regionWidth, regionHeight);
+            }
+        }
+
+        private static int[] obtainPixelBuffer(int pixelCount) {
+            final int[] pixels = sPixelBufferPool.acquire();
+            if (pixels != null && pixels.length >= pixelCount) {
+                return pixels;
+            }
+            // A buffer which is too small is dropped, it will be replaced by this larger one
+            return new int[pixelCount];
+        }
+
+        private static void releasePixelBuffer(int[] pixels) {
+            if (pixels.length <= MAX_POOLED_PIXEL_BUFFER_SIZE) {
+                sPixelBufferPool.release(pixels);
             }
         }
 
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.palette.graphics;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs a number of indexed tasks on an {@link Executor}, with the calling thread claiming tasks
+ * as well. Tasks are claimed one at a time, so this never waits on an executor which is busy or
+ * saturated: the calling thread simply ends up running every task itself.
+ */
+final class ParallelTasks implements Runnable {
+
+    interface Task {
+        void run(int index);
+    }
+
+    private final Task mTask;
+    private final int mTaskCount;
+    private final AtomicInteger mNextIndex = new AtomicInteger();
+    private final CountDownLatch mDone;
+    @Nullable private volatile Throwable mError;
+
+    private ParallelTasks(@NonNull Task task, int taskCount) {
+        mTask = task;
+        mTaskCount = taskCount;
+        mDone = new CountDownLatch(taskCount);
+    }
+
+    /**
+     * Runs {@code task} for every index in {@code [0, taskCount)} and returns once all of them
+     * have completed. The first exception thrown by a task is rethrown on the calling thread.
+     */
+    static void run(int taskCount, @NonNull Executor executor, @NonNull Task task) {
+        final ParallelTasks tasks = new ParallelTasks(task, taskCount);
+        try {
+            // The calling thread is one of the workers
+            for (int i = 1; i < taskCount; i++) {
+                executor.execute(tasks);
+            }
+        } catch (RejectedExecutionException e) {
+            // Fine, the calling thread picks up the remaining tasks
+        }
+        tasks.run();
+        tasks.await();
+    }
+
+    @Override
+    public void run() {
+        int index;
+        while ((index = mNextIndex.getAndIncrement()) < mTaskCount) {
+            try {
+                if (mError == null) {
+                    mTask.run(index);
+                }
+            } catch (Throwable t) {
+                mError = t;
+            } finally {
+                mDone.countDown();
+            }
+        }
+    }
+
+    private void await() {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                mDone.await();
+                break;
+            } catch (InterruptedException e) {
+                // Tasks already claimed by other threads have to finish before their results
+                // can be used, so keep waiting and restore the interrupt afterwards
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        final Throwable error = mError;
+        if (error instanceof RuntimeException) {
+            throw (RuntimeException) error;
+        } else if (error instanceof Error) {
+            throw (Error) error;
+        } else if (error != null) {
+            throw new RuntimeException(error);
+        }
+    }
+}
@@ -45,7 +45,36 @@ class DiffBenchmark(
         }
     }
 
+    @Test
+    fun runKeyedDiff() {
+        benchmarkRule.measureRepeated {
+            val result = DiffUtil.calculateDiff(input.before, input.after, keyedCallback)
+            if (input.dispatchUpdates) {
+                result.dispatchUpdatesTo(dummyUpdateCallback)
+            }
+        }
+    }
+
+    /**
+     * Measures only the dispatch of a pre-computed result, which should not allocate per item.
+     * The allocation count reported by the benchmark can be compared across versions to track GC
+     * pressure of large moves.
+     */
+    @Test
+    fun dispatchUpdates() {
+        val result = DiffUtil.calculateDiff(input.callback, input.detectMoves)
+        benchmarkRule.measureRepeated {
+            result.dispatchUpdatesTo(dummyUpdateCallback)
+        }
+    }
+
     companion object {
+        private val keyedCallback = object : DiffUtil.KeyedItemCallback<Int>() {
+            override fun getKey(item: Int) = item
+
+            override fun areContentsTheSame(oldItem: Int, newItem: Int) = oldItem == newItem
+        }
+
         private val dummyUpdateCallback = object : ListUpdateCallback {
             override fun onChanged(position: Int, count: Int, payload: Any?) {
             }
@@ -102,6 +131,11 @@ class DiffBenchmark(
                 name = "move_from_end_to_beginning",
                 before = (0..1000).toList(),
                 after = (900..1000).toList() + (0..899).toList()
+            ),
+            Input(
+                name = "move_many_chunks",
+                before = (0 until 10_000).toList(),
+                after = (0 until 10_000).chunked(100).reversed().flatten()
             )
         ).flatMap {
             listOf(
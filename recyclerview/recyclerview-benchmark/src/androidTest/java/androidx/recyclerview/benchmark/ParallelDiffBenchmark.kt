@@ -0,0 +1,121 @@
+/*
+ * Copyright 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.recyclerview.benchmark
+
+import androidx.benchmark.junit4.BenchmarkRule
+import androidx.benchmark.junit4.measureRepeated
+import androidx.recyclerview.widget.DiffUtil
+import androidx.test.filters.LargeTest
+import java.util.Random
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import org.junit.AfterClass
+import org.junit.Rule
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.junit.runners.Parameterized
+
+/**
+ * Compares [DiffUtil.calculateDiff] on the calling thread with the executor based version, for
+ * large lists with different edit densities.
+ */
+@LargeTest
+@RunWith(Parameterized::class)
+class ParallelDiffBenchmark(
+    private val input: Input
+) {
+
+    @get:Rule
+    val benchmarkRule = BenchmarkRule()
+
+    @Test
+    fun serial() {
+        benchmarkRule.measureRepeated {
+            DiffUtil.calculateDiff(input.callback, input.detectMoves)
+        }
+    }
+
+    @Test
+    fun parallel() {
+        benchmarkRule.measureRepeated {
+            DiffUtil.calculateDiff(input.callback, input.detectMoves, executor)
+        }
+    }
+
+    companion object {
+        private val executor: ExecutorService = Executors.newFixedThreadPool(
+            Runtime.getRuntime().availableProcessors()
+        )
+
+        @JvmStatic
+        @AfterClass
+        fun shutdownExecutor() {
+            executor.shutdown()
+        }
+
+        @JvmStatic
+        @Parameterized.Parameters(name = "{0}")
+        fun params() = listOf(10_000, 50_000, 200_000).flatMap { size ->
+            // edits per thousand items
+            listOf(1, 10, 50).map { density ->
+                Input(size = size, editsPerThousand = density)
+            }
+        }.flatMap {
+            listOf(
+                it,
+                it.copy(detectMoves = false)
+            )
+        }
+    }
+
+    data class Input(
+        val size: Int,
+        val editsPerThousand: Int,
+        val detectMoves: Boolean = true
+    ) {
+        private val before = (0 until size).toList()
+        private val after = before.toMutableList().also { list ->
+            val random = Random(size.toLong() * 31 + editsPerThousand)
+            var nextNewItem = -1
+            repeat(size / 1000 * editsPerThousand) {
+                when (random.nextInt(3)) {
+                    0 -> list.add(random.nextInt(list.size + 1), nextNewItem--)
+                    1 -> list.removeAt(random.nextInt(list.size))
+                    else -> list.add(
+                        random.nextInt(list.size),
+                        list.removeAt(random.nextInt(list.size))
+                    )
+                }
+            }
+        }
+
+        val callback = object : DiffUtil.Callback() {
+            override fun areItemsTheSame(oldItemPosition: Int, newItemPosition: Int) =
+                before[oldItemPosition] == after[newItemPosition]
+
+            override fun getOldListSize() = before.size
+
+            override fun getNewListSize() = after.size
+
+            override fun areContentsTheSame(oldItemPosition: Int, newItemPosition: Int) =
+                before[oldItemPosition] == after[newItemPosition]
+        }
+
+        override fun toString() = "size_${size}_editsPerThousand_${editsPerThousand}" +
+            "_detectMoves_$detectMoves"
+    }
+}
@@ -21,9 +21,12 @@ import static org.hamcrest.Matchers.is;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
 
 import android.content.Context;
+import android.os.Looper;
 import android.view.View;
 import android.view.ViewGroup;
 
@@ -31,10 +34,19 @@ import androidx.annotation.NonNull;
 import androidx.test.core.app.ApplicationProvider;
 import androidx.test.ext.junit.runners.AndroidJUnit4;
 import androidx.test.filters.SmallTest;
+import androidx.test.platform.app.InstrumentationRegistry;
 
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
 @SmallTest
 @RunWith(AndroidJUnit4.class)
 public class RecycledViewPoolTest {
@@ -91,6 +103,120 @@ public class RecycledViewPoolTest {
         assertEquals(0, pool.getRecycledViewCount(3));
     }
 
+    @Test
+    public void hitAndMissCounts() {
+        RecyclerView.RecycledViewPool pool = new RecyclerView.RecycledViewPool();
+        pool.putRecycledView(makeHolder(3));
+
+        assertNotNull(pool.getRecycledView(3));
+        assertNull(pool.getRecycledView(3));
+        assertNull(pool.getRecycledView(4));
+
+        assertEquals(1, pool.getRecycledViewHitCount(3));
+        assertEquals(1, pool.getRecycledViewMissCount(3));
+        assertEquals(0, pool.getRecycledViewHitCount(4));
+        assertEquals(1, pool.getRecycledViewMissCount(4));
+    }
+
+    @Test
+    public void prewarm_fillsPoolUpToCount() throws InterruptedException {
+        final RecyclerView.RecycledViewPool pool = new RecyclerView.RecycledViewPool();
+        final List<Thread> creatingThreads = new ArrayList<>();
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                RecyclerView recyclerView = new RecyclerView(
+                        ApplicationProvider.getApplicationContext());
+                recyclerView.setAdapter(new PrewarmAdapter(creatingThreads));
+                pool.putRecycledView(makeHolder(2));
+                pool.prewarm(recyclerView, 2, 8, executor);
+                // already pending, nothing more to create
+                pool.prewarm(recyclerView, 2, 8, executor);
+            }
+        });
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        InstrumentationRegistry.getInstrumentation().waitForIdleSync();
+
+        assertEquals(8, pool.getRecycledViewCount(2));
+        assertEquals(7, creatingThreads.size());
+        for (Thread thread : creatingThreads) {
+            assertNotEquals(Looper.getMainLooper().getThread(), thread);
+        }
+    }
+
+    @Test
+    public void prewarm_afterRejectedExecution() {
+        final RecyclerView.RecycledViewPool pool = new RecyclerView.RecycledViewPool();
+        final List<Runnable> tasks = new ArrayList<>();
+        final boolean[] rejected = new boolean[1];
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                RecyclerView recyclerView = new RecyclerView(
+                        ApplicationProvider.getApplicationContext());
+                recyclerView.setAdapter(new PrewarmAdapter(new ArrayList<Thread>()));
+                try {
+                    // accepts a single task
+                    pool.prewarm(recyclerView, 2, 3, new Executor() {
+                        @Override
+                        public void execute(Runnable command) {
+                            if (!tasks.isEmpty()) {
+                                throw new RejectedExecutionException();
+                            }
+                            tasks.add(command);
+                        }
+                    });
+                } catch (RejectedExecutionException e) {
+                    rejected[0] = true;
+                }
+                // only the accepted task is pending, so the other two are created now
+                pool.prewarm(recyclerView, 2, 3, new Executor() {
+                    @Override
+                    public void execute(Runnable command) {
+                        tasks.add(command);
+                    }
+                });
+            }
+        });
+        for (Runnable task : tasks) {
+            task.run();
+        }
+        InstrumentationRegistry.getInstrumentation().waitForIdleSync();
+
+        assertTrue(rejected[0]);
+        assertEquals(3, tasks.size());
+        assertEquals(3, pool.getRecycledViewCount(2));
+    }
+
+    @Test
+    public void prewarm_discardedWhenCleared() {
+        final RecyclerView.RecycledViewPool pool = new RecyclerView.RecycledViewPool();
+        final List<Runnable> tasks = new ArrayList<>();
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                RecyclerView recyclerView = new RecyclerView(
+                        ApplicationProvider.getApplicationContext());
+                recyclerView.setAdapter(new PrewarmAdapter(new ArrayList<Thread>()));
+                pool.prewarm(recyclerView, 2, 3, new Executor() {
+                    @Override
+                    public void execute(Runnable command) {
+                        tasks.add(command);
+                    }
+                });
+                pool.clear();
+            }
+        });
+        for (Runnable task : tasks) {
+            task.run();
+        }
+        InstrumentationRegistry.getInstrumentation().waitForIdleSync();
+
+        assertEquals(0, pool.getRecycledViewCount(2));
+    }
+
     @Test
     public void onAdapterChanged_attachedToOneOldAdapterNotNullNotCompatWithPrev_clears() {
         onAdapterChanged(1, true, true, true);
@@ -144,6 +270,32 @@ public class RecycledViewPoolTest {
         }
     }
 
+    private static class PrewarmAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> {
+        private final List<Thread> mCreatingThreads;
+
+        PrewarmAdapter(List<Thread> creatingThreads) {
+            mCreatingThreads = creatingThreads;
+        }
+
+        @NonNull
+        @Override
+        public RecyclerView.ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+            synchronized (mCreatingThreads) {
+                mCreatingThreads.add(Thread.currentThread());
+            }
+            return new MockViewHolder(parent.getContext());
+        }
+
+        @Override
+        public void onBindViewHolder(@NonNull RecyclerView.ViewHolder holder, int position) {
+        }
+
+        @Override
+        public int getItemCount() {
+            return 0;
+        }
+    }
+
     private class TestAdapter extends RecyclerView.Adapter {
 
         @NonNull
@@ -466,6 +466,102 @@ public class RecyclerViewCacheTest {
         CacheUtils.verifyCacheContainsPositions(mRecyclerView, 12, 13, 14);
     }
 
+    @Test
+    public void prefetchBindsPooledHolderWhenNestedPrefetchWontFit() {
+        mRecyclerView.setLayoutManager(new GridLayoutManager(getContext(), 3));
+
+        // 100x100 pixel views
+        RecyclerView.Adapter adapter = new RecyclerView.Adapter() {
+            @Override
+            public RecyclerView.ViewHolder onCreateViewHolder(
+                    @NonNull ViewGroup parent, int viewType) {
+                mRecyclerView.registerTimePassingMs(5);
+                View view = new View(getContext());
+                view.setMinimumWidth(100);
+                view.setMinimumHeight(100);
+                return new RecyclerView.ViewHolder(view) {};
+            }
+
+            @Override
+            public void onBindViewHolder(
+                    @NonNull RecyclerView.ViewHolder holder, int position) {
+                mRecyclerView.registerTimePassingMs(5);
+            }
+
+            @Override
+            public int getItemCount() {
+                return 100;
+            }
+        };
+        mRecyclerView.setAdapter(adapter);
+        layout(300, 300);
+        mRecyclerView.scrollBy(0, 50);
+
+        // a holder is waiting in the pool, but nested content of the type takes a long time
+        RecyclerView.RecycledViewPool pool = mRecyclerView.getRecycledViewPool();
+        pool.putRecycledView(adapter.createViewHolder(mRecyclerView, 0));
+        pool.factorInNestedPrefetchTime(0, TimeUnit.MILLISECONDS.toNanos(100));
+
+        // only enough time to bind one view
+        final long deadlineNs = mRecyclerView.getNanoTime() + TimeUnit.MILLISECONDS.toNanos(8);
+        mRecyclerView.mPrefetchRegistry.setPrefetchVector(0, 1);
+        mRecyclerView.mGapWorker.prefetch(deadlineNs);
+
+        // the bind alone fits, so the pooled holder is bound and cached
+        assertEquals(0, pool.getRecycledViewCount(0));
+        CacheUtils.verifyCacheContainsPositions(mRecyclerView, 12);
+    }
+
+    @Test
+    public void prefetchCountersTrackPrefetchedWastedAndMissed() {
+        mRecyclerView.setLayoutManager(new GridLayoutManager(getContext(), 3));
+        RecyclerView.Adapter adapter = new RecyclerView.Adapter() {
+            @Override
+            public RecyclerView.ViewHolder onCreateViewHolder(
+                    @NonNull ViewGroup parent, int viewType) {
+                mRecyclerView.registerTimePassingMs(5);
+                View view = new View(getContext());
+                view.setMinimumWidth(100);
+                view.setMinimumHeight(100);
+                return new RecyclerView.ViewHolder(view) {};
+            }
+
+            @Override
+            public void onBindViewHolder(
+                    @NonNull RecyclerView.ViewHolder holder, int position) {
+                mRecyclerView.registerTimePassingMs(5);
+            }
+
+            @Override
+            public int getItemCount() {
+                return 100;
+            }
+        };
+        mRecyclerView.setAdapter(adapter);
+        layout(300, 300);
+        mRecyclerView.scrollBy(0, 50);
+
+        GapWorker gapWorker = mRecyclerView.mGapWorker;
+        int prefetched = gapWorker.mPrefetchedCount;
+        int wasted = gapWorker.mWastedCount;
+        int missed = gapWorker.mDeadlineMissedCount;
+
+        // enough time to create and bind one view, then create one more into the pool
+        final long deadlineNs = mRecyclerView.getNanoTime() + TimeUnit.MILLISECONDS.toNanos(19);
+        mRecyclerView.mPrefetchRegistry.setPrefetchVector(0, 1);
+        gapWorker.prefetch(deadlineNs);
+        assertEquals(prefetched + 1, gapWorker.mPrefetchedCount);
+        assertEquals(missed + 2, gapWorker.mDeadlineMissedCount);
+
+        // prefetching again doesn't count the cached view twice
+        gapWorker.prefetch(RecyclerView.FOREVER_NS);
+        assertEquals(prefetched + 3, gapWorker.mPrefetchedCount);
+
+        // evicting prefetched views that were never displayed wastes them
+        mRecycler.recycleAndClearCachedViews();
+        assertEquals(wasted + 3, gapWorker.mWastedCount);
+    }
+
     @Test
     public void partialPrefetchAvoidsViewRecycledCallback() {
         mRecyclerView.setLayoutManager(new LinearLayoutManager(getContext()));
@@ -289,6 +289,14 @@ public class AsyncListDiffer<T> {
         mConfig.getBackgroundThreadExecutor().execute(new Runnable() {
             @Override
             public void run() {
+                final DiffUtil.ItemCallback<T> diffCallback = mConfig.getDiffCallback();
+                if (diffCallback instanceof DiffUtil.KeyedItemCallback) {
+                    // items have stable keys, match them directly instead of running Myers'
+                    final DiffUtil.DiffResult result = DiffUtil.calculateDiff(oldList, newList,
+                            (DiffUtil.KeyedItemCallback<T>) diffCallback);
+                    latchListOnMainThread(newList, result, commitCallback, runGeneration);
+                    return;
+                }
                 final DiffUtil.DiffResult result = DiffUtil.calculateDiff(new DiffUtil.Callback() {
                     @Override
                     public int getOldListSize() {
@@ -344,14 +352,23 @@ public class AsyncListDiffer<T> {
                     }
                 });
 
-                mMainThreadExecutor.execute(new Runnable() {
-                    @Override
-                    public void run() {
-                        if (mMaxScheduledGeneration == runGeneration) {
-                            latchList(newList, result, commitCallback);
-                        }
-                    }
-                });
+                latchListOnMainThread(newList, result, commitCallback, runGeneration);
+            }
+        });
+    }
+
+    @SuppressWarnings("WeakerAccess") /* synthetic access */
+    void latchListOnMainThread(
+            @NonNull final List<T> newList,
+            @NonNull final DiffUtil.DiffResult result,
+            @Nullable final Runnable commitCallback,
+            final int runGeneration) {
+        mMainThreadExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                if (mMaxScheduledGeneration == runGeneration) {
+                    latchList(newList, result, commitCallback);
+                }
             }
         });
     }
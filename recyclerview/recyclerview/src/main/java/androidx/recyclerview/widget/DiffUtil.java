@@ -23,11 +23,12 @@ import androidx.annotation.Nullable;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collection;
-import java.util.Collections;
-import java.util.Comparator;
-import java.util.Iterator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * DiffUtil is a utility class that calculates the difference between two lists and outputs a
@@ -84,12 +85,12 @@ public class DiffUtil {
         // utility class, no instance.
     }
 
-    private static final Comparator<Diagonal> DIAGONAL_COMPARATOR = new Comparator<Diagonal>() {
-        @Override
-        public int compare(Diagonal o1, Diagonal o2) {
-            return o1.x - o2.x;
-        }
-    };
+    // Ranges smaller than this (old size + new size) are not worth solving on another thread.
+    private static final int MIN_PARALLEL_RANGE_SIZE = 2048;
+
+    // How many independent ranges we try to create per available processor, so that threads that
+    // finish early can pick up more work.
+    private static final int PARALLEL_RANGES_PER_THREAD = 4;
 
     // Myers' algorithm uses two lists as axis labels. In DiffUtil's implementation, `x` axis is
     // used for old list and `y` axis is used for new list.
@@ -124,7 +125,7 @@ public class DiffUtil {
         final int oldSize = cb.getOldListSize();
         final int newSize = cb.getNewListSize();
 
-        final List<Diagonal> diagonals = new ArrayList<>();
+        final Diagonals diagonals = new Diagonals();
 
         // instead of a recursive implementation, we keep our own stack to avoid potential stack
         // overflow exceptions
@@ -139,6 +140,236 @@ public class DiffUtil {
         final CenteredArray forward = new CenteredArray(max * 2 + 1);
         final CenteredArray backward = new CenteredArray(max * 2 + 1);
 
+        solveRanges(stack, cb, forward, backward, diagonals);
+        // sort snakes
+        diagonals.sortByX();
+
+        return new DiffResult(cb, diagonals,
+                forward.backingData(), backward.backingData(),
+                detectMoves);
+    }
+
+    /**
+     * Calculates the list of update operations that can covert one list into the other one,
+     * splitting the work across the threads of the given {@link Executor}.
+     * <p>
+     * The edit graph is first split at the middle snakes found by Myers' algorithm until there
+     * are enough independent sub-ranges to keep the executor busy. Each sub-range is then solved
+     * on its own, and the resulting diagonals are merged into a single {@link DiffResult}. The
+     * result is exactly the same as the one returned by {@link #calculateDiff(Callback, boolean)}
+     * for the same input; only the wall time spent in the Myers' step changes. Move detection and
+     * the dispatch of updates still run on the calling thread.
+     * <p>
+     * The calling thread also solves sub-ranges while it waits, so it is safe to call this method
+     * from one of the executor's own threads.
+     * <p>
+     * <b>Note:</b> {@link Callback#areItemsTheSame(int, int)} will be called concurrently from
+     * multiple threads, so it must be thread safe. Lists that are too small to benefit from
+     * parallelism are diffed on the calling thread.
+     *
+     * @param cb          The callback that acts as a gateway to the backing list data
+     * @param detectMoves True if DiffUtil should try to detect moved items, false otherwise.
+     * @param executor    The executor used to solve independent parts of the edit graph.
+     * @return A DiffResult that contains the information about the edit sequence to convert the
+     * old list into the new list.
+     */
+    @NonNull
+    public static DiffResult calculateDiff(@NonNull Callback cb, boolean detectMoves,
+            @NonNull Executor executor) {
+        final int oldSize = cb.getOldListSize();
+        final int newSize = cb.getNewListSize();
+        final int parallelism = Runtime.getRuntime().availableProcessors();
+        if (parallelism < 2 || oldSize + newSize < MIN_PARALLEL_RANGE_SIZE) {
+            return calculateDiff(cb, detectMoves);
+        }
+
+        final Diagonals diagonals = new Diagonals();
+        // Split the graph breadth first so that the sub-ranges have comparable sizes.
+        final ArrayDeque<Range> pending = new ArrayDeque<>();
+        final List<Range> leaves = new ArrayList<>();
+        pending.add(new Range(0, oldSize, 0, newSize));
+        final int max = (oldSize + newSize + 1) / 2;
+        final CenteredArray forward = new CenteredArray(max * 2 + 1);
+        final CenteredArray backward = new CenteredArray(max * 2 + 1);
+        final int targetLeafCount = parallelism * PARALLEL_RANGES_PER_THREAD;
+        while (!pending.isEmpty() && pending.size() + leaves.size() < targetLeafCount) {
+            final Range range = pending.poll();
+            if (range.oldSize() + range.newSize() < MIN_PARALLEL_RANGE_SIZE) {
+                leaves.add(range);
+                continue;
+            }
+            final Snake snake = midPoint(range, cb, forward, backward);
+            if (snake != null) {
+                if (snake.diagonalSize() > 0) {
+                    snake.addDiagonalTo(diagonals);
+                }
+                addIfNotEmpty(pending, new Range(range.oldListStart, snake.startX,
+                        range.newListStart, snake.startY));
+                addIfNotEmpty(pending, new Range(snake.endX, range.oldListEnd,
+                        snake.endY, range.newListEnd));
+            }
+        }
+        leaves.addAll(pending);
+
+        if (!leaves.isEmpty()) {
+            final ParallelRangeSolver solver = new ParallelRangeSolver(cb, leaves);
+            final int workerCount = Math.min(parallelism, leaves.size()) - 1;
+            for (int i = 0; i < workerCount; i++) {
+                try {
+                    executor.execute(solver);
+                } catch (RejectedExecutionException ignored) {
+                    // the calling thread will pick up the remaining ranges
+                    break;
+                }
+            }
+            solver.run();
+            solver.await();
+            diagonals.addAll(solver.mDiagonals);
+        }
+        diagonals.sortByX();
+
+        return new DiffResult(cb, diagonals,
+                forward.backingData(), backward.backingData(),
+                detectMoves);
+    }
+
+    private static void addIfNotEmpty(ArrayDeque<Range> ranges, Range range) {
+        if (range.oldSize() > 0 && range.newSize() > 0) {
+            ranges.add(range);
+        }
+    }
+
+    /**
+     * Calculates the list of update operations that can covert one list into the other one by
+     * matching the keys of the items, rather than running Myers' algorithm.
+     * <p>
+     * This runs in O(N log N) time regardless of how much the lists differ, where N is the size of
+     * the lists, which makes it suitable for large lists that can be shuffled or re-sorted. Items
+     * are matched by {@link KeyedItemCallback#getKey(Object)} through a hash table. The largest
+     * set of matched items that stay in the same relative order is then kept in place, and every
+     * other matched item is dispatched as a move.
+     * <p>
+     * The updates produced convert the old list into the new list just like the ones computed by
+     * {@link #calculateDiff(Callback, boolean)} with move detection enabled, although the two may
+     * pick different items to move when there is more than one minimal solution.
+     * <p>
+     * Keys must be unique within each list. If a key shows up more than once, only its first
+     * occurrence is matched and the others are dispatched as removals or insertions. {@code null}
+     * items are matched with each other in the order they appear.
+     *
+     * @param oldList      The old list.
+     * @param newList      The new list.
+     * @param itemCallback The callback that provides the key and compares the contents of items.
+     * @param <T>          Type of items in the lists.
+     * @return A DiffResult that contains the information about the edit sequence to convert the
+     * old list into the new list.
+     */
+    @NonNull
+    public static <T> DiffResult calculateDiff(@NonNull List<T> oldList,
+            @NonNull List<T> newList, @NonNull KeyedItemCallback<T> itemCallback) {
+        final int oldSize = oldList.size();
+        final int newSize = newList.size();
+
+        // first occurrence of each key in the old list, null items are matched in order
+        final HashMap<Object, Integer> oldPositions = new HashMap<>();
+        final int[] oldNullPositions = new int[oldSize];
+        int oldNullCount = 0;
+        for (int posX = 0; posX < oldSize; posX++) {
+            final T item = oldList.get(posX);
+            if (item == null) {
+                oldNullPositions[oldNullCount++] = posX;
+            } else {
+                final Object key = itemCallback.getKey(item);
+                if (!oldPositions.containsKey(key)) {
+                    oldPositions.put(key, posX);
+                }
+            }
+        }
+
+        final int[] oldToNew = new int[oldSize];
+        Arrays.fill(oldToNew, DiffResult.NO_POSITION);
+        final int[] newToOld = new int[newSize];
+        int matchedNullCount = 0;
+        for (int posY = 0; posY < newSize; posY++) {
+            final T item = newList.get(posY);
+            int posX = DiffResult.NO_POSITION;
+            if (item == null) {
+                if (matchedNullCount < oldNullCount) {
+                    posX = oldNullPositions[matchedNullCount++];
+                }
+            } else {
+                final Integer oldPosition = oldPositions.get(itemCallback.getKey(item));
+                if (oldPosition != null && oldToNew[oldPosition] == DiffResult.NO_POSITION) {
+                    posX = oldPosition;
+                }
+            }
+            if (posX != DiffResult.NO_POSITION) {
+                oldToNew[posX] = posY;
+            }
+            newToOld[posY] = posX;
+        }
+
+        // Find the longest increasing run of old positions when walking the new list. Those items
+        // keep their relative order and form the diagonals, the other matches are moves.
+        // tails[i] is the position in the new list that ends the best sequence of length i + 1.
+        final int[] tails = new int[newSize];
+        final int[] previous = new int[newSize];
+        int length = 0;
+        for (int posY = 0; posY < newSize; posY++) {
+            final int posX = newToOld[posY];
+            if (posX == DiffResult.NO_POSITION) {
+                continue;
+            }
+            int low = 0;
+            int high = length;
+            while (low < high) {
+                final int mid = (low + high) >>> 1;
+                if (newToOld[tails[mid]] < posX) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            previous[posY] = low == 0 ? DiffResult.NO_POSITION : tails[low - 1];
+            tails[low] = posY;
+            if (low == length) {
+                length++;
+            }
+        }
+
+        // walk the sequence backwards and merge consecutive matches into diagonals
+        final Diagonals diagonals = new Diagonals();
+        int posY = length == 0 ? DiffResult.NO_POSITION : tails[length - 1];
+        while (posY != DiffResult.NO_POSITION) {
+            int startY = posY;
+            int startX = newToOld[posY];
+            int size = 1;
+            posY = previous[posY];
+            while (posY != DiffResult.NO_POSITION && posY == startY - 1
+                    && newToOld[posY] == startX - 1) {
+                startY = posY;
+                startX--;
+                size++;
+                posY = previous[posY];
+            }
+            diagonals.add(startX, startY, size);
+        }
+        diagonals.reverse();
+
+        return new DiffResult(new ItemCallbackAdapter<>(oldList, newList, itemCallback),
+                diagonals, oldToNew);
+    }
+
+    /**
+     * Runs Myers' algorithm on the ranges in the stack until it is empty, adding the diagonals
+     * it finds into the given list.
+     */
+    static void solveRanges(
+            List<Range> stack,
+            Callback cb,
+            CenteredArray forward,
+            CenteredArray backward,
+            Diagonals diagonals) {
         // We pool the ranges to avoid allocations for each recursive call.
         final List<Range> rangePool = new ArrayList<>();
         while (!stack.isEmpty()) {
@@ -147,7 +378,7 @@ public class DiffUtil {
             if (snake != null) {
                 // if it has a diagonal, save it
                 if (snake.diagonalSize() > 0) {
-                    diagonals.add(snake.toDiagonal());
+                    snake.addDiagonalTo(diagonals);
                 }
                 // add new ranges for left and right
                 final Range left = rangePool.isEmpty() ? new Range() : rangePool.remove(
@@ -171,12 +402,6 @@ public class DiffUtil {
             }
 
         }
-        // sort snakes
-        Collections.sort(diagonals, DIAGONAL_COMPARATOR);
-
-        return new DiffResult(cb, diagonals,
-                forward.backingData(), backward.backingData(),
-                detectMoves);
     }
 
     /**
@@ -470,26 +695,200 @@ public class DiffUtil {
     }
 
     /**
-     * A diagonal is a match in the graph.
+     * An {@link ItemCallback} for items that have a stable, unique key, such as the stable ids of
+     * a {@link RecyclerView.Adapter}.
+     * <p>
+     * When an {@link AsyncListDiffer} or a {@link ListAdapter} is configured with a
+     * KeyedItemCallback, it computes the diff with
+     * {@link DiffUtil#calculateDiff(List, List, KeyedItemCallback)}, which matches items by key
+     * in O(N log N) time instead of running Myers' algorithm. This keeps the diff fast even when
+     * the list is shuffled or re-sorted.
+     *
+     * @param <T> Type of items to compare.
+     */
+    public abstract static class KeyedItemCallback<T> extends ItemCallback<T> {
+        /**
+         * Returns the key of the given item. Two items represent the same item if and only if
+         * their keys are {@link Object#equals(Object) equal}, and keys must have a consistent
+         * {@link Object#hashCode()}.
+         * <p>
+         * Keys should be unique within a list.
+         *
+         * @param item The item.
+         * @return The key of the item.
+         */
+        @NonNull
+        public abstract Object getKey(@NonNull T item);
+
+        /**
+         * Compares the keys returned by {@link #getKey(Object)}.
+         */
+        @Override
+        public final boolean areItemsTheSame(@NonNull T oldItem, @NonNull T newItem) {
+            return getKey(oldItem).equals(getKey(newItem));
+        }
+    }
+
+    /**
+     * Adapts two lists and an {@link ItemCallback} to a {@link Callback}, treating two
+     * {@code null} items as the same item with the same contents.
+     */
+    static class ItemCallbackAdapter<T> extends Callback {
+        private final List<T> mOldList;
+        private final List<T> mNewList;
+        private final ItemCallback<T> mItemCallback;
+
+        ItemCallbackAdapter(List<T> oldList, List<T> newList, ItemCallback<T> itemCallback) {
+            mOldList = oldList;
+            mNewList = newList;
+            mItemCallback = itemCallback;
+        }
+
+        @Override
+        public int getOldListSize() {
+            return mOldList.size();
+        }
+
+        @Override
+        public int getNewListSize() {
+            return mNewList.size();
+        }
+
+        @Override
+        public boolean areItemsTheSame(int oldItemPosition, int newItemPosition) {
+            T oldItem = mOldList.get(oldItemPosition);
+            T newItem = mNewList.get(newItemPosition);
+            if (oldItem != null && newItem != null) {
+                return mItemCallback.areItemsTheSame(oldItem, newItem);
+            }
+            return oldItem == null && newItem == null;
+        }
+
+        @Override
+        public boolean areContentsTheSame(int oldItemPosition, int newItemPosition) {
+            T oldItem = mOldList.get(oldItemPosition);
+            T newItem = mNewList.get(newItemPosition);
+            if (oldItem != null && newItem != null) {
+                return mItemCallback.areContentsTheSame(oldItem, newItem);
+            }
+            return oldItem == null && newItem == null;
+        }
+
+        @Nullable
+        @Override
+        public Object getChangePayload(int oldItemPosition, int newItemPosition) {
+            T oldItem = mOldList.get(oldItemPosition);
+            T newItem = mNewList.get(newItemPosition);
+            if (oldItem != null && newItem != null) {
+                return mItemCallback.getChangePayload(oldItem, newItem);
+            }
+            return null;
+        }
+    }
+
+    /**
+     * A list of diagonals, which are the matches in the graph.
      * Rather than snakes, we only record the diagonals in the path.
+     * <p>
+     * Diagonals are packed into a single int array as (x, y, size) triplets so that large diffs
+     * do not allocate an object per match.
      */
-    static class Diagonal {
-        public final int x;
-        public final int y;
-        public final int size;
+    static class Diagonals {
+        private static final int FIELD_COUNT = 3;
+
+        private int[] mData = new int[FIELD_COUNT * 16];
+        private int mSize;
+
+        int size() {
+            return mSize;
+        }
+
+        boolean isEmpty() {
+            return mSize == 0;
+        }
+
+        int x(int index) {
+            return mData[index * FIELD_COUNT];
+        }
+
+        int y(int index) {
+            return mData[index * FIELD_COUNT + 1];
+        }
+
+        int size(int index) {
+            return mData[index * FIELD_COUNT + 2];
+        }
+
+        int endX(int index) {
+            return x(index) + size(index);
+        }
+
+        int endY(int index) {
+            return y(index) + size(index);
+        }
+
+        void add(int x, int y, int size) {
+            ensureCapacity(mSize + 1);
+            final int offset = mSize * FIELD_COUNT;
+            mData[offset] = x;
+            mData[offset + 1] = y;
+            mData[offset + 2] = size;
+            mSize++;
+        }
+
+        void addFirst(int x, int y, int size) {
+            ensureCapacity(mSize + 1);
+            System.arraycopy(mData, 0, mData, FIELD_COUNT, mSize * FIELD_COUNT);
+            mData[0] = x;
+            mData[1] = y;
+            mData[2] = size;
+            mSize++;
+        }
+
+        void addAll(Diagonals other) {
+            ensureCapacity(mSize + other.mSize);
+            System.arraycopy(other.mData, 0, mData, mSize * FIELD_COUNT,
+                    other.mSize * FIELD_COUNT);
+            mSize += other.mSize;
+        }
+
+        void clear() {
+            mSize = 0;
+        }
 
-        Diagonal(int x, int y, int size) {
-            this.x = x;
-            this.y = y;
-            this.size = size;
+        void reverse() {
+            for (int i = 0, j = mSize - 1; i < j; i++, j--) {
+                for (int field = 0; field < FIELD_COUNT; field++) {
+                    final int tmp = mData[i * FIELD_COUNT + field];
+                    mData[i * FIELD_COUNT + field] = mData[j * FIELD_COUNT + field];
+                    mData[j * FIELD_COUNT + field] = tmp;
+                }
+            }
         }
 
-        int endX() {
-            return x + size;
+        /**
+         * Sorts the diagonals by their position in the old list. Diagonals never overlap so no two
+         * of them share the same x.
+         */
+        void sortByX() {
+            // sort (x, index) pairs packed into longs, then copy the triplets in that order
+            final long[] keys = new long[mSize];
+            for (int i = 0; i < mSize; i++) {
+                keys[i] = ((long) x(i) << 32) | i;
+            }
+            Arrays.sort(keys);
+            final int[] sorted = new int[mData.length];
+            for (int i = 0; i < mSize; i++) {
+                final int from = (int) keys[i];
+                System.arraycopy(mData, from * FIELD_COUNT, sorted, i * FIELD_COUNT, FIELD_COUNT);
+            }
+            mData = sorted;
         }
 
-        int endY() {
-            return y + size;
+        private void ensureCapacity(int size) {
+            if (size * FIELD_COUNT > mData.length) {
+                mData = Arrays.copyOf(mData, Math.max(size * FIELD_COUNT, mData.length * 2));
+            }
         }
     }
 
@@ -540,23 +939,22 @@ public class DiffUtil {
          * Extract the diagonal of the snake to make reasoning easier for the rest of the
          * algorithm where we try to produce a path and also find moves.
          */
-        @NonNull
-        Diagonal toDiagonal() {
+        void addDiagonalTo(@NonNull Diagonals diagonals) {
             if (hasAdditionOrRemoval()) {
                 if (reverse) {
                     // snake edge it at the end
-                    return new Diagonal(startX, startY, diagonalSize());
+                    diagonals.add(startX, startY, diagonalSize());
                 } else {
                     // snake edge it at the beginning
                     if (isAddition()) {
-                        return new Diagonal(startX, startY + 1, diagonalSize());
+                        diagonals.add(startX, startY + 1, diagonalSize());
                     } else {
-                        return new Diagonal(startX + 1, startY, diagonalSize());
+                        diagonals.add(startX + 1, startY, diagonalSize());
                     }
                 }
             } else {
                 // we are a pure diagonal
-                return new Diagonal(startX, startY, endX - startX);
+                diagonals.add(startX, startY, endX - startX);
             }
         }
     }
@@ -636,7 +1034,7 @@ public class DiffUtil {
         private static final int FLAG_MASK = (1 << FLAG_OFFSET) - 1;
 
         // The diagonals extracted from The Myers' snakes.
-        private final List<Diagonal> mDiagonals;
+        private final Diagonals mDiagonals;
 
         // The list to keep oldItemStatuses. As we traverse old items, we assign flags to them
         // which also includes whether they were a real removal or a move (and its new index).
@@ -653,6 +1051,10 @@ public class DiffUtil {
 
         private final boolean mDetectMoves;
 
+        // The number of items that were detected as moves, which is also the number of updates
+        // that are postponed while dispatching.
+        private int mMoveCount;
+
         /**
          * @param callback        The callback that was used to calculate the diff
          * @param diagonals       Matches between the two lists
@@ -660,7 +1062,7 @@ public class DiffUtil {
          * @param newItemStatuses An int[] that can be re-purposed to keep metadata
          * @param detectMoves     True if this DiffResult will try to detect moved items
          */
-        DiffResult(Callback callback, List<Diagonal> diagonals, int[] oldItemStatuses,
+        DiffResult(Callback callback, Diagonals diagonals, int[] oldItemStatuses,
                 int[] newItemStatuses, boolean detectMoves) {
             mDiagonals = diagonals;
             mOldItemStatuses = oldItemStatuses;
@@ -675,18 +1077,45 @@ public class DiffUtil {
             findMatchingItems();
         }
 
+        /**
+         * Creates a result for which the moves are already known, e.g. because they were found
+         * by matching item keys.
+         *
+         * @param callback  The callback that was used to calculate the diff
+         * @param diagonals Matches between the two lists that are not moves
+         * @param oldToNew  For each position in the old list, the position of the same item in the
+         *                  new list or {@link #NO_POSITION}. Matches that are not on a diagonal are
+         *                  dispatched as moves.
+         */
+        DiffResult(Callback callback, Diagonals diagonals, int[] oldToNew) {
+            mDiagonals = diagonals;
+            mCallback = callback;
+            mOldListSize = callback.getOldListSize();
+            mNewListSize = callback.getNewListSize();
+            mOldItemStatuses = new int[mOldListSize];
+            mNewItemStatuses = new int[mNewListSize];
+            mDetectMoves = true;
+            addEdgeDiagonals();
+            markDiagonals();
+            for (int posX = 0; posX < mOldListSize; posX++) {
+                final int posY = oldToNew[posX];
+                if (posY != NO_POSITION && mOldItemStatuses[posX] == 0) {
+                    markMove(posX, posY);
+                }
+            }
+        }
+
         /**
          * Add edge diagonals so that we can iterate as long as there are diagonals w/o lots of
          * null checks around
          */
         private void addEdgeDiagonals() {
-            Diagonal first = mDiagonals.isEmpty() ? null : mDiagonals.get(0);
             // see if we should add 1 to the 0,0
-            if (first == null || first.x != 0 || first.y != 0) {
-                mDiagonals.add(0, new Diagonal(0, 0, 0));
+            if (mDiagonals.isEmpty() || mDiagonals.x(0) != 0 || mDiagonals.y(0) != 0) {
+                mDiagonals.addFirst(0, 0, 0);
             }
             // always add one last
-            mDiagonals.add(new Diagonal(mOldListSize, mNewListSize, 0));
+            mDiagonals.add(mOldListSize, mNewListSize, 0);
         }
 
         /**
@@ -695,16 +1124,7 @@ public class DiffUtil {
          * removals to find moves.
          */
         private void findMatchingItems() {
-            for (Diagonal diagonal : mDiagonals) {
-                for (int offset = 0; offset < diagonal.size; offset++) {
-                    int posX = diagonal.x + offset;
-                    int posY = diagonal.y + offset;
-                    final boolean theSame = mCallback.areContentsTheSame(posX, posY);
-                    final int changeFlag = theSame ? FLAG_NOT_CHANGED : FLAG_CHANGED;
-                    mOldItemStatuses[posX] = (posY << FLAG_OFFSET) | changeFlag;
-                    mNewItemStatuses[posY] = (posX << FLAG_OFFSET) | changeFlag;
-                }
-            }
+            markDiagonals();
             // now all matches are marked, lets look for moves
             if (mDetectMoves) {
                 // traverse each addition / removal from the end of the list, find matching
@@ -713,53 +1133,100 @@ public class DiffUtil {
             }
         }
 
+        private void markDiagonals() {
+            final int diagonalsSize = mDiagonals.size();
+            for (int i = 0; i < diagonalsSize; i++) {
+                final int size = mDiagonals.size(i);
+                for (int offset = 0; offset < size; offset++) {
+                    int posX = mDiagonals.x(i) + offset;
+                    int posY = mDiagonals.y(i) + offset;
+                    final boolean theSame = mCallback.areContentsTheSame(posX, posY);
+                    final int changeFlag = theSame ? FLAG_NOT_CHANGED : FLAG_CHANGED;
+                    mOldItemStatuses[posX] = (posY << FLAG_OFFSET) | changeFlag;
+                    mNewItemStatuses[posY] = (posX << FLAG_OFFSET) | changeFlag;
+                }
+            }
+        }
+
         private void findMoveMatches() {
+            // Collect the additions in order and link them together so that matched additions
+            // can be unlinked in O(1) and are never visited again by the following removals.
+            final int diagonalsSize = mDiagonals.size();
+            int additionCount = 0;
+            int posY = 0;
+            for (int i = 0; i < diagonalsSize; i++) {
+                additionCount += mDiagonals.y(i) - posY;
+                posY = mDiagonals.endY(i);
+            }
+            if (additionCount == 0) {
+                return;
+            }
+            final int[] additions = new int[additionCount];
+            // next[i] is the index of the unmatched addition after additions[i], or
+            // additionCount if there is none. The head of the list is stored in the last slot.
+            final int[] next = new int[additionCount + 1];
+            int index = 0;
+            posY = 0;
+            for (int i = 0; i < diagonalsSize; i++) {
+                while (posY < mDiagonals.y(i)) {
+                    additions[index] = posY;
+                    next[index] = index + 1;
+                    index++;
+                    posY++;
+                }
+                posY = mDiagonals.endY(i);
+            }
+            final int head = additionCount;
+            next[head] = 0;
+
             // for each removal, find matching addition
             int posX = 0;
-            for (Diagonal diagonal : mDiagonals) {
-                while (posX < diagonal.x) {
+            for (int i = 0; i < diagonalsSize && next[head] != additionCount; i++) {
+                while (posX < mDiagonals.x(i)) {
                     if (mOldItemStatuses[posX] == 0) {
                         // there is a removal, find matching addition from the rest
-                        findMatchingAddition(posX);
+                        findMatchingAddition(posX, additions, next);
                     }
                     posX++;
                 }
                 // snap back for the next diagonal
-                posX = diagonal.endX();
+                posX = mDiagonals.endX(i);
             }
         }
 
         /**
-         * Search the whole list to find the addition for the given removal of position posX
+         * Search the unmatched additions to find the addition for the given removal of position
+         * posX.
          *
-         * @param posX position in the old list
+         * @param posX      position in the old list
+         * @param additions positions of the additions in the new list
+         * @param next      links between the unmatched additions, see {@link #findMoveMatches()}
          */
-        private void findMatchingAddition(int posX) {
-            int posY = 0;
-            final int diagonalsSize = mDiagonals.size();
-            for (int i = 0; i < diagonalsSize; i++) {
-                final Diagonal diagonal = mDiagonals.get(i);
-                while (posY < diagonal.y) {
-                    // found some additions, evaluate
-                    if (mNewItemStatuses[posY] == 0) { // not evaluated yet
-                        boolean matching = mCallback.areItemsTheSame(posX, posY);
-                        if (matching) {
-                            // yay found it, set values
-                            boolean contentsMatching = mCallback.areContentsTheSame(posX, posY);
-                            final int changeFlag = contentsMatching ? FLAG_MOVED_NOT_CHANGED
-                                    : FLAG_MOVED_CHANGED;
-                            // once we process one of these, it will mark the other one as ignored.
-                            mOldItemStatuses[posX] = (posY << FLAG_OFFSET) | changeFlag;
-                            mNewItemStatuses[posY] = (posX << FLAG_OFFSET) | changeFlag;
-                            return;
-                        }
-                    }
-                    posY++;
+        private void findMatchingAddition(int posX, int[] additions, int[] next) {
+            final int end = additions.length;
+            int previous = end;
+            for (int index = next[end]; index != end; previous = index, index = next[index]) {
+                final int posY = additions[index];
+                boolean matching = mCallback.areItemsTheSame(posX, posY);
+                if (matching) {
+                    // yay found it, set values
+                    markMove(posX, posY);
+                    next[previous] = next[index];
+                    return;
                 }
-                posY = diagonal.endY();
             }
         }
 
+        private void markMove(int posX, int posY) {
+            boolean contentsMatching = mCallback.areContentsTheSame(posX, posY);
+            final int changeFlag = contentsMatching ? FLAG_MOVED_NOT_CHANGED
+                    : FLAG_MOVED_CHANGED;
+            // once we process one of these, it will mark the other one as ignored.
+            mOldItemStatuses[posX] = (posY << FLAG_OFFSET) | changeFlag;
+            mNewItemStatuses[posY] = (posX << FLAG_OFFSET) | changeFlag;
+            mMoveCount++;
+        }
+
         /**
          * Given a position in the old list, returns the position in the new list, or
          * {@code NO_POSITION} if it was removed.
@@ -866,8 +1333,9 @@ public class DiffUtil {
             // less likely to change since we iterate in reverse).
             // Later when we find the match of that move, we dispatch the update
             int currentListSize = mOldListSize;
-            // list of postponed moves
-            final Collection<PostponedUpdate> postponedUpdates = new ArrayDeque<>();
+            // postponed moves
+            final PostponedUpdates postponedUpdates = mMoveCount == 0 ? null
+                    : new PostponedUpdates(mMoveCount, mOldListSize, mNewListSize);
             // posX and posY are exclusive
             int posX = mOldListSize;
             int posY = mNewListSize;
@@ -875,9 +1343,8 @@ public class DiffUtil {
             // this just makes offsets easier since changes in the earlier indices has an effect
             // on the later indices.
             for (int diagonalIndex = mDiagonals.size() - 1; diagonalIndex >= 0; diagonalIndex--) {
-                final Diagonal diagonal = mDiagonals.get(diagonalIndex);
-                int endX = diagonal.endX();
-                int endY = diagonal.endY();
+                int endX = mDiagonals.endX(diagonalIndex);
+                int endY = mDiagonals.endY(diagonalIndex);
                 // dispatch removals and additions until we reach to that diagonal
                 // first remove then add so that it can go into its place and we don't need
                 // to offset values
@@ -888,11 +1355,10 @@ public class DiffUtil {
                     if ((status & FLAG_MOVED) != 0) {
                         int newPos = status >> FLAG_OFFSET;
                         // get postponed addition
-                        PostponedUpdate postponedUpdate = getPostponedUpdate(postponedUpdates,
-                                newPos, false);
-                        if (postponedUpdate != null) {
+                        int postponedPos = postponedUpdates.take(newPos, false);
+                        if (postponedPos != PostponedUpdates.NOT_FOUND) {
                             // this is an addition that was postponed. Now dispatch it.
-                            int updatedNewPos = currentListSize - postponedUpdate.currentPos;
+                            int updatedNewPos = currentListSize - postponedPos;
                             batchingCallback.onMoved(posX, updatedNewPos - 1);
                             if ((status & FLAG_MOVED_CHANGED) != 0) {
                                 Object changePayload = mCallback.getChangePayload(posX, newPos);
@@ -900,11 +1366,7 @@ public class DiffUtil {
                             }
                         } else {
                             // first time we are seeing this, we'll see a matching addition
-                            postponedUpdates.add(new PostponedUpdate(
-                                    posX,
-                                    currentListSize - posX - 1,
-                                    true
-                            ));
+                            postponedUpdates.add(posX, currentListSize - posX - 1, true);
                         }
                     } else {
                         // simple removal
@@ -921,21 +1383,15 @@ public class DiffUtil {
                         // see if this is postponed
                         int oldPos = status >> FLAG_OFFSET;
                         // get postponed removal
-                        PostponedUpdate postponedUpdate = getPostponedUpdate(postponedUpdates,
-                                oldPos, true);
-                        // empty size returns 0 for indexOf
-                        if (postponedUpdate == null) {
+                        int postponedPos = postponedUpdates.take(oldPos, true);
+                        if (postponedPos == PostponedUpdates.NOT_FOUND) {
                             // postpone it until we see the removal
-                            postponedUpdates.add(new PostponedUpdate(
-                                    posY,
-                                    currentListSize - posX,
-                                    false
-                            ));
+                            postponedUpdates.add(posY, currentListSize - posX, false);
                         } else {
                             // oldPosFromEnd = foundListSize - posX
                             // we can find posX if we swap the list sizes
                             // posX = listSize - oldPosFromEnd
-                            int updatedOldPos = currentListSize - postponedUpdate.currentPos - 1;
+                            int updatedOldPos = currentListSize - postponedPos - 1;
                             batchingCallback.onMoved(updatedOldPos, posX);
                             if ((status & FLAG_MOVED_CHANGED) != 0) {
                                 Object changePayload = mCallback.getChangePayload(oldPos, posY);
@@ -949,9 +1405,10 @@ public class DiffUtil {
                     }
                 }
                 // now dispatch updates for the diagonal
-                posX = diagonal.x;
-                posY = diagonal.y;
-                for (int i = 0; i < diagonal.size; i++) {
+                posX = mDiagonals.x(diagonalIndex);
+                posY = mDiagonals.y(diagonalIndex);
+                final int size = mDiagonals.size(diagonalIndex);
+                for (int i = 0; i < size; i++) {
                     // dispatch changes
                     if ((mOldItemStatuses[posX] & FLAG_MASK) == FLAG_CHANGED) {
                         Object changePayload = mCallback.getChangePayload(posX, posY);
@@ -961,67 +1418,174 @@ public class DiffUtil {
                     posY++;
                 }
                 // snap back for the next diagonal
-                posX = diagonal.x;
-                posY = diagonal.y;
+                posX = mDiagonals.x(diagonalIndex);
+                posY = mDiagonals.y(diagonalIndex);
             }
             batchingCallback.dispatchLastEvent();
         }
-
-        @Nullable
-        private static PostponedUpdate getPostponedUpdate(
-                Collection<PostponedUpdate> postponedUpdates,
-                int posInList,
-                boolean removal) {
-            PostponedUpdate postponedUpdate = null;
-            Iterator<PostponedUpdate> itr = postponedUpdates.iterator();
-            while (itr.hasNext()) {
-                PostponedUpdate update = itr.next();
-                if (update.posInOwnerList == posInList && update.removal == removal) {
-                    postponedUpdate = update;
-                    itr.remove();
-                    break;
-                }
-            }
-            while (itr.hasNext()) {
-                // re-offset all others
-                PostponedUpdate update = itr.next();
-                if (removal) {
-                    update.currentPos--;
-                } else {
-                    update.currentPos++;
-                }
-            }
-            return postponedUpdate;
-        }
     }
 
     /**
-     * Represents an update that we skipped because it was a move.
+     * Tracks the updates that we skipped because they were moves.
      * <p>
      * When an update is skipped, it is tracked as other updates are dispatched until the matching
      * add/remove operation is found at which point the tracked position is used to dispatch the
      * update.
+     * <p>
+     * Each postponed update keeps its position with respect to the end of the list. Whenever a
+     * postponed update is taken, every update that was postponed after it is shifted by one. Rather
+     * than shifting them one by one, the shifts are accumulated in a Fenwick tree indexed by the
+     * order in which updates were postponed, so both operations take O(log(moves)) time and no
+     * objects are allocated per update.
      */
-    private static class PostponedUpdate {
-        /**
-         * position in the list that owns this item
-         */
-        int posInOwnerList;
+    private static class PostponedUpdates {
+        static final int NOT_FOUND = Integer.MIN_VALUE;
+
+        // position in the old list of a postponed removal -> its index + 1, 0 if not postponed
+        private final int[] mRemovalIndices;
+        // position in the new list of a postponed addition -> its index + 1, 0 if not postponed
+        private final int[] mAdditionIndices;
+        // position wrt to the end of the list, at the time the update was postponed
+        private final int[] mPositions;
+        // sum of the shifts of all earlier updates, at the time the update was postponed
+        private final int[] mBaseShifts;
+        // Fenwick tree of the shifts caused by taking each update
+        private final int[] mShiftTree;
+        private int mCount;
+
+        PostponedUpdates(int capacity, int oldListSize, int newListSize) {
+            mRemovalIndices = new int[oldListSize];
+            mAdditionIndices = new int[newListSize];
+            mPositions = new int[capacity];
+            mBaseShifts = new int[capacity];
+            mShiftTree = new int[capacity + 1];
+        }
 
         /**
-         * position wrt to the end of the list
+         * @param posInOwnerList position in the list that owns this item
+         * @param currentPos     position wrt to the end of the list
+         * @param removal        true if this is a removal, false otherwise
          */
-        int currentPos;
+        void add(int posInOwnerList, int currentPos, boolean removal) {
+            final int index = mCount++;
+            mPositions[index] = currentPos;
+            mBaseShifts[index] = shiftBefore(index);
+            if (removal) {
+                mRemovalIndices[posInOwnerList] = index + 1;
+            } else {
+                mAdditionIndices[posInOwnerList] = index + 1;
+            }
+        }
 
         /**
-         * true if this is a removal, false otherwise
+         * Removes the postponed update for the given position and returns its current position
+         * wrt to the end of the list, or {@link #NOT_FOUND} if there is no such update.
          */
-        boolean removal;
+        int take(int posInOwnerList, boolean removal) {
+            final int[] indices = removal ? mRemovalIndices : mAdditionIndices;
+            final int index = indices[posInOwnerList] - 1;
+            if (index < 0) {
+                return NOT_FOUND;
+            }
+            indices[posInOwnerList] = 0;
+            final int currentPos = mPositions[index] + shiftBefore(index) - mBaseShifts[index];
+            // re-offset all updates that were postponed after this one
+            final int shift = removal ? -1 : 1;
+            for (int i = index + 1; i < mShiftTree.length; i += i & -i) {
+                mShiftTree[i] += shift;
+            }
+            return currentPos;
+        }
+
+        // sum of the shifts caused by the updates at indices before the given one
+        private int shiftBefore(int index) {
+            int sum = 0;
+            for (int i = index; i > 0; i -= i & -i) {
+                sum += mShiftTree[i];
+            }
+            return sum;
+        }
+    }
 
-        PostponedUpdate(int posInOwnerList, int currentPos, boolean removal) {
-            this.posInOwnerList = posInOwnerList;
-            this.currentPos = currentPos;
-            this.removal = removal;
+    /**
+     * Solves a fixed set of independent ranges. The same instance is run by the worker threads
+     * and by the thread that calls {@link #calculateDiff(Callback, boolean, Executor)}; each of
+     * them keeps claiming ranges until none are left.
+     */
+    private static class ParallelRangeSolver implements Runnable {
+        private final Callback mCallback;
+        private final List<Range> mRanges;
+        private final AtomicInteger mNextRange = new AtomicInteger();
+        private final CountDownLatch mRemaining;
+        private final int mMaxRangeSize;
+        // guarded by itself until all ranges are solved
+        final Diagonals mDiagonals = new Diagonals();
+        private volatile Throwable mError;
+
+        ParallelRangeSolver(Callback callback, List<Range> ranges) {
+            mCallback = callback;
+            mRanges = ranges;
+            mRemaining = new CountDownLatch(ranges.size());
+            int maxRangeSize = 0;
+            for (int i = 0; i < ranges.size(); i++) {
+                final Range range = ranges.get(i);
+                maxRangeSize = Math.max(maxRangeSize, range.oldSize() + range.newSize());
+            }
+            mMaxRangeSize = maxRangeSize;
+        }
+
+        @Override
+        public void run() {
+            int index = mNextRange.getAndIncrement();
+            if (index >= mRanges.size()) {
+                return;
+            }
+            final int max = (mMaxRangeSize + 1) / 2;
+            final CenteredArray forward = new CenteredArray(max * 2 + 1);
+            final CenteredArray backward = new CenteredArray(max * 2 + 1);
+            final Diagonals diagonals = new Diagonals();
+            final List<Range> stack = new ArrayList<>();
+            for (; index < mRanges.size(); index = mNextRange.getAndIncrement()) {
+                try {
+                    if (mError == null) {
+                        stack.add(mRanges.get(index));
+                        solveRanges(stack, mCallback, forward, backward, diagonals);
+                        synchronized (mDiagonals) {
+                            mDiagonals.addAll(diagonals);
+                        }
+                    }
+                } catch (Throwable t) {
+                    mError = t;
+                } finally {
+                    stack.clear();
+                    diagonals.clear();
+                    // counting down publishes the diagonals to the thread waiting in await()
+                    mRemaining.countDown();
+                }
+            }
+        }
+
+        void await() {
+            boolean interrupted = false;
+            while (true) {
+                try {
+                    mRemaining.await();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+            final Throwable error = mError;
+            if (error instanceof RuntimeException) {
+                throw (RuntimeException) error;
+            } else if (error instanceof Error) {
+                throw (Error) error;
+            } else if (error != null) {
+                throw new RuntimeException(error);
+            }
         }
     }
 
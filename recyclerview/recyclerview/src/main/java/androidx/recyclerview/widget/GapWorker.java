@@ -35,6 +35,19 @@ final class GapWorker implements Runnable {
     long mPostTimeNs;
     long mFrameIntervalNs;
 
+    /**
+     * Running totals of the prefetch work, kept for tests and debugging.
+     * <ul>
+     *     <li>prefetched: holders that were created and bound ahead of time</li>
+     *     <li>wasted: prefetched holders that left the cache without ever being attached</li>
+     *     <li>deadline missed: prefetches that were skipped or abandoned because they were not
+     *     expected to, or did not, finish before the frame deadline</li>
+     * </ul>
+     */
+    int mPrefetchedCount;
+    int mWastedCount;
+    int mDeadlineMissedCount;
+
     static class Task {
         public boolean immediate;
         public int viewVelocity;
@@ -274,12 +287,55 @@ final class GapWorker implements Runnable {
         return false;
     }
 
+    static boolean isPrefetchPositionCached(RecyclerView view, int position) {
+        final ArrayList<RecyclerView.ViewHolder> cachedViews = view.mRecycler.mCachedViews;
+        for (int i = 0; i < cachedViews.size(); i++) {
+            final RecyclerView.ViewHolder holder = cachedViews.get(i);
+            if (holder.mPosition == position && !holder.isInvalid()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns true if it is worth trying to prefetch the given position before the deadline,
+     * based on the create and bind times measured for its view type.
+     */
+    static boolean willPrefetchInTime(RecyclerView view, int position, long deadlineNs) {
+        if (deadlineNs == RecyclerView.FOREVER_NS || isPrefetchPositionCached(view, position)) {
+            return true;
+        }
+        final RecyclerView.Adapter<?> adapter = view.mAdapter;
+        if (adapter == null || position >= adapter.getItemCount()) {
+            // let the recycler deal with it
+            return true;
+        }
+        final int viewType = adapter.getItemViewType(position);
+        final RecyclerView.RecycledViewPool pool = view.mRecycler.getRecycledViewPool();
+        final long nowNs = view.getNanoTime();
+        final long expectedDurationNs = pool.estimatePrefetchTimeNs(viewType);
+        if (expectedDurationNs == 0 || nowNs + expectedDurationNs < deadlineNs) {
+            return true;
+        }
+        // There isn't time for all of it, but creating a holder into the pool ahead of time is
+        // still useful, so let the recycler do that much if it can.
+        return pool.getRecycledViewCount(viewType) == 0
+                && pool.willCreateInTime(viewType, nowNs, deadlineNs);
+    }
+
     private RecyclerView.ViewHolder prefetchPositionWithDeadline(RecyclerView view,
             int position, long deadlineNs) {
         if (isPrefetchPositionAttached(view, position)) {
             // don't attempt to prefetch attached views
             return null;
         }
+        if (!willPrefetchInTime(view, position, deadlineNs)) {
+            // Skip it, there is no time to get anything useful done for it. A cheaper item
+            // further down the task list may still fit in the remaining time.
+            mDeadlineMissedCount++;
+            return null;
+        }
 
         RecyclerView.Recycler recycler = view.mRecycler;
         RecyclerView.ViewHolder holder;
@@ -290,16 +346,24 @@ final class GapWorker implements Runnable {
 
             if (holder != null) {
                 if (holder.isBound() && !holder.isInvalid()) {
+                    if (!holder.hasAnyOfTheFlags(RecyclerView.ViewHolder.FLAG_PREFETCHED)) {
+                        holder.addFlags(RecyclerView.ViewHolder.FLAG_PREFETCHED);
+                        mPrefetchedCount++;
+                    }
                     // Only give the view a chance to go into the cache if binding succeeded
                     // Note that we must use public method, since item may need cleanup
                     recycler.recycleView(holder.itemView);
                 } else {
+                    mDeadlineMissedCount++;
                     // Didn't bind, so we can't cache the view, but it will stay in the pool until
                     // next prefetch/traversal. If a View fails to bind, it means we didn't have
                     // enough time prior to the deadline (and won't for other instances of this
                     // type, during this GapWorker prefetch pass).
                     recycler.addViewHolderToRecycledViewPool(holder, false);
                 }
+            } else {
+                // the recycler expected to miss the deadline creating it
+                mDeadlineMissedCount++;
             }
         } finally {
             view.onExitLayoutOrScroll(false);
@@ -348,7 +412,19 @@ final class GapWorker implements Runnable {
                 && holder.mNestedRecyclerView != null
                 && holder.isBound()
                 && !holder.isInvalid()) {
+            final RecyclerView.RecycledViewPool pool = task.view.mRecycler.getRecycledViewPool();
+            final int viewType = holder.getItemViewType();
+            final long startNs = task.view.getNanoTime();
+            if (deadlineNs != RecyclerView.FOREVER_NS
+                    && !pool.willPrefetchNestedInTime(viewType, startNs, deadlineNs)) {
+                // the nested content of this type isn't expected to fit in the frame
+                mDeadlineMissedCount++;
+                return;
+            }
             prefetchInnerRecyclerViewWithDeadline(holder.mNestedRecyclerView.get(), deadlineNs);
+            // learn how expensive the nested content of this type is, so that the next passes
+            // can tell whether it fits in the frame
+            pool.factorInNestedPrefetchTime(viewType, task.view.getNanoTime() - startNs);
         }
     }
 
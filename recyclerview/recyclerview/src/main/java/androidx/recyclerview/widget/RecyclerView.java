@@ -39,6 +39,8 @@ import android.graphics.drawable.StateListDrawable;
 import android.hardware.SensorManager;
 import android.os.Build;
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
 import android.os.Parcel;
 import android.os.Parcelable;
 import android.os.SystemClock;
@@ -98,6 +100,7 @@ import java.util.Collections;
 import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Executor;
 
 /**
  * A flexible view for providing a limited window into a large data set.
@@ -6210,10 +6213,23 @@ public class RecyclerView extends ViewGroup implements ScrollingView,
             int mMaxScrap = DEFAULT_MAX_SCRAP;
             long mCreateRunningAverageNs = 0;
             long mBindRunningAverageNs = 0;
+            // time spent prefetching the items of a nested RecyclerView, e.g. a carousel, after
+            // a holder of this type is prefetched
+            long mNestedPrefetchRunningAverageNs = 0;
+            // ViewHolders being created by prewarm() that were not handed over yet
+            int mPendingPrewarmCount = 0;
+            int mHitCount = 0;
+            int mMissCount = 0;
         }
 
         SparseArray<ScrapData> mScrap = new SparseArray<>();
 
+        /**
+         * Incremented when the pool is cleared, so that ViewHolders that were being created by
+         * {@link #prewarm(RecyclerView, int, int, Executor)} at that time are discarded.
+         */
+        int mPrewarmGeneration = 0;
+
         /**
          * Attach counts for clearing (that is, emptying the pool when there are no adapters
          * attached) and for PoolingContainer release are tracked separately to maintain the
@@ -6246,12 +6262,14 @@ public class RecyclerView extends ViewGroup implements ScrollingView,
          * Discard all ViewHolders.
          */
         public void clear() {
+            mPrewarmGeneration++;
             for (int i = 0; i < mScrap.size(); i++) {
                 ScrapData data = mScrap.valueAt(i);
                 for (ViewHolder scrap: data.mScrapHeap) {
                     PoolingContainer.callPoolingContainerOnRelease(scrap.itemView);
                 }
                 data.mScrapHeap.clear();
+                data.mPendingPrewarmCount = 0;
             }
         }
 
@@ -6287,18 +6305,140 @@ public class RecyclerView extends ViewGroup implements ScrollingView,
          */
         @Nullable
         public ViewHolder getRecycledView(int viewType) {
-            final ScrapData scrapData = mScrap.get(viewType);
-            if (scrapData != null && !scrapData.mScrapHeap.isEmpty()) {
+            final ScrapData scrapData = getScrapDataForType(viewType);
+            if (!scrapData.mScrapHeap.isEmpty()) {
                 final ArrayList<ViewHolder> scrapHeap = scrapData.mScrapHeap;
                 for (int i = scrapHeap.size() - 1; i >= 0; i--) {
                     if (!scrapHeap.get(i).isAttachedToTransitionOverlay()) {
+                        scrapData.mHitCount++;
                         return scrapHeap.remove(i);
                     }
                 }
             }
+            scrapData.mMissCount++;
             return null;
         }
 
+        /**
+         * Returns how many times {@link #getRecycledView(int)} returned a ViewHolder of the given
+         * type.
+         * <p>
+         * Together with {@link #getRecycledViewMissCount(int)}, this can be used to size the
+         * number of ViewHolders to {@link #prewarm(RecyclerView, int, int, Executor) prewarm}.
+         *
+         * @param viewType ViewHolder type.
+         * @return Number of requests for the type that were served by the pool.
+         */
+        public int getRecycledViewHitCount(int viewType) {
+            return getScrapDataForType(viewType).mHitCount;
+        }
+
+        /**
+         * Returns how many times {@link #getRecycledView(int)} could not return a ViewHolder of
+         * the given type, which usually means a new one had to be created.
+         *
+         * @param viewType ViewHolder type.
+         * @return Number of requests for the type that the pool could not serve.
+         * @see #getRecycledViewHitCount(int)
+         */
+        public int getRecycledViewMissCount(int viewType) {
+            return getScrapDataForType(viewType).mMissCount;
+        }
+
+        /**
+         * Creates ViewHolders of the given type on the given executor and adds them to this pool,
+         * until the pool holds {@code count} ViewHolders of that type.
+         * <p>
+         * This can be used to fill the pool before the first fling of a screen with heavy item
+         * layouts, so that these ViewHolders don't have to be created on the UI thread.
+         * <p>
+         * ViewHolders are created with {@link Adapter#createViewHolder(ViewGroup, int)} of the
+         * RecyclerView's adapter, using the RecyclerView as the parent. That adapter's
+         * {@link Adapter#onCreateViewHolder(ViewGroup, int)} must be safe to call from a
+         * background thread for this view type: it may inflate and set up views, but must not
+         * touch views that are attached to a window or other state owned by the UI thread.
+         * <p>
+         * This method must be called on the UI thread. The created ViewHolders are handed over
+         * to the pool on the UI thread as well, so the pool itself is never accessed concurrently.
+         * If needed, the maximum number of recycled views for the type is raised to {@code count}
+         * so that they are not discarded. ViewHolders that are still being created are discarded
+         * if the pool is cleared or the RecyclerView's adapter changes in the meantime.
+         *
+         * @param recyclerView The RecyclerView whose adapter creates the ViewHolders.
+         * @param viewType     ViewHolder type.
+         * @param count        Number of ViewHolders of this type the pool should hold.
+         * @param executor     Executor on which the ViewHolders are created.
+         * @throws java.util.concurrent.RejectedExecutionException if the executor rejects a
+         *                     creation; the creations it accepted before still complete.
+         */
+        public void prewarm(@NonNull final RecyclerView recyclerView, final int viewType,
+                int count, @NonNull Executor executor) {
+            final Adapter<?> adapter = recyclerView.getAdapter();
+            if (adapter == null) {
+                throw new IllegalStateException("RecyclerView has no adapter to create"
+                        + " ViewHolders with" + recyclerView.exceptionLabel());
+            }
+            final Looper looper = Looper.myLooper();
+            if (looper == null) {
+                throw new IllegalStateException("prewarm must be called on the UI thread");
+            }
+            final ScrapData scrapData = getScrapDataForType(viewType);
+            if (scrapData.mMaxScrap < count) {
+                scrapData.mMaxScrap = count;
+            }
+            final int missing = count - scrapData.mScrapHeap.size()
+                    - scrapData.mPendingPrewarmCount;
+            if (missing <= 0) {
+                return;
+            }
+            final Handler handler = new Handler(looper);
+            final int generation = mPrewarmGeneration;
+            for (int i = 0; i < missing; i++) {
+                executor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        ViewHolder holder = null;
+                        try {
+                            holder = adapter.createViewHolder(recyclerView, viewType);
+                        } finally {
+                            final ViewHolder createdHolder = holder;
+                            handler.post(new Runnable() {
+                                @Override
+                                public void run() {
+                                    onPrewarmedViewHolder(recyclerView, adapter, viewType,
+                                            generation, createdHolder);
+                                }
+                            });
+                        }
+                    }
+                });
+                // Only count accepted tasks, so that a rejected one doesn't block later prewarms.
+                // The count is decremented on this thread, so it can't happen before this.
+                scrapData.mPendingPrewarmCount++;
+            }
+        }
+
+        void onPrewarmedViewHolder(@NonNull RecyclerView recyclerView, @NonNull Adapter<?> adapter,
+                int viewType, int generation, @Nullable ViewHolder holder) {
+            if (generation != mPrewarmGeneration) {
+                // cleared in the meantime, pending counts were reset
+                if (holder != null) {
+                    PoolingContainer.callPoolingContainerOnRelease(holder.itemView);
+                }
+                return;
+            }
+            final ScrapData scrapData = getScrapDataForType(viewType);
+            scrapData.mPendingPrewarmCount--;
+            if (holder == null) {
+                return;
+            }
+            if (recyclerView.getAdapter() != adapter) {
+                PoolingContainer.callPoolingContainerOnRelease(holder.itemView);
+                return;
+            }
+            putRecycledView(holder);
+        }
+
         /**
          * Total number of ViewHolders held by the pool.
          *
@@ -6355,6 +6495,24 @@ public class RecyclerView extends ViewGroup implements ScrollingView,
                     scrapData.mBindRunningAverageNs, bindTimeNs);
         }
 
+        void factorInNestedPrefetchTime(int viewType, long nestedPrefetchTimeNs) {
+            ScrapData scrapData = getScrapDataForType(viewType);
+            scrapData.mNestedPrefetchRunningAverageNs = runningAverage(
+                    scrapData.mNestedPrefetchRunningAverageNs, nestedPrefetchTimeNs);
+        }
+
+        /**
+         * Estimates how long it takes to create, if the pool has none, and bind a holder of the
+         * given type. Returns 0 if nothing is known yet about the type, so that it is attempted
+         * and measured.
+         */
+        long estimatePrefetchTimeNs(int viewType) {
+            final ScrapData scrapData = getScrapDataForType(viewType);
+            final long createNs = scrapData.mScrapHeap.isEmpty()
+                    ? scrapData.mCreateRunningAverageNs : 0;
+            return createNs + scrapData.mBindRunningAverageNs;
+        }
+
         boolean willCreateInTime(int viewType, long approxCurrentNs, long deadlineNs) {
             long expectedDurationNs = getScrapDataForType(viewType).mCreateRunningAverageNs;
             return expectedDurationNs == 0 || (approxCurrentNs + expectedDurationNs < deadlineNs);
@@ -6365,6 +6523,12 @@ public class RecyclerView extends ViewGroup implements ScrollingView,
             return expectedDurationNs == 0 || (approxCurrentNs + expectedDurationNs < deadlineNs);
         }
 
+        boolean willPrefetchNestedInTime(int viewType, long approxCurrentNs, long deadlineNs) {
+            long expectedDurationNs =
+                    getScrapDataForType(viewType).mNestedPrefetchRunningAverageNs;
+            return expectedDurationNs == 0 || (approxCurrentNs + expectedDurationNs < deadlineNs);
+        }
+
         void attach() {
             mAttachCountForClearing++;
         }
@@ -7165,6 +7329,13 @@ public class RecyclerView extends ViewGroup implements ScrollingView,
          * @param dispatchRecycled True to dispatch View recycled callbacks.
          */
         void addViewHolderToRecycledViewPool(@NonNull ViewHolder holder, boolean dispatchRecycled) {
+            if (holder.hasAnyOfTheFlags(ViewHolder.FLAG_PREFETCHED)) {
+                // prefetched, but evicted from the cache before it was ever displayed
+                holder.setFlags(0, ViewHolder.FLAG_PREFETCHED);
+                if (mGapWorker != null) {
+                    mGapWorker.mWastedCount++;
+                }
+            }
             clearNestedRecyclerViewIfNotNested(holder);
             View itemView = holder.itemView;
             if (mAccessibilityDelegate != null) {
@@ -8377,6 +8548,9 @@ public class RecyclerView extends ViewGroup implements ScrollingView,
     @SuppressWarnings("unchecked")
     void dispatchChildAttached(View child) {
         final ViewHolder viewHolder = getChildViewHolderInt(child);
+        if (viewHolder != null) {
+            viewHolder.setFlags(0, ViewHolder.FLAG_PREFETCHED);
+        }
         onChildAttachedToWindow(child);
         if (mAdapter != null && viewHolder != null) {
             mAdapter.onViewAttachedToWindow(viewHolder);
@@ -11880,6 +12054,12 @@ public class RecyclerView extends ViewGroup implements ScrollingView,
          */
         static final int FLAG_BOUNCED_FROM_HIDDEN_LIST = 1 << 13;
 
+        /**
+         * Set when the ViewHolder was created or bound by {@link GapWorker} prefetch and has not
+         * been attached to the RecyclerView since. Used to count prefetch work that was wasted.
+         */
+        static final int FLAG_PREFETCHED = 1 << 14;
+
         int mFlags;
 
         private static final List<Object> FULLUPDATE_PAYLOADS = Collections.emptyList();
@@ -31,6 +31,8 @@ import org.junit.runner.RunWith
 import org.junit.runners.JUnit4
 import java.util.Random
 import java.util.UUID
+import java.util.concurrent.Executor
+import java.util.concurrent.Executors
 
 @RunWith(JUnit4::class)
 class DiffUtilTest {
@@ -361,7 +363,100 @@ class DiffUtilTest {
         calculate().convertNewPositionToOld(2)
     }
 
-    private fun calculate() = DiffUtil.calculateDiff(callback, true)
+    private var useKeyedDiff = false
+
+    private fun calculate() = if (useKeyedDiff) {
+        DiffUtil.calculateDiff(before, after, KeyedItemCallback)
+    } else {
+        DiffUtil.calculateDiff(callback, true)
+    }
+
+    @Test
+    fun keyed_random() {
+        useKeyedDiff = true
+        for (size in listOf(0, 1, 5, 20, 100)) {
+            repeat(20) {
+                testRandom(size, 30)
+            }
+        }
+    }
+
+    @Test
+    fun keyed_shuffle() {
+        useKeyedDiff = true
+        initWithSize(1000)
+        after.shuffle(sRand)
+        check()
+    }
+
+    @Test
+    fun keyed_nullItems() {
+        val oldList = listOf(null, "a", null, "b")
+        val newList = listOf("b", null, "c", null, null)
+        val result = DiffUtil.calculateDiff(
+            oldList,
+            newList,
+            object : DiffUtil.KeyedItemCallback<String>() {
+                override fun getKey(item: String) = item
+
+                override fun areContentsTheSame(oldItem: String, newItem: String) =
+                    oldItem == newItem
+            }
+        )
+        assertEquals(1, result.convertOldPositionToNew(0))
+        assertEquals(DiffUtil.DiffResult.NO_POSITION, result.convertOldPositionToNew(1))
+        assertEquals(3, result.convertOldPositionToNew(2))
+        assertEquals(0, result.convertOldPositionToNew(3))
+        assertEquals(DiffUtil.DiffResult.NO_POSITION, result.convertNewPositionToOld(4))
+    }
+
+    @Test
+    fun parallel_sameResultAsSerial() {
+        val executor = Executors.newFixedThreadPool(4)
+        try {
+            repeat(5) {
+                testRandom(10_000, 200)
+                val serial = recordUpdates(DiffUtil.calculateDiff(callback, true))
+                val parallel = recordUpdates(DiffUtil.calculateDiff(callback, true, executor))
+                assertEquals(serial, parallel)
+            }
+        } finally {
+            executor.shutdown()
+        }
+    }
+
+    @Test
+    fun parallel_callingThreadSolvesRangesWhenExecutorIsBusy() {
+        testRandom(10_000, 200)
+        // an executor that never runs anything, the calling thread has to do all the work
+        val parallel = DiffUtil.calculateDiff(callback, true, Executor { })
+        assertEquals(
+            recordUpdates(DiffUtil.calculateDiff(callback, true)),
+            recordUpdates(parallel)
+        )
+    }
+
+    private fun recordUpdates(result: DiffUtil.DiffResult): List<String> {
+        val updates = mutableListOf<String>()
+        result.dispatchUpdatesTo(object : ListUpdateCallback {
+            override fun onInserted(position: Int, count: Int) {
+                updates.add("insert $position $count")
+            }
+
+            override fun onRemoved(position: Int, count: Int) {
+                updates.add("remove $position $count")
+            }
+
+            override fun onMoved(fromPosition: Int, toPosition: Int) {
+                updates.add("move $fromPosition $toPosition")
+            }
+
+            override fun onChanged(position: Int, count: Int, payload: Any?) {
+                updates.add("change $position $count $payload")
+            }
+        })
+        return updates
+    }
 
     @Test
     fun duplicate() {
@@ -679,6 +774,15 @@ class DiffUtilTest {
         }
     }
 
+    private object KeyedItemCallback : DiffUtil.KeyedItemCallback<Item>() {
+        override fun getKey(item: Item) = item.id
+
+        override fun areContentsTheSame(oldItem: Item, newItem: Item) =
+            oldItem.data == newItem.data
+
+        override fun getChangePayload(oldItem: Item, newItem: Item) = newItem.payload
+    }
+
     private class ItemListCallback(
         private val oldList: List<Item>,
         private val newList: List<Item>,
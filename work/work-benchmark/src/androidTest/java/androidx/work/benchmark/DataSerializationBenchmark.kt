@@ -0,0 +1,110 @@
+/*
+ * Copyright 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.work.benchmark
+
+import androidx.benchmark.junit4.BenchmarkRule
+import androidx.benchmark.junit4.measureRepeated
+import androidx.test.ext.junit.runners.AndroidJUnit4
+import androidx.test.filters.LargeTest
+import androidx.work.Data
+import java.io.ByteArrayOutputStream
+import java.io.ObjectOutputStream
+import org.junit.Rule
+import org.junit.Test
+import org.junit.runner.RunWith
+
+/**
+ * Compares the compact [Data] format with the [ObjectOutputStream] based format it replaced,
+ * which is still what older databases contain.
+ */
+@RunWith(AndroidJUnit4::class)
+@LargeTest
+class DataSerializationBenchmark {
+    @get:Rule
+    val benchmarkRule = BenchmarkRule()
+
+    private val data = Data.Builder()
+        .putString("url", "https://example.com/upload/0123456789")
+        .putLong("timestamp", 1_650_000_000_000L)
+        .putInt("attempt", 3)
+        .putBoolean("wifiOnly", true)
+        .putIntArray("ids", IntArray(256) { it })
+        .putDoubleArray("weights", DoubleArray(64) { it / 64.0 })
+        .putStringArray("tags", Array(16) { "tag$it" })
+        .build()
+
+    private val values = data.keyValueMap
+
+    private val compactBytes = data.toByteArray()
+
+    private val legacyBytes = serializeLegacy(values)
+
+    @Test
+    fun serializeCompact() {
+        benchmarkRule.measureRepeated {
+            // a Data created from a map has no cached serialized form
+            Data.toByteArrayInternal(Data(values))
+        }
+    }
+
+    @Test
+    fun serializeLegacy() {
+        benchmarkRule.measureRepeated {
+            serializeLegacy(values)
+        }
+    }
+
+    @Test
+    fun deserializeCompact() {
+        benchmarkRule.measureRepeated {
+            Data.fromByteArray(compactBytes).keyValueMap
+        }
+    }
+
+    @Test
+    fun deserializeCompact_singleKey() {
+        benchmarkRule.measureRepeated {
+            Data.fromByteArray(compactBytes).getLong("timestamp", 0L)
+        }
+    }
+
+    @Test
+    fun deserializeLegacy() {
+        benchmarkRule.measureRepeated {
+            Data.fromByteArray(legacyBytes).keyValueMap
+        }
+    }
+
+    @Test
+    fun deserializeLegacy_singleKey() {
+        benchmarkRule.measureRepeated {
+            Data.fromByteArray(legacyBytes).getLong("timestamp", 0L)
+        }
+    }
+
+    private fun serializeLegacy(values: Map<String, Any?>): ByteArray {
+        val outputStream = ByteArrayOutputStream()
+        ObjectOutputStream(outputStream).use { objectOutputStream ->
+            objectOutputStream.writeInt(values.size)
+            for ((key, value) in values) {
+                objectOutputStream.writeUTF(key)
+                objectOutputStream.writeObject(value)
+            }
+        }
+        return outputStream.toByteArray()
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.work.benchmark
+
+import android.content.Context
+import androidx.benchmark.junit4.BenchmarkRule
+import androidx.benchmark.junit4.measureRepeated
+import androidx.test.core.app.ApplicationProvider
+import androidx.test.filters.LargeTest
+import androidx.work.Configuration
+import androidx.work.OneTimeWorkRequest
+import androidx.work.OneTimeWorkRequestBuilder
+import androidx.work.WorkContinuation
+import androidx.work.impl.WorkContinuationImpl
+import androidx.work.impl.WorkDatabase
+import androidx.work.impl.WorkManagerImpl
+import androidx.work.impl.schedulers
+import androidx.work.impl.utils.EnqueueRunnable
+import androidx.work.impl.utils.SerialExecutorImpl
+import androidx.work.impl.utils.SynchronousExecutor
+import androidx.work.impl.utils.taskexecutor.SerialExecutor
+import androidx.work.impl.utils.taskexecutor.TaskExecutor
+import java.util.concurrent.Executor
+import org.junit.After
+import org.junit.Before
+import org.junit.Rule
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.junit.runners.Parameterized
+
+/**
+ * Measures writing [WorkContinuation] graphs of different sizes and shapes to the database.
+ */
+@LargeTest
+@RunWith(Parameterized::class)
+class EnqueueBenchmark(
+    private val size: Int,
+    private val shape: Shape
+) {
+    @get:Rule
+    val benchmarkRule = BenchmarkRule()
+
+    private lateinit var database: WorkDatabase
+    private lateinit var workManager: WorkManagerImpl
+
+    @Before
+    fun setUp() {
+        val context = ApplicationProvider.getApplicationContext<Context>()
+        val executor = SynchronousExecutor()
+        val serialExecutor = SerialExecutorImpl(executor)
+        val taskExecutor = object : TaskExecutor {
+            override fun getMainThreadExecutor(): Executor {
+                return serialExecutor
+            }
+
+            override fun getSerialTaskExecutor(): SerialExecutor {
+                return serialExecutor
+            }
+        }
+        val configuration = Configuration.Builder()
+            .setTaskExecutor(executor)
+            .setExecutor(executor)
+            .build()
+        database = WorkDatabase.create(context, executor, true)
+        // No schedulers, only the database writes are measured.
+        workManager = WorkManagerImpl(
+            context, configuration, taskExecutor, database, schedulersCreator = schedulers()
+        )
+    }
+
+    @After
+    fun tearDown() {
+        database.close()
+    }
+
+    @Test
+    fun addToDatabase() {
+        lateinit var runnable: EnqueueRunnable
+        benchmarkRule.measureRepeated {
+            runWithTimingDisabled {
+                runnable = EnqueueRunnable(createGraph())
+            }
+            runnable.addToDatabase()
+            runWithTimingDisabled {
+                database.clearAllTables()
+            }
+        }
+    }
+
+    private fun createGraph(): WorkContinuationImpl {
+        val continuation = when (shape) {
+            Shape.LAYERS -> {
+                var continuation = workManager.beginWith(requests(LAYER_WIDTH))
+                repeat(size / LAYER_WIDTH - 1) {
+                    continuation = continuation.then(requests(LAYER_WIDTH))
+                }
+                continuation
+            }
+            Shape.FAN_IN -> WorkContinuation.combine(
+                List(size - 1) { workManager.beginWith(requests(1)) }
+            )
+        }
+        return continuation as WorkContinuationImpl
+    }
+
+    private fun requests(count: Int): List<OneTimeWorkRequest> =
+        List(count) { OneTimeWorkRequestBuilder<NoOpWorker>().addTag(TAG).build() }
+
+    enum class Shape {
+        // Chained layers of LAYER_WIDTH requests, each depending on the whole previous layer.
+        LAYERS,
+        // Independent requests that are all prerequisites of a single combining request.
+        FAN_IN
+    }
+
+    companion object {
+        private const val LAYER_WIDTH = 50
+        private const val TAG = "sync"
+
+        @JvmStatic
+        @Parameterized.Parameters(name = "size_{0}_{1}")
+        fun params() = listOf(100, 1_000, 5_000).flatMap { size ->
+            Shape.values().map { shape -> arrayOf(size, shape) }
+        }
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.work.benchmark
+
+import android.content.Context
+import androidx.benchmark.junit4.BenchmarkRule
+import androidx.benchmark.junit4.measureRepeated
+import androidx.test.core.app.ApplicationProvider
+import androidx.test.ext.junit.runners.AndroidJUnit4
+import androidx.test.filters.LargeTest
+import androidx.work.Configuration
+import androidx.work.Constraints
+import androidx.work.NetworkType
+import androidx.work.OneTimeWorkRequestBuilder
+import androidx.work.WorkerParameters
+import androidx.work.impl.Processor
+import androidx.work.impl.StartStopToken
+import androidx.work.impl.WorkDatabase
+import androidx.work.impl.WorkLauncher
+import androidx.work.impl.background.greedy.GreedyScheduler
+import androidx.work.impl.constraints.trackers.Trackers
+import androidx.work.impl.model.WorkSpec
+import androidx.work.impl.model.generationalId
+import androidx.work.impl.utils.SerialExecutorImpl
+import androidx.work.impl.utils.SynchronousExecutor
+import androidx.work.impl.utils.taskexecutor.SerialExecutor
+import androidx.work.impl.utils.taskexecutor.TaskExecutor
+import java.util.concurrent.Executor
+import org.junit.After
+import org.junit.Before
+import org.junit.Rule
+import org.junit.Test
+import org.junit.runner.RunWith
+
+/**
+ * Measures scheduling and completing one constrained work while many other constrained works
+ * are waiting for their constraints in [GreedyScheduler].
+ */
+@RunWith(AndroidJUnit4::class)
+@LargeTest
+class GreedySchedulerBenchmark {
+    @get:Rule
+    val benchmarkRule = BenchmarkRule()
+
+    private lateinit var database: WorkDatabase
+    private lateinit var greedyScheduler: GreedyScheduler
+
+    @Before
+    fun setUp() {
+        val context = ApplicationProvider.getApplicationContext<Context>()
+        val executor = SynchronousExecutor()
+        val serialExecutor = SerialExecutorImpl(executor)
+        val taskExecutor = object : TaskExecutor {
+            override fun getMainThreadExecutor(): Executor {
+                return serialExecutor
+            }
+
+            override fun getSerialTaskExecutor(): SerialExecutor {
+                return serialExecutor
+            }
+        }
+        val configuration = Configuration.Builder()
+            .setTaskExecutor(executor)
+            .setExecutor(executor)
+            .build()
+        database = WorkDatabase.create(context, executor, true)
+        val processor = Processor(context, configuration, taskExecutor, database)
+        // Works whose constraints are met are not actually started.
+        val launcher = object : WorkLauncher {
+            override fun startWork(
+                workSpecId: StartStopToken,
+                runtimeExtras: WorkerParameters.RuntimeExtras?
+            ) {
+            }
+
+            override fun stopWork(workSpecId: StartStopToken) {
+            }
+        }
+        greedyScheduler = GreedyScheduler(
+            context, configuration, Trackers(context, taskExecutor), processor, launcher
+        )
+        greedyScheduler.schedule(*Array(PENDING_WORK_COUNT) { constrainedWorkSpec() })
+    }
+
+    @After
+    fun tearDown() {
+        database.close()
+    }
+
+    @Test
+    fun scheduleAndExecute() {
+        benchmarkRule.measureRepeated {
+            val workSpec = runWithTimingDisabled { constrainedWorkSpec() }
+            greedyScheduler.schedule(workSpec)
+            greedyScheduler.onExecuted(workSpec.generationalId(), false)
+        }
+    }
+
+    private fun constrainedWorkSpec(): WorkSpec {
+        val constraints = Constraints.Builder()
+            .setRequiredNetworkType(NetworkType.UNMETERED)
+            .setRequiresCharging(true)
+            .build()
+        return OneTimeWorkRequestBuilder<NoOpWorker>()
+            .setConstraints(constraints)
+            .build()
+            .workSpec
+    }
+
+    companion object {
+        private const val PENDING_WORK_COUNT = 10_000
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.work.benchmark
+
+import android.content.Context
+import androidx.benchmark.junit4.BenchmarkRule
+import androidx.benchmark.junit4.measureRepeated
+import androidx.test.core.app.ApplicationProvider
+import androidx.test.filters.LargeTest
+import androidx.work.Configuration
+import androidx.work.OneTimeWorkRequestBuilder
+import androidx.work.impl.ExecutionListener
+import androidx.work.impl.Processor
+import androidx.work.impl.StartStopToken
+import androidx.work.impl.WorkDatabase
+import androidx.work.impl.model.WorkGenerationalId
+import androidx.work.impl.utils.SerialExecutorImpl
+import androidx.work.impl.utils.taskexecutor.SerialExecutor
+import androidx.work.impl.utils.taskexecutor.TaskExecutor
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executor
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+import org.junit.After
+import org.junit.Before
+import org.junit.Rule
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.junit.runners.Parameterized
+
+/**
+ * Starts and completes a burst of workers through [Processor] from many threads at once, while
+ * other threads query its state, to show how it scales with the number of concurrent workers.
+ */
+@LargeTest
+@RunWith(Parameterized::class)
+class ProcessorBenchmark(private val workers: Int) {
+    @get:Rule
+    val benchmarkRule = BenchmarkRule()
+
+    private lateinit var executor: ExecutorService
+    private lateinit var taskExecutorService: ExecutorService
+    private lateinit var database: WorkDatabase
+    private lateinit var processor: Processor
+
+    @Before
+    fun setUp() {
+        val context = ApplicationProvider.getApplicationContext<Context>()
+        executor = Executors.newFixedThreadPool(workers)
+        taskExecutorService = Executors.newFixedThreadPool(4)
+        val serialExecutor = SerialExecutorImpl(taskExecutorService)
+        val taskExecutor = object : TaskExecutor {
+            // Completion is dispatched right away on the thread that finished the work.
+            private val mainExecutor = Executor { it.run() }
+
+            override fun getMainThreadExecutor(): Executor {
+                return mainExecutor
+            }
+
+            override fun getSerialTaskExecutor(): SerialExecutor {
+                return serialExecutor
+            }
+        }
+        val configuration = Configuration.Builder()
+            .setExecutor(executor)
+            .setTaskExecutor(taskExecutorService)
+            .build()
+        database = WorkDatabase.create(context, taskExecutorService, true)
+        processor = Processor(context, configuration, taskExecutor, database)
+    }
+
+    @After
+    fun tearDown() {
+        executor.shutdown()
+        taskExecutorService.shutdown()
+        database.close()
+    }
+
+    @Test
+    fun startAndExecute() {
+        benchmarkRule.measureRepeated {
+            lateinit var ids: List<String>
+            lateinit var finished: CountDownLatch
+            runWithTimingDisabled {
+                ids = List(workers) {
+                    val request = OneTimeWorkRequestBuilder<NoOpWorker>().build()
+                    database.workSpecDao().insertWorkSpec(request.workSpec)
+                    request.stringId
+                }
+                finished = CountDownLatch(workers)
+            }
+            val listener = ExecutionListener { _, _ -> finished.countDown() }
+            processor.addExecutionListener(listener)
+            ids.forEach { id ->
+                executor.execute {
+                    processor.startWork(StartStopToken(WorkGenerationalId(id, 0)))
+                    // Mimics schedulers checking on work while it runs.
+                    for (other in ids) {
+                        processor.isEnqueued(other)
+                    }
+                }
+            }
+            check(finished.await(10, TimeUnit.SECONDS)) { "Workers did not finish" }
+            processor.removeExecutionListener(listener)
+            runWithTimingDisabled {
+                database.clearAllTables()
+            }
+        }
+    }
+
+    companion object {
+        @JvmStatic
+        @Parameterized.Parameters(name = "workers_{0}")
+        fun params() = listOf(1, 8, 64, 128)
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.work.benchmark
+
+import androidx.benchmark.junit4.BenchmarkRule
+import androidx.benchmark.junit4.measureRepeated
+import androidx.test.filters.LargeTest
+import androidx.work.impl.utils.LockFreeSerialExecutor
+import androidx.work.impl.utils.SerialExecutorImpl
+import androidx.work.impl.utils.taskexecutor.SerialExecutor
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+import org.junit.After
+import org.junit.Rule
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.junit.runners.Parameterized
+
+/**
+ * Measures how long it takes for many producer threads to push a burst of tasks through a
+ * [SerialExecutor], like enqueueing and cancelling unique work from many threads does.
+ */
+@LargeTest
+@RunWith(Parameterized::class)
+class SerialExecutorBenchmark(
+    private val lockFree: Boolean,
+    private val producers: Int
+) {
+    @get:Rule
+    val benchmarkRule = BenchmarkRule()
+
+    // Same size as the default task executor on most devices
+    private val delegate: ExecutorService = Executors.newFixedThreadPool(4)
+    private val producerExecutor: ExecutorService = Executors.newFixedThreadPool(producers)
+    private val serialExecutor: SerialExecutor = if (lockFree) {
+        LockFreeSerialExecutor(delegate)
+    } else {
+        SerialExecutorImpl(delegate)
+    }
+
+    @After
+    fun tearDown() {
+        producerExecutor.shutdown()
+        delegate.shutdown()
+    }
+
+    @Test
+    fun enqueueBurst() {
+        val tasksPerProducer = TASK_COUNT / producers
+        benchmarkRule.measureRepeated {
+            val latch = CountDownLatch(tasksPerProducer * producers)
+            val task = Runnable { latch.countDown() }
+            repeat(producers) {
+                producerExecutor.execute {
+                    repeat(tasksPerProducer) { serialExecutor.execute(task) }
+                }
+            }
+            check(latch.await(10, TimeUnit.SECONDS)) { "Tasks did not complete" }
+        }
+    }
+
+    companion object {
+        private const val TASK_COUNT = 4_000
+
+        @JvmStatic
+        @Parameterized.Parameters(name = "lockFree_{0}_producers_{1}")
+        fun params() = listOf(false, true).flatMap { lockFree ->
+            listOf(1, 4, 16).map { producers -> arrayOf(lockFree, producers) }
+        }
+    }
+}
@@ -92,7 +92,9 @@ public final class RemoteWorkManagerInfo {
                         .setDefaultProcessName(appContext.getPackageName())
                         .build();
             }
-            mTaskExecutor = new WorkManagerTaskExecutor(mConfiguration.getTaskExecutor());
+            mTaskExecutor = new WorkManagerTaskExecutor(mConfiguration.getTaskExecutor(),
+                    mConfiguration.isUsingLockFreeSerialExecutor(),
+                    mConfiguration.getMetricsListener());
         }
         mProgressUpdater = new RemoteProgressUpdater();
         mForegroundUpdater = new RemoteForegroundUpdater();
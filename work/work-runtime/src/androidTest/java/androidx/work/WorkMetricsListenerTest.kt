@@ -0,0 +1,139 @@
+/*
+ * Copyright 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.work
+
+import android.content.Context
+import androidx.test.core.app.ApplicationProvider
+import androidx.test.ext.junit.runners.AndroidJUnit4
+import androidx.test.filters.MediumTest
+import androidx.work.WorkMetricsListener.STAGE_ENQUEUED
+import androidx.work.WorkMetricsListener.STAGE_FINISHED
+import androidx.work.WorkMetricsListener.STAGE_RUNNING
+import androidx.work.WorkMetricsListener.STAGE_SCHEDULED
+import androidx.work.WorkMetricsListener.STAGE_START_REQUESTED
+import androidx.work.WorkMetricsListener.STAGE_WORKER_STARTED
+import androidx.work.WorkMetricsListener.TRANSACTION_ENQUEUE
+import androidx.work.WorkMetricsListener.TRANSACTION_FINISH
+import androidx.work.WorkMetricsListener.TRANSACTION_SCHEDULE
+import androidx.work.WorkMetricsListener.TRANSACTION_SET_RUNNING
+import androidx.work.WorkMetricsListener.TRANSACTION_START
+import androidx.work.impl.Processor
+import androidx.work.impl.WorkDatabase
+import androidx.work.impl.WorkLauncherImpl
+import androidx.work.impl.WorkManagerImpl
+import androidx.work.impl.background.greedy.GreedyScheduler
+import androidx.work.impl.constraints.trackers.Trackers
+import androidx.work.impl.utils.taskexecutor.WorkManagerTaskExecutor
+import androidx.work.worker.TestWorker
+import com.google.common.truth.Truth.assertThat
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+import org.junit.After
+import org.junit.Test
+import org.junit.runner.RunWith
+
+@RunWith(AndroidJUnit4::class)
+class WorkMetricsListenerTest {
+    val context = ApplicationProvider.getApplicationContext<Context>()
+    private val metricsListener = RecordingMetricsListener()
+    val configuration = Configuration.Builder().setMetricsListener(metricsListener).build()
+    val executor = Executors.newSingleThreadExecutor()
+    val taskExecutor = WorkManagerTaskExecutor(
+        executor, false, configuration.metricsListener
+    )
+    val trackers = Trackers(context = context, taskExecutor = taskExecutor)
+    val db = WorkDatabase.create(context, executor, true)
+    val processor = Processor(context, configuration, taskExecutor, db)
+    val launcher = WorkLauncherImpl(processor, taskExecutor)
+    val greedyScheduler = GreedyScheduler(context, configuration, trackers, processor, launcher)
+    val workManager = WorkManagerImpl(
+        context, configuration, taskExecutor, db, listOf(greedyScheduler), processor, trackers
+    )
+
+    @Test
+    @MediumTest
+    fun reportsStagesInOrder() {
+        val request = OneTimeWorkRequest.Builder(TestWorker::class.java).build()
+        workManager.enqueue(request).result.get()
+        assertThat(metricsListener.finished.await(5, TimeUnit.SECONDS)).isTrue()
+        val stages = metricsListener.stages(request.stringId)
+        assertThat(stages).containsExactly(
+            STAGE_ENQUEUED,
+            STAGE_SCHEDULED,
+            STAGE_START_REQUESTED,
+            STAGE_RUNNING,
+            STAGE_WORKER_STARTED,
+            STAGE_FINISHED
+        ).inOrder()
+        val timestamps = metricsListener.timestamps(request.stringId)
+        assertThat(timestamps).isInOrder()
+    }
+
+    @Test
+    @MediumTest
+    fun reportsTransactionsAndQueueDepth() {
+        val request = OneTimeWorkRequest.Builder(TestWorker::class.java).build()
+        workManager.enqueue(request).result.get()
+        assertThat(metricsListener.finished.await(5, TimeUnit.SECONDS)).isTrue()
+        assertThat(metricsListener.transactions()).containsAtLeast(
+            TRANSACTION_ENQUEUE,
+            TRANSACTION_SCHEDULE,
+            TRANSACTION_START,
+            TRANSACTION_SET_RUNNING,
+            TRANSACTION_FINISH
+        )
+        assertThat(metricsListener.maxQueueDepth).isAtLeast(1)
+    }
+
+    @After
+    fun tearDown() {
+        workManager.cancelAllWork()
+        executor.shutdownNow()
+    }
+}
+
+private class RecordingMetricsListener : WorkMetricsListener() {
+    private val events = mutableListOf<Triple<String, Int, Long>>()
+    private val transactions = mutableListOf<Int>()
+    @Volatile
+    var maxQueueDepth = 0
+    val finished = CountDownLatch(1)
+
+    override fun onWorkStage(id: String, stage: Int, elapsedRealtimeNanos: Long) {
+        synchronized(events) { events.add(Triple(id, stage, elapsedRealtimeNanos)) }
+        if (stage == STAGE_FINISHED) finished.countDown()
+    }
+
+    override fun onTaskQueued(queueDepth: Int) {
+        synchronized(this) { maxQueueDepth = maxOf(maxQueueDepth, queueDepth) }
+    }
+
+    override fun onDatabaseTransaction(transaction: Int, durationNanos: Long) {
+        synchronized(transactions) { transactions.add(transaction) }
+    }
+
+    fun stages(id: String) = synchronized(events) {
+        events.filter { it.first == id }.map { it.second }
+    }
+
+    fun timestamps(id: String) = synchronized(events) {
+        events.filter { it.first == id }.map { it.third }
+    }
+
+    fun transactions() = synchronized(transactions) { transactions.toList() }
+}
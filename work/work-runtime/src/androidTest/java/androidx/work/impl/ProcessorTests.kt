@@ -230,6 +230,34 @@ class ProcessorTests : DatabaseTest() {
         assertTrue(called)
     }
 
+    @Test
+    @MediumTest
+    fun testSlowListenerDoesNotBlockOtherWork() {
+        val request1 = OneTimeWorkRequest.Builder(LatchWorker::class.java).build()
+        val request2 = OneTimeWorkRequest.Builder(LatchWorker::class.java).build()
+        insertWork(request1)
+        insertWork(request2)
+        val listenerEntered = CountDownLatch(1)
+        val releaseListener = CountDownLatch(1)
+        processor.addExecutionListener { id, _ ->
+            if (id.workSpecId == request1.workSpec.id) {
+                listenerEntered.countDown()
+                releaseListener.await(3, TimeUnit.SECONDS)
+            }
+        }
+        processor.startWork(StartStopToken(request1.workSpec.generationalId()))
+        val firstWorker = factory.awaitWorker(request1.id)
+        (firstWorker as LatchWorker).mLatch.countDown()
+        assertTrue(listenerEntered.await(3, TimeUnit.SECONDS))
+        // The listener for request1 is still running, other work isn't blocked by it.
+        assertTrue(processor.startWork(StartStopToken(request2.workSpec.generationalId())))
+        assertTrue(processor.isEnqueued(request2.workSpec.id))
+        assertFalse(processor.isEnqueued(request1.workSpec.id))
+        releaseListener.countDown()
+        val secondWorker = factory.awaitWorker(request2.id)
+        (secondWorker as LatchWorker).mLatch.countDown()
+    }
+
     @After
     fun tearDown() {
         defaultExecutor.shutdownNow()
@@ -124,6 +124,7 @@ import org.junit.runner.RunWith;
 import org.mockito.ArgumentCaptor;
 
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
@@ -316,6 +317,30 @@ public class WorkManagerImplTest {
         assertThat(prerequisites, containsInAnyOrder(work2.getStringId()));
     }
 
+    @Test
+    @MediumTest
+    public void testEnqueue_insertWithManyCompletedDependencies_isNotStatusBlocked()
+            throws ExecutionException, InterruptedException {
+
+        // More prerequisites than fit in a single query.
+        List<OneTimeWorkRequest> work1 = new ArrayList<>();
+        for (int i = 0; i < 1200; i++) {
+            work1.add(new OneTimeWorkRequest.Builder(TestWorker.class)
+                    .setInitialState(SUCCEEDED)
+                    .build());
+        }
+
+        WorkContinuation workContinuation = mWorkManagerImpl.beginWith(work1);
+        workContinuation.enqueue().getResult().get();
+
+        OneTimeWorkRequest work2 = new OneTimeWorkRequest.Builder(InfiniteTestWorker.class).build();
+        workContinuation.then(work2).enqueue().getResult().get();
+        WorkSpecDao workSpecDao = mDatabase.workSpecDao();
+        assertThat(workSpecDao.getState(work2.getStringId()), isOneOf(ENQUEUED, RUNNING));
+        assertThat(mDatabase.dependencyDao().getPrerequisites(work2.getStringId()).size(),
+                is(1200));
+    }
+
     @Test
     @MediumTest
     public void testEnqueue_insertWithCompletedDependencies_isNotStatusBlocked()
@@ -40,6 +40,7 @@ import androidx.work.impl.Processor;
 import androidx.work.impl.StartStopToken;
 import androidx.work.impl.WorkLauncher;
 import androidx.work.impl.constraints.WorkConstraintsTracker;
+import androidx.work.impl.model.WorkGenerationalId;
 import androidx.work.impl.model.WorkSpec;
 import androidx.work.worker.TestWorker;
 
@@ -50,8 +51,6 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.ArgumentMatchers;
 
 import java.util.Collections;
-import java.util.HashSet;
-import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
 
@@ -140,7 +139,7 @@ public class GreedySchedulerTest extends WorkManagerTest {
                 .setConstraints(constraints)
                 .build();
         mGreedyScheduler.schedule(work.getWorkSpec());
-        verify(mMockWorkConstraintsTracker, never()).replace(ArgumentMatchers.<WorkSpec>anyList());
+        verify(mMockWorkConstraintsTracker, never()).track(ArgumentMatchers.<WorkSpec>anyList());
     }
 
     @Test
@@ -173,15 +172,32 @@ public class GreedySchedulerTest extends WorkManagerTest {
                 .build();
         final WorkSpec workSpec = work.getWorkSpec();
         workSpec.lastEnqueueTime = System.currentTimeMillis();
-        Set<WorkSpec> expected = new HashSet<WorkSpec>();
-        expected.add(workSpec);
 
         mGreedyScheduler.schedule(workSpec);
-        verify(mMockWorkConstraintsTracker).replace(expected);
+        verify(mMockWorkConstraintsTracker).track(Collections.singletonList(workSpec));
         reset(mMockWorkConstraintsTracker);
 
         mGreedyScheduler.onExecuted(generationalId(workSpec), false);
-        verify(mMockWorkConstraintsTracker).replace(Collections.<WorkSpec>emptySet());
+        verify(mMockWorkConstraintsTracker).untrack(Collections.singletonList(workSpec.id));
+    }
+
+    @Test
+    @SmallTest
+    public void testGreedyScheduler_constraintsAreTrackedOnlyOnce() {
+        final OneTimeWorkRequest work = new OneTimeWorkRequest.Builder(TestWorker.class)
+                .setConstraints(new Constraints.Builder().setRequiresCharging(true).build())
+                .build();
+        final WorkSpec workSpec = work.getWorkSpec();
+        workSpec.lastEnqueueTime = System.currentTimeMillis();
+
+        mGreedyScheduler.schedule(workSpec);
+        mGreedyScheduler.schedule(workSpec);
+        verify(mMockWorkConstraintsTracker, times(1)).track(ArgumentMatchers.<WorkSpec>anyList());
+
+        // Only the tracked generation stops being tracked.
+        mGreedyScheduler.onExecuted(
+                new WorkGenerationalId(workSpec.id, workSpec.getGeneration() + 1), false);
+        verify(mMockWorkConstraintsTracker, never()).untrack(ArgumentMatchers.<String>anyList());
     }
 
     @Test
@@ -213,6 +229,6 @@ public class GreedySchedulerTest extends WorkManagerTest {
         WorkSpec workSpec = work.getWorkSpec();
         mGreedyScheduler.schedule(workSpec);
         verify(mMockProcessor, times(0)).addExecutionListener(mGreedyScheduler);
-        verify(mMockWorkConstraintsTracker, never()).replace(ArgumentMatchers.<WorkSpec>anyList());
+        verify(mMockWorkConstraintsTracker, never()).track(ArgumentMatchers.<WorkSpec>anyList());
     }
 }
@@ -43,6 +43,44 @@ class WorkConstraintsTrackerTest {
         assertThat(unconstrained2).containsExactly(TEST_WORKSPEC_IDS[1], TEST_WORKSPEC_IDS[2])
     }
 
+    @Test
+    fun testTrack_onlyReportsNewWorkSpecs() {
+        val tracker = TestConstraintTracker(true)
+        val workConstraintsTracker = WorkConstraintsTracker(capturingCallback, tracker)
+        workConstraintsTracker.track(TEST_WORKSPECS.subList(0, 2))
+        val (unconstrained1, _) = capturingCallback.consumeCurrent()
+        assertThat(unconstrained1).containsExactly(TEST_WORKSPEC_IDS[0], TEST_WORKSPEC_IDS[1])
+        workConstraintsTracker.track(TEST_WORKSPECS.subList(1, 3))
+        val (unconstrained2, _) = capturingCallback.consumeCurrent()
+        assertThat(unconstrained2).containsExactly(TEST_WORKSPEC_IDS[2])
+    }
+
+    @Test
+    fun testTrack_waitsForAllConstraints() {
+        val tracker1 = TestConstraintTracker(true)
+        val tracker2 = TestConstraintTracker(false)
+        val workConstraintsTracker = WorkConstraintsTracker(capturingCallback, tracker1, tracker2)
+        workConstraintsTracker.track(TEST_WORKSPECS)
+        val (unconstrained, constrained) = capturingCallback.consumeCurrent()
+        assertThat(unconstrained).isEmpty()
+        assertThat(constrained).isEqualTo(TEST_WORKSPEC_IDS)
+    }
+
+    @Test
+    fun testUntrack() {
+        val tracker = TestConstraintTracker(true)
+        val workConstraintsTracker = WorkConstraintsTracker(capturingCallback, tracker)
+        workConstraintsTracker.track(TEST_WORKSPECS)
+        workConstraintsTracker.untrack(TEST_WORKSPEC_IDS.subList(0, 2))
+        assertThat(tracker.isTracking).isTrue()
+        capturingCallback.consumeCurrent()
+        tracker.state = false
+        val (_, constrained) = capturingCallback.consumeCurrent()
+        assertThat(constrained).containsExactly(TEST_WORKSPEC_IDS[2])
+        workConstraintsTracker.untrack(TEST_WORKSPEC_IDS.subList(2, 3))
+        assertThat(tracker.isTracking).isFalse()
+    }
+
     @Test
     fun testReset() {
         val tracker = TestConstraintTracker(true)
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.work.impl.utils
+
+import androidx.test.ext.junit.runners.AndroidJUnit4
+import androidx.test.filters.LargeTest
+import androidx.work.impl.utils.SerialExecutorTest.Companion.TimestampTrackingRunnable
+import org.hamcrest.MatcherAssert.assertThat
+import org.hamcrest.Matchers.`is`
+import org.hamcrest.Matchers.greaterThanOrEqualTo
+import org.junit.After
+import org.junit.Before
+import org.junit.Test
+import org.junit.runner.RunWith
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+
+@RunWith(AndroidJUnit4::class)
+@LargeTest
+class LockFreeSerialExecutorTest {
+
+    lateinit var delegate: ExecutorService
+    lateinit var executor: LockFreeSerialExecutor
+
+    @Before
+    fun setUp() {
+        delegate = Executors.newCachedThreadPool()
+        executor = LockFreeSerialExecutor(delegate)
+    }
+
+    @After
+    fun tearDown() {
+        delegate.shutdownNow()
+    }
+
+    @Test
+    fun testSerialExecutor() {
+        val latch = CountDownLatch(3)
+        val first = TimestampTrackingRunnable(latch)
+        val second = TimestampTrackingRunnable(latch)
+        val third = TimestampTrackingRunnable(latch)
+        val commands = listOf(first, second, third)
+        commands.forEach(executor::execute)
+        latch.await(1, TimeUnit.SECONDS)
+        var lastStart = 0L
+        for (runnable in commands) {
+            assertThat(runnable.start, greaterThanOrEqualTo(lastStart))
+            lastStart = runnable.end
+        }
+    }
+
+    @Test
+    fun testManyProducers_runEveryTaskOneAtATime() {
+        val producers = 8
+        val tasksPerProducer = 10 * LockFreeSerialExecutor.MAX_TASKS_PER_DRAIN
+        val latch = CountDownLatch(producers * tasksPerProducer)
+        val running = AtomicInteger(0)
+        val maxRunning = AtomicInteger(0)
+        val start = CountDownLatch(1)
+        val threads = List(producers) {
+            Thread {
+                start.await()
+                repeat(tasksPerProducer) {
+                    executor.execute {
+                        maxRunning.set(maxOf(maxRunning.get(), running.incrementAndGet()))
+                        running.decrementAndGet()
+                        latch.countDown()
+                    }
+                }
+            }.apply { start() }
+        }
+        start.countDown()
+        threads.forEach { it.join() }
+        assertThat(latch.await(5, TimeUnit.SECONDS), `is`(true))
+        assertThat(maxRunning.get(), `is`(1))
+        assertThat(executor.hasPendingTasks(), `is`(false))
+    }
+
+    @Test
+    fun testFailingTask_doesNotStopLaterTasks() {
+        // Swallow the exception, otherwise it would crash the test process
+        val executor = LockFreeSerialExecutor { command ->
+            delegate.execute {
+                try {
+                    command.run()
+                } catch (expected: IllegalStateException) {
+                }
+            }
+        }
+        val latch = CountDownLatch(1)
+        executor.execute { throw IllegalStateException("Expected") }
+        executor.execute { latch.countDown() }
+        assertThat(latch.await(1, TimeUnit.SECONDS), `is`(true))
+    }
+}
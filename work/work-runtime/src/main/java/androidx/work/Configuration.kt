@@ -82,6 +82,12 @@ class Configuration internal constructor(builder: Builder) {
      */
     val defaultProcessName: String?
 
+    /**
+     * The [WorkMetricsListener] that receives timing information about the work processed by
+     * [WorkManager], or `null` if none was set.
+     */
+    val metricsListener: WorkMetricsListener?
+
     /**
      * The minimum logging level, corresponding to the constants found in [android.util.Log]
      */
@@ -132,6 +138,15 @@ class Configuration internal constructor(builder: Builder) {
     @get:RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
     val isUsingDefaultTaskExecutor: Boolean
 
+    /**
+     * `true` if WorkManager serializes its internal tasks with a lock-free queue instead of a
+     * lock guarded one.
+     *
+     * @see Builder.setUsingLockFreeSerialExecutor
+     */
+    @get:RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
+    val isUsingLockFreeSerialExecutor: Boolean
+
     init {
         executor = builder.executor ?: createDefaultExecutor(isTaskExecutor = false)
         isUsingDefaultTaskExecutor = builder.taskExecutor == null
@@ -139,6 +154,7 @@ class Configuration internal constructor(builder: Builder) {
         // So this should not be a single threaded executor. Writes will still be serialized
         // as this will be wrapped with an SerialExecutor.
         taskExecutor = builder.taskExecutor ?: createDefaultExecutor(isTaskExecutor = true)
+        isUsingLockFreeSerialExecutor = builder.isUsingLockFreeSerialExecutor
         workerFactory = builder.workerFactory ?: WorkerFactory.getDefaultWorkerFactory()
         inputMergerFactory = builder.inputMergerFactory ?: NoOpInputMergerFactory
         runnableScheduler = builder.runnableScheduler ?: DefaultRunnableScheduler()
@@ -154,6 +170,7 @@ class Configuration internal constructor(builder: Builder) {
         initializationExceptionHandler = builder.initializationExceptionHandler
         schedulingExceptionHandler = builder.schedulingExceptionHandler
         defaultProcessName = builder.defaultProcessName
+        metricsListener = builder.metricsListener
         contentUriTriggerWorkersLimit = builder.contentUriTriggerWorkersLimit
     }
 
@@ -169,11 +186,13 @@ class Configuration internal constructor(builder: Builder) {
         internal var initializationExceptionHandler: Consumer<Throwable>? = null
         internal var schedulingExceptionHandler: Consumer<Throwable>? = null
         internal var defaultProcessName: String? = null
+        internal var metricsListener: WorkMetricsListener? = null
         internal var loggingLevel: Int = Log.INFO
         internal var minJobSchedulerId: Int = INITIAL_ID
         internal var maxJobSchedulerId: Int = Int.MAX_VALUE
         internal var maxSchedulerLimit: Int = MIN_SCHEDULER_LIMIT
         internal var contentUriTriggerWorkersLimit: Int = DEFAULT_CONTENT_URI_TRIGGERS_WORKERS_LIMIT
+        internal var isUsingLockFreeSerialExecutor: Boolean = false
 
         /**
          * Creates a new [Configuration.Builder].
@@ -194,6 +213,7 @@ class Configuration internal constructor(builder: Builder) {
             workerFactory = configuration.workerFactory
             inputMergerFactory = configuration.inputMergerFactory
             taskExecutor = configuration.taskExecutor
+            isUsingLockFreeSerialExecutor = configuration.isUsingLockFreeSerialExecutor
             loggingLevel = configuration.minimumLoggingLevel
             minJobSchedulerId = configuration.minJobSchedulerId
             maxJobSchedulerId = configuration.maxJobSchedulerId
@@ -202,6 +222,7 @@ class Configuration internal constructor(builder: Builder) {
             initializationExceptionHandler = configuration.initializationExceptionHandler
             schedulingExceptionHandler = configuration.schedulingExceptionHandler
             defaultProcessName = configuration.defaultProcessName
+            metricsListener = configuration.metricsListener
         }
 
         /**
@@ -254,6 +275,23 @@ class Configuration internal constructor(builder: Builder) {
             return this
         }
 
+        /**
+         * Specifies whether WorkManager serializes its internal book-keeping with a lock-free
+         * queue. Producers never block each other, and several queued tasks run for every
+         * hand-off to the [taskExecutor][setTaskExecutor], which reduces contention when a
+         * large number of requests is enqueued or cancelled from many threads at once.
+         *
+         * The default value is `false`.
+         *
+         * @param usingLockFreeSerialExecutor `true` to use the lock-free queue
+         * @return This [Builder] instance
+         */
+        @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
+        fun setUsingLockFreeSerialExecutor(usingLockFreeSerialExecutor: Boolean): Builder {
+            this.isUsingLockFreeSerialExecutor = usingLockFreeSerialExecutor
+            return this
+        }
+
         /**
          * Specifies the range of [android.app.job.JobInfo] IDs that can be used by
          * [WorkManager].  WorkManager needs a range of at least `1000` IDs.
@@ -397,6 +435,21 @@ class Configuration internal constructor(builder: Builder) {
             return this
         }
 
+        /**
+         * Specifies a [WorkMetricsListener] that receives per-stage timestamps, task queue depths
+         * and database transaction durations for the work processed by [WorkManager].
+         *
+         * The listener is invoked synchronously on WorkManager's internal threads, so it must be
+         * fast. By default no listener is set and no timing information is collected.
+         *
+         * @param metricsListener The [WorkMetricsListener] to notify
+         * @return This [Builder] instance
+         */
+        fun setMetricsListener(metricsListener: WorkMetricsListener): Builder {
+            this.metricsListener = metricsListener
+            return this
+        }
+
         /**
          * Builds a [Configuration] object.
          *
@@ -16,6 +16,8 @@
 
 package androidx.work;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
+
 import android.annotation.SuppressLint;
 import android.util.Log;
 
@@ -27,6 +29,7 @@ import androidx.room.TypeConverter;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
@@ -63,14 +66,45 @@ public final class Data {
     @SuppressLint("MinMaxConstant")
     public static final int MAX_DATA_BYTES = 10 * 1024;    // 10KB
 
+    // The compact serialized form starts with these bytes, which can never start a stream written
+    // by ObjectOutputStream (0xACED), followed by the format version.
+    private static final byte STREAM_MAGIC_0 = (byte) 0xAB;
+    private static final byte STREAM_MAGIC_1 = (byte) 0xEF;
+    private static final byte STREAM_VERSION = 1;
+
+    // The list of supported types, matching the ones used for parcelling Data.
+    private static final byte TYPE_NULL = 0;
+    private static final byte TYPE_BOOLEAN = 1;
+    private static final byte TYPE_BYTE = 2;
+    private static final byte TYPE_INTEGER = 3;
+    private static final byte TYPE_LONG = 4;
+    private static final byte TYPE_FLOAT = 5;
+    private static final byte TYPE_DOUBLE = 6;
+    private static final byte TYPE_STRING = 7;
+    private static final byte TYPE_BOOLEAN_ARRAY = 8;
+    private static final byte TYPE_BYTE_ARRAY = 9;
+    private static final byte TYPE_INTEGER_ARRAY = 10;
+    private static final byte TYPE_LONG_ARRAY = 11;
+    private static final byte TYPE_FLOAT_ARRAY = 12;
+    private static final byte TYPE_DOUBLE_ARRAY = 13;
+    private static final byte TYPE_STRING_ARRAY = 14;
+
+    // Inflated lazily when Data was read in the compact format, see #values().
     @SuppressWarnings("WeakerAccess") /* synthetic access */
-            Map<String, Object> mValues;
+    volatile Map<String, Object> mValues;
+
+    // The serialized form in the compact format, if known. Data is immutable, so it never goes
+    // stale and single keys can be read from it without inflating mValues.
+    @Nullable
+    private final byte[] mBytes;
 
     Data() {    // stub required for room
+        mBytes = null;
     }
 
     public Data(@NonNull Data other) {
-        mValues = new HashMap<>(other.mValues);
+        mValues = new HashMap<>(other.values());
+        mBytes = other.mBytes;
     }
 
     /**
@@ -78,6 +112,12 @@ public final class Data {
     @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
     public Data(@NonNull Map<String, ?> values) {
         mValues = new HashMap<>(values);
+        mBytes = null;
+    }
+
+    private Data(@Nullable Map<String, Object> values, @Nullable byte[] bytes) {
+        mValues = values;
+        mBytes = bytes;
     }
 
     /**
@@ -88,7 +128,7 @@ public final class Data {
      * @return The value specified by the key if it exists; the default value otherwise
      */
     public boolean getBoolean(@NonNull String key, boolean defaultValue) {
-        Object value = mValues.get(key);
+        Object value = getValue(key, false);
         if (value instanceof Boolean) {
             return (boolean) value;
         } else {
@@ -104,10 +144,12 @@ public final class Data {
      */
     @Nullable
     public boolean[] getBooleanArray(@NonNull String key) {
-        Object value = mValues.get(key);
+        Object value = getValue(key, false);
         if (value instanceof Boolean[]) {
             Boolean[] array = (Boolean[]) value;
             return convertToPrimitiveArray(array);
+        } else if (value instanceof boolean[]) {
+            return (boolean[]) value;
         } else {
             return null;
         }
@@ -121,7 +163,7 @@ public final class Data {
      * @return The value specified by the key if it exists; the default value otherwise
      */
     public byte getByte(@NonNull String key, byte defaultValue) {
-        Object value = mValues.get(key);
+        Object value = getValue(key, false);
         if (value instanceof Byte) {
             return (byte) value;
         } else {
@@ -137,10 +179,12 @@ public final class Data {
      */
     @Nullable
     public byte[] getByteArray(@NonNull String key) {
-        Object value = mValues.get(key);
+        Object value = getValue(key, false);
         if (value instanceof Byte[]) {
             Byte[] array = (Byte[]) value;
             return convertToPrimitiveArray(array);
+        } else if (value instanceof byte[]) {
+            return (byte[]) value;
         } else {
             return null;
         }
@@ -154,7 +198,7 @@ public final class Data {
      * @return The value specified by the key if it exists; the default value otherwise
      */
     public int getInt(@NonNull String key, int defaultValue) {
-        Object value = mValues.get(key);
+        Object value = getValue(key, false);
         if (value instanceof Integer) {
             return (int) value;
         } else {
@@ -170,10 +214,12 @@ public final class Data {
      */
     @Nullable
     public int[] getIntArray(@NonNull String key) {
-        Object value = mValues.get(key);
+        Object value = getValue(key, false);
         if (value instanceof Integer[]) {
             Integer[] array = (Integer[]) value;
             return convertToPrimitiveArray(array);
+        } else if (value instanceof int[]) {
+            return (int[]) value;
         } else {
             return null;
         }
@@ -187,7 +233,7 @@ public final class Data {
      * @return The value specified by the key if it exists; the default value otherwise
      */
     public long getLong(@NonNull String key, long defaultValue) {
-        Object value = mValues.get(key);
+        Object value = getValue(key, false);
         if (value instanceof Long) {
             return (long) value;
         } else {
@@ -203,10 +249,12 @@ public final class Data {
      */
     @Nullable
     public long[] getLongArray(@NonNull String key) {
-        Object value = mValues.get(key);
+        Object value = getValue(key, false);
         if (value instanceof Long[]) {
             Long[] array = (Long[]) value;
             return convertToPrimitiveArray(array);
+        } else if (value instanceof long[]) {
+            return (long[]) value;
         } else {
             return null;
         }
@@ -220,7 +268,7 @@ public final class Data {
      * @return The value specified by the key if it exists; the default value otherwise
      */
     public float getFloat(@NonNull String key, float defaultValue) {
-        Object value = mValues.get(key);
+        Object value = getValue(key, false);
         if (value instanceof Float) {
             return (float) value;
         } else {
@@ -236,10 +284,12 @@ public final class Data {
      */
     @Nullable
     public float[] getFloatArray(@NonNull String key) {
-        Object value = mValues.get(key);
+        Object value = getValue(key, false);
         if (value instanceof Float[]) {
             Float[] array = (Float[]) value;
             return convertToPrimitiveArray(array);
+        } else if (value instanceof float[]) {
+            return (float[]) value;
         } else {
             return null;
         }
@@ -253,7 +303,7 @@ public final class Data {
      * @return The value specified by the key if it exists; the default value otherwise
      */
     public double getDouble(@NonNull String key, double defaultValue) {
-        Object value = mValues.get(key);
+        Object value = getValue(key, false);
         if (value instanceof Double) {
             return (double) value;
         } else {
@@ -269,10 +319,12 @@ public final class Data {
      */
     @Nullable
     public double[] getDoubleArray(@NonNull String key) {
-        Object value = mValues.get(key);
+        Object value = getValue(key, false);
         if (value instanceof Double[]) {
             Double[] array = (Double[]) value;
             return convertToPrimitiveArray(array);
+        } else if (value instanceof double[]) {
+            return (double[]) value;
         } else {
             return null;
         }
@@ -286,7 +338,7 @@ public final class Data {
      */
     @Nullable
     public String getString(@NonNull String key) {
-        Object value = mValues.get(key);
+        Object value = getValue(key, false);
         if (value instanceof String) {
             return (String) value;
         } else {
@@ -302,7 +354,7 @@ public final class Data {
      */
     @Nullable
     public String[] getStringArray(@NonNull String key) {
-        Object value = mValues.get(key);
+        Object value = getValue(key, false);
         if (value instanceof String[]) {
             return (String[]) value;
         } else {
@@ -318,7 +370,7 @@ public final class Data {
      */
     @NonNull
     public Map<String, Object> getKeyValueMap() {
-        return Collections.unmodifiableMap(mValues);
+        return Collections.unmodifiableMap(values());
     }
 
     /**
@@ -332,7 +384,7 @@ public final class Data {
      */
     @NonNull
     public byte[] toByteArray() {
-        return Data.toByteArrayInternal(this);
+        return Data.toByteArrayInternal(this).clone();
     }
 
     /**
@@ -346,7 +398,7 @@ public final class Data {
      * {@link String} key with the expected type.
      */
     public <T> boolean hasKeyWithValueOfType(@NonNull String key, @NonNull Class<T> klass) {
-        Object value = mValues.get(key);
+        Object value = getValue(key, true);
         return value != null && klass.isAssignableFrom(value.getClass());
     }
 
@@ -356,14 +408,15 @@ public final class Data {
     @VisibleForTesting
     @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
     public int size() {
-        return mValues.size();
+        return values().size();
     }
 
     /**
      * Converts {@link Data} to a byte array for persistent storage.
      *
      * @param data The {@link Data} object to convert
-     * @return The byte array representation of the input
+     * @return The byte array representation of the input; this may be shared with {@code data}
+     * and must not be modified
      * @throws IllegalStateException if the serialized payload is bigger than
      *                               {@link #MAX_DATA_BYTES}
      */
@@ -371,12 +424,215 @@ public final class Data {
     @TypeConverter
     @NonNull
     public static byte[] toByteArrayInternal(@NonNull Data data) {
+        if (data.mBytes != null) {
+            return data.mBytes;
+        }
+        return serialize(data.values());
+    }
+
+    /**
+     * Converts a byte array to {@link Data}.  Byte arrays in the compact format are not inflated
+     * until the whole map is needed; single keys are read straight from a copy of the bytes, so
+     * changing {@code bytes} afterwards does not change the returned {@link Data}.
+     *
+     * @param bytes The byte array representation to convert
+     * @return An {@link Data} object built from the input
+     * @throws IllegalStateException if bytes is bigger than {@link #MAX_DATA_BYTES}
+     */
+    @TypeConverter
+    @NonNull
+    public static Data fromByteArray(@NonNull byte[] bytes) {
+        if (bytes.length > MAX_DATA_BYTES) {
+            throw new IllegalStateException(
+                    "Data cannot occupy more than " + MAX_DATA_BYTES + " bytes when serialized");
+        }
+        if (isCompactFormat(bytes)) {
+            if (bytes[2] != STREAM_VERSION) {
+                Log.e(TAG, "Error in Data#fromByteArray: unknown version " + bytes[2]);
+                return new Data(new HashMap<String, Object>(), null);
+            }
+            return new Data(null, bytes.clone());
+        }
+        return new Data(readLegacyValues(bytes), null);
+    }
+
+    @SuppressWarnings("WeakerAccess") /* synthetic access */
+    @NonNull
+    static byte[] serialize(@NonNull Map<String, Object> values) {
+        byte[] bytes = writeValues(values);
+        if (bytes == null) {
+            // Boxed arrays with null elements can only be represented in the legacy format.
+            bytes = writeLegacyValues(values);
+        }
+        if (bytes.length > MAX_DATA_BYTES) {
+            throw new IllegalStateException(
+                    "Data cannot occupy more than " + MAX_DATA_BYTES
+                            + " bytes when serialized");
+        }
+        return bytes;
+    }
+
+    @Nullable
+    private static byte[] writeValues(@NonNull Map<String, Object> values) {
+        CompactWriter writer = new CompactWriter();
+        writer.writeByte(STREAM_MAGIC_0);
+        writer.writeByte(STREAM_MAGIC_1);
+        writer.writeByte(STREAM_VERSION);
+        writer.writeVarInt(values.size());
+        for (Map.Entry<String, Object> entry : values.entrySet()) {
+            writer.writeString(entry.getKey());
+            if (!writeValue(writer, entry.getValue())) {
+                return null;
+            }
+        }
+        return writer.toByteArray();
+    }
+
+    private static boolean writeValue(@NonNull CompactWriter writer, @Nullable Object value) {
+        if (value == null) {
+            writer.writeByte(TYPE_NULL);
+        } else if (value instanceof Boolean) {
+            writer.writeByte(TYPE_BOOLEAN);
+            writer.writeByte((Boolean) value ? 1 : 0);
+        } else if (value instanceof Byte) {
+            writer.writeByte(TYPE_BYTE);
+            writer.writeByte((Byte) value);
+        } else if (value instanceof Integer) {
+            writer.writeByte(TYPE_INTEGER);
+            writer.writeInt((Integer) value);
+        } else if (value instanceof Long) {
+            writer.writeByte(TYPE_LONG);
+            writer.writeLong((Long) value);
+        } else if (value instanceof Float) {
+            writer.writeByte(TYPE_FLOAT);
+            writer.writeInt(Float.floatToRawIntBits((Float) value));
+        } else if (value instanceof Double) {
+            writer.writeByte(TYPE_DOUBLE);
+            writer.writeLong(Double.doubleToRawLongBits((Double) value));
+        } else if (value instanceof String) {
+            writer.writeByte(TYPE_STRING);
+            writer.writeString((String) value);
+        } else if (value instanceof String[]) {
+            String[] array = (String[]) value;
+            writer.writeByte(TYPE_STRING_ARRAY);
+            writer.writeVarInt(array.length);
+            for (String element : array) {
+                // 0 marks a null element, otherwise the length is shifted by one
+                if (element == null) {
+                    writer.writeVarInt(0);
+                } else {
+                    writer.writeString(element, 1);
+                }
+            }
+        } else {
+            return writeBoxedArray(writer, (Object[]) value);
+        }
+        return true;
+    }
+
+    private static boolean writeBoxedArray(@NonNull CompactWriter writer, @NonNull Object[] array) {
+        byte type;
+        int elementSize;
+        if (array instanceof Boolean[]) {
+            type = TYPE_BOOLEAN_ARRAY;
+            elementSize = 1;
+        } else if (array instanceof Byte[]) {
+            type = TYPE_BYTE_ARRAY;
+            elementSize = 1;
+        } else if (array instanceof Integer[]) {
+            type = TYPE_INTEGER_ARRAY;
+            elementSize = 4;
+        } else if (array instanceof Long[]) {
+            type = TYPE_LONG_ARRAY;
+            elementSize = 8;
+        } else if (array instanceof Float[]) {
+            type = TYPE_FLOAT_ARRAY;
+            elementSize = 4;
+        } else {
+            type = TYPE_DOUBLE_ARRAY;
+            elementSize = 8;
+        }
+        writer.writeByte(type);
+        writer.writeVarInt(array.length);
+        writer.ensureCapacity(array.length * elementSize);
+        for (Object element : array) {
+            if (element == null) {
+                return false;
+            }
+            switch (type) {
+                case TYPE_BOOLEAN_ARRAY:
+                    writer.writeByte((Boolean) element ? 1 : 0);
+                    break;
+                case TYPE_BYTE_ARRAY:
+                    writer.writeByte((Byte) element);
+                    break;
+                case TYPE_INTEGER_ARRAY:
+                    writer.writeInt((Integer) element);
+                    break;
+                case TYPE_LONG_ARRAY:
+                    writer.writeLong((Long) element);
+                    break;
+                case TYPE_FLOAT_ARRAY:
+                    writer.writeInt(Float.floatToRawIntBits((Float) element));
+                    break;
+                default:
+                    writer.writeLong(Double.doubleToRawLongBits((Double) element));
+                    break;
+            }
+        }
+        return true;
+    }
+
+    @SuppressWarnings("WeakerAccess") /* synthetic access */
+    static boolean isCompactFormat(@NonNull byte[] bytes) {
+        return bytes.length >= 3 && bytes[0] == STREAM_MAGIC_0 && bytes[1] == STREAM_MAGIC_1;
+    }
+
+    @NonNull
+    private static Map<String, Object> readValues(@NonNull byte[] bytes) {
+        Map<String, Object> map = new HashMap<>();
+        CompactReader reader = new CompactReader(bytes, 3);
+        try {
+            for (int i = reader.readVarInt(); i > 0; i--) {
+                String key = reader.readString();
+                map.put(key, reader.readValue(true));
+            }
+        } catch (IOException e) {
+            Log.e(TAG, "Error in Data#fromByteArray: ", e);
+        }
+        return map;
+    }
+
+    /**
+     * Reads the value of a single key from the compact format, skipping over all other entries.
+     * Primitive arrays are returned unboxed unless {@code boxArrays} is set.
+     */
+    @Nullable
+    private static Object readValue(@NonNull byte[] bytes, @NonNull String key,
+            boolean boxArrays) {
+        byte[] keyBytes = key.getBytes(UTF_8);
+        CompactReader reader = new CompactReader(bytes, 3);
+        try {
+            for (int i = reader.readVarInt(); i > 0; i--) {
+                if (reader.matchString(keyBytes)) {
+                    return reader.readValue(boxArrays);
+                }
+                reader.skipValue();
+            }
+        } catch (IOException e) {
+            Log.e(TAG, "Error in Data#fromByteArray: ", e);
+        }
+        return null;
+    }
+
+    @NonNull
+    private static byte[] writeLegacyValues(@NonNull Map<String, Object> values) {
         ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
         ObjectOutputStream objectOutputStream = null;
         try {
             objectOutputStream = new ObjectOutputStream(outputStream);
-            objectOutputStream.writeInt(data.size());
-            for (Map.Entry<String, Object> entry : data.mValues.entrySet()) {
+            objectOutputStream.writeInt(values.size());
+            for (Map.Entry<String, Object> entry : values.entrySet()) {
                 objectOutputStream.writeUTF(entry.getKey());
                 objectOutputStream.writeObject(entry.getValue());
             }
@@ -399,30 +655,11 @@ public final class Data {
                 Log.e(TAG, "Error in Data#toByteArray: ", e);
             }
         }
-
-        if (outputStream.size() > MAX_DATA_BYTES) {
-            throw new IllegalStateException(
-                    "Data cannot occupy more than " + MAX_DATA_BYTES
-                            + " bytes when serialized");
-        }
         return outputStream.toByteArray();
     }
 
-    /**
-     * Converts a byte array to {@link Data}.
-     *
-     * @param bytes The byte array representation to convert
-     * @return An {@link Data} object built from the input
-     * @throws IllegalStateException if bytes is bigger than {@link #MAX_DATA_BYTES}
-     */
-    @TypeConverter
     @NonNull
-    public static Data fromByteArray(@NonNull byte[] bytes) {
-        if (bytes.length > MAX_DATA_BYTES) {
-            throw new IllegalStateException(
-                    "Data cannot occupy more than " + MAX_DATA_BYTES + " bytes when serialized");
-        }
-
+    private static Map<String, Object> readLegacyValues(@NonNull byte[] bytes) {
         Map<String, Object> map = new HashMap<>();
         ByteArrayInputStream inputStream = new ByteArrayInputStream(bytes);
         ObjectInputStream objectInputStream = null;
@@ -447,7 +684,31 @@ public final class Data {
                 Log.e(TAG, "Error in Data#fromByteArray: ", e);
             }
         }
-        return new Data(map);
+        return map;
+    }
+
+    /**
+     * @return The key-value pairs of this Data, inflating them from the serialized form if needed.
+     */
+    @SuppressWarnings("WeakerAccess") /* synthetic access */
+    @NonNull
+    Map<String, Object> values() {
+        Map<String, Object> values = mValues;
+        if (values == null) {
+            // Racing threads inflate equal maps, so it does not matter which one wins.
+            values = readValues(mBytes);
+            mValues = values;
+        }
+        return values;
+    }
+
+    @Nullable
+    private Object getValue(@NonNull String key, boolean boxArrays) {
+        Map<String, Object> values = mValues;
+        if (values != null) {
+            return values.get(key);
+        }
+        return readValue(mBytes, key, boxArrays);
     }
 
     @Override
@@ -460,14 +721,16 @@ public final class Data {
         }
 
         Data other = (Data) o;
-        Set<String> keys = mValues.keySet();
-        if (!keys.equals(other.mValues.keySet())) {
+        Map<String, Object> values = values();
+        Map<String, Object> otherValues = other.values();
+        Set<String> keys = values.keySet();
+        if (!keys.equals(otherValues.keySet())) {
             return false;
         }
 
         for (String key : keys) {
-            Object value = mValues.get(key);
-            Object otherValue = other.mValues.get(key);
+            Object value = values.get(key);
+            Object otherValue = otherValues.get(key);
             boolean equal;
             if (value == null || otherValue == null) {
                 equal = value == otherValue;
@@ -486,17 +749,18 @@ public final class Data {
 
     @Override
     public int hashCode() {
-        return 31 * mValues.hashCode();
+        return 31 * values().hashCode();
     }
 
     @NonNull
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder("Data {");
-        if (!mValues.isEmpty()) {
-            for (String key : mValues.keySet()) {
+        Map<String, Object> values = values();
+        if (!values.isEmpty()) {
+            for (String key : values.keySet()) {
                 sb.append(key).append(" : ");
-                Object value = mValues.get(key);
+                Object value = values.get(key);
                 if (value instanceof Object[]) {
                     sb.append(Arrays.toString((Object[]) value));
                 } else {
@@ -853,7 +1117,7 @@ public final class Data {
          */
         @NonNull
         public Builder putAll(@NonNull Data data) {
-            putAll(data.mValues);
+            putAll(data.values());
             return this;
         }
 
@@ -935,11 +1199,293 @@ public final class Data {
          */
         @NonNull
         public Data build() {
-            Data data = new Data(mValues);
+            Map<String, Object> values = new HashMap<>(mValues);
             // Make sure we catch Data objects that are too large at build() instead of later.  This
-            // method will throw an exception if data is too big.
-            Data.toByteArrayInternal(data);
-            return data;
+            // method will throw an exception if data is too big.  The bytes are kept so that
+            // persisting the Data does not serialize it again.
+            byte[] bytes = Data.serialize(values);
+            return new Data(values, isCompactFormat(bytes) ? bytes : null);
+        }
+    }
+
+    /**
+     * Appends the compact format to a growable byte array, big-endian like
+     * {@link java.io.DataOutputStream} but without the per-byte stream overhead.
+     */
+    private static final class CompactWriter {
+        private byte[] mBuffer = new byte[64];
+        private int mSize;
+
+        void ensureCapacity(int count) {
+            if (mSize + count > mBuffer.length) {
+                mBuffer = Arrays.copyOf(mBuffer, Math.max(mBuffer.length * 2, mSize + count));
+            }
+        }
+
+        void writeByte(int value) {
+            ensureCapacity(1);
+            mBuffer[mSize++] = (byte) value;
+        }
+
+        void writeInt(int value) {
+            ensureCapacity(4);
+            mBuffer[mSize++] = (byte) (value >>> 24);
+            mBuffer[mSize++] = (byte) (value >>> 16);
+            mBuffer[mSize++] = (byte) (value >>> 8);
+            mBuffer[mSize++] = (byte) value;
+        }
+
+        void writeLong(long value) {
+            writeInt((int) (value >>> 32));
+            writeInt((int) value);
+        }
+
+        void writeVarInt(int value) {
+            while ((value & ~0x7F) != 0) {
+                writeByte((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            writeByte(value);
+        }
+
+        void writeString(@NonNull String value) {
+            writeString(value, 0);
+        }
+
+        void writeString(@NonNull String value, int lengthOffset) {
+            byte[] bytes = value.getBytes(UTF_8);
+            writeVarInt(bytes.length + lengthOffset);
+            ensureCapacity(bytes.length);
+            System.arraycopy(bytes, 0, mBuffer, mSize, bytes.length);
+            mSize += bytes.length;
+        }
+
+        @NonNull
+        byte[] toByteArray() {
+            return Arrays.copyOf(mBuffer, mSize);
+        }
+    }
+
+    /**
+     * Reads the compact format in place, without copying the underlying bytes.
+     */
+    private static final class CompactReader {
+        private final byte[] mBytes;
+        private int mPosition;
+
+        CompactReader(@NonNull byte[] bytes, int position) {
+            mBytes = bytes;
+            mPosition = position;
+        }
+
+        private void require(int count) throws IOException {
+            if (count < 0 || count > mBytes.length - mPosition) {
+                throw new EOFException("Truncated Data at " + mPosition);
+            }
+        }
+
+        byte readByte() throws IOException {
+            require(1);
+            return mBytes[mPosition++];
+        }
+
+        int readInt() throws IOException {
+            require(4);
+            return (mBytes[mPosition++] & 0xFF) << 24
+                    | (mBytes[mPosition++] & 0xFF) << 16
+                    | (mBytes[mPosition++] & 0xFF) << 8
+                    | (mBytes[mPosition++] & 0xFF);
+        }
+
+        long readLong() throws IOException {
+            return ((long) readInt() << 32) | (readInt() & 0xFFFFFFFFL);
+        }
+
+        int readVarInt() throws IOException {
+            int value = 0;
+            for (int shift = 0; shift < 32; shift += 7) {
+                byte b = readByte();
+                value |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IOException("Malformed length in Data at " + mPosition);
+        }
+
+        @NonNull
+        String readString() throws IOException {
+            return readString(readVarInt());
+        }
+
+        @NonNull
+        String readString(int length) throws IOException {
+            require(length);
+            String value = new String(mBytes, mPosition, length, UTF_8);
+            mPosition += length;
+            return value;
+        }
+
+        /**
+         * Reads a key and returns whether it is equal to {@code key}, without decoding it.
+         */
+        boolean matchString(@NonNull byte[] key) throws IOException {
+            int length = readVarInt();
+            require(length);
+            int start = mPosition;
+            mPosition += length;
+            if (length != key.length) {
+                return false;
+            }
+            for (int i = 0; i < length; i++) {
+                if (mBytes[start + i] != key[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        void skip(int count) throws IOException {
+            require(count);
+            mPosition += count;
+        }
+
+        void skipValue() throws IOException {
+            byte type = readByte();
+            switch (type) {
+                case TYPE_NULL:
+                    break;
+                case TYPE_BOOLEAN:
+                case TYPE_BYTE:
+                    skip(1);
+                    break;
+                case TYPE_INTEGER:
+                case TYPE_FLOAT:
+                    skip(4);
+                    break;
+                case TYPE_LONG:
+                case TYPE_DOUBLE:
+                    skip(8);
+                    break;
+                case TYPE_STRING:
+                case TYPE_BOOLEAN_ARRAY:
+                case TYPE_BYTE_ARRAY:
+                    skip(readVarInt());
+                    break;
+                case TYPE_INTEGER_ARRAY:
+                case TYPE_FLOAT_ARRAY:
+                    skip(arrayLength(4) * 4);
+                    break;
+                case TYPE_LONG_ARRAY:
+                case TYPE_DOUBLE_ARRAY:
+                    skip(arrayLength(8) * 8);
+                    break;
+                case TYPE_STRING_ARRAY:
+                    for (int i = arrayLength(1); i > 0; i--) {
+                        int length = readVarInt();
+                        if (length > 0) {
+                            skip(length - 1);
+                        }
+                    }
+                    break;
+                default:
+                    throw new IOException("Unknown type " + type + " in Data");
+            }
+        }
+
+        @Nullable
+        Object readValue(boolean boxArrays) throws IOException {
+            byte type = readByte();
+            switch (type) {
+                case TYPE_NULL:
+                    return null;
+                case TYPE_BOOLEAN:
+                    return readByte() != 0;
+                case TYPE_BYTE:
+                    return readByte();
+                case TYPE_INTEGER:
+                    return readInt();
+                case TYPE_LONG:
+                    return readLong();
+                case TYPE_FLOAT:
+                    return Float.intBitsToFloat(readInt());
+                case TYPE_DOUBLE:
+                    return Double.longBitsToDouble(readLong());
+                case TYPE_STRING:
+                    return readString();
+                case TYPE_STRING_ARRAY: {
+                    String[] array = new String[arrayLength(1)];
+                    for (int i = 0; i < array.length; i++) {
+                        int length = readVarInt();
+                        array[i] = length == 0 ? null : readString(length - 1);
+                    }
+                    return array;
+                }
+                default:
+                    return readArray(type, boxArrays);
+            }
+        }
+
+        /**
+         * Reads an array length, making sure the remaining bytes can hold that many elements so
+         * that corrupt input never causes huge allocations.
+         */
+        private int arrayLength(int elementSize) throws IOException {
+            int length = readVarInt();
+            if (length < 0 || length > (mBytes.length - mPosition) / elementSize) {
+                throw new EOFException("Truncated Data at " + mPosition);
+            }
+            return length;
+        }
+
+        @NonNull
+        private Object readArray(byte type, boolean boxArrays) throws IOException {
+            switch (type) {
+                case TYPE_BOOLEAN_ARRAY: {
+                    boolean[] array = new boolean[arrayLength(1)];
+                    for (int i = 0; i < array.length; i++) {
+                        array[i] = mBytes[mPosition++] != 0;
+                    }
+                    return boxArrays ? convertPrimitiveBooleanArray(array) : array;
+                }
+                case TYPE_BYTE_ARRAY: {
+                    int length = arrayLength(1);
+                    byte[] array = Arrays.copyOfRange(mBytes, mPosition, mPosition + length);
+                    mPosition += length;
+                    return boxArrays ? convertPrimitiveByteArray(array) : array;
+                }
+                case TYPE_INTEGER_ARRAY: {
+                    int[] array = new int[arrayLength(4)];
+                    for (int i = 0; i < array.length; i++) {
+                        array[i] = readInt();
+                    }
+                    return boxArrays ? convertPrimitiveIntArray(array) : array;
+                }
+                case TYPE_LONG_ARRAY: {
+                    long[] array = new long[arrayLength(8)];
+                    for (int i = 0; i < array.length; i++) {
+                        array[i] = readLong();
+                    }
+                    return boxArrays ? convertPrimitiveLongArray(array) : array;
+                }
+                case TYPE_FLOAT_ARRAY: {
+                    float[] array = new float[arrayLength(4)];
+                    for (int i = 0; i < array.length; i++) {
+                        array[i] = Float.intBitsToFloat(readInt());
+                    }
+                    return boxArrays ? convertPrimitiveFloatArray(array) : array;
+                }
+                case TYPE_DOUBLE_ARRAY: {
+                    double[] array = new double[arrayLength(8)];
+                    for (int i = 0; i < array.length; i++) {
+                        array[i] = Double.longBitsToDouble(readLong());
+                    }
+                    return boxArrays ? convertPrimitiveDoubleArray(array) : array;
+                }
+                default:
+                    throw new IOException("Unknown type " + type + " in Data");
+            }
         }
     }
 }
+
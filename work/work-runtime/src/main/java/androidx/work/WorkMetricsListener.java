@@ -0,0 +1,146 @@
+/*
+ * Copyright 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.work;
+
+import androidx.annotation.IntDef;
+import androidx.annotation.NonNull;
+import androidx.annotation.RestrictTo;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+
+/**
+ * Receives timestamps and durations for the work processed by {@link WorkManager}, for example to
+ * measure the latency between enqueueing a {@link WorkRequest} and its {@link ListenableWorker}
+ * starting.
+ * <br/>
+ * Callbacks are invoked synchronously on WorkManager's internal threads, so they must return
+ * quickly and must not block. Timestamps are in the
+ * {@link android.os.SystemClock#elapsedRealtimeNanos()} time base, so timestamps reported by
+ * different processes can be compared. The default implementations do nothing.
+ *
+ * @see Configuration.Builder#setMetricsListener(WorkMetricsListener)
+ */
+public abstract class WorkMetricsListener {
+
+    /**
+     * The stages passed to {@link #onWorkStage(String, int, long)}.
+     */
+    @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
+    @IntDef({STAGE_ENQUEUED, STAGE_SCHEDULED, STAGE_START_REQUESTED, STAGE_RUNNING,
+            STAGE_WORKER_STARTED, STAGE_FINISHED})
+    @Retention(RetentionPolicy.SOURCE)
+    public @interface Stage {
+    }
+
+    /**
+     * The transactions passed to {@link #onDatabaseTransaction(int, long)}.
+     */
+    @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
+    @IntDef({TRANSACTION_ENQUEUE, TRANSACTION_SCHEDULE, TRANSACTION_START,
+            TRANSACTION_SET_RUNNING, TRANSACTION_FINISH})
+    @Retention(RetentionPolicy.SOURCE)
+    public @interface Transaction {
+    }
+
+    /**
+     * The work was written to the database by {@link WorkContinuation#enqueue()} or one of the
+     * {@link WorkManager} enqueue methods.
+     */
+    public static final int STAGE_ENQUEUED = 1;
+
+    /**
+     * The work was handed to WorkManager's schedulers.
+     */
+    public static final int STAGE_SCHEDULED = 2;
+
+    /**
+     * A scheduler asked WorkManager to start the work.
+     */
+    public static final int STAGE_START_REQUESTED = 3;
+
+    /**
+     * The work was marked as {@link WorkInfo.State#RUNNING} in the database.
+     */
+    public static final int STAGE_RUNNING = 4;
+
+    /**
+     * {@link ListenableWorker#startWork()} was called.
+     */
+    public static final int STAGE_WORKER_STARTED = 5;
+
+    /**
+     * The outcome of the {@link ListenableWorker} was written to the database.
+     */
+    public static final int STAGE_FINISHED = 6;
+
+    /**
+     * The transaction that writes enqueued work to the database.
+     */
+    public static final int TRANSACTION_ENQUEUE = 1;
+
+    /**
+     * The transaction that selects and marks the work handed to the schedulers.
+     */
+    public static final int TRANSACTION_SCHEDULE = 2;
+
+    /**
+     * The transaction that reads the work before starting it.
+     */
+    public static final int TRANSACTION_START = 3;
+
+    /**
+     * The transaction that marks the work as {@link WorkInfo.State#RUNNING}.
+     */
+    public static final int TRANSACTION_SET_RUNNING = 4;
+
+    /**
+     * The transaction that writes the outcome of the {@link ListenableWorker}.
+     */
+    public static final int TRANSACTION_FINISH = 5;
+
+    /**
+     * Called when a unit of work reaches one of the {@code STAGE_*} stages.
+     *
+     * @param id                   The {@link String} form of the {@link WorkRequest#getId()}
+     * @param stage                One of the {@code STAGE_*} constants
+     * @param elapsedRealtimeNanos The time the stage was reached
+     */
+    public void onWorkStage(@NonNull String id, @Stage int stage, long elapsedRealtimeNanos) {
+        // Does nothing by default.
+    }
+
+    /**
+     * Called when WorkManager queues one of its internal tasks.
+     *
+     * @param queueDepth The number of internal tasks that are queued or running, including this
+     *                   one
+     */
+    public void onTaskQueued(int queueDepth) {
+        // Does nothing by default.
+    }
+
+    /**
+     * Called after WorkManager ends one of its database transactions.
+     *
+     * @param transaction   One of the {@code TRANSACTION_*} constants
+     * @param durationNanos How long the transaction took, including the time to begin it
+     */
+    public void onDatabaseTransaction(@Transaction int transaction, long durationNanos) {
+        // Does nothing by default.
+    }
+}
@@ -15,12 +15,15 @@
  */
 package androidx.work.impl;
 
+import static androidx.work.WorkMetricsListener.STAGE_START_REQUESTED;
+import static androidx.work.WorkMetricsListener.TRANSACTION_START;
 import static androidx.work.impl.foreground.SystemForegroundDispatcher.createStartForegroundIntent;
 import static androidx.work.impl.foreground.SystemForegroundDispatcher.createStopForegroundIntent;
 
 import android.content.Context;
 import android.content.Intent;
 import android.os.PowerManager;
+import android.os.SystemClock;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
@@ -29,6 +32,7 @@ import androidx.core.content.ContextCompat;
 import androidx.work.Configuration;
 import androidx.work.ForegroundInfo;
 import androidx.work.Logger;
+import androidx.work.WorkMetricsListener;
 import androidx.work.WorkerParameters;
 import androidx.work.impl.foreground.ForegroundProcessor;
 import androidx.work.impl.model.WorkGenerationalId;
@@ -39,21 +43,30 @@ import androidx.work.impl.utils.taskexecutor.TaskExecutor;
 import com.google.common.util.concurrent.ListenableFuture;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutionException;
 
 /**
  * A Processor can intelligently schedule and execute work on demand.
- *
+ * <p>
+ * The state of each unit of work is kept in concurrent maps keyed by the work id. Changes to the
+ * state of a single id are serialized on one of a fixed set of striped locks, so work with
+ * different ids can be started, stopped and completed concurrently, and queries don't lock at
+ * all. Moving work in and out of the foreground additionally holds {@code mLock}, which guards
+ * the foreground wake lock and service.
  */
 @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
 public class Processor implements ExecutionListener, ForegroundProcessor {
     private static final String TAG = Logger.tagWithPrefix("Processor");
     private static final String FOREGROUND_WAKELOCK_TAG = "ProcessorForegroundLck";
+    // Must be a power of two.
+    private static final int WORK_LOCK_COUNT = 32;
 
     @Nullable
     private PowerManager.WakeLock mForegroundLock;
@@ -70,6 +83,7 @@ public class Processor implements ExecutionListener, ForegroundProcessor {
 
     private final List<ExecutionListener> mOuterListeners;
     private final Object mLock;
+    private final Object[] mWorkLocks;
 
     public Processor(
             @NonNull Context appContext,
@@ -80,13 +94,17 @@ public class Processor implements ExecutionListener, ForegroundProcessor {
         mConfiguration = configuration;
         mWorkTaskExecutor = workTaskExecutor;
         mWorkDatabase = workDatabase;
-        mEnqueuedWorkMap = new HashMap<>();
-        mForegroundWorkMap = new HashMap<>();
-        mCancelledIds = new HashSet<>();
-        mOuterListeners = new ArrayList<>();
+        mEnqueuedWorkMap = new ConcurrentHashMap<>();
+        mForegroundWorkMap = new ConcurrentHashMap<>();
+        mCancelledIds = Collections.newSetFromMap(new ConcurrentHashMap<>());
+        mOuterListeners = new CopyOnWriteArrayList<>();
         mForegroundLock = null;
         mLock = new Object();
-        mWorkRuns = new HashMap<>();
+        mWorkLocks = new Object[WORK_LOCK_COUNT];
+        for (int i = 0; i < WORK_LOCK_COUNT; i++) {
+            mWorkLocks[i] = new Object();
+        }
+        mWorkRuns = new ConcurrentHashMap<>();
     }
 
     /**
@@ -112,6 +130,12 @@ public class Processor implements ExecutionListener, ForegroundProcessor {
             @Nullable WorkerParameters.RuntimeExtras runtimeExtras) {
         WorkGenerationalId id = startStopToken.getId();
         String workSpecId = id.getWorkSpecId();
+        WorkMetricsListener metricsListener = mConfiguration.getMetricsListener();
+        long startNanos = 0;
+        if (metricsListener != null) {
+            startNanos = SystemClock.elapsedRealtimeNanos();
+            metricsListener.onWorkStage(workSpecId, STAGE_START_REQUESTED, startNanos);
+        }
         ArrayList<String> tags = new ArrayList<>();
         WorkSpec workSpec = mWorkDatabase.runInTransaction(
                 () -> {
@@ -119,13 +143,17 @@ public class Processor implements ExecutionListener, ForegroundProcessor {
                     return mWorkDatabase.workSpecDao().getWorkSpec(workSpecId);
                 }
         );
+        if (metricsListener != null) {
+            metricsListener.onDatabaseTransaction(TRANSACTION_START,
+                    SystemClock.elapsedRealtimeNanos() - startNanos);
+        }
         if (workSpec == null) {
             Logger.get().warning(TAG, "Didn't find WorkSpec for id " + id);
             runOnExecuted(id, false);
             return false;
         }
         WorkerWrapper workWrapper;
-        synchronized (mLock) {
+        synchronized (lockFor(workSpecId)) {
             // Work may get triggered multiple times if they have passing constraints
             // and new work with those constraints are added.
             if (isEnqueued(workSpecId)) {
@@ -184,15 +212,21 @@ public class Processor implements ExecutionListener, ForegroundProcessor {
     @Override
     public void startForeground(@NonNull String workSpecId,
             @NonNull ForegroundInfo foregroundInfo) {
-        synchronized (mLock) {
-            Logger.get().info(TAG, "Moving WorkSpec (" + workSpecId + ") to the foreground");
-            WorkerWrapper wrapper = mEnqueuedWorkMap.remove(workSpecId);
-            if (wrapper != null) {
+        synchronized (lockFor(workSpecId)) {
+            synchronized (mLock) {
+                Logger.get().info(TAG, "Moving WorkSpec (" + workSpecId + ") to the foreground");
+                WorkerWrapper wrapper = mEnqueuedWorkMap.get(workSpecId);
+                if (wrapper == null) {
+                    return;
+                }
                 if (mForegroundLock == null) {
                     mForegroundLock = WakeLocks.newWakeLock(mAppContext, FOREGROUND_WAKELOCK_TAG);
                     mForegroundLock.acquire();
                 }
+                // Add before removing, so lock-free readers that look at mEnqueuedWorkMap first
+                // always see the work in one of the maps.
                 mForegroundWorkMap.put(workSpecId, wrapper);
+                mEnqueuedWorkMap.remove(workSpecId);
                 Intent intent = createStartForegroundIntent(mAppContext,
                         wrapper.getWorkGenerationalId(), foregroundInfo);
                 ContextCompat.startForegroundService(mAppContext, intent);
@@ -209,7 +243,7 @@ public class Processor implements ExecutionListener, ForegroundProcessor {
     public boolean stopForegroundWork(@NonNull StartStopToken token) {
         String id = token.getId().getWorkSpecId();
         WorkerWrapper wrapper = null;
-        synchronized (mLock) {
+        synchronized (lockFor(id)) {
             Logger.get().debug(TAG, "Processor stopping foreground work " + id);
             wrapper = mForegroundWorkMap.remove(id);
             if (wrapper != null) {
@@ -232,7 +266,7 @@ public class Processor implements ExecutionListener, ForegroundProcessor {
     public boolean stopWork(@NonNull StartStopToken runId) {
         String id = runId.getId().getWorkSpecId();
         WorkerWrapper wrapper = null;
-        synchronized (mLock) {
+        synchronized (lockFor(id)) {
             // Processor _only_ receives stopWork() requests from the schedulers that originally
             // scheduled the work, and not others. This means others are still notified about
             // completion, but we avoid a accidental "stops" and lot of redundant work when
@@ -265,7 +299,7 @@ public class Processor implements ExecutionListener, ForegroundProcessor {
     public boolean stopAndCancelWork(@NonNull String id) {
         WorkerWrapper wrapper = null;
         boolean isForegroundWork = false;
-        synchronized (mLock) {
+        synchronized (lockFor(id)) {
             Logger.get().debug(TAG, "Processor cancelling " + id);
             mCancelledIds.add(id);
             // Check if running in the context of a foreground service
@@ -292,10 +326,10 @@ public class Processor implements ExecutionListener, ForegroundProcessor {
 
     @Override
     public void stopForeground(@NonNull String workSpecId) {
-        synchronized (mLock) {
+        synchronized (lockFor(workSpecId)) {
             mForegroundWorkMap.remove(workSpecId);
-            stopForegroundService();
         }
+        stopForegroundService();
     }
 
     /**
@@ -305,19 +339,15 @@ public class Processor implements ExecutionListener, ForegroundProcessor {
      * @return {@code true} if the id has already been marked as cancelled
      */
     public boolean isCancelled(@NonNull String id) {
-        synchronized (mLock) {
-            return mCancelledIds.contains(id);
-        }
+        return mCancelledIds.contains(id);
     }
 
     /**
      * @return {@code true} if the processor has work to process.
      */
     public boolean hasWork() {
-        synchronized (mLock) {
-            return !(mEnqueuedWorkMap.isEmpty()
-                    && mForegroundWorkMap.isEmpty());
-        }
+        return !(mEnqueuedWorkMap.isEmpty()
+                && mForegroundWorkMap.isEmpty());
     }
 
     /**
@@ -325,10 +355,8 @@ public class Processor implements ExecutionListener, ForegroundProcessor {
      * @return {@code true} if the id was enqueued in the processor.
      */
     public boolean isEnqueued(@NonNull String workSpecId) {
-        synchronized (mLock) {
-            return mEnqueuedWorkMap.containsKey(workSpecId)
-                    || mForegroundWorkMap.containsKey(workSpecId);
-        }
+        return mEnqueuedWorkMap.containsKey(workSpecId)
+                || mForegroundWorkMap.containsKey(workSpecId);
     }
 
     /**
@@ -337,9 +365,7 @@ public class Processor implements ExecutionListener, ForegroundProcessor {
      */
     @Override
     public boolean isEnqueuedInForeground(@NonNull String workSpecId) {
-        synchronized (mLock) {
-            return mForegroundWorkMap.containsKey(workSpecId);
-        }
+        return mForegroundWorkMap.containsKey(workSpecId);
     }
 
     /**
@@ -348,9 +374,7 @@ public class Processor implements ExecutionListener, ForegroundProcessor {
      * @param executionListener The {@link ExecutionListener} to add
      */
     public void addExecutionListener(@NonNull ExecutionListener executionListener) {
-        synchronized (mLock) {
-            mOuterListeners.add(executionListener);
-        }
+        mOuterListeners.add(executionListener);
     }
 
     /**
@@ -359,26 +383,26 @@ public class Processor implements ExecutionListener, ForegroundProcessor {
      * @param executionListener The {@link ExecutionListener} to remove
      */
     public void removeExecutionListener(@NonNull ExecutionListener executionListener) {
-        synchronized (mLock) {
-            mOuterListeners.remove(executionListener);
-        }
+        mOuterListeners.remove(executionListener);
     }
 
     @Override
     public void onExecuted(@NonNull final WorkGenerationalId id, boolean needsReschedule) {
-        synchronized (mLock) {
-            WorkerWrapper workerWrapper = mEnqueuedWorkMap.get(id.getWorkSpecId());
+        String workSpecId = id.getWorkSpecId();
+        synchronized (lockFor(workSpecId)) {
+            WorkerWrapper workerWrapper = mEnqueuedWorkMap.get(workSpecId);
             // can be called for another generation, so we shouldn't removed
             if (workerWrapper != null && id.equals(workerWrapper.getWorkGenerationalId())) {
-                mEnqueuedWorkMap.remove(id.getWorkSpecId());
-            }
-            Logger.get().debug(TAG,
-                    getClass().getSimpleName() + " " + id.getWorkSpecId()
-                            + " executed; reschedule = " + needsReschedule);
-            for (ExecutionListener executionListener : mOuterListeners) {
-                executionListener.onExecuted(id, needsReschedule);
+                mEnqueuedWorkMap.remove(workSpecId);
             }
         }
+        Logger.get().debug(TAG,
+                getClass().getSimpleName() + " " + workSpecId
+                        + " executed; reschedule = " + needsReschedule);
+        // Listeners are notified outside of the lock, on a snapshot of the listeners.
+        for (ExecutionListener executionListener : mOuterListeners) {
+            executionListener.onExecuted(id, needsReschedule);
+        }
     }
 
     /**
@@ -388,17 +412,22 @@ public class Processor implements ExecutionListener, ForegroundProcessor {
      */
     @Nullable
     public WorkSpec getRunningWorkSpec(@NonNull String workSpecId) {
-        synchronized (mLock) {
-            WorkerWrapper workerWrapper = mForegroundWorkMap.get(workSpecId);
-            if (workerWrapper == null) {
-                workerWrapper = mEnqueuedWorkMap.get(workSpecId);
-            }
-            if (workerWrapper != null) {
-                return workerWrapper.getWorkSpec();
-            } else {
-                return null;
-            }
+        // Look at mEnqueuedWorkMap first, work only ever moves from it to mForegroundWorkMap.
+        WorkerWrapper workerWrapper = mEnqueuedWorkMap.get(workSpecId);
+        if (workerWrapper == null) {
+            workerWrapper = mForegroundWorkMap.get(workSpecId);
         }
+        if (workerWrapper != null) {
+            return workerWrapper.getWorkSpec();
+        } else {
+            return null;
+        }
+    }
+
+    @NonNull
+    private Object lockFor(@NonNull String workSpecId) {
+        int hash = workSpecId.hashCode();
+        return mWorkLocks[(hash ^ (hash >>> 16)) & (WORK_LOCK_COUNT - 1)];
     }
 
     private void runOnExecuted(@NonNull final WorkGenerationalId id, boolean needsReschedule) {
@@ -16,18 +16,22 @@
 
 package androidx.work.impl;
 
+import static androidx.work.WorkMetricsListener.STAGE_SCHEDULED;
+import static androidx.work.WorkMetricsListener.TRANSACTION_SCHEDULE;
 import static androidx.work.impl.Scheduler.MAX_GREEDY_SCHEDULER_LIMIT;
 import static androidx.work.impl.WorkManagerImpl.CONTENT_URI_TRIGGER_API_LEVEL;
 import static androidx.work.impl.utils.PackageManagerHelper.setComponentEnabled;
 
 import android.content.Context;
 import android.os.Build;
+import android.os.SystemClock;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.annotation.RestrictTo;
 import androidx.work.Configuration;
 import androidx.work.Logger;
+import androidx.work.WorkMetricsListener;
 import androidx.work.impl.background.systemalarm.SystemAlarmScheduler;
 import androidx.work.impl.background.systemalarm.SystemAlarmService;
 import androidx.work.impl.background.systemjob.SystemJobScheduler;
@@ -94,6 +98,8 @@ public class Schedulers {
         WorkSpecDao workSpecDao = workDatabase.workSpecDao();
         List<WorkSpec> eligibleWorkSpecsForLimitedSlots;
         List<WorkSpec> allEligibleWorkSpecs;
+        WorkMetricsListener metricsListener = configuration.getMetricsListener();
+        long startNanos = metricsListener != null ? SystemClock.elapsedRealtimeNanos() : 0;
 
         workDatabase.beginTransaction();
         try {
@@ -117,6 +123,15 @@ public class Schedulers {
             workDatabase.setTransactionSuccessful();
         } finally {
             workDatabase.endTransaction();
+            if (metricsListener != null) {
+                metricsListener.onDatabaseTransaction(TRANSACTION_SCHEDULE,
+                        SystemClock.elapsedRealtimeNanos() - startNanos);
+            }
+        }
+
+        if (metricsListener != null) {
+            reportScheduled(metricsListener, eligibleWorkSpecsForLimitedSlots,
+                    allEligibleWorkSpecs);
         }
 
         if (eligibleWorkSpecsForLimitedSlots.size() > 0) {
@@ -146,6 +161,34 @@ public class Schedulers {
         }
     }
 
+    private static void reportScheduled(
+            @NonNull WorkMetricsListener metricsListener,
+            @NonNull List<WorkSpec> eligibleWorkSpecsForLimitedSlots,
+            @NonNull List<WorkSpec> allEligibleWorkSpecs) {
+        long nowNanos = SystemClock.elapsedRealtimeNanos();
+        for (int i = 0; i < eligibleWorkSpecsForLimitedSlots.size(); i++) {
+            metricsListener.onWorkStage(eligibleWorkSpecsForLimitedSlots.get(i).id,
+                    STAGE_SCHEDULED, nowNanos);
+        }
+        for (int i = 0; i < allEligibleWorkSpecs.size(); i++) {
+            String id = allEligibleWorkSpecs.get(i).id;
+            // The same WorkSpec can be handed to both kinds of schedulers, report it once.
+            // There are at most a few hundred of them, so this doesn't need a set.
+            if (!containsId(eligibleWorkSpecsForLimitedSlots, id)) {
+                metricsListener.onWorkStage(id, STAGE_SCHEDULED, nowNanos);
+            }
+        }
+    }
+
+    private static boolean containsId(@NonNull List<WorkSpec> workSpecs, @NonNull String id) {
+        for (int i = 0; i < workSpecs.size(); i++) {
+            if (workSpecs.get(i).id.equals(id)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     @NonNull
     static Scheduler createBestAvailableBackgroundScheduler(@NonNull Context context,
             @NonNull WorkDatabase workDatabase, Configuration configuration) {
@@ -29,7 +29,11 @@ import androidx.work.impl.utils.taskexecutor.WorkManagerTaskExecutor
 fun WorkManagerImpl(
     context: Context,
     configuration: Configuration,
-    workTaskExecutor: TaskExecutor = WorkManagerTaskExecutor(configuration.taskExecutor),
+    workTaskExecutor: TaskExecutor = WorkManagerTaskExecutor(
+        configuration.taskExecutor,
+        configuration.isUsingLockFreeSerialExecutor,
+        configuration.metricsListener
+    ),
     workDatabase: WorkDatabase =
         WorkDatabase.create(
             context.applicationContext, workTaskExecutor.serialTaskExecutor,
@@ -22,11 +22,17 @@ import static androidx.work.WorkInfo.State.ENQUEUED;
 import static androidx.work.WorkInfo.State.FAILED;
 import static androidx.work.WorkInfo.State.RUNNING;
 import static androidx.work.WorkInfo.State.SUCCEEDED;
+import static androidx.work.WorkMetricsListener.STAGE_FINISHED;
+import static androidx.work.WorkMetricsListener.STAGE_RUNNING;
+import static androidx.work.WorkMetricsListener.STAGE_WORKER_STARTED;
+import static androidx.work.WorkMetricsListener.TRANSACTION_FINISH;
+import static androidx.work.WorkMetricsListener.TRANSACTION_SET_RUNNING;
 import static androidx.work.impl.model.WorkSpec.SCHEDULE_NOT_REQUESTED_YET;
 import static androidx.work.impl.model.WorkSpecKt.generationalId;
 
 import android.annotation.SuppressLint;
 import android.content.Context;
+import android.os.SystemClock;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
@@ -40,6 +46,7 @@ import androidx.work.InputMergerFactory;
 import androidx.work.ListenableWorker;
 import androidx.work.Logger;
 import androidx.work.WorkInfo;
+import androidx.work.WorkMetricsListener;
 import androidx.work.Worker;
 import androidx.work.WorkerParameters;
 import androidx.work.impl.background.systemalarm.RescheduleReceiver;
@@ -295,6 +302,12 @@ public class WorkerWrapper implements Runnable {
                         runExpedited.get();
                         Logger.get().debug(TAG,
                                 "Starting work for " + mWorkSpec.workerClassName);
+                        WorkMetricsListener metricsListener =
+                                mConfiguration.getMetricsListener();
+                        if (metricsListener != null) {
+                            metricsListener.onWorkStage(mWorkSpecId, STAGE_WORKER_STARTED,
+                                    SystemClock.elapsedRealtimeNanos());
+                        }
                          // Call mWorker.startWork() on the main thread.
                         mWorkerResultFuture.setFuture(mWorker.startWork());
                     } catch (Throwable e) {
@@ -341,6 +354,8 @@ public class WorkerWrapper implements Runnable {
     // Package-private for synthetic accessor.
     void onWorkFinished() {
         if (!tryCheckForInterruptionAndResolve()) {
+            WorkMetricsListener metricsListener = mConfiguration.getMetricsListener();
+            long startNanos = metricsListener != null ? SystemClock.elapsedRealtimeNanos() : 0;
             mWorkDatabase.beginTransaction();
             try {
                 WorkInfo.State state = mWorkSpecDao.getState(mWorkSpecId);
@@ -360,6 +375,11 @@ public class WorkerWrapper implements Runnable {
             } finally {
                 mWorkDatabase.endTransaction();
             }
+            if (metricsListener != null) {
+                long endNanos = SystemClock.elapsedRealtimeNanos();
+                metricsListener.onDatabaseTransaction(TRANSACTION_FINISH, endNanos - startNanos);
+                metricsListener.onWorkStage(mWorkSpecId, STAGE_FINISHED, endNanos);
+            }
         }
 
     }
@@ -484,6 +504,8 @@ public class WorkerWrapper implements Runnable {
 
     private boolean trySetRunning() {
         boolean setToRunning = false;
+        WorkMetricsListener metricsListener = mConfiguration.getMetricsListener();
+        long startNanos = metricsListener != null ? SystemClock.elapsedRealtimeNanos() : 0;
         mWorkDatabase.beginTransaction();
         try {
             WorkInfo.State currentState = mWorkSpecDao.getState(mWorkSpecId);
@@ -496,6 +518,13 @@ public class WorkerWrapper implements Runnable {
         } finally {
             mWorkDatabase.endTransaction();
         }
+        if (metricsListener != null) {
+            long endNanos = SystemClock.elapsedRealtimeNanos();
+            metricsListener.onDatabaseTransaction(TRANSACTION_SET_RUNNING, endNanos - startNanos);
+            if (setToRunning) {
+                metricsListener.onWorkStage(mWorkSpecId, STAGE_RUNNING, endNanos);
+            }
+        }
         return setToRunning;
     }
 
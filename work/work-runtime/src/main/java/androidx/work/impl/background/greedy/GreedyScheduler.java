@@ -43,9 +43,11 @@ import androidx.work.impl.model.WorkGenerationalId;
 import androidx.work.impl.model.WorkSpec;
 import androidx.work.impl.utils.ProcessUtils;
 
-import java.util.HashSet;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Set;
+import java.util.Map;
 
 /**
  * A greedy {@link Scheduler} that schedules unconstrained, non-timed work.  It intentionally does
@@ -60,7 +62,8 @@ public class GreedyScheduler implements Scheduler, WorkConstraintsCallback, Exec
 
     private final Context mContext;
     private final WorkConstraintsTracker mWorkConstraintsTracker;
-    private final Set<WorkSpec> mConstrainedWorkSpecs = new HashSet<>();
+    // Keyed by WorkSpec id, only one generation of a WorkSpec is tracked at a time.
+    private final Map<String, WorkSpec> mConstrainedWorkSpecs = new HashMap<>();
     private DelayedWorkTracker mDelayedWorkTracker;
     private boolean mRegisteredExecutionListener;
     private final Object mLock = new Object();
@@ -126,11 +129,10 @@ public class GreedyScheduler implements Scheduler, WorkConstraintsCallback, Exec
         registerExecutionListenerIfNeeded();
 
         // Keep track of the list of new WorkSpecs whose constraints need to be tracked.
-        // Add them to the known list of constrained WorkSpecs and call replace() on
-        // WorkConstraintsTracker. That way we only need to synchronize on the part where we
-        // are updating mConstrainedWorkSpecs.
-        Set<WorkSpec> constrainedWorkSpecs = new HashSet<>();
-        Set<String> constrainedWorkSpecIds = new HashSet<>();
+        // Add them to the known list of constrained WorkSpecs and only pass the ones that
+        // weren't tracked yet to WorkConstraintsTracker. That way we only need to synchronize on
+        // the part where we are updating mConstrainedWorkSpecs.
+        List<WorkSpec> constrainedWorkSpecs = new ArrayList<>();
 
         for (WorkSpec workSpec : workSpecs) {
             // it doesn't help against races, but reduces useless load in the system
@@ -157,7 +159,6 @@ public class GreedyScheduler implements Scheduler, WorkConstraintsCallback, Exec
                                 "Ignoring " + workSpec + ". Requires ContentUri triggers.");
                     } else {
                         constrainedWorkSpecs.add(workSpec);
-                        constrainedWorkSpecIds.add(workSpec.id);
                     }
                 } else {
                     // it doesn't help against races, but reduces useless load in the system
@@ -172,11 +173,25 @@ public class GreedyScheduler implements Scheduler, WorkConstraintsCallback, Exec
         // onExecuted() which is called on the main thread also modifies the list of mConstrained
         // WorkSpecs. Therefore we need to lock here.
         synchronized (mLock) {
-            if (!constrainedWorkSpecs.isEmpty()) {
-                String formattedIds = TextUtils.join(",", constrainedWorkSpecIds);
+            List<WorkSpec> newlyConstrainedWorkSpecs = new ArrayList<>();
+            List<String> newlyConstrainedWorkSpecIds = new ArrayList<>();
+            for (WorkSpec workSpec : constrainedWorkSpecs) {
+                WorkSpec previous = mConstrainedWorkSpecs.get(workSpec.id);
+                if (previous != null) {
+                    if (previous.getGeneration() >= workSpec.getGeneration()) {
+                        continue;
+                    }
+                    // A newer generation may have different constraints.
+                    mWorkConstraintsTracker.untrack(Collections.singletonList(workSpec.id));
+                }
+                mConstrainedWorkSpecs.put(workSpec.id, workSpec);
+                newlyConstrainedWorkSpecs.add(workSpec);
+                newlyConstrainedWorkSpecIds.add(workSpec.id);
+            }
+            if (!newlyConstrainedWorkSpecs.isEmpty()) {
+                String formattedIds = TextUtils.join(",", newlyConstrainedWorkSpecIds);
                 Logger.get().debug(TAG, "Starting tracking for " + formattedIds);
-                mConstrainedWorkSpecs.addAll(constrainedWorkSpecs);
-                mWorkConstraintsTracker.replace(mConstrainedWorkSpecs);
+                mWorkConstraintsTracker.track(newlyConstrainedWorkSpecs);
             }
         }
     }
@@ -244,13 +259,12 @@ public class GreedyScheduler implements Scheduler, WorkConstraintsCallback, Exec
             // This is synchronized because onExecuted is on the main thread but
             // Schedulers#schedule() can modify the list of mConstrainedWorkSpecs on the task
             // executor thread.
-            for (WorkSpec constrainedWorkSpec : mConstrainedWorkSpecs) {
-                if (generationalId(constrainedWorkSpec).equals(id)) {
-                    Logger.get().debug(TAG, "Stopping tracking for " + id);
-                    mConstrainedWorkSpecs.remove(constrainedWorkSpec);
-                    mWorkConstraintsTracker.replace(mConstrainedWorkSpecs);
-                    break;
-                }
+            WorkSpec constrainedWorkSpec = mConstrainedWorkSpecs.get(id.getWorkSpecId());
+            if (constrainedWorkSpec != null && generationalId(constrainedWorkSpec).equals(id)) {
+                Logger.get().debug(TAG, "Stopping tracking for " + id);
+                mConstrainedWorkSpecs.remove(id.getWorkSpecId());
+                mWorkConstraintsTracker.untrack(
+                        Collections.singletonList(id.getWorkSpecId()));
             }
         }
     }
@@ -36,6 +36,21 @@ interface WorkConstraintsTracker {
      */
     fun replace(workSpecs: Iterable<WorkSpec>)
 
+    /**
+     * Starts monitoring the given [WorkSpec]s in addition to the ones already tracked. Only the
+     * new [WorkSpec]s are reported to the callback.
+     *
+     * @param workSpecs A list of [WorkSpec]s to monitor constraints for
+     */
+    fun track(workSpecs: Iterable<WorkSpec>)
+
+    /**
+     * Stops monitoring the [WorkSpec]s with the given ids, leaving the others tracked.
+     *
+     * @param workSpecIds The ids of the [WorkSpec]s to stop monitoring
+     */
+    fun untrack(workSpecIds: Iterable<String>)
+
     /**
      * Resets and clears all tracked [WorkSpec]s.
      */
@@ -97,6 +112,25 @@ class WorkConstraintsTrackerImpl @VisibleForTesting internal constructor(
         }
     }
 
+    override fun track(workSpecs: Iterable<WorkSpec>) {
+        synchronized(lock) {
+            // Add to all the controllers before notifying any of them, so that
+            // areAllConstraintsMet() sees every constraint of the new WorkSpecs.
+            val added = constraintControllers.map { it.add(workSpecs) }
+            constraintControllers.forEachIndexed { index, controller ->
+                controller.notifyCallback(added[index])
+            }
+        }
+    }
+
+    override fun untrack(workSpecIds: Iterable<String>) {
+        synchronized(lock) {
+            for (controller in constraintControllers) {
+                controller.remove(workSpecIds)
+            }
+        }
+    }
+
     /**
      * Resets and clears all tracked [WorkSpec]s.
      */
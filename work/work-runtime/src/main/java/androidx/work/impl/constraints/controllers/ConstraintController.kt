@@ -46,8 +46,8 @@ abstract class ConstraintController<T> internal constructor(
         fun onConstraintNotMet(workSpecs: List<WorkSpec>)
     }
 
-    private val matchingWorkSpecs = mutableListOf<WorkSpec>()
-    private val matchingWorkSpecIds = mutableListOf<String>()
+    // Keyed by WorkSpec id, in the order they started being tracked.
+    private val matchingWorkSpecs = LinkedHashMap<String, WorkSpec>()
     private var currentValue: T? = null
 
     /**
@@ -72,9 +72,11 @@ abstract class ConstraintController<T> internal constructor(
      */
     fun replace(workSpecs: Iterable<WorkSpec>) {
         matchingWorkSpecs.clear()
-        matchingWorkSpecIds.clear()
-        workSpecs.filterTo(matchingWorkSpecs) { hasConstraint(it) }
-        matchingWorkSpecs.mapTo(matchingWorkSpecIds) { it.id }
+        for (workSpec in workSpecs) {
+            if (hasConstraint(workSpec)) {
+                matchingWorkSpecs[workSpec.id] = workSpec
+            }
+        }
 
         if (matchingWorkSpecs.isEmpty()) {
             tracker.removeListener(this)
@@ -84,6 +86,68 @@ abstract class ConstraintController<T> internal constructor(
         updateCallback(callback, currentValue)
     }
 
+    /**
+     * Adds the [WorkSpec]s with this constraint to the ones already being monitored.
+     *
+     * Unlike [replace], the callback is not notified, so that a [WorkSpec] with several
+     * constraints is added to all of the controllers before any of them reports it. Pass the
+     * returned [WorkSpec]s to [notifyCallback] afterwards.
+     *
+     * @param workSpecs A list of [WorkSpec]s to monitor constraints for
+     * @return The [WorkSpec]s that have this constraint and were not monitored yet
+     */
+    fun add(workSpecs: Iterable<WorkSpec>): List<WorkSpec> {
+        val added = mutableListOf<WorkSpec>()
+        for (workSpec in workSpecs) {
+            if (hasConstraint(workSpec) && workSpec.id !in matchingWorkSpecs) {
+                added.add(workSpec)
+            }
+        }
+        if (added.isEmpty()) {
+            return added
+        }
+        if (matchingWorkSpecs.isEmpty()) {
+            // Nothing is monitored yet, so the initial state the tracker reports to this listener
+            // doesn't notify the callback.
+            tracker.addListener(this)
+        }
+        for (workSpec in added) {
+            matchingWorkSpecs[workSpec.id] = workSpec
+        }
+        return added
+    }
+
+    /**
+     * Stops monitoring constraints for the given [WorkSpec] ids.
+     *
+     * @param workSpecIds The ids of the [WorkSpec]s to stop monitoring
+     */
+    fun remove(workSpecIds: Iterable<String>) {
+        if (matchingWorkSpecs.isEmpty()) {
+            return
+        }
+        for (workSpecId in workSpecIds) {
+            matchingWorkSpecs.remove(workSpecId)
+        }
+        if (matchingWorkSpecs.isEmpty()) {
+            tracker.removeListener(this)
+        }
+    }
+
+    /**
+     * Notifies the callback about the current state of the constraint for the given
+     * [WorkSpec]s, typically the ones returned by [add].
+     *
+     * @param workSpecs The [WorkSpec]s to notify the callback about
+     */
+    fun notifyCallback(workSpecs: List<WorkSpec>) {
+        val callback = callback
+        if (workSpecs.isEmpty() || callback == null) {
+            return
+        }
+        updateCallback(callback, currentValue, workSpecs)
+    }
+
     /**
      * Clears all tracked [WorkSpec]s.
      */
@@ -105,7 +169,7 @@ abstract class ConstraintController<T> internal constructor(
         // TODO: unify `null` treatment here and in updateCallback, because
         // here it is considered as not constrained and but in updateCallback as constrained.
         val value = currentValue
-        return (value != null && isConstrained(value) && workSpecId in matchingWorkSpecIds)
+        return (value != null && isConstrained(value) && workSpecId in matchingWorkSpecs)
     }
 
     private fun updateCallback(callback: OnConstraintUpdatedCallback?, currentValue: T?) {
@@ -115,10 +179,18 @@ abstract class ConstraintController<T> internal constructor(
         if (matchingWorkSpecs.isEmpty() || callback == null) {
             return
         }
+        updateCallback(callback, currentValue, matchingWorkSpecs.values.toList())
+    }
+
+    private fun updateCallback(
+        callback: OnConstraintUpdatedCallback,
+        currentValue: T?,
+        workSpecs: List<WorkSpec>
+    ) {
         if (currentValue == null || isConstrained(currentValue)) {
-            callback.onConstraintNotMet(matchingWorkSpecs)
+            callback.onConstraintNotMet(workSpecs)
         } else {
-            callback.onConstraintMet(matchingWorkSpecs)
+            callback.onConstraintMet(workSpecs)
         }
     }
 
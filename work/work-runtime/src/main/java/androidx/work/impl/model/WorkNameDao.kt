@@ -33,6 +33,14 @@ interface WorkNameDao {
     @Insert(onConflict = OnConflictStrategy.IGNORE)
     fun insert(workName: WorkName)
 
+    /**
+     * Inserts [WorkName]s into the table.
+     *
+     * @param workNames The [WorkName]s to insert
+     */
+    @Insert(onConflict = OnConflictStrategy.IGNORE)
+    fun insertWorkNames(workNames: List<WorkName>)
+
     /**
      * Retrieves all [WorkSpec] ids in the given named graph.
      *
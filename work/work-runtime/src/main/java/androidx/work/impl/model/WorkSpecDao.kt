@@ -50,6 +50,16 @@ interface WorkSpecDao {
     @Insert(onConflict = OnConflictStrategy.IGNORE)
     fun insertWorkSpec(workSpec: WorkSpec)
 
+    /**
+     * Attempts to insert [WorkSpec]s into the database, reusing a single prepared statement.
+     *
+     * @param workSpecs The WorkSpecs to insert.
+     * @return The row ids of the inserted WorkSpecs, in order; `-1` for WorkSpecs that were
+     *   ignored because one with the same id already exists.
+     */
+    @Insert(onConflict = OnConflictStrategy.IGNORE)
+    fun insertWorkSpecs(workSpecs: List<WorkSpec>): List<Long>
+
     /**
      * Deletes [WorkSpec]s from the database.
      *
@@ -76,6 +86,13 @@ interface WorkSpecDao {
     )
     fun getWorkSpecIdAndStatesForName(name: String): List<WorkSpec.IdAndState>
 
+    /**
+     * @param ids The identifiers
+     * @return The ids and states of the [WorkSpec]s that exist for the given ids
+     */
+    @Query("SELECT id, state FROM workspec WHERE id IN (:ids)")
+    fun getWorkSpecIdAndStates(ids: List<String>): List<WorkSpec.IdAndState>
+
     /**
      * @return All WorkSpec ids in the database.
      */
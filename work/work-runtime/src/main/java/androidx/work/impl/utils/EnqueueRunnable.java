@@ -25,10 +25,13 @@ import static androidx.work.WorkInfo.State.ENQUEUED;
 import static androidx.work.WorkInfo.State.FAILED;
 import static androidx.work.WorkInfo.State.RUNNING;
 import static androidx.work.WorkInfo.State.SUCCEEDED;
+import static androidx.work.WorkMetricsListener.STAGE_ENQUEUED;
+import static androidx.work.WorkMetricsListener.TRANSACTION_ENQUEUE;
 import static androidx.work.impl.utils.EnqueueUtilsKt.checkContentUriTriggerWorkerLimits;
 import static androidx.work.impl.utils.EnqueueUtilsKt.wrapInConstraintTrackingWorkerIfNeeded;
 
 import android.content.Context;
+import android.os.SystemClock;
 import android.text.TextUtils;
 
 import androidx.annotation.NonNull;
@@ -38,6 +41,7 @@ import androidx.work.ExistingWorkPolicy;
 import androidx.work.Logger;
 import androidx.work.Operation;
 import androidx.work.WorkInfo;
+import androidx.work.WorkMetricsListener;
 import androidx.work.WorkRequest;
 import androidx.work.impl.OperationImpl;
 import androidx.work.impl.Schedulers;
@@ -50,10 +54,13 @@ import androidx.work.impl.model.DependencyDao;
 import androidx.work.impl.model.WorkName;
 import androidx.work.impl.model.WorkSpec;
 import androidx.work.impl.model.WorkSpecDao;
+import androidx.work.impl.model.WorkTag;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -65,6 +72,9 @@ public class EnqueueRunnable implements Runnable {
 
     private static final String TAG = Logger.tagWithPrefix("EnqueueRunnable");
 
+    // The lowest SQLITE_MAX_VARIABLE_NUMBER across supported API levels.
+    private static final int MAX_QUERY_ARGUMENTS = 999;
+
     private final WorkContinuationImpl mWorkContinuation;
     private final OperationImpl mOperation;
 
@@ -109,22 +119,31 @@ public class EnqueueRunnable implements Runnable {
     }
 
     /**
-     * Adds the {@link WorkSpec}'s to the datastore, parent first.
-     * Schedules work on the background scheduler, if transaction is successful.
+     * Adds the {@link WorkSpec}'s to the datastore, parent first, in a single transaction.
+     * The rows for each continuation are written with batched inserts, and the states of the
+     * inserted {@link WorkSpec}s are remembered so that dependent continuations don't have to
+     * read them back.
      */
     @VisibleForTesting
     public boolean addToDatabase() {
         WorkManagerImpl workManagerImpl = mWorkContinuation.getWorkManagerImpl();
         WorkDatabase workDatabase = workManagerImpl.getWorkDatabase();
+        WorkMetricsListener metricsListener = workManagerImpl.getConfiguration()
+                .getMetricsListener();
+        long startNanos = metricsListener != null ? SystemClock.elapsedRealtimeNanos() : 0;
         workDatabase.beginTransaction();
         try {
             checkContentUriTriggerWorkerLimits(workDatabase,
                     workManagerImpl.getConfiguration(), mWorkContinuation);
-            boolean needsScheduling = processContinuation(mWorkContinuation);
+            boolean needsScheduling = processContinuation(mWorkContinuation, new HashMap<>());
             workDatabase.setTransactionSuccessful();
             return needsScheduling;
         } finally {
             workDatabase.endTransaction();
+            if (metricsListener != null) {
+                metricsListener.onDatabaseTransaction(TRANSACTION_ENQUEUE,
+                        SystemClock.elapsedRealtimeNanos() - startNanos);
+            }
         }
     }
 
@@ -140,7 +159,9 @@ public class EnqueueRunnable implements Runnable {
                 workManager.getSchedulers());
     }
 
-    private static boolean processContinuation(@NonNull WorkContinuationImpl workContinuation) {
+    private static boolean processContinuation(
+            @NonNull WorkContinuationImpl workContinuation,
+            @NonNull Map<String, WorkInfo.State> insertedStates) {
         boolean needsScheduling = false;
         List<WorkContinuationImpl> parents = workContinuation.getParents();
         if (parents != null) {
@@ -148,7 +169,7 @@ public class EnqueueRunnable implements Runnable {
                 // When chaining off a completed continuation we need to pay
                 // attention to parents that may have been marked as enqueued before.
                 if (!parent.isEnqueued()) {
-                    needsScheduling |= processContinuation(parent);
+                    needsScheduling |= processContinuation(parent, insertedStates);
                 } else {
                     Logger.get().warning(TAG,
                             "Already enqueued work ids (" +
@@ -156,11 +177,13 @@ public class EnqueueRunnable implements Runnable {
                 }
             }
         }
-        needsScheduling |= enqueueContinuation(workContinuation);
+        needsScheduling |= enqueueContinuation(workContinuation, insertedStates);
         return needsScheduling;
     }
 
-    private static boolean enqueueContinuation(@NonNull WorkContinuationImpl workContinuation) {
+    private static boolean enqueueContinuation(
+            @NonNull WorkContinuationImpl workContinuation,
+            @NonNull Map<String, WorkInfo.State> insertedStates) {
         Set<String> prerequisiteIds = WorkContinuationImpl.prerequisitesFor(workContinuation);
 
         boolean needsScheduling = enqueueWorkWithPrerequisites(
@@ -168,7 +191,8 @@ public class EnqueueRunnable implements Runnable {
                 workContinuation.getWork(),
                 prerequisiteIds.toArray(new String[0]),
                 workContinuation.getName(),
-                workContinuation.getExistingWorkPolicy());
+                workContinuation.getExistingWorkPolicy(),
+                insertedStates);
 
         workContinuation.markEnqueued();
         return needsScheduling;
@@ -177,6 +201,9 @@ public class EnqueueRunnable implements Runnable {
     /**
      * Enqueues the {@link WorkSpec}'s while keeping track of the prerequisites.
      *
+     * @param insertedStates The states of the {@link WorkSpec}s inserted so far in the current
+     *                       transaction, keyed by id. Updated with the {@link WorkSpec}s inserted
+     *                       by this call.
      * @return {@code true} If there is any scheduling to be done.
      */
     private static boolean enqueueWorkWithPrerequisites(
@@ -184,7 +211,8 @@ public class EnqueueRunnable implements Runnable {
             @NonNull List<? extends WorkRequest> workList,
             String[] prerequisiteIds,
             String name,
-            ExistingWorkPolicy existingWorkPolicy) {
+            ExistingWorkPolicy existingWorkPolicy,
+            @NonNull Map<String, WorkInfo.State> insertedStates) {
 
         boolean needsScheduling = false;
 
@@ -200,14 +228,15 @@ public class EnqueueRunnable implements Runnable {
             // If there are prerequisites, make sure they actually exist before enqueuing
             // anything.  Prerequisites may not exist if we are using unique tags, because the
             // chain of work could have been wiped out already.
+            Map<String, WorkInfo.State> prerequisiteStates =
+                    getStates(workDatabase, insertedStates, prerequisiteIds);
             for (String id : prerequisiteIds) {
-                WorkSpec prerequisiteWorkSpec = workDatabase.workSpecDao().getWorkSpec(id);
-                if (prerequisiteWorkSpec == null) {
+                WorkInfo.State prerequisiteState = prerequisiteStates.get(id);
+                if (prerequisiteState == null) {
                     Logger.get().error(TAG, "Prerequisite " + id + " doesn't exist; not enqueuing");
                     return false;
                 }
 
-                WorkInfo.State prerequisiteState = prerequisiteWorkSpec.state;
                 hasCompletedAllPrerequisites &= (prerequisiteState == SUCCEEDED);
                 if (prerequisiteState == FAILED) {
                     hasFailedPrerequisites = true;
@@ -228,6 +257,9 @@ public class EnqueueRunnable implements Runnable {
                     workDatabase.workSpecDao().getWorkSpecIdAndStatesForName(name);
 
             if (!existingWorkSpecIdAndStates.isEmpty()) {
+                // Existing work with this name may be cancelled or deleted below, so the states
+                // remembered so far can no longer be trusted.
+                insertedStates.clear();
                 // If appending, these are the new prerequisites.
                 if (existingWorkPolicy == APPEND || existingWorkPolicy == APPEND_OR_REPLACE) {
                     DependencyDao dependencyDao = workDatabase.dependencyDao();
@@ -291,6 +323,14 @@ public class EnqueueRunnable implements Runnable {
             }
         }
 
+        List<WorkSpec> workSpecs = new ArrayList<>(workList.size());
+        List<Dependency> dependencies = hasPrerequisite
+                ? new ArrayList<>(workList.size() * prerequisiteIds.length)
+                : Collections.emptyList();
+        List<WorkTag> workTags = new ArrayList<>();
+        List<WorkName> workNames = isNamed
+                ? new ArrayList<>(workList.size())
+                : Collections.emptyList();
         for (WorkRequest work : workList) {
             WorkSpec workSpec = work.getWorkSpec();
 
@@ -314,7 +354,7 @@ public class EnqueueRunnable implements Runnable {
                 needsScheduling = true;
             }
 
-            workDatabase.workSpecDao().insertWorkSpec(
+            workSpecs.add(
                     wrapInConstraintTrackingWorkerIfNeeded(
                             workManagerImpl.getSchedulers(),
                             workSpec
@@ -323,16 +363,72 @@ public class EnqueueRunnable implements Runnable {
 
             if (hasPrerequisite) {
                 for (String prerequisiteId : prerequisiteIds) {
-                    Dependency dep = new Dependency(work.getStringId(), prerequisiteId);
-                    workDatabase.dependencyDao().insertDependency(dep);
+                    dependencies.add(new Dependency(work.getStringId(), prerequisiteId));
                 }
             }
 
-            workDatabase.workTagDao().insertTags(work.getStringId(), work.getTags());
+            for (String tag : work.getTags()) {
+                workTags.add(new WorkTag(tag, work.getStringId()));
+            }
             if (isNamed) {
-                workDatabase.workNameDao().insert(new WorkName(name, work.getStringId()));
+                workNames.add(new WorkName(name, work.getStringId()));
             }
         }
+
+        // WorkSpecs go first, the other tables have foreign keys on them.
+        List<Long> rowIds = workDatabase.workSpecDao().insertWorkSpecs(workSpecs);
+        WorkMetricsListener metricsListener = workManagerImpl.getConfiguration()
+                .getMetricsListener();
+        long enqueuedNanos = metricsListener != null ? SystemClock.elapsedRealtimeNanos() : 0;
+        for (int i = 0; i < workSpecs.size(); i++) {
+            // Ignored inserts keep the state of the WorkSpec already in the database.
+            if (rowIds.get(i) != -1) {
+                WorkSpec workSpec = workSpecs.get(i);
+                insertedStates.put(workSpec.id, workSpec.state);
+                if (metricsListener != null) {
+                    metricsListener.onWorkStage(workSpec.id, STAGE_ENQUEUED, enqueuedNanos);
+                }
+            }
+        }
+        if (!dependencies.isEmpty()) {
+            workDatabase.dependencyDao().insertDependencies(dependencies);
+        }
+        if (!workTags.isEmpty()) {
+            workDatabase.workTagDao().insertWorkTags(workTags);
+        }
+        if (!workNames.isEmpty()) {
+            workDatabase.workNameDao().insertWorkNames(workNames);
+        }
         return needsScheduling;
     }
+
+    /**
+     * @return The states of the given {@link WorkSpec} ids, looked up in {@code insertedStates}
+     * first and then in the database. Ids without a {@link WorkSpec} are not in the result.
+     */
+    @NonNull
+    private static Map<String, WorkInfo.State> getStates(
+            @NonNull WorkDatabase workDatabase,
+            @NonNull Map<String, WorkInfo.State> insertedStates,
+            @NonNull String[] ids) {
+        Map<String, WorkInfo.State> states = new HashMap<>(ids.length);
+        List<String> missingIds = new ArrayList<>();
+        for (String id : ids) {
+            WorkInfo.State state = insertedStates.get(id);
+            if (state != null) {
+                states.put(id, state);
+            } else {
+                missingIds.add(id);
+            }
+        }
+        WorkSpecDao workSpecDao = workDatabase.workSpecDao();
+        for (int start = 0; start < missingIds.size(); start += MAX_QUERY_ARGUMENTS) {
+            int end = Math.min(missingIds.size(), start + MAX_QUERY_ARGUMENTS);
+            for (WorkSpec.IdAndState idAndState :
+                    workSpecDao.getWorkSpecIdAndStates(missingIds.subList(start, end))) {
+                states.put(idAndState.id, idAndState.state);
+            }
+        }
+        return states;
+    }
 }
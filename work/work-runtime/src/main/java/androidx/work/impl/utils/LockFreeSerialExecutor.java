@@ -0,0 +1,135 @@
+/*
+ * Copyright 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androidx.work.impl.utils;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+import androidx.work.WorkMetricsListener;
+import androidx.work.impl.utils.taskexecutor.SerialExecutor;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A {@link SerialExecutor} like {@link SerialExecutorImpl} that does not take a lock.
+ * <p>
+ * Any number of threads can enqueue tasks into a lock-free queue, and a single drain
+ * {@link Runnable} is handed to the delegate {@link Executor} whenever the queue goes from idle
+ * to busy. The drain runs up to {@link #MAX_TASKS_PER_DRAIN} tasks before handing itself back to
+ * the delegate, so that a long burst of tasks does not hog a thread that is shared with other
+ * users of the delegate, such as Room's query executor.
+ */
+public class LockFreeSerialExecutor implements SerialExecutor {
+    /**
+     * The maximum number of tasks executed for every hand-off to the delegate {@link Executor}.
+     */
+    @VisibleForTesting
+    static final int MAX_TASKS_PER_DRAIN = 32;
+
+    private final ConcurrentLinkedQueue<Runnable> mTasks = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean mScheduled = new AtomicBoolean(false);
+    private final Executor mExecutor;
+    @Nullable
+    private final WorkMetricsListener mMetricsListener;
+    // Tasks queued or running, only counted when there is a metrics listener
+    private final AtomicInteger mQueueDepth = new AtomicInteger();
+    private final Runnable mDrainTask = new Runnable() {
+        @Override
+        public void run() {
+            drain();
+        }
+    };
+
+    public LockFreeSerialExecutor(@NonNull Executor executor) {
+        this(executor, null);
+    }
+
+    /**
+     * @param executor        the {@link Executor} that runs the drains
+     * @param metricsListener the {@link WorkMetricsListener} to report queue depths to, if any
+     */
+    public LockFreeSerialExecutor(@NonNull Executor executor,
+            @Nullable WorkMetricsListener metricsListener) {
+        mExecutor = executor;
+        mMetricsListener = metricsListener;
+    }
+
+    @Override
+    public void execute(@NonNull Runnable command) {
+        if (mMetricsListener != null) {
+            mMetricsListener.onTaskQueued(mQueueDepth.incrementAndGet());
+        }
+        mTasks.offer(command);
+        scheduleDrain();
+    }
+
+    /**
+     * @return {@code true} if there are tasks to execute in the queue.
+     */
+    @Override
+    public boolean hasPendingTasks() {
+        return !mTasks.isEmpty();
+    }
+
+    @NonNull
+    @VisibleForTesting
+    public Executor getDelegatedExecutor() {
+        return mExecutor;
+    }
+
+    private void scheduleDrain() {
+        if (mScheduled.compareAndSet(false, true)) {
+            try {
+                mExecutor.execute(mDrainTask);
+            } catch (RuntimeException e) {
+                // Let the next execute() try again
+                mScheduled.set(false);
+                throw e;
+            }
+        }
+    }
+
+    // Synthetic access
+    void drain() {
+        try {
+            for (int i = 0; i < MAX_TASKS_PER_DRAIN; i++) {
+                Runnable task = mTasks.poll();
+                if (task == null) {
+                    break;
+                }
+                try {
+                    task.run();
+                } finally {
+                    if (mMetricsListener != null) {
+                        mQueueDepth.decrementAndGet();
+                    }
+                }
+            }
+        } finally {
+            // Only the drain polls the queue, so the remaining tasks are still ours to run.
+            // A producer that offered a task after the last poll either sees mScheduled set
+            // and relies on the check below, or wins the compareAndSet and schedules a drain.
+            mScheduled.set(false);
+            if (!mTasks.isEmpty()) {
+                scheduleDrain();
+            }
+        }
+    }
+}
@@ -18,7 +18,9 @@ package androidx.work.impl.utils;
 
 import androidx.annotation.GuardedBy;
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.annotation.VisibleForTesting;
+import androidx.work.WorkMetricsListener;
 import androidx.work.impl.utils.taskexecutor.SerialExecutor;
 
 import java.util.ArrayDeque;
@@ -31,6 +33,8 @@ import java.util.concurrent.Executor;
 public class SerialExecutorImpl implements SerialExecutor {
     private final ArrayDeque<Task> mTasks;
     private final Executor mExecutor;
+    @Nullable
+    private final WorkMetricsListener mMetricsListener;
 
     @GuardedBy("mLock")
     private Runnable mActive;
@@ -38,18 +42,35 @@ public class SerialExecutorImpl implements SerialExecutor {
     final Object mLock;
 
     public SerialExecutorImpl(@NonNull Executor executor) {
+        this(executor, null);
+    }
+
+    /**
+     * @param executor        the {@link Executor} that runs the tasks
+     * @param metricsListener the {@link WorkMetricsListener} to report queue depths to, if any
+     */
+    public SerialExecutorImpl(@NonNull Executor executor,
+            @Nullable WorkMetricsListener metricsListener) {
         mExecutor = executor;
+        mMetricsListener = metricsListener;
         mTasks = new ArrayDeque<>();
         mLock = new Object();
     }
 
     @Override
     public void execute(@NonNull Runnable command) {
+        int queueDepth = 0;
         synchronized (mLock) {
             mTasks.add(new Task(this, command));
             if (mActive == null) {
                 scheduleNext();
             }
+            if (mMetricsListener != null) {
+                queueDepth = mTasks.size() + (mActive != null ? 1 : 0);
+            }
+        }
+        if (mMetricsListener != null) {
+            mMetricsListener.onTaskQueued(queueDepth);
         }
     }
 
@@ -20,7 +20,10 @@ import android.os.Handler;
 import android.os.Looper;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.annotation.RestrictTo;
+import androidx.work.WorkMetricsListener;
+import androidx.work.impl.utils.LockFreeSerialExecutor;
 import androidx.work.impl.utils.SerialExecutorImpl;
 
 import java.util.concurrent.Executor;
@@ -34,13 +37,37 @@ import kotlinx.coroutines.ExecutorsKt;
 @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
 public class WorkManagerTaskExecutor implements TaskExecutor {
 
-    private final SerialExecutorImpl mBackgroundExecutor;
+    private final SerialExecutor mBackgroundExecutor;
     private final CoroutineDispatcher mTaskDispatcher;
 
     public WorkManagerTaskExecutor(@NonNull Executor backgroundExecutor) {
+        this(backgroundExecutor, false);
+    }
+
+    /**
+     * @param backgroundExecutor the {@link Executor} that runs the serialized tasks
+     * @param useLockFreeSerialExecutor {@code true} to serialize the tasks with a
+     *                                  {@link LockFreeSerialExecutor}
+     */
+    public WorkManagerTaskExecutor(@NonNull Executor backgroundExecutor,
+            boolean useLockFreeSerialExecutor) {
+        this(backgroundExecutor, useLockFreeSerialExecutor, null);
+    }
+
+    /**
+     * @param backgroundExecutor the {@link Executor} that runs the serialized tasks
+     * @param useLockFreeSerialExecutor {@code true} to serialize the tasks with a
+     *                                  {@link LockFreeSerialExecutor}
+     * @param metricsListener the {@link WorkMetricsListener} to report queue depths to, if any
+     */
+    public WorkManagerTaskExecutor(@NonNull Executor backgroundExecutor,
+            boolean useLockFreeSerialExecutor,
+            @Nullable WorkMetricsListener metricsListener) {
         // Wrap it with a serial executor so we have ordering guarantees on commands
         // being executed.
-        mBackgroundExecutor = new SerialExecutorImpl(backgroundExecutor);
+        mBackgroundExecutor = useLockFreeSerialExecutor
+                ? new LockFreeSerialExecutor(backgroundExecutor, metricsListener)
+                : new SerialExecutorImpl(backgroundExecutor, metricsListener);
         mTaskDispatcher = ExecutorsKt.from(mBackgroundExecutor);
     }
 
@@ -61,7 +88,7 @@ public class WorkManagerTaskExecutor implements TaskExecutor {
 
     @Override
     @NonNull
-    public SerialExecutorImpl getSerialTaskExecutor() {
+    public SerialExecutor getSerialTaskExecutor() {
         return mBackgroundExecutor;
     }
 
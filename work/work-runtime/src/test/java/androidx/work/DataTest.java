@@ -27,6 +27,10 @@ import androidx.annotation.NonNull;
 
 import org.junit.Test;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -71,6 +75,22 @@ public class DataTest {
         assertThat(restoredData, is(data));
     }
 
+    @Test
+    public void testDeserialize_sourceArrayModified() {
+        Data data = new Data.Builder()
+                .putString(KEY1, "value1")
+                .putInt(KEY2, 2)
+                .build();
+        byte[] byteArray = Data.toByteArrayInternal(data).clone();
+
+        Data restoredData = Data.fromByteArray(byteArray);
+        Arrays.fill(byteArray, (byte) 0);
+
+        assertThat(restoredData.getString(KEY1), is("value1"));
+        assertThat(restoredData.getInt(KEY2, 0), is(2));
+        assertThat(restoredData, is(data));
+    }
+
     @Test
     public void testSerializeIntArray() {
         int[] expectedValue1 = new int[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10};
@@ -115,6 +135,67 @@ public class DataTest {
         }
     }
 
+    @Test
+    public void testDeserializeLegacyFormat() throws IOException {
+        Map<String, Object> values = new HashMap<>();
+        values.put(KEY1, "value1");
+        values.put(KEY2, new Integer[]{1, 2, 3});
+        values.put("null", null);
+
+        Data restoredData = Data.fromByteArray(writeLegacyFormat(values));
+
+        assertThat(restoredData.size(), is(3));
+        assertThat(restoredData.getString(KEY1), is("value1"));
+        assertThat(restoredData.getIntArray(KEY2), is(equalTo(new int[]{1, 2, 3})));
+        assertThat(restoredData.getString("null"), is(nullValue()));
+        assertThat(Data.fromByteArray(restoredData.toByteArray()), is(restoredData));
+    }
+
+    @Test
+    public void testSerializeCompactFormat_smallerThanLegacyFormat() throws IOException {
+        Data data = createData();
+        assertThat(data.toByteArray().length < writeLegacyFormat(data.mValues).length, is(true));
+    }
+
+    @Test
+    public void testDeserialize_readsKeysWithoutInflating() {
+        Data data = new Data.Builder()
+                .putString(KEY1, "value1")
+                .putLongArray(KEY2, new long[]{1L, Long.MAX_VALUE})
+                .putStringArray("strings", new String[]{"a", null, "c"})
+                .putDouble("double", 0.5)
+                .build();
+
+        Data restoredData = Data.fromByteArray(data.toByteArray());
+
+        assertThat(restoredData.getString(KEY1), is("value1"));
+        assertThat(restoredData.getLongArray(KEY2), is(equalTo(new long[]{1L, Long.MAX_VALUE})));
+        assertThat(restoredData.getStringArray("strings"), is(new String[]{"a", null, "c"}));
+        assertThat(restoredData.getDouble("double", 0.0), is(0.5));
+        assertThat(restoredData.getInt("double", 7), is(7));
+        assertThat(restoredData.hasKeyWithValueOfType(KEY2, Long[].class), is(true));
+        assertThat(restoredData.mValues, is(nullValue()));
+        assertThat(restoredData, is(data));
+    }
+
+    @Test
+    public void testSerializeBoxedArrayWithNullElement() {
+        Data data = new Data.Builder()
+                .put(KEY1, new Integer[]{1, null, 3})
+                .build();
+
+        Data restoredData = Data.fromByteArray(data.toByteArray());
+
+        assertThat(restoredData, is(data));
+    }
+
+    @Test
+    public void testDeserializeTruncated() {
+        byte[] byteArray = createData().toByteArray();
+        Data restoredData = Data.fromByteArray(Arrays.copyOf(byteArray, byteArray.length - 1));
+        assertThat(restoredData.size() < createData().size(), is(true));
+    }
+
     @Test
     public void testToString() {
         Data data = createData();
@@ -230,6 +311,20 @@ public class DataTest {
         assertThat(caughtIllegalArgumentException, is(true));
     }
 
+    @NonNull
+    private static byte[] writeLegacyFormat(@NonNull Map<String, Object> values)
+            throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        ObjectOutputStream objectOutputStream = new ObjectOutputStream(outputStream);
+        objectOutputStream.writeInt(values.size());
+        for (Map.Entry<String, Object> entry : values.entrySet()) {
+            objectOutputStream.writeUTF(entry.getKey());
+            objectOutputStream.writeObject(entry.getValue());
+        }
+        objectOutputStream.close();
+        return outputStream.toByteArray();
+    }
+
     @NonNull
     private Data createData() {
         Map<String, Object> map = new HashMap<>();